@@ -0,0 +1,61 @@
+package com.mycompany.myapp.config;
+
+import java.time.Duration;
+
+/**
+ * Properties of the cache invalidation bus, see {@link com.mycompany.myapp.service.CacheInvalidationBus}.
+ * <p>
+ * Properties are configured under {@code application.cache-invalidation} in the {@code application.yml} file of every service.
+ */
+public class CacheInvalidationProperties {
+
+    private boolean enabled = true;
+
+    private String transport = "database";
+
+    private Duration pollInterval = Duration.ofSeconds(1);
+
+    private Duration overlap = Duration.ofSeconds(5);
+
+    private Duration retention = Duration.ofMinutes(10);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getTransport() {
+        return transport;
+    }
+
+    public void setTransport(String transport) {
+        this.transport = transport;
+    }
+
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    public void setPollInterval(Duration pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    public Duration getOverlap() {
+        return overlap;
+    }
+
+    public void setOverlap(Duration overlap) {
+        this.overlap = overlap;
+    }
+
+    public Duration getRetention() {
+        return retention;
+    }
+
+    public void setRetention(Duration retention) {
+        this.retention = retention;
+    }
+}
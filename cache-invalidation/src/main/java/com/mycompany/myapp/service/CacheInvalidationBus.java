@@ -0,0 +1,265 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.CacheInvalidationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Broadcasts the changes of the entities to the listeners of every instance of the service, so that they invalidate their caches.
+ * <p>
+ * A published event is delivered to the listeners of the publishing instance once the transaction of the change commits, so that
+ * they don't cache the previous value again meanwhile, and sent to the other instances by the {@link CacheInvalidationTransport},
+ * within that transaction. The events of the versioned entities are delivered once per version of their entity, the older
+ * versions being skipped, and the delay between their publication and their reception is measured by the
+ * {@code cache.invalidation.lag} timer.
+ * <p>
+ * The caches may only rely on the invalidations while the bus is connected: when the transport is down, or disabled, the changes of
+ * the other instances are missed, and the cached values must expire with their time-to-live.
+ */
+@Service
+public class CacheInvalidationBus {
+
+    private final Logger log = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    private static final Duration FIRST_RETRY_BACKOFF = Duration.ofMillis(100);
+
+    private static final int RECEIVED_VERSIONS_SIZE = 10000;
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final CacheInvalidationTransport transport;
+
+    private final CacheInvalidationProperties properties;
+
+    private final Map<String, List<Consumer<CacheInvalidationEvent>>> listeners = new ConcurrentHashMap<>();
+
+    // the latest version received of the recently changed entities, by type and id
+    private final Map<String, Long> receivedVersions = Collections.synchronizedMap(
+        new LinkedHashMap<>(RECEIVED_VERSIONS_SIZE, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > RECEIVED_VERSIONS_SIZE;
+            }
+        }
+    );
+
+    private final Counter published;
+
+    private final Counter received;
+
+    private final Counter failed;
+
+    private final Timer lag;
+
+    private Disposable subscription;
+
+    @Autowired
+    public CacheInvalidationBus(
+        ObjectProvider<CacheInvalidationTransport> transport,
+        CacheInvalidationProperties properties,
+        MeterRegistry meterRegistry
+    ) {
+        this(transport.getIfAvailable(), properties, meterRegistry);
+    }
+
+    public CacheInvalidationBus(CacheInvalidationTransport transport, CacheInvalidationProperties properties, MeterRegistry meterRegistry) {
+        this.transport = transport;
+        this.properties = properties;
+        this.published = eventsCounter(meterRegistry, "published");
+        this.received = eventsCounter(meterRegistry, "received");
+        this.failed = eventsCounter(meterRegistry, "failed");
+        this.lag =
+            Timer
+                .builder("cache.invalidation.lag")
+                .description("The delay between the publication of the cache invalidation events and their reception by this instance")
+                .register(meterRegistry);
+        meterRegistry.gauge("cache.invalidation.connected", this, bus -> bus.isConnected() ? 1 : 0);
+    }
+
+    private static Counter eventsCounter(MeterRegistry meterRegistry, String result) {
+        return Counter
+            .builder("cache.invalidation.events")
+            .description("Number of cache invalidation events, by result")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled() || transport == null) {
+            log.info("Cache invalidation bus is disabled, the caches expire with their time-to-live");
+            return;
+        }
+        subscription =
+            transport
+                .receive()
+                .doOnError(e -> log.warn("Cache invalidation bus failed, it will be retried: {}", e.getMessage()))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, FIRST_RETRY_BACKOFF).maxBackoff(properties.getPollInterval()))
+                .subscribe(this::receive);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    /**
+     * Listen to the changes of the entities of the given type, on every instance.
+     * @param entityType the class of the entities.
+     * @param listener invalidates the cached values of the changed entity.
+     */
+    public void subscribe(Class<?> entityType, Consumer<CacheInvalidationEvent> listener) {
+        listeners.computeIfAbsent(entityType.getSimpleName(), type -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    /**
+     * Publish the change of an entity which isn't versioned, see {@link #publish(Class, Map)}.
+     * @param entityType the class of the entity.
+     * @param entityId the id of the entity, or the key its values are cached with.
+     * @return a completed {@link Mono}, once the event is sent to the other instances.
+     */
+    public Mono<Void> publish(Class<?> entityType, Object entityId) {
+        return publish(entityType, List.of(entityId));
+    }
+
+    /**
+     * Publish the changes of entities which aren't versioned, see {@link #publish(Class, Map)}.
+     * @param entityType the class of the entities.
+     * @param entityIds the ids of the entities, or the keys their values are cached with.
+     * @return a completed {@link Mono}, once the events are sent to the other instances.
+     */
+    public Mono<Void> publish(Class<?> entityType, Collection<?> entityIds) {
+        Map<Object, Long> versions = new LinkedHashMap<>();
+        entityIds.forEach(entityId -> versions.put(entityId, null));
+        return publish(entityType, versions);
+    }
+
+    /**
+     * Publish the changes of entities: their events are delivered to the listeners of this instance after the current transaction
+     * commits, or right away without a transaction, and sent to the other ones. A failure to send them is only logged, as the other
+     * instances expire their cached values anyway.
+     * @param entityType the class of the entities.
+     * @param versions the {@code @Version} of the entities by their ids, {@code null} for the deleted ones.
+     * @return a completed {@link Mono}, once the events are sent to the other instances.
+     */
+    public Mono<Void> publish(Class<?> entityType, Map<?, Long> versions) {
+        return Mono.defer(() -> {
+            long publishedAt = System.currentTimeMillis();
+            List<CacheInvalidationEvent> events = new ArrayList<>(versions.size());
+            versions.forEach((entityId, version) ->
+                events.add(
+                    new CacheInvalidationEvent(entityType.getSimpleName(), String.valueOf(entityId), version, instanceId, publishedAt)
+                )
+            );
+            published.increment(events.size());
+            Mono<Void> delivered = deliverAfterCommit(events);
+            if (!properties.isEnabled() || transport == null || events.isEmpty()) {
+                return delivered;
+            }
+            return delivered
+                .then(transport.send(events))
+                .onErrorResume(e -> {
+                    log.warn("Could not send {} cache invalidation events, the other instances will expire them", events.size(), e);
+                    failed.increment(events.size());
+                    return Mono.empty();
+                });
+        });
+    }
+
+    private Mono<Void> deliverAfterCommit(List<CacheInvalidationEvent> events) {
+        return TransactionSynchronizationManager
+            .forCurrentTransaction()
+            .flatMap(synchronizationManager -> {
+                if (!synchronizationManager.isSynchronizationActive()) {
+                    return Mono.<Void>fromRunnable(() -> events.forEach(this::deliver));
+                }
+                synchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public Mono<Void> afterCommit() {
+                            return Mono.fromRunnable(() -> events.forEach(CacheInvalidationBus.this::deliver));
+                        }
+                    }
+                );
+                return Mono.<Void>empty();
+            })
+            .onErrorResume(NoTransactionException.class, e -> Mono.fromRunnable(() -> events.forEach(this::deliver)));
+    }
+
+    private void receive(CacheInvalidationEvent event) {
+        // the events of this instance are delivered by publish(...)
+        if (instanceId.equals(event.getInstanceId()) || !isNewVersion(event)) {
+            return;
+        }
+        lag.record(Math.max(0, System.currentTimeMillis() - event.getPublishedAt()), TimeUnit.MILLISECONDS);
+        received.increment();
+        deliver(event);
+    }
+
+    // the events of the deleted or unversioned entities are always delivered
+    private boolean isNewVersion(CacheInvalidationEvent event) {
+        if (event.getVersion() == null) {
+            return true;
+        }
+        String key = event.getEntityType() + ":" + event.getEntityId();
+        Long latest = receivedVersions.get(key);
+        if (latest != null && latest >= event.getVersion()) {
+            return false;
+        }
+        receivedVersions.put(key, event.getVersion());
+        return true;
+    }
+
+    private void deliver(CacheInvalidationEvent event) {
+        for (Consumer<CacheInvalidationEvent> listener : listeners.getOrDefault(event.getEntityType(), List.of())) {
+            try {
+                listener.accept(event);
+            } catch (RuntimeException e) {
+                log.error("Cache invalidation listener failed for {}", event, e);
+            }
+        }
+    }
+
+    /**
+     * @return whether the events of the other instances are currently received, so that the caches can rely on their invalidation.
+     */
+    public boolean isConnected() {
+        return subscription != null && !subscription.isDisposed() && transport.isConnected();
+    }
+
+    /**
+     * @return the id of this instance, in the events it publishes.
+     */
+    public String getInstanceId() {
+        return instanceId;
+    }
+}
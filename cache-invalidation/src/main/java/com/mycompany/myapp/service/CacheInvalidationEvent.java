@@ -0,0 +1,73 @@
+package com.mycompany.myapp.service;
+
+/**
+ * The change of an entity, which invalidates its cached values on every instance of the service, see {@link CacheInvalidationBus}.
+ */
+public final class CacheInvalidationEvent {
+
+    private final String entityType;
+
+    private final String entityId;
+
+    private final Long version;
+
+    private final String instanceId;
+
+    private final long publishedAt;
+
+    /**
+     * @param entityType the simple name of the class of the changed entity.
+     * @param entityId the id of the changed entity, or the key its values are cached with.
+     * @param version the {@code @Version} of the changed entity, or {@code null} when it isn't versioned, or was deleted.
+     * @param instanceId the id of the instance which published the event.
+     * @param publishedAt the epoch milliseconds of the publication.
+     */
+    public CacheInvalidationEvent(String entityType, String entityId, Long version, String instanceId, long publishedAt) {
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.version = version;
+        this.instanceId = instanceId;
+        this.publishedAt = publishedAt;
+    }
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public String getEntityId() {
+        return entityId;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public long getPublishedAt() {
+        return publishedAt;
+    }
+
+    @Override
+    public String toString() {
+        return (
+            "CacheInvalidationEvent{" +
+            "entityType='" +
+            entityType +
+            "'" +
+            ", entityId='" +
+            entityId +
+            "'" +
+            ", version=" +
+            version +
+            ", instanceId='" +
+            instanceId +
+            "'" +
+            ", publishedAt=" +
+            publishedAt +
+            "}"
+        );
+    }
+}
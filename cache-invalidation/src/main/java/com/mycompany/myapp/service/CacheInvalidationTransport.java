@@ -0,0 +1,31 @@
+package com.mycompany.myapp.service;
+
+import java.util.List;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Carries the {@link CacheInvalidationEvent}s between the instances of the service, for the {@link CacheInvalidationBus}.
+ * <p>
+ * The transport is selected with {@code application.cache-invalidation.transport}.
+ */
+public interface CacheInvalidationTransport {
+    /**
+     * Send the events to every instance, the sending one included.
+     * @param events the events.
+     * @return a completed {@link Mono}, once the events are sent.
+     */
+    Mono<Void> send(List<CacheInvalidationEvent> events);
+
+    /**
+     * Receive the events sent by every instance from now on. An event may be received more than once, and the events of different
+     * instances in any order.
+     * @return the events, until the subscription is cancelled.
+     */
+    Flux<CacheInvalidationEvent> receive();
+
+    /**
+     * @return whether the events are currently received, so that the caches can rely on their invalidation.
+     */
+    boolean isConnected();
+}
@@ -0,0 +1,164 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.CacheInvalidationProperties;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * A {@link CacheInvalidationTransport} through the {@code cache_invalidation} table of the shared database, which every instance
+ * polls.
+ * <p>
+ * Every poll reads the events after the last one read, by the auto-increment id of the table rather than by their publication time,
+ * which depends on the clock of every instance. The ids skipped by a poll belong to transactions which weren't committed yet, or
+ * were rolled back: they are read again by the next polls, during the overlap. The events older than the retention are deleted.
+ * The transport is connected while its polls succeed.
+ */
+@Component
+@ConditionalOnProperty(name = "application.cache-invalidation.transport", havingValue = "database", matchIfMissing = true)
+public class DatabaseCacheInvalidationTransport implements CacheInvalidationTransport {
+
+    private static final String INSERT =
+        "INSERT INTO cache_invalidation (entity_type, entity_id, version, instance_id, published_at) VALUES ";
+
+    private static final String INSERT_ROW = "(:entityType%1$d, :entityId%1$d, :version%1$d, :instanceId%1$d, :publishedAt%1$d)";
+
+    private static final String SELECT =
+        "SELECT id, entity_type, entity_id, version, instance_id, published_at FROM cache_invalidation WHERE id > :after ORDER BY id";
+
+    private static final String SELECT_LAST_ID = "SELECT COALESCE(MAX(id), 0) AS id FROM cache_invalidation";
+
+    private static final String DELETE = "DELETE FROM cache_invalidation WHERE published_at < :before";
+
+    // the skipped ids read again at most, the oldest ones being given up
+    private static final int MAX_SKIPPED_IDS = 1000;
+
+    private final DatabaseClient db;
+
+    private final CacheInvalidationProperties properties;
+
+    // the epoch milliseconds of the last successful poll, and of the last deletion of the old events
+    private final AtomicLong lastPoll = new AtomicLong();
+
+    private final AtomicLong lastDeletion = new AtomicLong();
+
+    public DatabaseCacheInvalidationTransport(DatabaseClient db, CacheInvalidationProperties properties) {
+        this.db = db;
+        this.properties = properties;
+    }
+
+    @Override
+    public Mono<Void> send(List<CacheInvalidationEvent> events) {
+        if (events.isEmpty()) {
+            return Mono.empty();
+        }
+        // the values are bound by row, as the versions may be null
+        String rows = IntStream.range(0, events.size()).mapToObj(i -> String.format(INSERT_ROW, i)).collect(Collectors.joining(", "));
+        DatabaseClient.GenericExecuteSpec insert = db.sql(INSERT + rows);
+        for (int i = 0; i < events.size(); i++) {
+            CacheInvalidationEvent event = events.get(i);
+            insert =
+                insert
+                    .bind("entityType" + i, event.getEntityType())
+                    .bind("entityId" + i, event.getEntityId())
+                    .bind("instanceId" + i, event.getInstanceId())
+                    .bind("publishedAt" + i, event.getPublishedAt());
+            insert =
+                event.getVersion() == null ? insert.bindNull("version" + i, Long.class) : insert.bind("version" + i, event.getVersion());
+        }
+        return insert.then();
+    }
+
+    @Override
+    public Flux<CacheInvalidationEvent> receive() {
+        return Flux.defer(() -> {
+            Cursor cursor = new Cursor();
+            // the events sent before the subscription are skipped
+            return db
+                .sql(SELECT_LAST_ID)
+                .map(row -> row.get("id", Long.class))
+                .one()
+                .doOnNext(lastId -> cursor.lastId = lastId)
+                .thenMany(
+                    Flux
+                        .interval(properties.getPollInterval())
+                        .onBackpressureDrop()
+                        .concatMap(tick -> poll(cursor).concatWith(deleteOldEvents()), 1)
+                );
+        });
+    }
+
+    private Flux<CacheInvalidationEvent> poll(Cursor cursor) {
+        long now = System.currentTimeMillis();
+        long overlap = properties.getOverlap().toMillis();
+        cursor.skippedIds.values().removeIf(skippedAt -> now - skippedAt > overlap);
+        return db
+            .sql(SELECT)
+            .bind("after", cursor.skippedIds.isEmpty() ? cursor.lastId : cursor.skippedIds.firstKey() - 1)
+            .map(row ->
+                Map.entry(
+                    row.get("id", Long.class),
+                    new CacheInvalidationEvent(
+                        row.get("entity_type", String.class),
+                        row.get("entity_id", String.class),
+                        row.get("version", Long.class),
+                        row.get("instance_id", String.class),
+                        row.get("published_at", Long.class)
+                    )
+                )
+            )
+            .all()
+            .filter(entry -> cursor.read(entry.getKey(), now))
+            .map(Map.Entry::getValue)
+            .doOnComplete(() -> lastPoll.set(System.currentTimeMillis()));
+    }
+
+    private Mono<CacheInvalidationEvent> deleteOldEvents() {
+        long now = System.currentTimeMillis();
+        long retention = properties.getRetention().toMillis();
+        if (now - lastDeletion.get() < retention) {
+            return Mono.empty();
+        }
+        lastDeletion.set(now);
+        return db.sql(DELETE).bind("before", now - retention).fetch().rowsUpdated().then(Mono.empty());
+    }
+
+    @Override
+    public boolean isConnected() {
+        return System.currentTimeMillis() - lastPoll.get() < 3 * properties.getPollInterval().toMillis();
+    }
+
+    /**
+     * The position of the polls of a subscription: the last id read, and the ids skipped before it, with the time they were skipped.
+     */
+    private static final class Cursor {
+
+        private long lastId;
+
+        private final NavigableMap<Long, Long> skippedIds = new TreeMap<>();
+
+        // whether the event of the id wasn't read yet, the ids skipped before it being recorded
+        boolean read(long id, long now) {
+            if (id <= lastId) {
+                return skippedIds.remove(id) != null;
+            }
+            for (long skippedId = Math.max(lastId + 1, id - MAX_SKIPPED_IDS); skippedId < id; skippedId++) {
+                skippedIds.put(skippedId, now);
+            }
+            while (skippedIds.size() > MAX_SKIPPED_IDS) {
+                skippedIds.pollFirstEntry();
+            }
+            lastId = id;
+            return true;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.mycompany.myapp.config;
 
+import java.time.Duration;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -9,4 +10,89 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  * See {@link tech.jhipster.config.JHipsterProperties} for a good example.
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
-public class ApplicationProperties {}
+public class ApplicationProperties {
+
+    private final UserSync userSync = new UserSync();
+
+    private final Cache cache = new Cache();
+
+    private final CacheInvalidationProperties cacheInvalidation = new CacheInvalidationProperties();
+
+    public UserSync getUserSync() {
+        return userSync;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public CacheInvalidationProperties getCacheInvalidation() {
+        return cacheInvalidation;
+    }
+
+    public static class UserSync {
+
+        private Duration timeToLive = Duration.ofMinutes(10);
+
+        private int cacheSize = 10000;
+
+        private boolean persistFingerprint = true;
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+
+        public int getCacheSize() {
+            return cacheSize;
+        }
+
+        public void setCacheSize(int cacheSize) {
+            this.cacheSize = cacheSize;
+        }
+
+        public boolean isPersistFingerprint() {
+            return persistFingerprint;
+        }
+
+        public void setPersistFingerprint(boolean persistFingerprint) {
+            this.persistFingerprint = persistFingerprint;
+        }
+    }
+
+    public static class Cache {
+
+        private Duration timeToLive = Duration.ofMinutes(5);
+
+        private Duration invalidatedTimeToLive = Duration.ofHours(1);
+
+        private int maximumSize = 1000;
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+
+        public Duration getInvalidatedTimeToLive() {
+            return invalidatedTimeToLive;
+        }
+
+        public void setInvalidatedTimeToLive(Duration invalidatedTimeToLive) {
+            this.invalidatedTimeToLive = invalidatedTimeToLive;
+        }
+
+        public int getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(int maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.mycompany.myapp.config;
 
+import com.mycompany.myapp.service.CacheInvalidationBus;
+import com.mycompany.myapp.service.ReactiveCacheManager;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cloud.client.ServiceInstance;
 import org.springframework.cloud.client.discovery.DiscoveryClient;
@@ -8,4 +11,25 @@ import org.springframework.context.annotation.*;
 
 @Configuration
 @EnableCaching
-public class CacheConfiguration {}
+public class CacheConfiguration {
+
+    /**
+     * The caches of the reactive read paths, which {@code @Cacheable} doesn't support.
+     */
+    @Bean
+    public ReactiveCacheManager reactiveCacheManager(
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry,
+        CacheInvalidationBus cacheInvalidationBus
+    ) {
+        return new ReactiveCacheManager(applicationProperties.getCache(), meterRegistry, cacheInvalidationBus);
+    }
+
+    /**
+     * The properties of the {@link CacheInvalidationBus}, which is shared with the other services.
+     */
+    @Bean
+    public CacheInvalidationProperties cacheInvalidationProperties(ApplicationProperties applicationProperties) {
+        return applicationProperties.getCacheInvalidation();
+    }
+}
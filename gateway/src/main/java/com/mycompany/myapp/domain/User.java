@@ -62,6 +62,12 @@ public class User extends AbstractAuditingEntity implements Serializable {
     @Transient
     private Set<Authority> authorities = new HashSet<>();
 
+    // the fingerprint of the claims of the identity provider which were last synchronized, see UserSyncCache
+    @JsonIgnore
+    @Column("idp_fingerprint")
+    @org.springframework.data.elasticsearch.annotations.Field(type = FieldType.Keyword, index = false)
+    private String idpFingerprint;
+
     public String getId() {
         return id;
     }
@@ -135,6 +141,14 @@ public class User extends AbstractAuditingEntity implements Serializable {
         this.authorities = authorities;
     }
 
+    public String getIdpFingerprint() {
+        return idpFingerprint;
+    }
+
+    public void setIdpFingerprint(String idpFingerprint) {
+        this.idpFingerprint = idpFingerprint;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
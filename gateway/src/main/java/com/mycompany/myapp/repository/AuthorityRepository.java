@@ -6,4 +6,6 @@ import org.springframework.data.r2dbc.repository.R2dbcRepository;
 /**
  * Spring Data R2DBC repository for the {@link Authority} entity.
  */
-public interface AuthorityRepository extends R2dbcRepository<Authority, String> {}
+public interface AuthorityRepository extends R2dbcRepository<Authority, String> {
+    String AUTHORITIES_CACHE = "authorities";
+}
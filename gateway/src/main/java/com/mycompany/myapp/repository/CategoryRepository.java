@@ -15,6 +15,8 @@ import reactor.core.publisher.Mono;
 @SuppressWarnings("unused")
 @Repository
 public interface CategoryRepository extends R2dbcRepository<Category, Long>, CategoryRepositoryInternal {
+    String CATEGORIES_BY_ID_CACHE = "categoriesById";
+
     // just to avoid having unambigous methods
     @Override
     Flux<Category> findAll();
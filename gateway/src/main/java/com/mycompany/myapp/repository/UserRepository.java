@@ -5,11 +5,15 @@ import static org.springframework.data.relational.core.query.Query.query;
 
 import com.mycompany.myapp.domain.Authority;
 import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.service.EntityManager;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
-import org.apache.commons.beanutils.BeanComparator;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.r2dbc.convert.R2dbcConverter;
@@ -17,8 +21,12 @@ import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
 import org.springframework.data.relational.core.sql.Column;
-import org.springframework.data.relational.core.sql.Expression;
+import org.springframework.data.relational.core.sql.OrderByField;
+import org.springframework.data.relational.core.sql.SQL;
+import org.springframework.data.relational.core.sql.Select;
+import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoin;
 import org.springframework.data.relational.core.sql.Table;
+import org.springframework.data.relational.core.sql.render.SqlRenderer;
 import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
@@ -31,6 +39,8 @@ import reactor.util.function.Tuples;
  */
 @Repository
 public interface UserRepository extends R2dbcRepository<User, String>, UserRepositoryInternal {
+    String USERS_BY_LOGIN_CACHE = "usersByLogin";
+
     Mono<User> findOneByLogin(String login);
 
     Flux<User> findAllByIdNotNull(Pageable pageable);
@@ -55,18 +65,50 @@ interface UserRepositoryInternal {
     Mono<User> create(User user);
 
     Flux<User> findAllWithAuthorities(Pageable pageable);
+
+    Mono<Integer> updateUserAuthorities(String userId, Collection<String> authorities);
 }
 
 class UserRepositoryInternalImpl implements UserRepositoryInternal {
 
+    private static final EntityManager.LinkTable authorityLink = new EntityManager.LinkTable(
+        "jhi_user_authority",
+        "user_id",
+        "authority_name"
+    );
+
+    private static final Table entityTable = Table.create("jhi_user");
+    private static final Table authorityTable = Table.create("jhi_user_authority");
+
     private final DatabaseClient db;
     private final R2dbcEntityTemplate r2dbcEntityTemplate;
     private final R2dbcConverter r2dbcConverter;
-
-    public UserRepositoryInternalImpl(DatabaseClient db, R2dbcEntityTemplate r2dbcEntityTemplate, R2dbcConverter r2dbcConverter) {
+    private final EntityManager entityManager;
+    private final SqlRenderer sqlRenderer;
+
+    private final String selectAuthoritiesByUserIds;
+
+    public UserRepositoryInternalImpl(
+        DatabaseClient db,
+        R2dbcEntityTemplate r2dbcEntityTemplate,
+        R2dbcConverter r2dbcConverter,
+        EntityManager entityManager,
+        SqlRenderer sqlRenderer
+    ) {
         this.db = db;
         this.r2dbcEntityTemplate = r2dbcEntityTemplate;
         this.r2dbcConverter = r2dbcConverter;
+        this.entityManager = entityManager;
+        this.sqlRenderer = sqlRenderer;
+        this.selectAuthoritiesByUserIds =
+            sqlRenderer.render(
+                Select
+                    .builder()
+                    .select(Column.create("user_id", authorityTable), Column.create("authority_name", authorityTable))
+                    .from(authorityTable)
+                    .where(Column.create("user_id", authorityTable).in(SQL.bindMarker(":userIds")))
+                    .build()
+            );
     }
 
     @Override
@@ -76,28 +118,50 @@ class UserRepositoryInternalImpl implements UserRepositoryInternal {
 
     @Override
     public Flux<User> findAllWithAuthorities(Pageable pageable) {
-        String property = pageable.getSort().stream().map(Sort.Order::getProperty).findFirst().orElse("id");
-        String direction = String.valueOf(
-            pageable.getSort().stream().map(Sort.Order::getDirection).findFirst().orElse(Sort.DEFAULT_DIRECTION)
-        );
-        long page = pageable.getPageNumber();
-        long size = pageable.getPageSize();
+        // the page of users is read first, then the authorities of its users only
+        return db
+            .sql(createSelectPage(pageable))
+            .map((row, metadata) -> r2dbcConverter.read(User.class, row, metadata))
+            .all()
+            .collectList()
+            .flatMapMany(users -> users.isEmpty() ? Flux.empty() : findAuthorities(users).thenMany(Flux.fromIterable(users)));
+    }
 
+    // the users of the page, sorted by the given fields then by id, so that the users with the same values are in a stable order
+    private String createSelectPage(Pageable pageable) {
+        List<OrderByField> orderBy = new ArrayList<>();
+        boolean sortedById = false;
+        for (Sort.Order order : pageable.getSort()) {
+            orderBy.add(OrderByField.from(UserSqlHelper.getSortableColumn(entityTable, order.getProperty()), order.getDirection()));
+            sortedById |= order.getProperty().equals("id");
+        }
+        if (!sortedById) {
+            orderBy.add(OrderByField.from(Column.create("id", entityTable), Sort.Direction.ASC));
+        }
+        SelectFromAndJoin selectFrom = Select.builder().select(entityTable.asterisk()).from(entityTable);
+        if (pageable.isPaged()) {
+            selectFrom = selectFrom.limitOffset(pageable.getPageSize(), pageable.getOffset());
+        }
+        return sqlRenderer.render(selectFrom.orderBy(orderBy).build());
+    }
+
+    private Mono<Void> findAuthorities(List<User> users) {
+        Map<String, User> usersById = new HashMap<>();
+        for (User user : users) {
+            user.setAuthorities(new HashSet<>());
+            usersById.put(user.getId(), user);
+        }
         return db
-            .sql("SELECT * FROM jhi_user u LEFT JOIN jhi_user_authority ua ON u.id=ua.user_id")
-            .map((row, metadata) ->
-                Tuples.of(r2dbcConverter.read(User.class, row, metadata), Optional.ofNullable(row.get("authority_name", String.class)))
-            )
+            .sql(selectAuthoritiesByUserIds)
+            .bind("userIds", usersById.keySet())
+            .map(row -> Tuples.of(row.get("user_id", String.class), row.get("authority_name", String.class)))
             .all()
-            .groupBy(t -> t.getT1().getLogin())
-            .flatMap(l -> l.collectList().map(t -> updateUserWithAuthorities(t.get(0).getT1(), t)))
-            .sort(
-                Sort.Direction.fromString(direction) == Sort.DEFAULT_DIRECTION
-                    ? new BeanComparator<>(property)
-                    : new BeanComparator<>(property).reversed()
-            )
-            .skip(page * size)
-            .take(size);
+            .doOnNext(userAuthority -> {
+                Authority authority = new Authority();
+                authority.setName(userAuthority.getT2());
+                usersById.get(userAuthority.getT1()).getAuthorities().add(authority);
+            })
+            .then();
     }
 
     @Override
@@ -105,6 +169,12 @@ class UserRepositoryInternalImpl implements UserRepositoryInternal {
         return r2dbcEntityTemplate.insert(User.class).using(user).defaultIfEmpty(user);
     }
 
+    @Override
+    public Mono<Integer> updateUserAuthorities(String userId, Collection<String> authorities) {
+        // only the added and the removed authorities are written
+        return entityManager.updateLinkTable(authorityLink, userId, authorities);
+    }
+
     private Mono<User> findOneWithAuthoritiesBy(String fieldName, Object fieldValue) {
         return db
             .sql("SELECT * FROM jhi_user u LEFT JOIN jhi_user_authority ua ON u.id=ua.user_id WHERE u." + fieldName + " = :" + fieldName)
@@ -1,13 +1,34 @@
 package com.mycompany.myapp.repository;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import org.springframework.data.relational.core.sql.Column;
 import org.springframework.data.relational.core.sql.Expression;
 import org.springframework.data.relational.core.sql.Table;
 
 public class UserSqlHelper {
 
+    // the column of every field which the users can be sorted by, by field name
+    private static final Map<String, String> SORTABLE_COLUMNS = new LinkedHashMap<>();
+
+    static {
+        SORTABLE_COLUMNS.put("id", "id");
+        SORTABLE_COLUMNS.put("login", "login");
+        SORTABLE_COLUMNS.put("firstName", "first_name");
+        SORTABLE_COLUMNS.put("lastName", "last_name");
+        SORTABLE_COLUMNS.put("email", "email");
+        SORTABLE_COLUMNS.put("activated", "activated");
+        SORTABLE_COLUMNS.put("langKey", "lang_key");
+        SORTABLE_COLUMNS.put("createdBy", "created_by");
+        SORTABLE_COLUMNS.put("createdDate", "created_date");
+        SORTABLE_COLUMNS.put("lastModifiedBy", "last_modified_by");
+        SORTABLE_COLUMNS.put("lastModifiedDate", "last_modified_date");
+    }
+
     public static List<Expression> getColumns(Table table, String columnPrefix) {
         List<Expression> columns = new ArrayList<>();
         columns.add(Column.aliased("id", table, columnPrefix + "_id"));
@@ -20,4 +41,26 @@ public class UserSqlHelper {
         columns.add(Column.aliased("image_url", table, columnPrefix + "_image_url"));
         return columns;
     }
+
+    /**
+     * @return the names of the fields which the users can be sorted by.
+     */
+    public static Set<String> getSortableFields() {
+        return Collections.unmodifiableSet(SORTABLE_COLUMNS.keySet());
+    }
+
+    /**
+     * The column of the given sortable field.
+     * @param table the table of the column.
+     * @param field the name of the field, see {@link #getSortableFields()}.
+     * @return the column.
+     * @throws IllegalArgumentException if the users can't be sorted by the field.
+     */
+    public static Column getSortableColumn(Table table, String field) {
+        String column = SORTABLE_COLUMNS.get(field);
+        if (column == null) {
+            throw new IllegalArgumentException("The users can't be sorted by " + field);
+        }
+        return Column.create(column, table);
+    }
 }
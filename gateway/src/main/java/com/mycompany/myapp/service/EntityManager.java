@@ -2,9 +2,12 @@ package com.mycompany.myapp.service;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -185,30 +188,77 @@ public class EntityManager {
     }
 
     /**
-     * Updates the table, which links the entity with the referred entities.
+     * Updates the table, which links the entity with the referred entities, see {@link #updateLinkTable(LinkTable, Object, Collection)}.
      * @param table describes the link table, it contains a table name, the column name for the id, and for the referred entity id.
      * @param entityId the id of the entity, for which the links are created.
      * @param referencedIds the id of the referred entities.
-     * @return the number of inserted rows.
+     * @return the number of inserted and deleted rows.
      */
     public Mono<Integer> updateLinkTable(LinkTable table, Long entityId, Stream<Long> referencedIds) {
-        return deleteFromLinkTable(table, entityId)
-            .then(
-                Flux
-                    .fromStream(referencedIds)
-                    .flatMap((Long referenceId) -> {
-                        StatementMapper.InsertSpec insert = r2dbcEntityTemplate
-                            .getDataAccessStrategy()
-                            .getStatementMapper()
-                            .createInsert(table.tableName)
-                            .withColumn(table.idColumn, Parameter.from(entityId))
-                            .withColumn(table.referenceColumn, Parameter.from(referenceId));
-
-                        return r2dbcEntityTemplate.getDatabaseClient().sql(statementMapper.getMappedObject(insert)).fetch().rowsUpdated();
-                    })
-                    .collectList()
-                    .map((List<Integer> updates) -> updates.stream().reduce(Integer::sum).orElse(0))
-            );
+        return updateLinkTable(table, entityId, referencedIds.collect(Collectors.toList()));
+    }
+
+    /**
+     * Updates the table, which links the entity with the referred entities, with the difference between the given and the stored
+     * links: the stored links are selected, then the removed ones are deleted with a single statement, and the added ones are inserted
+     * with a single multi-row statement.
+     * @param table describes the link table, it contains a table name, the column name for the id, and for the referred entity id.
+     * @param entityId the id of the entity, for which the links are created.
+     * @param referencedIds the id of the referred entities, of the Java type of their column.
+     * @return the number of inserted and deleted rows.
+     */
+    public Mono<Integer> updateLinkTable(LinkTable table, Object entityId, Collection<?> referencedIds) {
+        Assert.notNull(entityId, "entityId is null");
+        Set<Object> links = new LinkedHashSet<>(referencedIds);
+        String select = "SELECT " + table.referenceColumn + " FROM " + table.tableName + " WHERE " + table.idColumn + " = :entityId";
+        return r2dbcEntityTemplate
+            .getDatabaseClient()
+            .sql(select)
+            .bind("entityId", entityId)
+            .map(row -> row.get(0))
+            .all()
+            .collect(Collectors.toSet())
+            .flatMap(storedLinks -> {
+                List<Object> removedLinks = storedLinks.stream().filter(link -> !links.contains(link)).collect(Collectors.toList());
+                List<Object[]> addedLinks = links
+                    .stream()
+                    .filter(link -> !storedLinks.contains(link))
+                    .map(link -> new Object[] { entityId, link })
+                    .collect(Collectors.toList());
+                // the statements share the connection of the transaction, so they run one after the other
+                return deleteLinks(table, entityId, removedLinks)
+                    .flatMap(deleted -> insertLinks(table, addedLinks).map(inserted -> deleted + inserted));
+            });
+    }
+
+    private Mono<Integer> deleteLinks(LinkTable table, Object entityId, List<Object> referencedIds) {
+        if (referencedIds.isEmpty()) {
+            return Mono.just(0);
+        }
+        String delete =
+            "DELETE FROM " +
+            table.tableName +
+            " WHERE " +
+            table.idColumn +
+            " = :entityId AND " +
+            table.referenceColumn +
+            " IN (:referencedIds)";
+        return r2dbcEntityTemplate
+            .getDatabaseClient()
+            .sql(delete)
+            .bind("entityId", entityId)
+            .bind("referencedIds", referencedIds)
+            .fetch()
+            .rowsUpdated();
+    }
+
+    // the rows are expanded by the database client, as a list of values per row
+    private Mono<Integer> insertLinks(LinkTable table, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return Mono.just(0);
+        }
+        String insert = "INSERT INTO " + table.tableName + " (" + table.idColumn + ", " + table.referenceColumn + ") VALUES :rows";
+        return r2dbcEntityTemplate.getDatabaseClient().sql(insert).bind("rows", rows).fetch().rowsUpdated();
     }
 
     public Mono<Void> deleteFromLinkTable(LinkTable table, Long entityId) {
@@ -0,0 +1,210 @@
+package com.mycompany.myapp.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import reactor.core.publisher.Mono;
+
+/**
+ * A local cache of the values loaded by a {@link Mono}, as the {@code @Cacheable} methods of Spring can't return one.
+ * <p>
+ * The values are kept in an LRU map of the maximum size, for the time-to-live since they were loaded, and the concurrent gets of a
+ * missing key share a single load. The write paths evict the values they change: a load which was running during an eviction returns
+ * its value without caching it, as the value may have been read before the write. While the changes of the other instances evict the
+ * values too, see {@link CacheInvalidationBus}, the values are kept for the longer invalidated time-to-live instead.
+ * <p>
+ * The gets, puts, evictions and size are measured with the meters of the caches of Spring, tagged with the name of the cache, and the
+ * loads with the {@code cache.load.duration} timer.
+ *
+ * @param <K> the type of the keys.
+ * @param <V> the type of the values.
+ */
+public class ReactiveCache<K, V> {
+
+    private static final String CACHE_MANAGER = "reactiveCacheManager";
+
+    private final String name;
+
+    private final long timeToLiveNanos;
+
+    private final long invalidatedTimeToLiveNanos;
+
+    private final BooleanSupplier invalidated;
+
+    private final Map<K, CachedValue<V>> values;
+
+    // the running load of every missing key, shared by its gets
+    private final Map<K, Mono<V>> loads = new ConcurrentHashMap<>();
+
+    // incremented by every eviction, so that the loads which were running don't cache their values
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    private final Counter puts;
+
+    private final Counter evictions;
+
+    private final Timer loadSuccesses;
+
+    private final Timer loadFailures;
+
+    public ReactiveCache(String name, int maximumSize, Duration timeToLive, MeterRegistry meterRegistry) {
+        this(name, maximumSize, timeToLive, timeToLive, () -> false, meterRegistry);
+    }
+
+    /**
+     * @param name the name of the cache.
+     * @param maximumSize the maximum number of values.
+     * @param timeToLive how long the values are kept.
+     * @param invalidatedTimeToLive how long the values are kept while they are invalidated by the changes of the other instances.
+     * @param invalidated whether the values are currently invalidated by the changes of the other instances.
+     * @param meterRegistry the registry of the meters of the cache.
+     */
+    public ReactiveCache(
+        String name,
+        int maximumSize,
+        Duration timeToLive,
+        Duration invalidatedTimeToLive,
+        BooleanSupplier invalidated,
+        MeterRegistry meterRegistry
+    ) {
+        this.name = name;
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.invalidatedTimeToLiveNanos = invalidatedTimeToLive.toNanos();
+        this.invalidated = invalidated;
+        Tags tags = Tags.of("cache", name, "cacheManager", CACHE_MANAGER);
+        this.evictions =
+            Counter.builder("cache.evictions").description("The number of times the cache was evicted.").tags(tags).register(meterRegistry);
+        this.values =
+            Collections.synchronizedMap(
+                new LinkedHashMap<>(maximumSize, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<K, CachedValue<V>> eldest) {
+                        if (size() > maximumSize) {
+                            evictions.increment();
+                            return true;
+                        }
+                        return false;
+                    }
+                }
+            );
+        this.hits = getsCounter(meterRegistry, tags, "hit", "The number of times cache lookup methods have returned a cached value.");
+        this.misses = getsCounter(meterRegistry, tags, "miss", "The number of times cache lookup methods have returned an uncached value.");
+        this.puts =
+            Counter.builder("cache.puts").description("The number of entries added to the cache.").tags(tags).register(meterRegistry);
+        this.loadSuccesses = loadTimer(meterRegistry, tags, "success");
+        this.loadFailures = loadTimer(meterRegistry, tags, "failure");
+        meterRegistry.gauge("cache.size", tags, values, Map::size);
+    }
+
+    private static Counter getsCounter(MeterRegistry meterRegistry, Tags tags, String result, String description) {
+        return Counter.builder("cache.gets").description(description).tags(tags).tag("result", result).register(meterRegistry);
+    }
+
+    private static Timer loadTimer(MeterRegistry meterRegistry, Tags tags, String result) {
+        return Timer
+            .builder("cache.load.duration")
+            .description("The time spent loading the values of the cache, by result of the load.")
+            .tags(tags)
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    /**
+     * @return the name of the cache.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the value of the key from the cache, or from the loader if it isn't cached or expired. An empty load isn't cached.
+     * @param key the key of the value.
+     * @param loader loads the value of the key, when it's missing from the cache and isn't being loaded already.
+     * @return the value of the key.
+     */
+    public Mono<V> get(K key, Function<? super K, Mono<V>> loader) {
+        return Mono.defer(() -> {
+            CachedValue<V> cached = values.get(key);
+            // the values fall back to the time-to-live as soon as the changes of the other instances may be missed
+            long ttl = invalidated.getAsBoolean() ? invalidatedTimeToLiveNanos : timeToLiveNanos;
+            if (cached != null && System.nanoTime() - cached.loadedAt < ttl) {
+                hits.increment();
+                return Mono.just(cached.value);
+            }
+            misses.increment();
+            return loads.computeIfAbsent(key, k -> load(k, loader));
+        });
+    }
+
+    private Mono<V> load(K key, Function<? super K, Mono<V>> loader) {
+        long loadGeneration = generation.get();
+        AtomicReference<Mono<V>> load = new AtomicReference<>();
+        load.set(
+            Mono
+                .defer(() -> {
+                    long start = System.nanoTime();
+                    return loader
+                        .apply(key)
+                        .doOnNext(value -> {
+                            if (generation.get() == loadGeneration) {
+                                values.put(key, new CachedValue<>(value, System.nanoTime()));
+                                puts.increment();
+                            }
+                        })
+                        .doOnSuccess(value -> loadSuccesses.record(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+                        .doOnError(e -> loadFailures.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+                })
+                .doFinally(signal -> loads.remove(key, load.get()))
+                .cache()
+        );
+        return load.get();
+    }
+
+    /**
+     * Evict the value of the key, when it's written.
+     * @param key the key of the value.
+     */
+    public void evict(K key) {
+        generation.incrementAndGet();
+        loads.remove(key);
+        if (values.remove(key) != null) {
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Evict all the values.
+     */
+    public void clear() {
+        generation.incrementAndGet();
+        loads.clear();
+        values.clear();
+    }
+
+    private static final class CachedValue<V> {
+
+        private final V value;
+
+        private final long loadedAt;
+
+        private CachedValue(V value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
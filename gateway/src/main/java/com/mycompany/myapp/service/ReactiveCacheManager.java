@@ -0,0 +1,69 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@link ReactiveCache}s of the gateway, by name, created with the size and time-to-live of {@code application.cache}, and the
+ * invalidated time-to-live while the {@link CacheInvalidationBus} is connected.
+ */
+public class ReactiveCacheManager {
+
+    private final ApplicationProperties.Cache properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    private final Map<String, ReactiveCache<?, ?>> caches = new ConcurrentHashMap<>();
+
+    public ReactiveCacheManager(
+        ApplicationProperties.Cache properties,
+        MeterRegistry meterRegistry,
+        CacheInvalidationBus cacheInvalidationBus
+    ) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+    }
+
+    /**
+     * Get the cache of the given name, created on the first call.
+     * @param name the name of the cache.
+     * @param <K> the type of its keys.
+     * @param <V> the type of its values.
+     * @return the cache.
+     */
+    @SuppressWarnings("unchecked")
+    public <K, V> ReactiveCache<K, V> getCache(String name) {
+        return (ReactiveCache<K, V>) caches.computeIfAbsent(
+            name,
+            cacheName ->
+                new ReactiveCache<>(
+                    cacheName,
+                    properties.getMaximumSize(),
+                    properties.getTimeToLive(),
+                    properties.getInvalidatedTimeToLive(),
+                    cacheInvalidationBus::isConnected,
+                    meterRegistry
+                )
+        );
+    }
+
+    /**
+     * @return the names of the created caches.
+     */
+    public Collection<String> getCacheNames() {
+        return caches.keySet();
+    }
+
+    /**
+     * Evict all the values of all the caches.
+     */
+    public void clear() {
+        caches.values().forEach(ReactiveCache::clear);
+    }
+}
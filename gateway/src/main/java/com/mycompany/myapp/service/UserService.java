@@ -39,10 +39,33 @@ public class UserService {
 
     private final AuthorityRepository authorityRepository;
 
-    public UserService(UserRepository userRepository, UserSearchRepository userSearchRepository, AuthorityRepository authorityRepository) {
+    private final UserSyncCache userSyncCache;
+
+    private final ReactiveCache<String, User> usersByLogin;
+
+    // all the authority names, under a single key
+    private final ReactiveCache<String, List<String>> authorityNames;
+
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    public UserService(
+        UserRepository userRepository,
+        UserSearchRepository userSearchRepository,
+        AuthorityRepository authorityRepository,
+        UserSyncCache userSyncCache,
+        ReactiveCacheManager reactiveCacheManager,
+        CacheInvalidationBus cacheInvalidationBus
+    ) {
         this.userRepository = userRepository;
         this.userSearchRepository = userSearchRepository;
         this.authorityRepository = authorityRepository;
+        this.userSyncCache = userSyncCache;
+        this.usersByLogin = reactiveCacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE);
+        this.authorityNames = reactiveCacheManager.getCache(AuthorityRepository.AUTHORITIES_CACHE);
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        // the users are published by login, the key they are cached with
+        cacheInvalidationBus.subscribe(User.class, event -> usersByLogin.evict(event.getEntityId()));
+        cacheInvalidationBus.subscribe(Authority.class, event -> authorityNames.evict(AuthorityRepository.AUTHORITIES_CACHE));
     }
 
     /**
@@ -59,7 +82,7 @@ public class UserService {
     public Mono<Void> updateUser(String firstName, String lastName, String email, String langKey, String imageUrl) {
         return SecurityUtils
             .getCurrentUserLogin()
-            .flatMap(userRepository::findOneByLogin)
+            .flatMap(userRepository::findOneWithAuthoritiesByLogin)
             .flatMap(user -> {
                 user.setFirstName(firstName);
                 user.setLastName(lastName);
@@ -98,12 +121,10 @@ public class UserService {
                 } else {
                     persistedUser = userRepository.save(user);
                 }
-                return persistedUser.flatMap(savedUser ->
-                    Flux
-                        .fromIterable(user.getAuthorities())
-                        .flatMap(authority -> userRepository.saveUserAuthority(savedUser.getId(), authority.getName()))
-                        .then(Mono.just(savedUser))
-                );
+                Set<String> authorities = user.getAuthorities().stream().map(Authority::getName).collect(Collectors.toSet());
+                return persistedUser
+                    .flatMap(savedUser -> userRepository.updateUserAuthorities(savedUser.getId(), authorities).thenReturn(savedUser))
+                    .flatMap(savedUser -> cacheInvalidationBus.publish(User.class, savedUser.getLogin()).thenReturn(savedUser));
             });
     }
 
@@ -124,7 +145,7 @@ public class UserService {
 
     @Transactional(readOnly = true)
     public Mono<User> getUserWithAuthoritiesByLogin(String login) {
-        return userRepository.findOneWithAuthoritiesByLogin(login);
+        return usersByLogin.get(login, userRepository::findOneWithAuthoritiesByLogin);
     }
 
     /**
@@ -133,14 +154,22 @@ public class UserService {
      */
     @Transactional(readOnly = true)
     public Flux<String> getAuthorities() {
-        return authorityRepository.findAll().map(Authority::getName);
+        return authorityNames
+            .get(AuthorityRepository.AUTHORITIES_CACHE, key -> authorityRepository.findAll().map(Authority::getName).collectList())
+            .flatMapIterable(names -> names);
     }
 
-    private Mono<User> syncUserWithIdP(Map<String, Object> details, User user) {
+    private Mono<User> syncUserWithIdP(Map<String, Object> details, User user, String fingerprint) {
         // save authorities in to sync user roles/groups between IdP and JHipster's local database
         Collection<String> userAuthorities = user.getAuthorities().stream().map(Authority::getName).collect(Collectors.toList());
+        if (userSyncCache.isPersistFingerprint()) {
+            user.setIdpFingerprint(fingerprint);
+        }
 
-        return getAuthorities()
+        // the stored authorities are read from the database, as the cached ones may miss the ones saved by another gateway
+        return authorityRepository
+            .findAll()
+            .map(Authority::getName)
             .collectList()
             .flatMapMany(dbAuthorities -> {
                 List<Authority> authoritiesToSave = userAuthorities
@@ -156,27 +185,45 @@ public class UserService {
             })
             .doOnNext(authority -> log.debug("Saving authority '{}' in local database", authority))
             .flatMap(authorityRepository::save)
+            .flatMap(authority -> cacheInvalidationBus.publish(Authority.class, authority.getName()))
             .then(userRepository.findOneByLogin(user.getLogin()))
-            .switchIfEmpty(saveUser(user, true))
             .flatMap(existingUser -> {
+                // the user was already synchronized with the same claims, by this gateway or another one
+                if (userSyncCache.isPersistFingerprint() && fingerprint.equals(existingUser.getIdpFingerprint())) {
+                    return Mono.just(false);
+                }
                 // if IdP sends last updated information, use it to determine if an update should happen
                 if (details.get("updated_at") != null) {
                     Instant dbModifiedDate = existingUser.getLastModifiedDate();
                     Instant idpModifiedDate = (Instant) details.get("updated_at");
                     if (idpModifiedDate.isAfter(dbModifiedDate)) {
-                        log.debug("Updating user '{}' in local database", user.getLogin());
-                        return updateUser(user.getFirstName(), user.getLastName(), user.getEmail(), user.getLangKey(), user.getImageUrl());
+                        return updateUserFromIdP(existingUser, user).thenReturn(true);
                     }
                     // no last updated info, blindly update
                 } else {
-                    log.debug("Updating user '{}' in local database", user.getLogin());
-                    return updateUser(user.getFirstName(), user.getLastName(), user.getEmail(), user.getLangKey(), user.getImageUrl());
+                    return updateUserFromIdP(existingUser, user).thenReturn(true);
                 }
-                return Mono.empty();
+                return Mono.just(false);
             })
+            // the new user is created from the claims
+            .switchIfEmpty(Mono.defer(() -> saveUser(user, true).thenReturn(true)))
+            .doOnNext(written -> userSyncCache.synced(user.getLogin(), fingerprint, written))
             .thenReturn(user);
     }
 
+    // the existing user is updated with the claims, its authorities included, and with their fingerprint, in a single write
+    private Mono<User> updateUserFromIdP(User existingUser, User user) {
+        log.debug("Updating user '{}' in local database", user.getLogin());
+        existingUser.setFirstName(user.getFirstName());
+        existingUser.setLastName(user.getLastName());
+        existingUser.setEmail(user.getEmail());
+        existingUser.setLangKey(user.getLangKey());
+        existingUser.setImageUrl(user.getImageUrl());
+        existingUser.setAuthorities(user.getAuthorities());
+        existingUser.setIdpFingerprint(user.getIdpFingerprint());
+        return saveUser(existingUser).flatMap(savedUser -> userSearchRepository.save(savedUser).thenReturn(savedUser));
+    }
+
     /**
      * Returns the user from an OAuth 2.0 login or resource server with JWT.
      * Synchronizes the user in the local repository.
@@ -208,7 +255,12 @@ public class UserService {
                 .collect(Collectors.toSet())
         );
 
-        return syncUserWithIdP(attributes, user).flatMap(u -> Mono.just(new AdminUserDTO(u)));
+        // the SPA gets the account on every navigation, the users synchronized recently with the same claims are only returned
+        String fingerprint = UserSyncCache.fingerprint(user, attributes.get("updated_at"));
+        if (userSyncCache.isSynced(user.getLogin(), fingerprint)) {
+            return Mono.just(new AdminUserDTO(user));
+        }
+        return syncUserWithIdP(attributes, user, fingerprint).flatMap(u -> Mono.just(new AdminUserDTO(u)));
     }
 
     private static User getUser(Map<String, Object> details) {
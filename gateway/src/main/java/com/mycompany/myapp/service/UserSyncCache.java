@@ -0,0 +1,147 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Authority;
+import com.mycompany.myapp.domain.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.springframework.stereotype.Component;
+
+/**
+ * Remembers the users recently synchronized from the identity provider, so that the {@code /api/account} calls of every navigation
+ * don't synchronize them again.
+ * <p>
+ * The claims copied to the local user are fingerprinted, and a user whose fingerprint was synchronized less than the time-to-live
+ * ago isn't synchronized again. The fingerprints are kept in an LRU cache, and also stored with the users when
+ * {@code application.user-sync.persist-fingerprint} is set, so that a user whose claims didn't change is only read, and not written,
+ * by the other and the restarted gateways.
+ */
+@Component
+public class UserSyncCache {
+
+    private static final char SEPARATOR = '\u0000';
+
+    private final long timeToLiveNanos;
+
+    private final boolean persistFingerprint;
+
+    // the fingerprint of every recently synchronized login, with the time of its synchronization
+    private final Map<String, SyncedFingerprint> cache;
+
+    private final Counter skipped;
+
+    private final Counter unchanged;
+
+    private final Counter written;
+
+    public UserSyncCache(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        ApplicationProperties.UserSync properties = applicationProperties.getUserSync();
+        this.timeToLiveNanos = properties.getTimeToLive().toNanos();
+        this.persistFingerprint = properties.isPersistFingerprint();
+        int cacheSize = properties.getCacheSize();
+        this.cache =
+            Collections.synchronizedMap(
+                new LinkedHashMap<>(cacheSize, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, SyncedFingerprint> eldest) {
+                        return size() > cacheSize;
+                    }
+                }
+            );
+        this.skipped = syncCounter(meterRegistry, "skipped");
+        this.unchanged = syncCounter(meterRegistry, "unchanged");
+        this.written = syncCounter(meterRegistry, "written");
+        meterRegistry.gauge("user.sync.cache.size", cache, Map::size);
+    }
+
+    private static Counter syncCounter(MeterRegistry meterRegistry, String result) {
+        return Counter
+            .builder("user.sync.requests")
+            .description("Number of users authenticated by the identity provider, by result of their synchronization with the database")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    /**
+     * The fingerprint of the claims of the identity provider which are synchronized with the database.
+     * @param user the user built from the claims, with its authorities.
+     * @param updatedAt the {@code updated_at} claim, or null.
+     * @return the hexadecimal SHA-256 of the claims.
+     */
+    public static String fingerprint(User user, Object updatedAt) {
+        String authorities = user.getAuthorities().stream().map(Authority::getName).sorted().collect(Collectors.joining(","));
+        String claims = String.join(
+            String.valueOf(SEPARATOR),
+            String.valueOf(user.getId()),
+            String.valueOf(user.getLogin()),
+            String.valueOf(user.getFirstName()),
+            String.valueOf(user.getLastName()),
+            String.valueOf(user.getEmail()),
+            String.valueOf(user.isActivated()),
+            String.valueOf(user.getLangKey()),
+            String.valueOf(user.getImageUrl()),
+            authorities,
+            String.valueOf(updatedAt)
+        );
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(claims.getBytes(StandardCharsets.UTF_8));
+            return String.format("%064x", new BigInteger(1, digest));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Whether the given fingerprint of the user was synchronized less than the time-to-live ago, counted as a skipped
+     * synchronization if so.
+     * @param login the login of the user.
+     * @param fingerprint the fingerprint of its claims, see {@link #fingerprint(User, Object)}.
+     * @return true if the user doesn't need to be synchronized.
+     */
+    public boolean isSynced(String login, String fingerprint) {
+        SyncedFingerprint synced = cache.get(login);
+        if (synced != null && synced.fingerprint.equals(fingerprint) && System.nanoTime() - synced.syncedAt < timeToLiveNanos) {
+            skipped.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Remember that the given fingerprint of the user was synchronized.
+     * @param login the login of the user.
+     * @param fingerprint the fingerprint of its claims.
+     * @param wasWritten whether the user was written to the database, or was already up to date.
+     */
+    public void synced(String login, String fingerprint, boolean wasWritten) {
+        cache.put(login, new SyncedFingerprint(fingerprint, System.nanoTime()));
+        (wasWritten ? written : unchanged).increment();
+    }
+
+    /**
+     * @return whether the fingerprints are stored with the users.
+     */
+    public boolean isPersistFingerprint() {
+        return persistFingerprint;
+    }
+
+    private static final class SyncedFingerprint {
+
+        private final String fingerprint;
+
+        private final long syncedAt;
+
+        private SyncedFingerprint(String fingerprint, long syncedAt) {
+            this.fingerprint = fingerprint;
+            this.syncedAt = syncedAt;
+        }
+    }
+}
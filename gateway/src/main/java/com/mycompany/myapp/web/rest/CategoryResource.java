@@ -3,6 +3,9 @@ package com.mycompany.myapp.web.rest;
 import com.mycompany.myapp.domain.Category;
 import com.mycompany.myapp.repository.CategoryRepository;
 import com.mycompany.myapp.repository.search.CategorySearchRepository;
+import com.mycompany.myapp.service.CacheInvalidationBus;
+import com.mycompany.myapp.service.ReactiveCache;
+import com.mycompany.myapp.service.ReactiveCacheManager;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -42,9 +45,21 @@ public class CategoryResource {
 
     private final CategorySearchRepository categorySearchRepository;
 
-    public CategoryResource(CategoryRepository categoryRepository, CategorySearchRepository categorySearchRepository) {
+    private final ReactiveCache<Long, Category> categoriesById;
+
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    public CategoryResource(
+        CategoryRepository categoryRepository,
+        CategorySearchRepository categorySearchRepository,
+        ReactiveCacheManager reactiveCacheManager,
+        CacheInvalidationBus cacheInvalidationBus
+    ) {
         this.categoryRepository = categoryRepository;
         this.categorySearchRepository = categorySearchRepository;
+        this.categoriesById = reactiveCacheManager.getCache(CategoryRepository.CATEGORIES_BY_ID_CACHE);
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        cacheInvalidationBus.subscribe(Category.class, event -> categoriesById.evict(Long.valueOf(event.getEntityId())));
     }
 
     /**
@@ -107,6 +122,7 @@ public class CategoryResource {
 
                 return categoryRepository
                     .save(category)
+                    .flatMap(savedCategory -> cacheInvalidationBus.publish(Category.class, savedCategory.getId()).thenReturn(savedCategory))
                     .flatMap(categorySearchRepository::save)
                     .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
                     .map(result ->
@@ -165,6 +181,7 @@ public class CategoryResource {
                         return existingCategory;
                     })
                     .flatMap(categoryRepository::save)
+                    .flatMap(savedCategory -> cacheInvalidationBus.publish(Category.class, savedCategory.getId()).thenReturn(savedCategory))
                     .flatMap(savedCategory -> {
                         categorySearchRepository.save(savedCategory);
 
@@ -212,7 +229,7 @@ public class CategoryResource {
     @GetMapping("/categories/{id}")
     public Mono<ResponseEntity<Category>> getCategory(@PathVariable Long id) {
         log.debug("REST request to get Category : {}", id);
-        Mono<Category> category = categoryRepository.findById(id);
+        Mono<Category> category = categoriesById.get(id, categoryRepository::findById);
         return ResponseUtil.wrapOrNotFound(category);
     }
 
@@ -228,6 +245,7 @@ public class CategoryResource {
         log.debug("REST request to delete Category : {}", id);
         return categoryRepository
             .deleteById(id)
+            .then(cacheInvalidationBus.publish(Category.class, id))
             .then(categorySearchRepository.deleteById(id))
             .map(result ->
                 ResponseEntity
@@ -0,0 +1,123 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Unit tests for {@link ReactiveCache}.
+ */
+class ReactiveCacheTest {
+
+    private MeterRegistry meterRegistry;
+
+    private AtomicInteger loads;
+
+    private Function<String, Mono<String>> loader;
+
+    @BeforeEach
+    public void init() {
+        meterRegistry = new SimpleMeterRegistry();
+        loads = new AtomicInteger();
+        loader = key -> Mono.fromCallable(() -> key + loads.incrementAndGet());
+    }
+
+    @Test
+    void testGetLoadsTheMissingValuesOnly() {
+        ReactiveCache<String, String> cache = new ReactiveCache<>("test", 10, Duration.ofMinutes(1), meterRegistry);
+
+        assertThat(cache.get("a", loader).block()).isEqualTo("a1");
+        assertThat(cache.get("a", loader).block()).isEqualTo("a1");
+        assertThat(cache.get("b", loader).block()).isEqualTo("b2");
+
+        assertThat(loads).hasValue(2);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "test").tag("result", "hit").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "test").tag("result", "miss").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("cache.load.duration").tag("result", "success").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("cache.size").tag("cache", "test").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void testGetDoesNotCacheTheEmptyAndTheExpiredValues() {
+        ReactiveCache<String, String> cache = new ReactiveCache<>("test", 10, Duration.ZERO, meterRegistry);
+
+        assertThat(cache.get("a", key -> Mono.empty()).blockOptional()).isEmpty();
+        assertThat(cache.get("a", loader).block()).isEqualTo("a1");
+        assertThat(cache.get("a", loader).block()).isEqualTo("a2");
+    }
+
+    @Test
+    void testGetKeepsTheValuesLongerWhileTheyAreInvalidated() {
+        AtomicBoolean invalidated = new AtomicBoolean(true);
+        ReactiveCache<String, String> cache = new ReactiveCache<>(
+            "test",
+            10,
+            Duration.ZERO,
+            Duration.ofMinutes(1),
+            invalidated::get,
+            meterRegistry
+        );
+
+        assertThat(cache.get("a", loader).block()).isEqualTo("a1");
+        assertThat(cache.get("a", loader).block()).isEqualTo("a1");
+        // the changes of the other instances may be missed
+        invalidated.set(false);
+        assertThat(cache.get("a", loader).block()).isEqualTo("a2");
+    }
+
+    @Test
+    void testGetEvictsTheLeastRecentlyUsedValues() {
+        ReactiveCache<String, String> cache = new ReactiveCache<>("test", 2, Duration.ofMinutes(1), meterRegistry);
+
+        cache.get("a", loader).block();
+        cache.get("b", loader).block();
+        cache.get("a", loader).block();
+        cache.get("c", loader).block();
+
+        assertThat(cache.get("a", loader).block()).isEqualTo("a1");
+        assertThat(cache.get("b", loader).block()).isEqualTo("b4");
+        assertThat(meterRegistry.get("cache.evictions").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void testConcurrentGetsShareTheLoad() {
+        ReactiveCache<String, String> cache = new ReactiveCache<>("test", 10, Duration.ofMinutes(1), meterRegistry);
+        Sinks.One<String> value = Sinks.one();
+        Function<String, Mono<String>> slowLoader = key -> {
+            loads.incrementAndGet();
+            return value.asMono();
+        };
+
+        String[] results = new String[2];
+        cache.get("a", slowLoader).subscribe(result -> results[0] = result);
+        cache.get("a", slowLoader).subscribe(result -> results[1] = result);
+        value.tryEmitValue("loaded");
+
+        assertThat(results).containsExactly("loaded", "loaded");
+        assertThat(loads).hasValue(1);
+        assertThat(cache.get("a", loader).block()).isEqualTo("loaded");
+    }
+
+    @Test
+    void testEvictDuringTheLoadDoesNotCacheItsValue() {
+        ReactiveCache<String, String> cache = new ReactiveCache<>("test", 10, Duration.ofMinutes(1), meterRegistry);
+        Sinks.One<String> staleValue = Sinks.one();
+        String[] result = new String[1];
+
+        cache.get("a", key -> staleValue.asMono()).subscribe(value -> result[0] = value);
+        cache.evict("a");
+        staleValue.tryEmitValue("stale");
+
+        assertThat(result[0]).isEqualTo("stale");
+        assertThat(cache.get("a", loader).block()).isEqualTo("a1");
+    }
+}
@@ -8,18 +8,24 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.config.ApplicationProperties;
 import com.mycompany.myapp.config.Constants;
+import com.mycompany.myapp.domain.Authority;
 import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.repository.AuthorityRepository;
 import com.mycompany.myapp.repository.UserRepository;
 import com.mycompany.myapp.repository.search.UserSearchRepository;
 import com.mycompany.myapp.security.AuthoritiesConstants;
 import com.mycompany.myapp.service.dto.AdminUserDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.time.ZoneOffset;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -30,7 +36,9 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
 import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
 import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
 
 /**
  * Integration tests for {@link UserService}.
@@ -56,6 +64,15 @@ class UserServiceIT {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private AuthorityRepository authorityRepository;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
     /**
      * This repository is mocked in the com.mycompany.myapp.repository.search test package.
      *
@@ -156,8 +173,122 @@ class UserServiceIT {
         assertThat(userDTO.getLangKey()).isEqualTo("en");
     }
 
+    @Test
+    void testUserSyncedRecentlyIsNotSyncedAgain() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        UserService gatewayUserService = createUserService(meterRegistry);
+        OAuth2AuthenticationToken authentication = createMockOAuth2AuthenticationToken(userDetails);
+
+        gatewayUserService.getUserFromAuthentication(authentication).block();
+        userRepository.deleteAllUserAuthorities().block();
+        userRepository.deleteAll().block();
+        AdminUserDTO userDTO = gatewayUserService.getUserFromAuthentication(authentication).block();
+
+        assertThat(userDTO.getLogin()).isEqualTo(DEFAULT_LOGIN);
+        // the deleted user wasn't read nor created again
+        assertThat(userRepository.findOneByLogin(DEFAULT_LOGIN).blockOptional()).isEmpty();
+        assertThat(meterRegistry.counter("user.sync.requests", "result", "written").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("user.sync.requests", "result", "skipped").count()).isEqualTo(1);
+    }
+
+    @Test
+    void testUserWithChangedClaimsIsSyncedAgain() {
+        when(mockUserSearchRepository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        UserService gatewayUserService = createUserService(meterRegistry);
+
+        gatewayUserService.getUserFromAuthentication(createMockOAuth2AuthenticationToken(userDetails)).block();
+        userDetails.put("given_name", "jane");
+        gatewayUserService.getUserFromAuthentication(createMockOAuth2AuthenticationToken(userDetails)).block();
+
+        assertThat(userRepository.findOneByLogin(DEFAULT_LOGIN).block().getFirstName()).isEqualTo("jane");
+        assertThat(meterRegistry.counter("user.sync.requests", "result", "written").count()).isEqualTo(2);
+        verify(mockUserSearchRepository, times(1)).save(any());
+    }
+
+    @Test
+    void testUserSyncedByAnotherGatewayIsNotWrittenAgain() {
+        OAuth2AuthenticationToken authentication = createMockOAuth2AuthenticationToken(userDetails);
+        createUserService(new SimpleMeterRegistry()).getUserFromAuthentication(authentication).block();
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        createUserService(meterRegistry).getUserFromAuthentication(authentication).block();
+
+        // the fingerprint stored with the user matched the claims
+        assertThat(meterRegistry.counter("user.sync.requests", "result", "unchanged").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("user.sync.requests", "result", "written").count()).isZero();
+        verify(mockUserSearchRepository, never()).save(any());
+    }
+
+    @Test
+    void testUserWithChangedAuthoritiesIsSyncedAgain() {
+        when(mockUserSearchRepository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        UserService gatewayUserService = createUserService(new SimpleMeterRegistry());
+
+        String[] adminAuthorities = { AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN };
+        OAuth2AuthenticationToken admin = createMockOAuth2AuthenticationToken(userDetails, adminAuthorities);
+        OAuth2AuthenticationToken user = createMockOAuth2AuthenticationToken(userDetails, AuthoritiesConstants.USER);
+
+        gatewayUserService.getUserFromAuthentication(createMockOAuth2AuthenticationToken(userDetails)).block();
+        gatewayUserService.getUserFromAuthentication(admin).block();
+        gatewayUserService.getUserFromAuthentication(user).block();
+
+        // only the difference with the stored authorities was written
+        assertThat(userRepository.findOneWithAuthoritiesByLogin(DEFAULT_LOGIN).block().getAuthorities())
+            .extracting(Authority::getName)
+            .containsExactly(AuthoritiesConstants.USER);
+    }
+
+    @Test
+    void testUserCachedBeforeTheCommitIsInvalidatedAfterIt() {
+        user.setId(DEFAULT_LOGIN);
+        User savedUser = userService.saveUser(user, true).block();
+        userService.getUserWithAuthoritiesByLogin(DEFAULT_LOGIN).block();
+        savedUser.setLastName("changed");
+
+        String lastNameReadBeforeTheCommit = transactionalOperator
+            .transactional(
+                userService
+                    .saveUser(savedUser)
+                    // a concurrent request, outside of the transaction, caches the user which is still committed
+                    .flatMap(changedUser ->
+                        userService.getUserWithAuthoritiesByLogin(DEFAULT_LOGIN).contextWrite(context -> Context.empty())
+                    )
+                    .map(User::getLastName)
+            )
+            .block();
+
+        assertThat(lastNameReadBeforeTheCommit).isEqualTo(DEFAULT_LASTNAME);
+        assertThat(userService.getUserWithAuthoritiesByLogin(DEFAULT_LOGIN).block().getLastName()).isEqualTo("changed");
+    }
+
+    // the user service of a gateway, with its own cache of the synchronized users
+    private UserService createUserService(MeterRegistry meterRegistry) {
+        UserSyncCache userSyncCache = new UserSyncCache(new ApplicationProperties(), meterRegistry);
+        ReactiveCacheManager reactiveCacheManager = new ReactiveCacheManager(
+            new ApplicationProperties().getCache(),
+            meterRegistry,
+            cacheInvalidationBus
+        );
+        return new UserService(
+            userRepository,
+            mockUserSearchRepository,
+            authorityRepository,
+            userSyncCache,
+            reactiveCacheManager,
+            cacheInvalidationBus
+        );
+    }
+
     private OAuth2AuthenticationToken createMockOAuth2AuthenticationToken(Map<String, Object> userDetails) {
-        Collection<GrantedAuthority> authorities = Collections.singletonList(new SimpleGrantedAuthority(AuthoritiesConstants.ANONYMOUS));
+        return createMockOAuth2AuthenticationToken(userDetails, AuthoritiesConstants.ANONYMOUS);
+    }
+
+    private OAuth2AuthenticationToken createMockOAuth2AuthenticationToken(Map<String, Object> userDetails, String... authorityNames) {
+        Collection<GrantedAuthority> authorities = Arrays
+            .stream(authorityNames)
+            .map(SimpleGrantedAuthority::new)
+            .collect(Collectors.toList());
         UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = new UsernamePasswordAuthenticationToken(
             "anonymous",
             "anonymous",
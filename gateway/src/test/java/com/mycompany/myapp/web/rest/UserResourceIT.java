@@ -13,6 +13,7 @@ import com.mycompany.myapp.repository.UserRepository;
 import com.mycompany.myapp.repository.search.UserSearchRepository;
 import com.mycompany.myapp.security.AuthoritiesConstants;
 import com.mycompany.myapp.service.EntityManager;
+import com.mycompany.myapp.service.ReactiveCacheManager;
 import com.mycompany.myapp.service.dto.AdminUserDTO;
 import com.mycompany.myapp.service.dto.UserDTO;
 import com.mycompany.myapp.service.mapper.UserMapper;
@@ -71,6 +72,9 @@ class UserResourceIT {
     @Autowired
     private EntityManager em;
 
+    @Autowired
+    private ReactiveCacheManager reactiveCacheManager;
+
     @Autowired
     private WebTestClient webTestClient;
 
@@ -127,6 +131,7 @@ class UserResourceIT {
 
     @BeforeEach
     public void initTest() {
+        reactiveCacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).clear();
         user = initTestUser(userRepository, em);
     }
 
@@ -162,6 +167,49 @@ class UserResourceIT {
         assertThat(foundUser.getAuthorities()).containsExactly(AuthoritiesConstants.USER);
     }
 
+    @Test
+    void getAllUsersSortedAndPagedByTheDatabase() {
+        // Initialize the database
+        for (String name : List.of(AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN)) {
+            Authority authority = new Authority();
+            authority.setName(name);
+            authorityRepository.findById(name).switchIfEmpty(em.insert(authority)).block();
+        }
+        for (String login : List.of("carol", "alice", "dave", "bob")) {
+            User pagedUser = createEntity(em);
+            pagedUser.setLogin(login);
+            userRepository.create(pagedUser).block();
+            userRepository.saveUserAuthority(pagedUser.getId(), AuthoritiesConstants.USER).block();
+            if (login.equals("dave")) {
+                userRepository.saveUserAuthority(pagedUser.getId(), AuthoritiesConstants.ADMIN).block();
+            }
+        }
+
+        // Get the second page of the users sorted by login
+        List<AdminUserDTO> foundUsers = webTestClient
+            .get()
+            .uri("/api/admin/users?sort=login,ASC&page=1&size=2")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .valueEquals("X-Total-Count", "4")
+            .returnResult(AdminUserDTO.class)
+            .getResponseBody()
+            .collectList()
+            .block();
+
+        assertThat(foundUsers).extracting(AdminUserDTO::getLogin).containsExactly("carol", "dave");
+        assertThat(foundUsers.get(0).getAuthorities()).containsExactly(AuthoritiesConstants.USER);
+        assertThat(foundUsers.get(1).getAuthorities()).containsExactlyInAnyOrder(AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN);
+    }
+
+    @Test
+    void getAllUsersSortedByAnUnknownProperty() {
+        webTestClient.get().uri("/api/admin/users?sort=idpFingerprint,ASC").exchange().expectStatus().isBadRequest();
+    }
+
     @Test
     void getUser() {
         // Initialize the database
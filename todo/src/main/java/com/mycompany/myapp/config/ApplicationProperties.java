@@ -1,5 +1,6 @@
 package com.mycompany.myapp.config;
 
+import java.time.Duration;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -9,4 +10,298 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  * See {@link tech.jhipster.config.JHipsterProperties} for a good example.
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
-public class ApplicationProperties {}
+public class ApplicationProperties {
+
+    private final Outbox outbox = new Outbox();
+
+    private final Indexer indexer = new Indexer();
+
+    private final Reindex reindex = new Reindex();
+
+    private final Suggest suggest = new Suggest();
+
+    private final Stats stats = new Stats();
+
+    private final Consistency consistency = new Consistency();
+
+    private final Search search = new Search();
+
+    private final CacheInvalidationProperties cacheInvalidation = new CacheInvalidationProperties();
+
+    public Outbox getOutbox() {
+        return outbox;
+    }
+
+    public Indexer getIndexer() {
+        return indexer;
+    }
+
+    public Reindex getReindex() {
+        return reindex;
+    }
+
+    public Suggest getSuggest() {
+        return suggest;
+    }
+
+    public Stats getStats() {
+        return stats;
+    }
+
+    public Consistency getConsistency() {
+        return consistency;
+    }
+
+    public Search getSearch() {
+        return search;
+    }
+
+    public CacheInvalidationProperties getCacheInvalidation() {
+        return cacheInvalidation;
+    }
+
+    public static class Outbox {
+
+        private boolean relayEnabled = true;
+
+        private Duration pollInterval = Duration.ofMillis(500);
+
+        private int batchSize = 500;
+
+        private int maxRetries = 3;
+
+        private int maxAttempts = 10;
+
+        private Duration claimTimeout = Duration.ofMinutes(1);
+
+        public boolean isRelayEnabled() {
+            return relayEnabled;
+        }
+
+        public void setRelayEnabled(boolean relayEnabled) {
+            this.relayEnabled = relayEnabled;
+        }
+
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getMaxRetries() {
+            return maxRetries;
+        }
+
+        public void setMaxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public Duration getClaimTimeout() {
+            return claimTimeout;
+        }
+
+        public void setClaimTimeout(Duration claimTimeout) {
+            this.claimTimeout = claimTimeout;
+        }
+    }
+
+    public static class Indexer {
+
+        private int queueCapacity = 10000;
+
+        private int bulkSize = 1000;
+
+        private Duration flushInterval = Duration.ofMillis(200);
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getBulkSize() {
+            return bulkSize;
+        }
+
+        public void setBulkSize(int bulkSize) {
+            this.bulkSize = bulkSize;
+        }
+
+        public Duration getFlushInterval() {
+            return flushInterval;
+        }
+
+        public void setFlushInterval(Duration flushInterval) {
+            this.flushInterval = flushInterval;
+        }
+    }
+
+    public static class Reindex {
+
+        private int chunkSize = 1000;
+
+        private int maxInFlight = 4;
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public int getMaxInFlight() {
+            return maxInFlight;
+        }
+
+        public void setMaxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+        }
+    }
+
+    public static class Suggest {
+
+        private int maxResults = 10;
+
+        private int cacheSize = 1000;
+
+        private Duration refreshInterval = Duration.ofSeconds(1);
+
+        public int getMaxResults() {
+            return maxResults;
+        }
+
+        public void setMaxResults(int maxResults) {
+            this.maxResults = maxResults;
+        }
+
+        public int getCacheSize() {
+            return cacheSize;
+        }
+
+        public void setCacheSize(int cacheSize) {
+            this.cacheSize = cacheSize;
+        }
+
+        public Duration getRefreshInterval() {
+            return refreshInterval;
+        }
+
+        public void setRefreshInterval(Duration refreshInterval) {
+            this.refreshInterval = refreshInterval;
+        }
+    }
+
+    public static class Stats {
+
+        private Duration timeToLive = Duration.ofSeconds(10);
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+    }
+
+    public static class Consistency {
+
+        private boolean enabled = true;
+
+        private Duration checkInterval = Duration.ofHours(1);
+
+        private int fanout = 16;
+
+        private int leafSize = 500;
+
+        private double maxRangesPerSecond = 10;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getCheckInterval() {
+            return checkInterval;
+        }
+
+        public void setCheckInterval(Duration checkInterval) {
+            this.checkInterval = checkInterval;
+        }
+
+        public int getFanout() {
+            return fanout;
+        }
+
+        public void setFanout(int fanout) {
+            this.fanout = fanout;
+        }
+
+        public int getLeafSize() {
+            return leafSize;
+        }
+
+        public void setLeafSize(int leafSize) {
+            this.leafSize = leafSize;
+        }
+
+        public double getMaxRangesPerSecond() {
+            return maxRangesPerSecond;
+        }
+
+        public void setMaxRangesPerSecond(double maxRangesPerSecond) {
+            this.maxRangesPerSecond = maxRangesPerSecond;
+        }
+    }
+
+    public static class Search {
+
+        /**
+         * The search engine of the todos.
+         */
+        public enum Backend {
+            /**
+             * The todos are searched in their Elasticsearch index.
+             */
+            ELASTICSEARCH,
+            /**
+             * The todos are searched with the full-text indices of the database, without Elasticsearch.
+             */
+            SQL
+        }
+
+        private Backend todoBackend = Backend.ELASTICSEARCH;
+
+        public Backend getTodoBackend() {
+            return todoBackend;
+        }
+
+        public void setTodoBackend(Backend todoBackend) {
+            this.todoBackend = todoBackend;
+        }
+    }
+}
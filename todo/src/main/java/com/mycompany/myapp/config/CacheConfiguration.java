@@ -0,0 +1,17 @@
+package com.mycompany.myapp.config;
+
+import com.mycompany.myapp.service.CacheInvalidationBus;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class CacheConfiguration {
+
+    /**
+     * The properties of the {@link CacheInvalidationBus}, which is shared with the other services.
+     */
+    @Bean
+    public CacheInvalidationProperties cacheInvalidationProperties(ApplicationProperties applicationProperties) {
+        return applicationProperties.getCacheInvalidation();
+    }
+}
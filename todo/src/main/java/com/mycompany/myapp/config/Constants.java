@@ -11,5 +11,8 @@ public final class Constants {
     public static final String SYSTEM = "system";
     public static final String DEFAULT_LANGUAGE = "en";
 
+    // searches the indices held in memory rather than Elasticsearch, see EmbeddedSearchConfiguration
+    public static final String SPRING_PROFILE_EMBEDDED_SEARCH = "embedded-search";
+
     private Constants() {}
 }
@@ -0,0 +1,41 @@
+package com.mycompany.myapp.config;
+
+import com.mycompany.myapp.repository.search.EmbeddedReactiveElasticsearchTemplate;
+import com.mycompany.myapp.service.ReindexService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.elasticsearch.client.reactive.ReactiveElasticsearchClient;
+import org.springframework.data.elasticsearch.core.convert.ElasticsearchConverter;
+
+/**
+ * Searches the indices held in memory by Lucene rather than Elasticsearch, for the local and CI runs without Elasticsearch, or to
+ * keep searching while the cluster is unavailable.
+ * <p>
+ * The indices are written and searched through the same repositories, see {@link EmbeddedReactiveElasticsearchTemplate}. They are
+ * empty when the application starts, and rebuilt from the database.
+ */
+@Configuration
+@Profile(Constants.SPRING_PROFILE_EMBEDDED_SEARCH)
+public class EmbeddedSearchConfiguration {
+
+    private final Logger log = LoggerFactory.getLogger(EmbeddedSearchConfiguration.class);
+
+    @Bean
+    public EmbeddedReactiveElasticsearchTemplate reactiveElasticsearchTemplate(
+        ReactiveElasticsearchClient reactiveElasticsearchClient,
+        ElasticsearchConverter elasticsearchConverter
+    ) {
+        log.info("Searching the embedded search indices, rather than Elasticsearch");
+        return new EmbeddedReactiveElasticsearchTemplate(reactiveElasticsearchClient, elasticsearchConverter);
+    }
+
+    @Bean
+    public ApplicationListener<ApplicationReadyEvent> embeddedSearchIndexLoader(ReindexService reindexService) {
+        return event -> reindexService.getEntityNames().forEach(reindexService::start);
+    }
+}
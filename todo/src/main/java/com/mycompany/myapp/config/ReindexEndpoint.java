@@ -0,0 +1,46 @@
+package com.mycompany.myapp.config;
+
+import com.mycompany.myapp.service.ReindexService;
+import java.util.Map;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Management endpoint to rebuild the search indices, see {@link ReindexService}.
+ * <ul>
+ *     <li>{@code POST /management/reindex/{entity}}: starts, or resumes, the reindex of an entity.</li>
+ *     <li>{@code GET /management/reindex[/{entity}]}: the progress and the throughput of the reindex jobs.</li>
+ * </ul>
+ */
+@Component
+@Endpoint(id = "reindex")
+public class ReindexEndpoint {
+
+    private final ReindexService reindexService;
+
+    public ReindexEndpoint(ReindexService reindexService) {
+        this.reindexService = reindexService;
+    }
+
+    @ReadOperation
+    public Map<String, ReindexService.Progress> progress() {
+        return reindexService.getProgress();
+    }
+
+    @ReadOperation
+    public ReindexService.Progress progress(@Selector String entity) {
+        return reindexService.getProgress(entity).orElse(null);
+    }
+
+    @WriteOperation
+    public ReindexService.Progress reindex(@Selector String entity) {
+        if (!reindexService.getEntityNames().contains(entity)) {
+            throw new InvalidEndpointRequestException("Unknown indexed entity: " + entity, "Unknown indexed entity");
+        }
+        return reindexService.start(entity);
+    }
+}
@@ -1,8 +1,13 @@
 package com.mycompany.myapp.domain;
 
 import java.io.Serializable;
+import org.elasticsearch.index.VersionType;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.Transient;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.InnerField;
+import org.springframework.data.elasticsearch.annotations.MultiField;
 import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Table;
 
@@ -10,24 +15,40 @@ import org.springframework.data.relational.core.mapping.Table;
  * A Category.
  */
 @Table("category")
-@org.springframework.data.elasticsearch.annotations.Document(indexName = "category")
+@org.springframework.data.elasticsearch.annotations.Document(indexName = "category", versionType = VersionType.EXTERNAL_GTE)
 public class Category implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
     @Id
+    @MultiField(
+        mainField = @org.springframework.data.elasticsearch.annotations.Field(type = FieldType.Keyword),
+        // the ranges of ids, for the consistency checks
+        otherFields = { @InnerField(suffix = "numeric", type = FieldType.Long) }
+    )
     @Column("id")
     private Long id;
 
+    @MultiField(
+        mainField = @org.springframework.data.elasticsearch.annotations.Field(type = FieldType.Text),
+        otherFields = { @InnerField(suffix = "keyword", type = FieldType.Keyword, ignoreAbove = 256) }
+    )
     @Column("name")
     private String name;
 
+    @org.springframework.data.elasticsearch.annotations.Field(type = FieldType.Text)
     @Column("description")
     private String description;
 
+    @org.springframework.data.elasticsearch.annotations.Field(type = FieldType.Boolean)
     @Column("active")
     private Boolean active;
 
+    @Version
+    @org.springframework.data.elasticsearch.annotations.Field(type = FieldType.Long)
+    @Column("version")
+    private Long version;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
 
     public Long getId() {
@@ -82,6 +103,19 @@ public class Category implements Serializable {
         this.active = active;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public Category version(Long version) {
+        this.setVersion(version);
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -0,0 +1,163 @@
+package com.mycompany.myapp.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * An entry of the search index outbox: an entity changed by a committed transaction, which still needs to be indexed.
+ * <p>
+ * It's written in the same transaction as the change of the entity, and removed once the entity is indexed. Meanwhile, it's claimed
+ * by the relay of one instance at a time, until it's indexed or the claim expires, and it's parked after too many attempts.
+ */
+@Table("outbox")
+public class OutboxEvent implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column("id")
+    private Long id;
+
+    @Column("aggregate_type")
+    private String aggregateType;
+
+    @Column("aggregate_id")
+    private String aggregateId;
+
+    @Column("created_date")
+    private Instant createdDate;
+
+    @Column("claim_token")
+    private String claimToken;
+
+    @Column("claimed_until")
+    private Instant claimedUntil;
+
+    @Column("attempts")
+    private Integer attempts;
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public OutboxEvent id(Long id) {
+        this.setId(id);
+        return this;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getAggregateType() {
+        return this.aggregateType;
+    }
+
+    public OutboxEvent aggregateType(String aggregateType) {
+        this.setAggregateType(aggregateType);
+        return this;
+    }
+
+    public void setAggregateType(String aggregateType) {
+        this.aggregateType = aggregateType;
+    }
+
+    public String getAggregateId() {
+        return this.aggregateId;
+    }
+
+    public OutboxEvent aggregateId(String aggregateId) {
+        this.setAggregateId(aggregateId);
+        return this;
+    }
+
+    public void setAggregateId(String aggregateId) {
+        this.aggregateId = aggregateId;
+    }
+
+    public Instant getCreatedDate() {
+        return this.createdDate;
+    }
+
+    public OutboxEvent createdDate(Instant createdDate) {
+        this.setCreatedDate(createdDate);
+        return this;
+    }
+
+    public void setCreatedDate(Instant createdDate) {
+        this.createdDate = createdDate;
+    }
+
+    public String getClaimToken() {
+        return this.claimToken;
+    }
+
+    public OutboxEvent claimToken(String claimToken) {
+        this.setClaimToken(claimToken);
+        return this;
+    }
+
+    public void setClaimToken(String claimToken) {
+        this.claimToken = claimToken;
+    }
+
+    public Instant getClaimedUntil() {
+        return this.claimedUntil;
+    }
+
+    public OutboxEvent claimedUntil(Instant claimedUntil) {
+        this.setClaimedUntil(claimedUntil);
+        return this;
+    }
+
+    public void setClaimedUntil(Instant claimedUntil) {
+        this.claimedUntil = claimedUntil;
+    }
+
+    public Integer getAttempts() {
+        return this.attempts;
+    }
+
+    public OutboxEvent attempts(Integer attempts) {
+        this.setAttempts(attempts);
+        return this;
+    }
+
+    public void setAttempts(Integer attempts) {
+        this.attempts = attempts;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof OutboxEvent)) {
+            return false;
+        }
+        return id != null && id.equals(((OutboxEvent) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "OutboxEvent{" +
+            "id=" + getId() +
+            ", aggregateType='" + getAggregateType() + "'" +
+            ", aggregateId='" + getAggregateId() + "'" +
+            ", createdDate='" + getCreatedDate() + "'" +
+            ", claimToken='" + getClaimToken() + "'" +
+            ", claimedUntil='" + getClaimedUntil() + "'" +
+            ", attempts=" + getAttempts() +
+            "}";
+    }
+}
@@ -0,0 +1,110 @@
+package com.mycompany.myapp.domain;
+
+import java.io.Serializable;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * The checkpoint of an unfinished search reindex job: the index being built, and the last id copied to it.
+ * <p>
+ * It's removed once the index is complete and aliased.
+ */
+@Table("reindex_checkpoint")
+public class ReindexCheckpoint implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column("entity_name")
+    private String entityName;
+
+    @Column("index_name")
+    private String indexName;
+
+    @Column("last_id")
+    private String lastId;
+
+    @Column("indexed")
+    private long indexed;
+
+    public String getEntityName() {
+        return this.entityName;
+    }
+
+    public ReindexCheckpoint entityName(String entityName) {
+        this.setEntityName(entityName);
+        return this;
+    }
+
+    public void setEntityName(String entityName) {
+        this.entityName = entityName;
+    }
+
+    public String getIndexName() {
+        return this.indexName;
+    }
+
+    public ReindexCheckpoint indexName(String indexName) {
+        this.setIndexName(indexName);
+        return this;
+    }
+
+    public void setIndexName(String indexName) {
+        this.indexName = indexName;
+    }
+
+    public String getLastId() {
+        return this.lastId;
+    }
+
+    public ReindexCheckpoint lastId(String lastId) {
+        this.setLastId(lastId);
+        return this;
+    }
+
+    public void setLastId(String lastId) {
+        this.lastId = lastId;
+    }
+
+    public long getIndexed() {
+        return this.indexed;
+    }
+
+    public ReindexCheckpoint indexed(long indexed) {
+        this.setIndexed(indexed);
+        return this;
+    }
+
+    public void setIndexed(long indexed) {
+        this.indexed = indexed;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ReindexCheckpoint)) {
+            return false;
+        }
+        return entityName != null && entityName.equals(((ReindexCheckpoint) o).entityName);
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ReindexCheckpoint{" +
+            "entityName='" + getEntityName() + "'" +
+            ", indexName='" + getIndexName() + "'" +
+            ", lastId='" + getLastId() + "'" +
+            ", indexed=" + getIndexed() +
+            "}";
+    }
+}
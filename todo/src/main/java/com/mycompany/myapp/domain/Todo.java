@@ -1,8 +1,14 @@
 package com.mycompany.myapp.domain;
 
 import java.io.Serializable;
+import org.elasticsearch.index.VersionType;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.Transient;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.InnerField;
+import org.springframework.data.elasticsearch.annotations.MultiField;
+import org.springframework.data.elasticsearch.annotations.Setting;
 import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Table;
 
@@ -10,30 +16,52 @@ import org.springframework.data.relational.core.mapping.Table;
  * A Todo.
  */
 @Table("todo")
-@org.springframework.data.elasticsearch.annotations.Document(indexName = "todo")
+@org.springframework.data.elasticsearch.annotations.Document(indexName = "todo", versionType = VersionType.EXTERNAL_GTE)
+@Setting(settingPath = "config/elasticsearch/todo-settings.json")
 public class Todo implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
     @Id
+    @MultiField(
+        mainField = @org.springframework.data.elasticsearch.annotations.Field(type = FieldType.Keyword),
+        // the ranges of ids, for the consistency checks
+        otherFields = { @InnerField(suffix = "numeric", type = FieldType.Long) }
+    )
     @Column("id")
     private Long id;
 
+    @MultiField(
+        mainField = @org.springframework.data.elasticsearch.annotations.Field(type = FieldType.Text),
+        otherFields = {
+            @InnerField(suffix = "keyword", type = FieldType.Keyword, ignoreAbove = 256),
+            // the prefixes of the words, for the suggestions
+            @InnerField(suffix = "prefix", type = FieldType.Text, analyzer = "autocomplete", searchAnalyzer = "autocomplete_search")
+        }
+    )
     @Column("task")
     private String task;
 
+    @org.springframework.data.elasticsearch.annotations.Field(type = FieldType.Text)
     @Column("description")
     private String description;
 
+    @org.springframework.data.elasticsearch.annotations.Field(type = FieldType.Boolean)
     @Column("completed")
     private Boolean completed;
 
     @Transient
     private Category category;
 
+    @org.springframework.data.elasticsearch.annotations.Field(type = FieldType.Long)
     @Column("category_id")
     private Long categoryId;
 
+    @Version
+    @org.springframework.data.elasticsearch.annotations.Field(type = FieldType.Long)
+    @Column("version")
+    private Long version;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
 
     public Long getId() {
@@ -110,6 +138,19 @@ public class Todo implements Serializable {
         this.categoryId = category;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public Todo version(Long version) {
+        this.setVersion(version);
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
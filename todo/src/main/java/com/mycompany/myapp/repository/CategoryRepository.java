@@ -30,6 +30,7 @@ interface CategoryRepositoryInternal {
     <S extends Category> Mono<S> insert(S entity);
     <S extends Category> Mono<S> save(S entity);
     Mono<Integer> update(Category entity);
+    Mono<Integer> updateNonNullFields(Category entity);
 
     Flux<Category> findAll();
     Mono<Category> findById(Long id);
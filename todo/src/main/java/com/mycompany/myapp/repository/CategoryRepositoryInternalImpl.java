@@ -15,6 +15,7 @@ import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.function.BiFunction;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.relational.core.query.Criteria;
 import org.springframework.data.relational.core.sql.Column;
@@ -23,6 +24,7 @@ import org.springframework.data.relational.core.sql.Select;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoin;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.PreparedOperation;
 import org.springframework.r2dbc.core.RowsFetchSpec;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -59,25 +61,21 @@ class CategoryRepositoryInternalImpl implements CategoryRepositoryInternal {
     }
 
     RowsFetchSpec<Category> createQuery(Pageable pageable, Criteria criteria) {
+        Sort sort = pageable != null ? pageable.getSort() : null;
+        PreparedOperation<String> select = entityManager.createSelect(
+            null,
+            entityTable,
+            Category.class,
+            pageable,
+            criteria,
+            condition -> entityManager.createSelect(createSelectFrom(), Category.class, sort, condition)
+        );
+        return db.sql(select).map(this::process);
+    }
+
+    private SelectFromAndJoin createSelectFrom() {
         List<Expression> columns = CategorySqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
-        SelectFromAndJoin selectFrom = Select.builder().select(columns).from(entityTable);
-
-        String select = entityManager.createSelect(selectFrom, Category.class, pageable, criteria);
-        String alias = entityTable.getReferenceName().getReference();
-        String selectWhere = Optional
-            .ofNullable(criteria)
-            .map(crit ->
-                new StringBuilder(select)
-                    .append(" ")
-                    .append("WHERE")
-                    .append(" ")
-                    .append(alias)
-                    .append(".")
-                    .append(crit.toString())
-                    .toString()
-            )
-            .orElse(select); // TODO remove once https://github.com/spring-projects/spring-data-jdbc/issues/907 will be fixed
-        return db.sql(selectWhere).map(this::process);
+        return Select.builder().select(columns).from(entityTable);
     }
 
     @Override
@@ -91,7 +89,7 @@ class CategoryRepositoryInternalImpl implements CategoryRepositoryInternal {
     }
 
     private Category process(Row row, RowMetadata metadata) {
-        Category entity = categoryMapper.apply(row, "e");
+        Category entity = categoryMapper.apply(row, metadata, "e");
         return entity;
     }
 
@@ -117,7 +115,11 @@ class CategoryRepositoryInternalImpl implements CategoryRepositoryInternal {
 
     @Override
     public Mono<Integer> update(Category entity) {
-        //fixme is this the proper way?
-        return r2dbcEntityTemplate.update(entity).thenReturn(1);
+        return entityManager.update(entity);
+    }
+
+    @Override
+    public Mono<Integer> updateNonNullFields(Category entity) {
+        return entityManager.updateNonNullFields(entity);
     }
 }
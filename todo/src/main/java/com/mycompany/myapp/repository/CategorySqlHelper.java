@@ -14,6 +14,7 @@ public class CategorySqlHelper {
         columns.add(Column.aliased("name", table, columnPrefix + "_name"));
         columns.add(Column.aliased("description", table, columnPrefix + "_description"));
         columns.add(Column.aliased("active", table, columnPrefix + "_active"));
+        columns.add(Column.aliased("version", table, columnPrefix + "_version"));
 
         return columns;
     }
@@ -0,0 +1,69 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.OutboxEvent;
+import java.time.Instant;
+import java.util.Collection;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Spring Data SQL reactive repository for the {@link OutboxEvent} entity.
+ */
+@Repository
+public interface OutboxEventRepository extends R2dbcRepository<OutboxEvent, Long> {
+    /**
+     * Find the oldest entries which can be claimed: not claimed, or with an expired claim, not parked, and whose entity isn't being
+     * indexed by the claim of another entry.
+     */
+    @Query(
+        "SELECT o.* FROM outbox o WHERE (o.claimed_until IS NULL OR o.claimed_until < :now) AND o.attempts < :maxAttempts" +
+        " AND NOT EXISTS (SELECT c.id FROM outbox c WHERE c.aggregate_type = o.aggregate_type AND c.aggregate_id = o.aggregate_id" +
+        " AND c.claimed_until >= :now) ORDER BY o.id LIMIT :limit"
+    )
+    Flux<OutboxEvent> findClaimable(Instant now, int maxAttempts, int limit);
+
+    /**
+     * Claim the given entries which are still claimable, and count the attempt: the entries claimed by another instance meanwhile
+     * are skipped.
+     */
+    @Modifying
+    @Query(
+        "UPDATE outbox SET claim_token = :claimToken, claimed_until = :claimedUntil, attempts = attempts + 1" +
+        " WHERE id IN (:ids) AND (claimed_until IS NULL OR claimed_until < :now)"
+    )
+    Mono<Integer> claim(Collection<Long> ids, String claimToken, Instant claimedUntil, Instant now);
+
+    @Query("SELECT * FROM outbox WHERE claim_token = :claimToken ORDER BY id")
+    Flux<OutboxEvent> findAllByClaimToken(String claimToken);
+
+    /**
+     * Find the entries currently claimed by the other claims.
+     */
+    @Query("SELECT * FROM outbox WHERE claimed_until >= :now AND claim_token <> :claimToken")
+    Flux<OutboxEvent> findOtherClaims(String claimToken, Instant now);
+
+    /**
+     * Release the claim of the given entries, so that they are claimed again after the given instant.
+     */
+    @Modifying
+    @Query("UPDATE outbox SET claim_token = NULL, claimed_until = :notBefore WHERE id IN (:ids) AND claim_token = :claimToken")
+    Mono<Integer> release(Collection<Long> ids, String claimToken, Instant notBefore);
+
+    /**
+     * Release the claim of the given entries, without counting the attempt.
+     */
+    @Modifying
+    @Query(
+        "UPDATE outbox SET claim_token = NULL, claimed_until = NULL, attempts = attempts - 1" +
+        " WHERE id IN (:ids) AND claim_token = :claimToken"
+    )
+    Mono<Integer> unclaim(Collection<Long> ids, String claimToken);
+
+    @Modifying
+    @Query("DELETE FROM outbox WHERE id IN (:ids)")
+    Mono<Integer> deleteAllByIdIn(Collection<Long> ids);
+}
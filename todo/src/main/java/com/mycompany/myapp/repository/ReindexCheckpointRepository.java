@@ -0,0 +1,13 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.ReindexCheckpoint;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data SQL reactive repository for the {@link ReindexCheckpoint} entity.
+ * <p>
+ * The ids are assigned, so the checkpoints are created with {@link com.mycompany.myapp.service.EntityManager#insert(Object)}.
+ */
+@Repository
+public interface ReindexCheckpointRepository extends R2dbcRepository<ReindexCheckpoint, String> {}
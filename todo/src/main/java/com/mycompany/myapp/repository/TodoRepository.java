@@ -1,6 +1,10 @@
 package com.mycompany.myapp.repository;
 
 import com.mycompany.myapp.domain.Todo;
+import com.mycompany.myapp.service.EntityManager;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
@@ -34,11 +38,21 @@ public interface TodoRepository extends R2dbcRepository<Todo, Long>, TodoReposit
 
 interface TodoRepositoryInternal {
     <S extends Todo> Mono<S> insert(S entity);
+    <S extends Todo> Flux<S> insertAll(List<S> entities);
     <S extends Todo> Mono<S> save(S entity);
     Mono<Integer> update(Todo entity);
+    Mono<Integer> updateNonNullFields(Todo entity);
 
     Flux<Todo> findAll();
     Mono<Todo> findById(Long id);
     Flux<Todo> findAllBy(Pageable pageable);
     Flux<Todo> findAllBy(Pageable pageable, Criteria criteria);
+    Flux<Todo> findAllBy(Pageable pageable, Criteria criteria, Collection<String> fields, boolean withCategory);
+    Mono<Todo> findById(Long id, Collection<String> fields, boolean withCategory);
+    Flux<Todo> findAllAfter(Long cursor, int size);
+    Flux<Todo> findAllAfter(Long cursor, int size, Criteria criteria, Collection<String> fields, boolean withCategory);
+    Mono<Integer> deleteAllBy(Criteria criteria);
+    Mono<Integer> deleteAllBy(Criteria criteria, int chunkSize);
+    Mono<Integer> deleteAllBy(Criteria criteria, int chunkSize, Function<List<Object>, Mono<Void>> beforeDelete);
+    Flux<EntityManager.GroupCount> countGroupedByCompletedAndCategory(Criteria criteria);
 }
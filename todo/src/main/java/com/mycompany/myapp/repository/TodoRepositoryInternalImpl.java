@@ -10,12 +10,16 @@ import com.mycompany.myapp.service.EntityManager;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.function.BiFunction;
+import java.util.function.Function;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.relational.core.query.Criteria;
 import org.springframework.data.relational.core.sql.Column;
@@ -24,6 +28,7 @@ import org.springframework.data.relational.core.sql.Select;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoinCondition;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.PreparedOperation;
 import org.springframework.r2dbc.core.RowsFetchSpec;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -67,33 +72,72 @@ class TodoRepositoryInternalImpl implements TodoRepositoryInternal {
         return createQuery(pageable, criteria).all();
     }
 
+    @Override
+    public Flux<Todo> findAllBy(Pageable pageable, Criteria criteria, Collection<String> fields, boolean withCategory) {
+        return createQuery(pageable, criteria, fields, withCategory).all();
+    }
+
+    @Override
+    public Flux<Todo> findAllAfter(Long cursor, int size) {
+        return findAllAfter(cursor, size, null, null, true);
+    }
+
+    @Override
+    public Flux<Todo> findAllAfter(Long cursor, int size, Criteria criteria, Collection<String> fields, boolean withCategory) {
+        if (cursor != null) {
+            Criteria keyset = where("id").greaterThan(cursor);
+            criteria = criteria != null && !criteria.isEmpty() ? criteria.and(keyset) : keyset;
+        }
+        return createQuery(PageRequest.of(0, size, Sort.by("id")), criteria, fields, withCategory).all();
+    }
+
     RowsFetchSpec<Todo> createQuery(Pageable pageable, Criteria criteria) {
-        List<Expression> columns = TodoSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
-        columns.addAll(CategorySqlHelper.getColumns(categoryTable, "category"));
-        SelectFromAndJoinCondition selectFrom = Select
+        return createQuery(pageable, criteria, null, true);
+    }
+
+    /**
+     * Create the select of the todos, with the given columns only, and joined with their category if requested.
+     * @param pageable page parameter, or null, if everything needs to be returned.
+     * @param criteria the where condition, or null, if everything needs to be returned.
+     * @param fields the fields to select, see {@link TodoSqlHelper#getFields()}, or null to select all of them.
+     * @param withCategory whether to join the category of the todos.
+     * @return the select.
+     */
+    RowsFetchSpec<Todo> createQuery(Pageable pageable, Criteria criteria, Collection<String> fields, boolean withCategory) {
+        return db.sql(createSelect(pageable, criteria, fields, withCategory)).map((row, metadata) -> process(row, metadata, withCategory));
+    }
+
+    // the select of createQuery, with its bindings
+    PreparedOperation<String> createSelect(Pageable pageable, Criteria criteria, Collection<String> fields, boolean withCategory) {
+        List<Expression> columns = fields != null
+            ? TodoSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS, fields)
+            : TodoSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
+        // the select fragment is identified by its columns and joins
+        Sort sort = pageable != null ? pageable.getSort() : null;
+        String selectName = (withCategory ? "category" : "todo") + (fields != null ? columns.toString() : "");
+        return entityManager.createSelect(
+            selectName,
+            entityTable,
+            Todo.class,
+            pageable,
+            criteria,
+            condition ->
+                withCategory
+                    ? entityManager.createSelect(createSelectFrom(columns), Todo.class, sort, condition)
+                    : entityManager.createSelect(Select.builder().select(columns).from(entityTable), Todo.class, sort, condition)
+        );
+    }
+
+    private SelectFromAndJoinCondition createSelectFrom(List<Expression> columns) {
+        List<Expression> joinedColumns = new ArrayList<>(columns);
+        joinedColumns.addAll(CategorySqlHelper.getColumns(categoryTable, "category"));
+        return Select
             .builder()
-            .select(columns)
+            .select(joinedColumns)
             .from(entityTable)
             .leftOuterJoin(categoryTable)
             .on(Column.create("category_id", entityTable))
             .equals(Column.create("id", categoryTable));
-
-        String select = entityManager.createSelect(selectFrom, Todo.class, pageable, criteria);
-        String alias = entityTable.getReferenceName().getReference();
-        String selectWhere = Optional
-            .ofNullable(criteria)
-            .map(crit ->
-                new StringBuilder(select)
-                    .append(" ")
-                    .append("WHERE")
-                    .append(" ")
-                    .append(alias)
-                    .append(".")
-                    .append(crit.toString())
-                    .toString()
-            )
-            .orElse(select); // TODO remove once https://github.com/spring-projects/spring-data-jdbc/issues/907 will be fixed
-        return db.sql(selectWhere).map(this::process);
     }
 
     @Override
@@ -106,9 +150,36 @@ class TodoRepositoryInternalImpl implements TodoRepositoryInternal {
         return createQuery(null, where("id").is(id)).one();
     }
 
-    private Todo process(Row row, RowMetadata metadata) {
-        Todo entity = todoMapper.apply(row, "e");
-        entity.setCategory(categoryMapper.apply(row, "category"));
+    @Override
+    public Mono<Todo> findById(Long id, Collection<String> fields, boolean withCategory) {
+        return createQuery(null, where("id").is(id), fields, withCategory).one();
+    }
+
+    @Override
+    public Mono<Integer> deleteAllBy(Criteria criteria) {
+        return entityManager.deleteAll(Todo.class, criteria);
+    }
+
+    @Override
+    public Mono<Integer> deleteAllBy(Criteria criteria, int chunkSize) {
+        return entityManager.deleteAll(Todo.class, criteria, chunkSize);
+    }
+
+    @Override
+    public Mono<Integer> deleteAllBy(Criteria criteria, int chunkSize, Function<List<Object>, Mono<Void>> beforeDelete) {
+        return entityManager.deleteAll(Todo.class, criteria, chunkSize, beforeDelete);
+    }
+
+    @Override
+    public Flux<EntityManager.GroupCount> countGroupedByCompletedAndCategory(Criteria criteria) {
+        return entityManager.countGroupedBy(Todo.class, criteria, List.of("completed", "categoryId"));
+    }
+
+    private Todo process(Row row, RowMetadata metadata, boolean withCategory) {
+        Todo entity = todoMapper.apply(row, metadata, "e");
+        if (withCategory) {
+            entity.setCategory(categoryMapper.apply(row, metadata, "category"));
+        }
         return entity;
     }
 
@@ -117,6 +188,11 @@ class TodoRepositoryInternalImpl implements TodoRepositoryInternal {
         return entityManager.insert(entity);
     }
 
+    @Override
+    public <S extends Todo> Flux<S> insertAll(List<S> entities) {
+        return entityManager.insertAll(entities);
+    }
+
     @Override
     public <S extends Todo> Mono<S> save(S entity) {
         if (entity.getId() == null) {
@@ -134,7 +210,11 @@ class TodoRepositoryInternalImpl implements TodoRepositoryInternal {
 
     @Override
     public Mono<Integer> update(Todo entity) {
-        //fixme is this the proper way?
-        return r2dbcEntityTemplate.update(entity).thenReturn(1);
+        return entityManager.update(entity);
+    }
+
+    @Override
+    public Mono<Integer> updateNonNullFields(Todo entity) {
+        return entityManager.updateNonNullFields(entity);
     }
 }
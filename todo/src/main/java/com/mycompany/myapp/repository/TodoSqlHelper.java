@@ -1,21 +1,63 @@
 package com.mycompany.myapp.repository;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import org.springframework.data.relational.core.sql.Column;
 import org.springframework.data.relational.core.sql.Expression;
 import org.springframework.data.relational.core.sql.Table;
 
 public class TodoSqlHelper {
 
+    // the column of every field which can be selected, by field name
+    private static final Map<String, String> COLUMNS = new LinkedHashMap<>();
+
+    static {
+        COLUMNS.put("id", "id");
+        COLUMNS.put("task", "task");
+        COLUMNS.put("description", "description");
+        COLUMNS.put("completed", "completed");
+        COLUMNS.put("version", "version");
+        COLUMNS.put("categoryId", "category_id");
+    }
+
     public static List<Expression> getColumns(Table table, String columnPrefix) {
         List<Expression> columns = new ArrayList<>();
         columns.add(Column.aliased("id", table, columnPrefix + "_id"));
         columns.add(Column.aliased("task", table, columnPrefix + "_task"));
         columns.add(Column.aliased("description", table, columnPrefix + "_description"));
         columns.add(Column.aliased("completed", table, columnPrefix + "_completed"));
+        columns.add(Column.aliased("version", table, columnPrefix + "_version"));
 
         columns.add(Column.aliased("category_id", table, columnPrefix + "_category_id"));
         return columns;
     }
+
+    /**
+     * The columns of the given fields only, the id is always selected.
+     * @param table the table of the columns.
+     * @param columnPrefix the prefix of the column aliases.
+     * @param fields the names of the fields to select, see {@link #getFields()}.
+     * @return the columns, in the same order as {@link #getColumns(Table, String)}.
+     */
+    public static List<Expression> getColumns(Table table, String columnPrefix, Collection<String> fields) {
+        List<Expression> columns = new ArrayList<>();
+        for (Map.Entry<String, String> field : COLUMNS.entrySet()) {
+            if (field.getKey().equals("id") || fields.contains(field.getKey())) {
+                columns.add(Column.aliased(field.getValue(), table, columnPrefix + "_" + field.getValue()));
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * @return the names of the fields which can be selected.
+     */
+    public static Set<String> getFields() {
+        return Collections.unmodifiableSet(COLUMNS.keySet());
+    }
 }
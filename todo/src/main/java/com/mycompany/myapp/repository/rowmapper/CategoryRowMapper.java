@@ -3,6 +3,7 @@ package com.mycompany.myapp.repository.rowmapper;
 import com.mycompany.myapp.domain.Category;
 import com.mycompany.myapp.service.ColumnConverter;
 import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
 import java.util.function.BiFunction;
 import org.springframework.stereotype.Service;
 
@@ -12,10 +13,18 @@ import org.springframework.stereotype.Service;
 @Service
 public class CategoryRowMapper implements BiFunction<Row, String, Category> {
 
+    private static final int ID = 0;
+    private static final int NAME = 1;
+    private static final int DESCRIPTION = 2;
+    private static final int ACTIVE = 3;
+    private static final int VERSION = 4;
+
     private final ColumnConverter converter;
+    private final IndexedColumnReader reader;
 
     public CategoryRowMapper(ColumnConverter converter) {
         this.converter = converter;
+        this.reader = new IndexedColumnReader(converter, "id", "name", "description", "active", "version");
     }
 
     /**
@@ -29,6 +38,22 @@ public class CategoryRowMapper implements BiFunction<Row, String, Category> {
         entity.setName(converter.fromRow(row, prefix + "_name", String.class));
         entity.setDescription(converter.fromRow(row, prefix + "_description", String.class));
         entity.setActive(converter.fromRow(row, prefix + "_active", Boolean.class));
+        entity.setVersion(converter.fromRow(row, prefix + "_version", Long.class));
+        return entity;
+    }
+
+    /**
+     * Take a {@link Row}, its {@link RowMetadata} and a column prefix, and extract all the fields by column index.
+     * @return the {@link Category} stored in the database.
+     */
+    public Category apply(Row row, RowMetadata metadata, String prefix) {
+        int[] indexes = reader.resolve(metadata, prefix);
+        Category entity = new Category();
+        entity.setId(reader.get(row, indexes, ID, Long.class));
+        entity.setName(reader.get(row, indexes, NAME, String.class));
+        entity.setDescription(reader.get(row, indexes, DESCRIPTION, String.class));
+        entity.setActive(reader.get(row, indexes, ACTIVE, Boolean.class));
+        entity.setVersion(reader.get(row, indexes, VERSION, Long.class));
         return entity;
     }
 }
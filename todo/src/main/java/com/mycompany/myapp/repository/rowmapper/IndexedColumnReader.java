@@ -0,0 +1,133 @@
+package com.mycompany.myapp.repository.rowmapper;
+
+import com.mycompany.myapp.service.ColumnConverter;
+import io.r2dbc.spi.ColumnMetadata;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Reads the prefixed columns of an entity from a {@link Row} by index.
+ * <p>
+ * The column indexes are resolved once per {@link RowMetadata} shape and column prefix, so mapping a row
+ * doesn't need to build column names, nor to look them up by name in the driver. The rows of a result share their metadata, so the
+ * indexes are first looked up by the identity of the metadata, then by its column names. Both lookups are bounded.
+ */
+public class IndexedColumnReader {
+
+    private static final int METADATA_CACHE_SIZE = 256;
+
+    private static final int SHAPE_CACHE_SIZE = 64;
+
+    private final ColumnConverter converter;
+    private final String[] columnNames;
+
+    // the results being mapped, cleared when it's full, as their metadata is only used while they are read
+    private final ConcurrentMap<ResolvedMetadata, int[]> indexesByMetadata = new ConcurrentHashMap<>();
+
+    private final Map<List<String>, int[]> indexesByShape = Collections.synchronizedMap(
+        new LinkedHashMap<>(SHAPE_CACHE_SIZE, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<String>, int[]> eldest) {
+                return size() > SHAPE_CACHE_SIZE;
+            }
+        }
+    );
+
+    public IndexedColumnReader(ColumnConverter converter, String... columnNames) {
+        this.converter = converter;
+        this.columnNames = columnNames;
+    }
+
+    /**
+     * Resolve the index of every column, in the order they were given to the constructor.
+     * @param metadata the metadata of the rows which are going to be read.
+     * @param prefix the column prefix.
+     * @return the indexes of the columns, -1 for the columns which are not part of the row.
+     */
+    public int[] resolve(RowMetadata metadata, String prefix) {
+        ResolvedMetadata key = new ResolvedMetadata(metadata, prefix);
+        int[] indexes = indexesByMetadata.get(key);
+        if (indexes != null) {
+            return indexes;
+        }
+        List<String> shape = new ArrayList<>();
+        shape.add(prefix);
+        for (ColumnMetadata column : metadata.getColumnMetadatas()) {
+            shape.add(column.getName());
+        }
+        indexes = indexesByShape.computeIfAbsent(shape, this::computeIndexes);
+        if (indexesByMetadata.size() >= METADATA_CACHE_SIZE) {
+            indexesByMetadata.clear();
+        }
+        indexesByMetadata.put(key, indexes);
+        return indexes;
+    }
+
+    /**
+     * Read a column value by index, and convert it to the target type.
+     * @param row which contains the column values.
+     * @param indexes the indexes returned by {@link #resolve(RowMetadata, String)}.
+     * @param column the position of the column, in the order they were given to the constructor.
+     * @param target class.
+     * @param <T> the parameter for the intended type.
+     * @return the converted value, or null if the column is not part of the row.
+     */
+    public <T> T get(Row row, int[] indexes, int column, Class<T> target) {
+        int index = indexes[column];
+        if (index < 0) {
+            return null;
+        }
+        return converter.convert(row.get(index), target);
+    }
+
+    private int[] computeIndexes(List<String> shape) {
+        String prefix = shape.get(0);
+        List<String> rowColumns = shape.subList(1, shape.size());
+        int[] indexes = new int[columnNames.length];
+        Arrays.fill(indexes, -1);
+        for (int column = 0; column < columnNames.length; column++) {
+            String name = prefix + "_" + columnNames[column];
+            for (int index = 0; index < rowColumns.size(); index++) {
+                if (name.equalsIgnoreCase(rowColumns.get(index))) {
+                    indexes[column] = index;
+                    break;
+                }
+            }
+        }
+        return indexes;
+    }
+
+    // identifies the metadata instance, with the prefix
+    private static final class ResolvedMetadata {
+
+        private final RowMetadata metadata;
+        private final String prefix;
+
+        ResolvedMetadata(RowMetadata metadata, String prefix) {
+            this.metadata = metadata;
+            this.prefix = prefix;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof ResolvedMetadata)) {
+                return false;
+            }
+            ResolvedMetadata other = (ResolvedMetadata) o;
+            return metadata == other.metadata && prefix.equals(other.prefix);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(metadata) + prefix.hashCode();
+        }
+    }
+}
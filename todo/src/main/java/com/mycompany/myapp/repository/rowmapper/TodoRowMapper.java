@@ -3,6 +3,7 @@ package com.mycompany.myapp.repository.rowmapper;
 import com.mycompany.myapp.domain.Todo;
 import com.mycompany.myapp.service.ColumnConverter;
 import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
 import java.util.function.BiFunction;
 import org.springframework.stereotype.Service;
 
@@ -12,10 +13,19 @@ import org.springframework.stereotype.Service;
 @Service
 public class TodoRowMapper implements BiFunction<Row, String, Todo> {
 
+    private static final int ID = 0;
+    private static final int TASK = 1;
+    private static final int DESCRIPTION = 2;
+    private static final int COMPLETED = 3;
+    private static final int CATEGORY_ID = 4;
+    private static final int VERSION = 5;
+
     private final ColumnConverter converter;
+    private final IndexedColumnReader reader;
 
     public TodoRowMapper(ColumnConverter converter) {
         this.converter = converter;
+        this.reader = new IndexedColumnReader(converter, "id", "task", "description", "completed", "category_id", "version");
     }
 
     /**
@@ -30,6 +40,23 @@ public class TodoRowMapper implements BiFunction<Row, String, Todo> {
         entity.setDescription(converter.fromRow(row, prefix + "_description", String.class));
         entity.setCompleted(converter.fromRow(row, prefix + "_completed", Boolean.class));
         entity.setCategoryId(converter.fromRow(row, prefix + "_category_id", Long.class));
+        entity.setVersion(converter.fromRow(row, prefix + "_version", Long.class));
+        return entity;
+    }
+
+    /**
+     * Take a {@link Row}, its {@link RowMetadata} and a column prefix, and extract all the fields by column index.
+     * @return the {@link Todo} stored in the database.
+     */
+    public Todo apply(Row row, RowMetadata metadata, String prefix) {
+        int[] indexes = reader.resolve(metadata, prefix);
+        Todo entity = new Todo();
+        entity.setId(reader.get(row, indexes, ID, Long.class));
+        entity.setTask(reader.get(row, indexes, TASK, String.class));
+        entity.setDescription(reader.get(row, indexes, DESCRIPTION, String.class));
+        entity.setCompleted(reader.get(row, indexes, COMPLETED, Boolean.class));
+        entity.setCategoryId(reader.get(row, indexes, CATEGORY_ID, Long.class));
+        entity.setVersion(reader.get(row, indexes, VERSION, Long.class));
         return entity;
     }
 }
@@ -3,6 +3,7 @@ package com.mycompany.myapp.repository.rowmapper;
 import com.mycompany.myapp.domain.User;
 import com.mycompany.myapp.service.ColumnConverter;
 import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
 import java.time.Instant;
 import java.util.function.BiFunction;
 import org.springframework.stereotype.Service;
@@ -13,10 +14,40 @@ import org.springframework.stereotype.Service;
 @Service
 public class UserRowMapper implements BiFunction<Row, String, User> {
 
+    private static final int ID = 0;
+    private static final int LOGIN = 1;
+    private static final int FIRST_NAME = 2;
+    private static final int LAST_NAME = 3;
+    private static final int EMAIL = 4;
+    private static final int ACTIVATED = 5;
+    private static final int LANG_KEY = 6;
+    private static final int IMAGE_URL = 7;
+    private static final int CREATED_BY = 8;
+    private static final int CREATED_DATE = 9;
+    private static final int LAST_MODIFIED_BY = 10;
+    private static final int LAST_MODIFIED_DATE = 11;
+
     private final ColumnConverter converter;
+    private final IndexedColumnReader reader;
 
     public UserRowMapper(ColumnConverter converter) {
         this.converter = converter;
+        this.reader =
+            new IndexedColumnReader(
+                converter,
+                "id",
+                "login",
+                "first_name",
+                "last_name",
+                "email",
+                "activated",
+                "lang_key",
+                "image_url",
+                "created_by",
+                "created_date",
+                "last_modified_by",
+                "last_modified_date"
+            );
     }
 
     /**
@@ -36,4 +67,26 @@ public class UserRowMapper implements BiFunction<Row, String, User> {
         entity.setImageUrl(converter.fromRow(row, prefix + "_image_url", String.class));
         return entity;
     }
+
+    /**
+     * Take a {@link Row}, its {@link RowMetadata} and a column prefix, and extract all the fields by column index.
+     * @return the {@link User} stored in the database.
+     */
+    public User apply(Row row, RowMetadata metadata, String prefix) {
+        int[] indexes = reader.resolve(metadata, prefix);
+        User entity = new User();
+        entity.setId(reader.get(row, indexes, ID, String.class));
+        entity.setLogin(reader.get(row, indexes, LOGIN, String.class));
+        entity.setFirstName(reader.get(row, indexes, FIRST_NAME, String.class));
+        entity.setLastName(reader.get(row, indexes, LAST_NAME, String.class));
+        entity.setEmail(reader.get(row, indexes, EMAIL, String.class));
+        entity.setActivated(Boolean.TRUE.equals(reader.get(row, indexes, ACTIVATED, Boolean.class)));
+        entity.setLangKey(reader.get(row, indexes, LANG_KEY, String.class));
+        entity.setImageUrl(reader.get(row, indexes, IMAGE_URL, String.class));
+        entity.setCreatedBy(reader.get(row, indexes, CREATED_BY, String.class));
+        entity.setCreatedDate(reader.get(row, indexes, CREATED_DATE, Instant.class));
+        entity.setLastModifiedBy(reader.get(row, indexes, LAST_MODIFIED_BY, String.class));
+        entity.setLastModifiedDate(reader.get(row, indexes, LAST_MODIFIED_DATE, Instant.class));
+        return entity;
+    }
 }
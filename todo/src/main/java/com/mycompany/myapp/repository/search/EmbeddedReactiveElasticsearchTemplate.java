@@ -0,0 +1,649 @@
+package com.mycompany.myapp.repository.search;
+
+import com.mycompany.myapp.service.EntityManager;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.DoubleStream;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.get.GetRequest;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.text.Text;
+import org.elasticsearch.common.xcontent.DeprecationHandler;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.index.get.GetResult;
+import org.elasticsearch.search.DocValueFormat;
+import org.elasticsearch.search.aggregations.Aggregation;
+import org.elasticsearch.search.aggregations.AggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.missing.MissingAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.missing.ParsedMissing;
+import org.elasticsearch.search.aggregations.bucket.terms.ParsedStringTerms;
+import org.elasticsearch.search.aggregations.bucket.terms.TermsAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.MaxAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.MinAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.ParsedMax;
+import org.elasticsearch.search.aggregations.metrics.ParsedMin;
+import org.elasticsearch.search.aggregations.metrics.ParsedSum;
+import org.elasticsearch.search.aggregations.metrics.ParsedScriptedMetric;
+import org.elasticsearch.search.aggregations.metrics.ParsedValueCount;
+import org.elasticsearch.search.aggregations.metrics.ScriptedMetricAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.SumAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.ValueCountAggregationBuilder;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
+import org.elasticsearch.search.sort.FieldSortBuilder;
+import org.elasticsearch.search.sort.ScoreSortBuilder;
+import org.elasticsearch.search.sort.SortBuilder;
+import org.elasticsearch.search.sort.SortOrder;
+import org.springframework.data.elasticsearch.client.reactive.ReactiveElasticsearchClient;
+import org.springframework.data.elasticsearch.core.IndexInformation;
+import org.springframework.data.elasticsearch.core.ReactiveElasticsearchTemplate;
+import org.springframework.data.elasticsearch.core.ReactiveIndexOperations;
+import org.springframework.data.elasticsearch.core.convert.ElasticsearchConverter;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.data.elasticsearch.core.document.DocumentAdapters;
+import org.springframework.data.elasticsearch.core.document.SearchDocument;
+import org.springframework.data.elasticsearch.core.index.AliasAction;
+import org.springframework.data.elasticsearch.core.index.AliasActions;
+import org.springframework.data.elasticsearch.core.index.AliasData;
+import org.springframework.data.elasticsearch.core.index.DeleteTemplateRequest;
+import org.springframework.data.elasticsearch.core.index.ExistsTemplateRequest;
+import org.springframework.data.elasticsearch.core.index.GetTemplateRequest;
+import org.springframework.data.elasticsearch.core.index.PutTemplateRequest;
+import org.springframework.data.elasticsearch.core.index.Settings;
+import org.springframework.data.elasticsearch.core.index.TemplateData;
+import org.springframework.data.elasticsearch.core.mapping.ElasticsearchPersistentEntity;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.BulkOptions;
+import org.springframework.data.elasticsearch.core.query.ByQueryResponse;
+import org.springframework.data.elasticsearch.core.query.NativeSearchQuery;
+import org.springframework.data.elasticsearch.core.query.Query;
+import org.springframework.data.elasticsearch.core.query.UpdateQuery;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * A {@link ReactiveElasticsearchTemplate} which searches Lucene indices held in memory, rather than an Elasticsearch cluster.
+ * <p>
+ * It stands for Elasticsearch with the {@code embedded-search} profile: the documents are written by the same outbox and indexer, and
+ * searched by the same repositories. The searches are translated to Lucene from the Elasticsearch requests built by the template,
+ * see {@link EmbeddedSearchIndex} for the supported queries. The sorts are on the score and on keywords, and the aggregations are the
+ * terms, missing, value count, sum, min and max aggregations, and the scripted metric of the checksums of the ids and versions, see
+ * {@link EntityManager.Checksum}. The writes are visible to the searches once they complete. The bulk updates are only supported as
+ * upserts of the missing documents. The other operations aren't supported, and reach the Elasticsearch client.
+ * <p>
+ * The {@link #indexOps(IndexCoordinates) index operations} support the creation and deletion of the indices, and their aliases. Like
+ * Elasticsearch, writing to a missing index creates it.
+ */
+public class EmbeddedReactiveElasticsearchTemplate extends ReactiveElasticsearchTemplate {
+
+    private static final int DEFAULT_SIZE = 10;
+
+    private final Map<String, EmbeddedSearchIndex> indices = new ConcurrentHashMap<>();
+
+    private final Map<String, String> aliases = new ConcurrentHashMap<>();
+
+    public EmbeddedReactiveElasticsearchTemplate(ReactiveElasticsearchClient client, ElasticsearchConverter converter) {
+        super(client, converter);
+    }
+
+    @Override
+    protected Mono<String> getClusterVersion() {
+        // there is no cluster
+        return Mono.empty();
+    }
+
+    @Override
+    public <T> Mono<T> save(T entity, IndexCoordinates index) {
+        return fromLucene(() -> {
+            EmbeddedSearchIndex searchIndex = indexForWrite(index.getIndexName());
+            write(searchIndex, entity);
+            searchIndex.refresh();
+            return entity;
+        });
+    }
+
+    @Override
+    public <T> Flux<T> saveAll(Mono<? extends Collection<? extends T>> entities, Class<T> clazz) {
+        return saveAll(entities, getIndexCoordinatesFor(clazz));
+    }
+
+    @Override
+    public <T> Flux<T> saveAll(Mono<? extends Collection<? extends T>> entities, IndexCoordinates index) {
+        return entities
+            .flatMap(documents ->
+                fromLucene(() -> {
+                    EmbeddedSearchIndex searchIndex = indexForWrite(index.getIndexName());
+                    documents.forEach(document -> write(searchIndex, document));
+                    searchIndex.refresh();
+                    return documents;
+                })
+            )
+            .flatMapIterable(documents -> documents);
+    }
+
+    // like Elasticsearch, the documents with a lower version than the indexed one aren't written
+    private void write(EmbeddedSearchIndex searchIndex, Object entity) {
+        ElasticsearchPersistentEntity<?> persistentEntity = getPersistentEntityFor(entity.getClass());
+        String id = persistentEntity.getIdentifierAccessor(entity).getRequiredIdentifier().toString();
+        Number version = persistentEntity.hasVersionProperty()
+            ? (Number) persistentEntity.getPropertyAccessor(entity).getProperty(persistentEntity.getRequiredVersionProperty())
+            : null;
+        Document document = getElasticsearchConverter().mapObject(entity);
+        searchIndex.index(
+            id,
+            version != null ? version.longValue() : null,
+            persistentEntity.getVersionType(),
+            document.toJson(),
+            document
+        );
+    }
+
+    @Override
+    public Mono<Void> bulkUpdate(List<UpdateQuery> queries, BulkOptions bulkOptions, IndexCoordinates index) {
+        if (queries.stream().anyMatch(query -> query.getUpsert() == null || query.getDocument() != null)) {
+            return Mono.error(new UnsupportedOperationException("Only the upserts of missing documents update the embedded search index"));
+        }
+        // the scripts are expected to leave the existing documents as they are
+        return fromLucene(() -> {
+                EmbeddedSearchIndex searchIndex = indexForWrite(index.getIndexName());
+                queries.forEach(query -> searchIndex.create(query.getId(), query.getUpsert().toJson(), query.getUpsert()));
+                searchIndex.refresh();
+                return queries;
+            })
+            .then();
+    }
+
+    @Override
+    public Mono<ByQueryResponse> delete(Query query, Class<?> entityType) {
+        return delete(query, entityType, getIndexCoordinatesFor(entityType));
+    }
+
+    @Override
+    public Mono<ByQueryResponse> delete(Query query, Class<?> entityType, IndexCoordinates index) {
+        if (!(query instanceof NativeSearchQuery)) {
+            return Mono.error(new UnsupportedOperationException("Only the native queries delete from the embedded search index"));
+        }
+        return fromLucene(() -> {
+            EmbeddedSearchIndex searchIndex = indexForWrite(index.getIndexName());
+            long deleted = searchIndex.delete(searchIndex.toQuery(((NativeSearchQuery) query).getQuery()));
+            searchIndex.refresh();
+            return ByQueryResponse.builder().withDeleted(deleted).build();
+        });
+    }
+
+    @Override
+    protected Mono<String> doDelete(DeleteRequest request) {
+        return fromLucene(() -> {
+            EmbeddedSearchIndex searchIndex = indexForWrite(request.index());
+            searchIndex.delete(new TermQuery(new Term(EmbeddedSearchIndex.ID_FIELD, request.id())));
+            searchIndex.refresh();
+            return request.id();
+        });
+    }
+
+    @Override
+    protected Mono<GetResult> doGet(GetRequest request) {
+        return fromLucene(() -> {
+                EmbeddedSearchIndex searchIndex = indexForRead(request.index());
+                if (searchIndex == null) {
+                    return null;
+                }
+                TermQuery query = new TermQuery(new Term(EmbeddedSearchIndex.ID_FIELD, request.id()));
+                return searchIndex.search(query, null, null, 1).stream().findFirst().orElse(null);
+            })
+            .map(hit ->
+                new GetResult(request.index(), "_doc", hit.id, -2, 0, hit.version, true, new BytesArray(hit.source), Map.of(), Map.of())
+            );
+    }
+
+    @Override
+    protected Mono<Boolean> doExists(GetRequest request) {
+        return doGet(request).hasElement();
+    }
+
+    @Override
+    protected Flux<SearchDocument> doFind(SearchRequest request) {
+        SearchSourceBuilder source = request.source();
+        int size = source.size() >= 0 ? source.size() : DEFAULT_SIZE;
+        return search(request, Math.max(source.from(), 0), size);
+    }
+
+    @Override
+    protected Flux<SearchDocument> doScroll(SearchRequest request) {
+        // the hits are read at once rather than scrolled, the index being in memory
+        return search(request, 0, Integer.MAX_VALUE);
+    }
+
+    private Flux<SearchDocument> search(SearchRequest request, int from, int size) {
+        SearchSourceBuilder source = request.source();
+        return fromLucene(() -> {
+                EmbeddedSearchIndex searchIndex = indexForRead(request.indices()[0]);
+                if (searchIndex == null) {
+                    return List.<SearchDocument>of();
+                }
+                Sort sort = toSort(source.sorts());
+                Object[] searchAfter = source.searchAfter();
+                List<EmbeddedSearchIndex.Hit> hits = searchIndex.search(
+                    searchIndex.toQuery(source.query()),
+                    sort,
+                    searchAfter,
+                    size == Integer.MAX_VALUE ? size : from + size
+                );
+                return hits
+                    .stream()
+                    .skip(from)
+                    .map(hit -> toSearchDocument(hit, source.fetchSource()))
+                    .collect(Collectors.toList());
+            })
+            .flatMapIterable(documents -> documents);
+    }
+
+    @Override
+    protected Mono<Long> doCount(SearchRequest request) {
+        return fromLucene(() -> {
+            EmbeddedSearchIndex searchIndex = indexForRead(request.indices()[0]);
+            return searchIndex != null ? searchIndex.count(searchIndex.toQuery(request.source().query())) : 0L;
+        });
+    }
+
+    @Override
+    protected Flux<Aggregation> doAggregate(SearchRequest request) {
+        SearchSourceBuilder source = request.source();
+        return fromLucene(() -> {
+                EmbeddedSearchIndex searchIndex = indexForRead(request.indices()[0]);
+                List<Map<String, Object>> documents = searchIndex == null
+                    ? List.<Map<String, Object>>of()
+                    : searchIndex
+                        .search(searchIndex.toQuery(source.query()), null, null, Integer.MAX_VALUE)
+                        .stream()
+                        .map(hit -> Document.parse(hit.source))
+                        .collect(Collectors.toList());
+                List<Aggregation> aggregations = new ArrayList<>();
+                if (source.aggregations() != null) {
+                    for (AggregationBuilder aggregation : source.aggregations().getAggregatorFactories()) {
+                        aggregations.add(aggregate(aggregation, documents));
+                    }
+                }
+                return aggregations;
+            })
+            .flatMapIterable(aggregations -> aggregations);
+    }
+
+    @Override
+    public ReactiveIndexOperations indexOps(Class<?> clazz) {
+        return indexOps(getIndexCoordinatesFor(clazz));
+    }
+
+    @Override
+    public ReactiveIndexOperations indexOps(IndexCoordinates index) {
+        return new EmbeddedIndexOperations(index);
+    }
+
+    // the Lucene operations may block, on the bounded elastic scheduler
+    private static <T> Mono<T> fromLucene(Callable<T> operation) {
+        return Mono.fromCallable(operation).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private EmbeddedSearchIndex indexForWrite(String indexName) {
+        return indices.computeIfAbsent(aliases.getOrDefault(indexName, indexName), name -> new EmbeddedSearchIndex());
+    }
+
+    private EmbeddedSearchIndex indexForRead(String indexName) {
+        return indices.get(aliases.getOrDefault(indexName, indexName));
+    }
+
+    private static Sort toSort(List<SortBuilder<?>> sorts) {
+        if (sorts == null || sorts.isEmpty()) {
+            return null;
+        }
+        List<SortField> sortFields = new ArrayList<>();
+        for (SortBuilder<?> sortBuilder : sorts) {
+            boolean reverse = sortBuilder.order() == SortOrder.DESC;
+            if (sortBuilder instanceof ScoreSortBuilder || isScoreField(sortBuilder)) {
+                sortFields.add(new SortField(null, SortField.Type.SCORE, !reverse));
+            } else if (sortBuilder instanceof FieldSortBuilder) {
+                SortField sortField = new SortField(((FieldSortBuilder) sortBuilder).getFieldName(), SortField.Type.STRING, reverse);
+                // like Elasticsearch, the documents without value are last in both orders
+                sortField.setMissingValue(reverse ? SortField.STRING_FIRST : SortField.STRING_LAST);
+                sortFields.add(sortField);
+            } else {
+                throw new UnsupportedOperationException("Unsupported sort by the embedded search index: " + sortBuilder.getWriteableName());
+            }
+        }
+        return new Sort(sortFields.toArray(SortField[]::new));
+    }
+
+    private static boolean isScoreField(SortBuilder<?> sortBuilder) {
+        return sortBuilder instanceof FieldSortBuilder && "_score".equals(((FieldSortBuilder) sortBuilder).getFieldName());
+    }
+
+    private static SearchDocument toSearchDocument(EmbeddedSearchIndex.Hit hit, FetchSourceContext fetchSource) {
+        org.elasticsearch.search.SearchHit searchHit = new org.elasticsearch.search.SearchHit(
+            -1,
+            hit.id,
+            new Text("_doc"),
+            Map.of(),
+            Map.of()
+        );
+        searchHit.sourceRef(new BytesArray(filterSource(hit.source, fetchSource)));
+        searchHit.score(hit.score);
+        searchHit.version(hit.version);
+        if (hit.sortValues != null) {
+            DocValueFormat[] formats = new DocValueFormat[hit.sortValues.length];
+            Arrays.fill(formats, DocValueFormat.RAW);
+            searchHit.sortValues(hit.sortValues, formats);
+        }
+        return DocumentAdapters.from(searchHit);
+    }
+
+    // only the top level fields are filtered
+    private static String filterSource(String source, FetchSourceContext fetchSource) {
+        if (fetchSource == null || (fetchSource.includes().length == 0 && fetchSource.excludes().length == 0)) {
+            return source;
+        }
+        Document document = Document.parse(source);
+        Set<String> includes = Set.of(fetchSource.includes());
+        Set<String> excludes = Set.of(fetchSource.excludes());
+        document.keySet().removeIf(field -> (!includes.isEmpty() && !includes.contains(field)) || excludes.contains(field));
+        return document.toJson();
+    }
+
+    private static Aggregation aggregate(AggregationBuilder aggregation, List<Map<String, Object>> documents) throws IOException {
+        XContentBuilder result = XContentFactory.jsonBuilder().startObject();
+        if (aggregation instanceof TermsAggregationBuilder) {
+            TermsAggregationBuilder termsAggregation = (TermsAggregationBuilder) aggregation;
+            Map<String, Long> counts = new HashMap<>();
+            for (Map<String, Object> document : documents) {
+                for (Object value : values(document, termsAggregation.field())) {
+                    counts.merge(value.toString(), 1L, Long::sum);
+                }
+            }
+            // like Elasticsearch, the most frequent terms first
+            Map<String, Long> buckets = new LinkedHashMap<>();
+            counts
+                .entrySet()
+                .stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(termsAggregation.size())
+                .forEach(bucket -> buckets.put(bucket.getKey(), bucket.getValue()));
+            long otherCount = counts.values().stream().mapToLong(Long::longValue).sum();
+            otherCount -= buckets.values().stream().mapToLong(Long::longValue).sum();
+            result.field("doc_count_error_upper_bound", 0).field("sum_other_doc_count", otherCount).startArray("buckets");
+            for (Map.Entry<String, Long> bucket : buckets.entrySet()) {
+                result.startObject().field("key", bucket.getKey()).field("doc_count", bucket.getValue()).endObject();
+            }
+            result.endArray().endObject();
+            return ParsedStringTerms.fromXContent(parser(result), aggregation.getName());
+        } else if (aggregation instanceof MissingAggregationBuilder) {
+            String field = ((MissingAggregationBuilder) aggregation).field();
+            long missingCount = documents.stream().filter(document -> values(document, field).isEmpty()).count();
+            result.field("doc_count", missingCount).endObject();
+            return ParsedMissing.fromXContent(parser(result), aggregation.getName());
+        } else if (aggregation instanceof ValueCountAggregationBuilder) {
+            String field = ((ValueCountAggregationBuilder) aggregation).field();
+            long count = documents.stream().mapToLong(document -> values(document, field).size()).sum();
+            result.field("value", count).endObject();
+            return ParsedValueCount.fromXContent(parser(result), aggregation.getName());
+        } else if (aggregation instanceof SumAggregationBuilder) {
+            result.field("value", numbers(documents, ((SumAggregationBuilder) aggregation).field()).sum()).endObject();
+            return ParsedSum.fromXContent(parser(result), aggregation.getName());
+        } else if (aggregation instanceof MinAggregationBuilder) {
+            // like Elasticsearch, the min and the max of no value are null
+            OptionalDouble min = numbers(documents, ((MinAggregationBuilder) aggregation).field()).min();
+            result.field("value", min.isPresent() ? min.getAsDouble() : null).endObject();
+            return ParsedMin.fromXContent(parser(result), aggregation.getName());
+        } else if (aggregation instanceof MaxAggregationBuilder) {
+            OptionalDouble max = numbers(documents, ((MaxAggregationBuilder) aggregation).field()).max();
+            result.field("value", max.isPresent() ? max.getAsDouble() : null).endObject();
+            return ParsedMax.fromXContent(parser(result), aggregation.getName());
+        } else if (aggregation instanceof ScriptedMetricAggregationBuilder) {
+            // the scripts aren't run, the hash is computed the same way
+            Map<String, Object> params = ((ScriptedMetricAggregationBuilder) aggregation).params();
+            long hash = 0;
+            for (Map<String, Object> document : documents) {
+                Collection<?> ids = values(document, (String) params.get("idField"));
+                Collection<?> versions = values(document, (String) params.get("versionField"));
+                long id = Long.parseLong(ids.iterator().next().toString());
+                long version = versions.isEmpty() ? 0 : ((Number) versions.iterator().next()).longValue();
+                hash += EntityManager.Checksum.hash(id, version);
+            }
+            result.field("value", hash).endObject();
+            return ParsedScriptedMetric.fromXContent(parser(result), aggregation.getName());
+        }
+        throw new UnsupportedOperationException("Unsupported aggregation by the embedded search index: " + aggregation.getType());
+    }
+
+    // the aggregations are parsed from their JSON, like the responses of Elasticsearch
+    private static XContentParser parser(XContentBuilder result) throws IOException {
+        XContentParser parser = XContentType.JSON
+            .xContent()
+            .createParser(
+                NamedXContentRegistry.EMPTY,
+                DeprecationHandler.THROW_UNSUPPORTED_OPERATION,
+                BytesReference.bytes(result).streamInput()
+            );
+        parser.nextToken();
+        return parser;
+    }
+
+    private static DoubleStream numbers(List<Map<String, Object>> documents, String field) {
+        return documents
+            .stream()
+            .flatMap(document -> values(document, field).stream())
+            .filter(Number.class::isInstance)
+            .mapToDouble(value -> ((Number) value).doubleValue());
+    }
+
+    // the sub-fields aren't in the source, they hold the values of their field
+    private static Collection<?> values(Map<String, Object> document, String field) {
+        Object value = document;
+        for (String name : field.split("\\.")) {
+            if (!(value instanceof Map)) {
+                break;
+            }
+            value = ((Map<?, ?>) value).get(name);
+        }
+        if (value == null || value instanceof Map) {
+            return List.of();
+        }
+        return value instanceof Collection ? (Collection<?>) value : List.of(value);
+    }
+
+    private boolean remove(String indexName) {
+        EmbeddedSearchIndex searchIndex = indices.remove(indexName);
+        if (searchIndex == null) {
+            return false;
+        }
+        searchIndex.close();
+        return true;
+    }
+
+    private class EmbeddedIndexOperations implements ReactiveIndexOperations {
+
+        private final IndexCoordinates index;
+
+        EmbeddedIndexOperations(IndexCoordinates index) {
+            this.index = index;
+        }
+
+        @Override
+        public Mono<Boolean> create() {
+            return create(Collections.emptyMap());
+        }
+
+        @Override
+        public Mono<Boolean> create(Map<String, Object> settings) {
+            return Mono.fromSupplier(() -> {
+                EmbeddedSearchIndex searchIndex = new EmbeddedSearchIndex();
+                if (indices.putIfAbsent(index.getIndexName(), searchIndex) != null) {
+                    searchIndex.close();
+                    return false;
+                }
+                return true;
+            });
+        }
+
+        @Override
+        public Mono<Boolean> create(Map<String, Object> settings, Document mapping) {
+            return create(settings);
+        }
+
+        @Override
+        public Mono<Boolean> createWithMapping() {
+            return create();
+        }
+
+        @Override
+        public Mono<Boolean> delete() {
+            return Mono.fromSupplier(() -> remove(index.getIndexName()));
+        }
+
+        @Override
+        public Mono<Boolean> exists() {
+            return Mono.fromSupplier(() -> indices.containsKey(index.getIndexName()) || aliases.containsKey(index.getIndexName()));
+        }
+
+        @Override
+        public Mono<Void> refresh() {
+            // the writes are refreshed once they complete
+            return Mono.empty();
+        }
+
+        @Override
+        public Mono<Document> createMapping() {
+            return Mono.just(Document.create());
+        }
+
+        @Override
+        public Mono<Document> createMapping(Class<?> clazz) {
+            return Mono.just(Document.create());
+        }
+
+        @Override
+        public Mono<Boolean> putMapping(Mono<Document> mapping) {
+            return Mono.just(true);
+        }
+
+        @Override
+        public Mono<Document> getMapping() {
+            return Mono.just(Document.create());
+        }
+
+        @Override
+        public Mono<Settings> createSettings() {
+            return Mono.just(new Settings());
+        }
+
+        @Override
+        public Mono<Settings> createSettings(Class<?> clazz) {
+            return Mono.just(new Settings());
+        }
+
+        @Override
+        public Mono<Settings> getSettings(boolean includeDefaults) {
+            return Mono.just(new Settings());
+        }
+
+        @Override
+        public Mono<Boolean> alias(AliasActions aliasActions) {
+            return Mono.fromSupplier(() -> {
+                // applied atomically, like Elasticsearch does
+                synchronized (aliases) {
+                    for (AliasAction action : aliasActions.getActions()) {
+                        String[] actionIndices = action.getParameters().getIndices();
+                        if (action instanceof AliasAction.Add) {
+                            Arrays.stream(action.getParameters().getAliases()).forEach(alias -> aliases.put(alias, actionIndices[0]));
+                        } else if (action instanceof AliasAction.Remove) {
+                            Arrays.stream(action.getParameters().getAliases()).forEach(aliases::remove);
+                        } else if (action instanceof AliasAction.RemoveIndex) {
+                            Set<String> removedIndices = Set.of(actionIndices);
+                            removedIndices.forEach(EmbeddedReactiveElasticsearchTemplate.this::remove);
+                            aliases.values().removeIf(removedIndices::contains);
+                        }
+                    }
+                }
+                return true;
+            });
+        }
+
+        @Override
+        public Mono<Map<String, Set<AliasData>>> getAliases(String... aliasNames) {
+            return getAliasesForIndex(aliasNames);
+        }
+
+        @Override
+        public Mono<Map<String, Set<AliasData>>> getAliasesForIndex(String... indexNames) {
+            return Mono.fromSupplier(() -> {
+                Map<String, Set<AliasData>> aliasesByIndex = new HashMap<>();
+                for (String indexName : indexNames) {
+                    String resolvedName = aliases.getOrDefault(indexName, indexName);
+                    if (indices.containsKey(resolvedName)) {
+                        aliasesByIndex.put(
+                            resolvedName,
+                            aliases
+                                .entrySet()
+                                .stream()
+                                .filter(alias -> alias.getValue().equals(resolvedName))
+                                .map(alias -> AliasData.of(alias.getKey(), null, null, null, null, null))
+                                .collect(Collectors.toSet())
+                        );
+                    }
+                }
+                return aliasesByIndex;
+            });
+        }
+
+        @Override
+        public Mono<Boolean> putTemplate(PutTemplateRequest putTemplateRequest) {
+            return Mono.error(new UnsupportedOperationException());
+        }
+
+        @Override
+        public Mono<TemplateData> getTemplate(GetTemplateRequest getTemplateRequest) {
+            return Mono.error(new UnsupportedOperationException());
+        }
+
+        @Override
+        public Mono<Boolean> existsTemplate(ExistsTemplateRequest existsTemplateRequest) {
+            return Mono.error(new UnsupportedOperationException());
+        }
+
+        @Override
+        public Mono<Boolean> deleteTemplate(DeleteTemplateRequest deleteTemplateRequest) {
+            return Mono.error(new UnsupportedOperationException());
+        }
+
+        @Override
+        public Flux<IndexInformation> getInformation(IndexCoordinates index) {
+            return Flux.error(new UnsupportedOperationException());
+        }
+
+        @Override
+        public IndexCoordinates getIndexCoordinates() {
+            return index;
+        }
+    }
+}
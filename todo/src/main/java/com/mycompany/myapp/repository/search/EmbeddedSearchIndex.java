@@ -0,0 +1,459 @@
+package com.mycompany.myapp.repository.search;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.MatchNoDocsQuery;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermInSetQuery;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.WildcardQuery;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.index.VersionType;
+import org.elasticsearch.index.query.BoolQueryBuilder;
+import org.elasticsearch.index.query.IdsQueryBuilder;
+import org.elasticsearch.index.query.MatchAllQueryBuilder;
+import org.elasticsearch.index.query.MatchQueryBuilder;
+import org.elasticsearch.index.query.Operator;
+import org.elasticsearch.index.query.PrefixQueryBuilder;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.query.QueryStringQueryBuilder;
+import org.elasticsearch.index.query.RangeQueryBuilder;
+import org.elasticsearch.index.query.TermQueryBuilder;
+import org.elasticsearch.index.query.TermsQueryBuilder;
+import org.elasticsearch.index.query.WildcardQueryBuilder;
+
+/**
+ * A Lucene index held in memory, which stands for an Elasticsearch index, see {@link EmbeddedReactiveElasticsearchTemplate}.
+ * <p>
+ * The fields are indexed from the JSON source of the documents. The strings are analyzed by the standard analyzer, like the text
+ * fields of Elasticsearch, and their {@code .keyword} sub-field holds them as is, up to 256 characters. The other values are
+ * indexed as keywords, and the integers as longs as well. The single valued fields are sortable, as keywords.
+ */
+class EmbeddedSearchIndex {
+
+    static final String ID_FIELD = "_id";
+
+    private static final String SOURCE_FIELD = "_source";
+
+    private static final String VERSION_FIELD = "_version";
+
+    private static final String KEYWORD_SUFFIX = ".keyword";
+
+    private static final String PREFIX_SUFFIX = ".prefix";
+
+    private static final int IGNORE_ABOVE = 256;
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+
+    private final IndexWriter writer;
+
+    private final SearcherManager searcherManager;
+
+    // the fields searched by the query strings without fields
+    private final Set<String> fieldNames = ConcurrentHashMap.newKeySet();
+
+    // guarded by this: the versions of the documents, which aren't overwritten by lower versions
+    private final Map<String, Long> versions = new ConcurrentHashMap<>();
+
+    EmbeddedSearchIndex() {
+        try {
+            writer = new IndexWriter(new ByteBuffersDirectory(), new IndexWriterConfig(analyzer));
+            searcherManager = new SearcherManager(writer, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * A hit of a search, with its stored fields.
+     */
+    static final class Hit {
+
+        final String id;
+        final float score;
+        final Object[] sortValues;
+        final long version;
+        final String source;
+
+        Hit(String id, float score, Object[] sortValues, long version, String source) {
+            this.id = id;
+            this.score = score;
+            this.sortValues = sortValues;
+            this.version = version;
+            this.source = source;
+        }
+    }
+
+    /**
+     * Index a document, replacing the document with the same id, unless the version of the document conflicts with the indexed one.
+     * The document is visible to the searches after the next {@link #refresh()}.
+     * @param id the id of the document.
+     * @param version the version of the document, or null if it's not versioned.
+     * @param versionType how the version is compared to the indexed one.
+     * @param source the JSON source of the document.
+     * @param fields the fields of the source.
+     * @return whether the document is written.
+     */
+    synchronized boolean index(String id, Long version, VersionType versionType, String source, Map<String, Object> fields) {
+        Long currentVersion = versions.get(id);
+        if (version != null && currentVersion != null && versionType.isVersionConflictForWrites(currentVersion, version, false)) {
+            return false;
+        }
+        Document document = new Document();
+        document.add(new StringField(ID_FIELD, id, Field.Store.YES));
+        document.add(new SortedDocValuesField(ID_FIELD, new BytesRef(id)));
+        document.add(new StoredField(SOURCE_FIELD, source));
+        if (version != null) {
+            document.add(new StoredField(VERSION_FIELD, version));
+        }
+        fields.forEach((name, value) -> addFields(document, name, value, true));
+        try {
+            writer.updateDocument(new Term(ID_FIELD, id), document);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (version != null) {
+            versions.put(id, version);
+        } else {
+            versions.remove(id);
+        }
+        return true;
+    }
+
+    /**
+     * Index the given document unless its id is indexed, like an upsert which leaves the existing documents as they are.
+     * @return whether the document is written.
+     */
+    synchronized boolean create(String id, String source, Map<String, Object> fields) {
+        refresh();
+        if (count(new TermQuery(new Term(ID_FIELD, id))) > 0) {
+            return false;
+        }
+        return index(id, null, null, source, fields);
+    }
+
+    private void addFields(Document document, String name, Object value, boolean singleValued) {
+        if (value instanceof Map) {
+            ((Map<?, ?>) value).forEach((key, nestedValue) -> addFields(document, name + "." + key, nestedValue, singleValued));
+        } else if (value instanceof Collection) {
+            ((Collection<?>) value).forEach(element -> addFields(document, name, element, false));
+        } else if (value != null) {
+            String keyword = value.toString();
+            if (value instanceof String) {
+                document.add(new TextField(name, keyword, Field.Store.NO));
+            } else {
+                document.add(new StringField(name, keyword, Field.Store.NO));
+            }
+            if (isIntegral(value)) {
+                document.add(new LongPoint(name, ((Number) value).longValue()));
+            }
+            // like the keyword fields of Elasticsearch, the long strings are only searchable as text
+            if (keyword.length() <= IGNORE_ABOVE) {
+                if (value instanceof String) {
+                    document.add(new StringField(name + KEYWORD_SUFFIX, keyword, Field.Store.NO));
+                }
+                if (singleValued) {
+                    document.add(new SortedDocValuesField(name, new BytesRef(keyword)));
+                    if (value instanceof String) {
+                        document.add(new SortedDocValuesField(name + KEYWORD_SUFFIX, new BytesRef(keyword)));
+                    }
+                }
+            }
+            if (!name.startsWith("_")) {
+                fieldNames.add(name);
+            }
+        }
+    }
+
+    private static boolean isIntegral(Object value) {
+        return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+    }
+
+    /**
+     * Delete the documents matching the query. The deletion is visible to the searches after the next {@link #refresh()}.
+     * @return the number of deleted documents.
+     */
+    synchronized long delete(Query query) {
+        refresh();
+        List<String> ids = search(query, null, null, Integer.MAX_VALUE).stream().map(hit -> hit.id).collect(Collectors.toList());
+        try {
+            for (String id : ids) {
+                writer.deleteDocuments(new Term(ID_FIELD, id));
+                versions.remove(id);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return ids.size();
+    }
+
+    /**
+     * Make the writes visible to the searches.
+     */
+    void refresh() {
+        try {
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Search the documents matching the query.
+     * @param query the query.
+     * @param sort the sort of the hits, or null to sort them by score.
+     * @param searchAfter the sort values of the last hit of the previous page, or null for the first page.
+     * @param size the maximum number of hits.
+     * @return the hits, with their sort values if they are sorted.
+     */
+    List<Hit> search(Query query, Sort sort, Object[] searchAfter, int size) {
+        IndexSearcher searcher = acquire();
+        try {
+            int numHits = Math.max(1, Math.min(size, searcher.getIndexReader().maxDoc()));
+            TopDocs topDocs;
+            if (sort != null) {
+                // the hits with the same sort values as the last hit were on the previous page, like the hits before the last doc
+                int lastDoc = searcher.getIndexReader().maxDoc() - 1;
+                FieldDoc after = searchAfter != null ? new FieldDoc(lastDoc, Float.NaN, toSortValues(sort, searchAfter)) : null;
+                topDocs = searcher.searchAfter(after, query, numHits, sort, true);
+            } else if (searchAfter != null) {
+                throw new IllegalArgumentException("search_after needs a sort");
+            } else {
+                topDocs = searcher.search(query, numHits);
+            }
+            List<Hit> hits = new ArrayList<>(topDocs.scoreDocs.length);
+            for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                Document document = searcher.doc(scoreDoc.doc);
+                Number version = document.getField(VERSION_FIELD) != null ? document.getField(VERSION_FIELD).numericValue() : null;
+                hits.add(
+                    new Hit(
+                        document.get(ID_FIELD),
+                        scoreDoc.score,
+                        scoreDoc instanceof FieldDoc ? ((FieldDoc) scoreDoc).fields : null,
+                        version != null ? version.longValue() : -1,
+                        document.get(SOURCE_FIELD)
+                    )
+                );
+            }
+            return hits;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            release(searcher);
+        }
+    }
+
+    private static Object[] toSortValues(Sort sort, Object[] searchAfter) {
+        SortField[] sortFields = sort.getSort();
+        if (searchAfter.length != sortFields.length) {
+            throw new IllegalArgumentException("search_after has " + searchAfter.length + " values, but the sort has " + sortFields.length);
+        }
+        Object[] sortValues = new Object[sortFields.length];
+        for (int i = 0; i < sortFields.length; i++) {
+            sortValues[i] =
+                sortFields[i].getType() == SortField.Type.SCORE
+                    ? (Object) ((Number) searchAfter[i]).floatValue()
+                    : new BytesRef(searchAfter[i].toString());
+        }
+        return sortValues;
+    }
+
+    /**
+     * @return the number of documents matching the query.
+     */
+    long count(Query query) {
+        IndexSearcher searcher = acquire();
+        try {
+            return searcher.count(query);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            release(searcher);
+        }
+    }
+
+    private IndexSearcher acquire() {
+        try {
+            return searcherManager.acquire();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void release(IndexSearcher searcher) {
+        try {
+            searcherManager.release(searcher);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void close() {
+        try {
+            searcherManager.close();
+            writer.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Translate an Elasticsearch query to a Lucene query on this index.
+     * @throws UnsupportedOperationException if the query isn't supported.
+     * @throws IllegalArgumentException if a query string is invalid.
+     */
+    Query toQuery(QueryBuilder queryBuilder) {
+        if (queryBuilder == null || queryBuilder instanceof MatchAllQueryBuilder) {
+            return new MatchAllDocsQuery();
+        } else if (queryBuilder instanceof BoolQueryBuilder) {
+            return toBooleanQuery((BoolQueryBuilder) queryBuilder);
+        } else if (queryBuilder instanceof QueryStringQueryBuilder) {
+            return toQueryStringQuery((QueryStringQueryBuilder) queryBuilder);
+        } else if (queryBuilder instanceof MatchQueryBuilder) {
+            MatchQueryBuilder matchQuery = (MatchQueryBuilder) queryBuilder;
+            return toMatchQuery(matchQuery.fieldName(), matchQuery.value().toString(), matchQuery.operator());
+        } else if (queryBuilder instanceof TermQueryBuilder) {
+            TermQueryBuilder termQuery = (TermQueryBuilder) queryBuilder;
+            return toTermQuery(termQuery.fieldName(), List.of(termQuery.value()));
+        } else if (queryBuilder instanceof TermsQueryBuilder) {
+            TermsQueryBuilder termsQuery = (TermsQueryBuilder) queryBuilder;
+            return toTermQuery(termsQuery.fieldName(), termsQuery.values());
+        } else if (queryBuilder instanceof IdsQueryBuilder) {
+            List<BytesRef> ids = ((IdsQueryBuilder) queryBuilder).ids().stream().map(BytesRef::new).collect(Collectors.toList());
+            return new TermInSetQuery(ID_FIELD, ids);
+        } else if (queryBuilder instanceof PrefixQueryBuilder) {
+            PrefixQueryBuilder prefixQuery = (PrefixQueryBuilder) queryBuilder;
+            return new PrefixQuery(new Term(prefixQuery.fieldName(), prefixQuery.value()));
+        } else if (queryBuilder instanceof RangeQueryBuilder) {
+            return toRangeQuery((RangeQueryBuilder) queryBuilder);
+        } else if (queryBuilder instanceof WildcardQueryBuilder) {
+            WildcardQueryBuilder wildcardQuery = (WildcardQueryBuilder) queryBuilder;
+            return new WildcardQuery(new Term(wildcardQuery.fieldName(), wildcardQuery.value()));
+        }
+        throw new UnsupportedOperationException("Unsupported query by the embedded search index: " + queryBuilder.getName());
+    }
+
+    private Query toBooleanQuery(BoolQueryBuilder boolQuery) {
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        boolQuery.must().forEach(clause -> builder.add(toQuery(clause), Occur.MUST));
+        boolQuery.filter().forEach(clause -> builder.add(toQuery(clause), Occur.FILTER));
+        boolQuery.should().forEach(clause -> builder.add(toQuery(clause), Occur.SHOULD));
+        boolQuery.mustNot().forEach(clause -> builder.add(toQuery(clause), Occur.MUST_NOT));
+        if (boolQuery.must().isEmpty() && boolQuery.filter().isEmpty()) {
+            if (boolQuery.should().isEmpty()) {
+                // like Elasticsearch, a bool query without positive clauses matches every document
+                builder.add(new MatchAllDocsQuery(), Occur.MUST);
+            } else {
+                builder.setMinimumNumberShouldMatch(1);
+            }
+        }
+        return builder.build();
+    }
+
+    private Query toQueryStringQuery(QueryStringQueryBuilder queryStringQuery) {
+        // like Elasticsearch, a query string without fields searches every field
+        Map<String, Float> boosts = queryStringQuery.fields().isEmpty()
+            ? fieldNames.stream().collect(Collectors.toMap(name -> name, name -> 1.0f))
+            : queryStringQuery.fields();
+        if (boosts.isEmpty()) {
+            return new MatchNoDocsQuery();
+        }
+        MultiFieldQueryParser parser = new MultiFieldQueryParser(boosts.keySet().toArray(String[]::new), analyzer, boosts);
+        parser.setDefaultOperator(queryStringQuery.defaultOperator() == Operator.AND ? QueryParser.AND_OPERATOR : QueryParser.OR_OPERATOR);
+        try {
+            return parser.parse(queryStringQuery.queryString());
+        } catch (ParseException e) {
+            throw new IllegalArgumentException("Failed to parse the query string: " + queryStringQuery.queryString(), e);
+        }
+    }
+
+    // the prefix sub-fields are matched with the prefixes of the words of their field, rather than with edge n-grams
+    private Query toMatchQuery(String fieldName, String text, Operator operator) {
+        boolean prefix = fieldName.endsWith(PREFIX_SUFFIX);
+        String field = prefix ? fieldName.substring(0, fieldName.length() - PREFIX_SUFFIX.length()) : fieldName;
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        for (String token : analyze(field, text)) {
+            Term term = new Term(field, token);
+            builder.add(prefix ? new PrefixQuery(term) : new TermQuery(term), operator == Operator.AND ? Occur.MUST : Occur.SHOULD);
+        }
+        return builder.build();
+    }
+
+    // the strings are indexed as text and keyword, a term query matches either of them
+    private Query toTermQuery(String field, Collection<?> values) {
+        List<BytesRef> terms = values.stream().map(value -> new BytesRef(value.toString())).collect(Collectors.toList());
+        return new BooleanQuery.Builder()
+            .add(new TermInSetQuery(field, terms), Occur.SHOULD)
+            .add(new TermInSetQuery(field + KEYWORD_SUFFIX, terms), Occur.SHOULD)
+            .build();
+    }
+
+    // only the integral ranges are supported, a range on a sub-field is a range on its field, which holds the same numbers
+    private Query toRangeQuery(RangeQueryBuilder rangeQuery) {
+        Object from = rangeQuery.from();
+        Object to = rangeQuery.to();
+        if ((from != null && !isIntegral(from)) || (to != null && !isIntegral(to))) {
+            throw new UnsupportedOperationException("Unsupported range by the embedded search index: " + from + " to " + to);
+        }
+        long lower = from == null ? Long.MIN_VALUE : ((Number) from).longValue() + (rangeQuery.includeLower() ? 0 : 1);
+        long upper = to == null ? Long.MAX_VALUE : ((Number) to).longValue() - (rangeQuery.includeUpper() ? 0 : 1);
+        String field = rangeQuery.fieldName();
+        BooleanQuery.Builder builder = new BooleanQuery.Builder().add(LongPoint.newRangeQuery(field, lower, upper), Occur.SHOULD);
+        int subFieldStart = field.lastIndexOf('.');
+        if (subFieldStart > 0) {
+            builder.add(LongPoint.newRangeQuery(field.substring(0, subFieldStart), lower, upper), Occur.SHOULD);
+        }
+        return builder.build();
+    }
+
+    private List<String> analyze(String field, String text) {
+        List<String> tokens = new ArrayList<>();
+        try (TokenStream tokenStream = analyzer.tokenStream(field, text)) {
+            CharTermAttribute term = tokenStream.addAttribute(CharTermAttribute.class);
+            tokenStream.reset();
+            while (tokenStream.incrementToken()) {
+                tokens.add(term.toString());
+            }
+            tokenStream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,284 @@
+package com.mycompany.myapp.repository.search;
+
+import com.mycompany.myapp.domain.Todo;
+import com.mycompany.myapp.repository.rowmapper.TodoRowMapper;
+import com.mycompany.myapp.service.SearchIndexer;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.xcontent.DeprecationHandler;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.search.aggregations.Aggregation;
+import org.elasticsearch.search.aggregations.bucket.missing.ParsedMissing;
+import org.elasticsearch.search.aggregations.bucket.terms.ParsedStringTerms;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.r2dbc.dialect.H2Dialect;
+import org.springframework.data.r2dbc.dialect.MySqlDialect;
+import org.springframework.data.r2dbc.dialect.R2dbcDialect;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The search of the todos with the full-text indices of the database, instead of Elasticsearch, when
+ * {@code application.search.todo-backend} is {@code sql}.
+ * <p>
+ * MySQL searches the task and the description in natural language mode, and suggests the todos from the prefixes of the words of
+ * their task in boolean mode. H2, for the tests and the development, searches with its native full-text index, which matches the
+ * todos having every word of the query with the same score, and suggests by scanning the tasks. The query strings are searched as
+ * plain words, without the syntax of the Elasticsearch query strings.
+ * <p>
+ * The pages are read by keyset on the score then the id, so the hits have the same sort values as the {@code search_after} of
+ * Elasticsearch. The database is the index: the todos are searchable once their transaction is committed, and indexing them only
+ * runs the write listeners of the {@link SearchIndexer}.
+ */
+// the name of the Elasticsearch implementation of the repository fragment, which Spring Data doesn't register when a bean has it
+@Component("todoSearchRepositoryInternalImpl")
+@ConditionalOnProperty(name = "application.search.todo-backend", havingValue = "sql")
+class SqlTodoSearchRepositoryInternal implements TodoSearchRepositoryInternal {
+
+    private static final String COLUMNS =
+        "e.id AS e_id, e.task AS e_task, e.description AS e_description, e.completed AS e_completed, e.version AS e_version, " +
+        "e.category_id AS e_category_id";
+
+    private static final String MYSQL_MATCH = "MATCH (e.task, e.description) AGAINST (:query IN NATURAL LANGUAGE MODE)";
+
+    private static final String MYSQL_SUGGEST_MATCH = "MATCH (e.task) AGAINST (:prefix IN BOOLEAN MODE)";
+
+    private static final String H2_MATCH = "FT_SEARCH_DATA(:query, 0, 0) ft JOIN todo e ON e.id = CAST(ARRAY_GET(ft.KEYS, 1) AS BIGINT)";
+
+    // the score of every todo, when there is no query, like the match_all query of Elasticsearch
+    private static final String CONSTANT_SCORE = "CAST(1 AS DOUBLE)";
+
+    private final DatabaseClient db;
+
+    private final TodoRowMapper todoMapper;
+
+    private final SearchIndexer searchIndexer;
+
+    private final boolean h2;
+
+    SqlTodoSearchRepositoryInternal(DatabaseClient db, R2dbcDialect dialect, TodoRowMapper todoMapper, SearchIndexer searchIndexer) {
+        // H2Dialect extends PostgresDialect, not MySqlDialect
+        if (!(dialect instanceof H2Dialect) && !(dialect instanceof MySqlDialect)) {
+            throw new IllegalStateException("The todos can only be searched with the full-text indices of MySQL or H2, not " + dialect);
+        }
+        this.db = db;
+        this.todoMapper = todoMapper;
+        this.searchIndexer = searchIndexer;
+        this.h2 = dialect instanceof H2Dialect;
+    }
+
+    @Override
+    public Flux<Todo> search(String query) {
+        String sql = "SELECT * FROM (" + matches(query, null, null) + ") hit ORDER BY hit.score DESC, hit.e_id";
+        return bind(db.sql(sql), query, null, null).map((row, metadata) -> todoMapper.apply(row, metadata, "e")).all();
+    }
+
+    @Override
+    public Flux<SearchHit<Todo>> search(String query, Boolean completed, Long categoryId, int size, List<Object> searchAfter) {
+        StringBuilder sql = new StringBuilder("SELECT * FROM (").append(matches(query, completed, categoryId)).append(") hit");
+        if (searchAfter != null) {
+            sql.append(" WHERE hit.score < :score OR (hit.score = :score AND hit.e_id > :id)");
+        }
+        // no offset, the next pages start after the sort values of the last hit
+        sql.append(" ORDER BY hit.score DESC, hit.e_id LIMIT :size");
+        GenericExecuteSpec spec = bind(db.sql(sql.toString()), query, completed, categoryId).bind("size", size);
+        if (searchAfter != null) {
+            spec = spec.bind("score", ((Number) searchAfter.get(0)).doubleValue()).bind("id", ((Number) searchAfter.get(1)).longValue());
+        }
+        return spec.map(this::toSearchHit).all();
+    }
+
+    @Override
+    public Mono<Long> count(String query, Boolean completed, Long categoryId) {
+        String sql = "SELECT COUNT(*) FROM (" + matches(query, completed, categoryId) + ") hit";
+        return bind(db.sql(sql), query, completed, categoryId).map(row -> row.get(0, Long.class)).one();
+    }
+
+    @Override
+    public Flux<Todo> suggest(String prefix, int size) {
+        List<String> words = Arrays
+            .stream(prefix.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+            .filter(word -> !word.isEmpty())
+            .collect(Collectors.toList());
+        if (words.isEmpty()) {
+            return Flux.empty();
+        }
+        GenericExecuteSpec spec;
+        if (h2) {
+            List<String> conditions = new ArrayList<>();
+            for (int i = 0; i < words.size(); i++) {
+                conditions.add("(LOWER(e.task) LIKE :word" + i + " OR LOWER(e.task) LIKE :innerWord" + i + ")");
+            }
+            String where = String.join(" AND ", conditions);
+            spec = db.sql("SELECT e.id AS e_id, e.task AS e_task FROM todo e WHERE " + where + " ORDER BY e.id LIMIT :size");
+            for (int i = 0; i < words.size(); i++) {
+                spec = spec.bind("word" + i, words.get(i) + "%").bind("innerWord" + i, "% " + words.get(i) + "%");
+            }
+        } else {
+            // every word is required, as a prefix
+            String booleanQuery = words.stream().map(word -> "+" + word + "*").collect(Collectors.joining(" "));
+            spec =
+                db
+                    .sql(
+                        "SELECT e.id AS e_id, e.task AS e_task, " +
+                        MYSQL_SUGGEST_MATCH +
+                        " AS score FROM todo e WHERE " +
+                        MYSQL_SUGGEST_MATCH +
+                        " ORDER BY score DESC, e.id LIMIT :size"
+                    )
+                    .bind("prefix", booleanQuery);
+        }
+        return spec.bind("size", size).map((row, metadata) -> todoMapper.apply(row, metadata, "e")).all();
+    }
+
+    @Override
+    public Flux<Aggregation> aggregateByCompletedAndCategory(String query) {
+        String sql =
+            "SELECT hit.e_completed, hit.e_category_id, COUNT(*) FROM (" +
+            matches(query, null, null) +
+            ") hit GROUP BY hit.e_completed, hit.e_category_id";
+        return bind(db.sql(sql), query, null, null)
+            .map(row -> new Object[] { row.get(0, Boolean.class), row.get(1, Long.class), row.get(2, Long.class) })
+            .all()
+            .collectList()
+            .flatMapIterable(SqlTodoSearchRepositoryInternal::toAggregations);
+    }
+
+    @Override
+    public Mono<Void> index(Collection<Todo> todos) {
+        return Mono.fromRunnable(() -> searchIndexer.notifyWriteListeners(Todo.class));
+    }
+
+    @Override
+    public Mono<Void> deleteFromIndex(Collection<Long> ids) {
+        return Mono.fromRunnable(() -> searchIndexer.notifyWriteListeners(Todo.class));
+    }
+
+    // the select of the todos matching the query, filtered by completion and category, with their score
+    private String matches(String query, Boolean completed, Long categoryId) {
+        List<String> conditions = new ArrayList<>();
+        String from;
+        String score;
+        if (query == null || query.isBlank()) {
+            from = "todo e";
+            score = CONSTANT_SCORE;
+        } else if (h2) {
+            from = H2_MATCH;
+            score = "ft.SCORE";
+            conditions.add("ft.\"TABLE\" = 'TODO'");
+        } else {
+            from = "todo e";
+            // the score of MySQL is a float, it's read as a double so that the keyset compares the same values
+            score = "CAST(" + MYSQL_MATCH + " AS DOUBLE)";
+            conditions.add(MYSQL_MATCH);
+        }
+        if (completed != null) {
+            conditions.add("e.completed = :completed");
+        }
+        if (categoryId != null) {
+            conditions.add("e.category_id = :categoryId");
+        }
+        String where = conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+        return "SELECT " + COLUMNS + ", " + score + " AS score FROM " + from + where;
+    }
+
+    private static GenericExecuteSpec bind(GenericExecuteSpec spec, String query, Boolean completed, Long categoryId) {
+        if (query != null && !query.isBlank()) {
+            spec = spec.bind("query", query);
+        }
+        if (completed != null) {
+            spec = spec.bind("completed", completed);
+        }
+        if (categoryId != null) {
+            spec = spec.bind("categoryId", categoryId);
+        }
+        return spec;
+    }
+
+    private SearchHit<Todo> toSearchHit(Row row, RowMetadata metadata) {
+        Todo todo = todoMapper.apply(row, metadata, "e");
+        Double score = row.get("score", Double.class);
+        Object[] sortValues = { score, todo.getId() };
+        return new SearchHit<>(null, todo.getId().toString(), null, score.floatValue(), sortValues, null, null, null, null, null, todo);
+    }
+
+    // the counts of the groups, as the aggregations of Elasticsearch
+    private static List<Aggregation> toAggregations(List<Object[]> groups) {
+        Map<String, Long> completed = new LinkedHashMap<>();
+        Map<String, Long> categoryId = new LinkedHashMap<>();
+        long completedMissing = 0;
+        long categoryIdMissing = 0;
+        for (Object[] group : groups) {
+            long count = (Long) group[2];
+            if (group[0] != null) {
+                completed.merge(group[0].toString(), count, Long::sum);
+            } else {
+                completedMissing += count;
+            }
+            if (group[1] != null) {
+                categoryId.merge(group[1].toString(), count, Long::sum);
+            } else {
+                categoryIdMissing += count;
+            }
+        }
+        try {
+            return List.of(
+                terms("completed", completed),
+                missing("completed_missing", completedMissing),
+                terms("categoryId", categoryId),
+                missing("categoryId_missing", categoryIdMissing)
+            );
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Aggregation terms(String name, Map<String, Long> counts) throws IOException {
+        XContentBuilder result = XContentFactory.jsonBuilder().startObject();
+        result.field("doc_count_error_upper_bound", 0).field("sum_other_doc_count", 0).startArray("buckets");
+        // like Elasticsearch, the most frequent terms first
+        List<Map.Entry<String, Long>> buckets = new ArrayList<>(counts.entrySet());
+        buckets.sort(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        for (Map.Entry<String, Long> bucket : buckets) {
+            result.startObject().field("key", bucket.getKey()).field("doc_count", bucket.getValue()).endObject();
+        }
+        result.endArray().endObject();
+        return ParsedStringTerms.fromXContent(parser(result), name);
+    }
+
+    private static Aggregation missing(String name, long count) throws IOException {
+        XContentBuilder result = XContentFactory.jsonBuilder().startObject().field("doc_count", count).endObject();
+        return ParsedMissing.fromXContent(parser(result), name);
+    }
+
+    private static XContentParser parser(XContentBuilder result) throws IOException {
+        XContentParser parser = XContentType.JSON
+            .xContent()
+            .createParser(
+                NamedXContentRegistry.EMPTY,
+                DeprecationHandler.THROW_UNSUPPORTED_OPERATION,
+                BytesReference.bytes(result).streamInput()
+            );
+        parser.nextToken();
+        return parser;
+    }
+}
@@ -1,13 +1,30 @@
 package com.mycompany.myapp.repository.search;
 
+import static org.elasticsearch.index.query.QueryBuilders.boolQuery;
+import static org.elasticsearch.index.query.QueryBuilders.matchQuery;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
+import static org.elasticsearch.index.query.QueryBuilders.termQuery;
 
 import com.mycompany.myapp.domain.Todo;
+import com.mycompany.myapp.service.SearchIndexer;
+import java.util.Collection;
+import java.util.List;
+import org.elasticsearch.index.query.BoolQueryBuilder;
+import org.elasticsearch.index.query.Operator;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.search.aggregations.Aggregation;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.sort.SortBuilders;
+import org.elasticsearch.search.sort.SortOrder;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.elasticsearch.core.ReactiveElasticsearchTemplate;
 import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.query.FetchSourceFilter;
 import org.springframework.data.elasticsearch.core.query.NativeSearchQuery;
+import org.springframework.data.elasticsearch.core.query.NativeSearchQueryBuilder;
 import org.springframework.data.elasticsearch.repository.ReactiveElasticsearchRepository;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * Spring Data Elasticsearch repository for the {@link Todo} entity.
@@ -16,14 +33,57 @@ public interface TodoSearchRepository extends ReactiveElasticsearchRepository<To
 
 interface TodoSearchRepositoryInternal {
     Flux<Todo> search(String query);
+
+    /**
+     * Search a page of the todo hits, sorted by score then by id.
+     * <p>
+     * Only the task and the description are scored, the other conditions are filters.
+     * @param query the query string, on the task and the description by default, or null to match every todo.
+     * @param completed the required completion of the todos, or null.
+     * @param categoryId the required category of the todos, or null.
+     * @param size the maximum number of hits.
+     * @param searchAfter the sort values of the last hit of the previous page, or null for the first page.
+     * @return the hits, with their sort values.
+     */
+    Flux<SearchHit<Todo>> search(String query, Boolean completed, Long categoryId, int size, List<Object> searchAfter);
+
+    Mono<Long> count(String query, Boolean completed, Long categoryId);
+
+    /**
+     * Suggest the todos with a task which has words starting with the words of the given prefix.
+     * @param prefix the prefix typed by the user.
+     * @param size the maximum number of todos.
+     * @return the todos, with only their id and task.
+     */
+    Flux<Todo> suggest(String prefix, int size);
+
+    /**
+     * Count the todos matching the query by completion and by category, with the {@code completed} and {@code categoryId} terms
+     * aggregations, and the {@code completed_missing} and {@code categoryId_missing} missing aggregations.
+     * @param query the query string, see {@link #search(String, Boolean, Long, int, List)}.
+     * @return the aggregations.
+     */
+    Flux<Aggregation> aggregateByCompletedAndCategory(String query);
+
+    Mono<Void> index(Collection<Todo> todos);
+
+    Mono<Void> deleteFromIndex(Collection<Long> ids);
 }
 
+/**
+ * The search of the todos with Elasticsearch, unless {@link SqlTodoSearchRepositoryInternal} replaces it.
+ */
 class TodoSearchRepositoryInternalImpl implements TodoSearchRepositoryInternal {
 
+    private static final int MAX_CATEGORY_BUCKETS = 10000;
+
     private final ReactiveElasticsearchTemplate reactiveElasticsearchTemplate;
 
-    TodoSearchRepositoryInternalImpl(ReactiveElasticsearchTemplate reactiveElasticsearchTemplate) {
+    private final SearchIndexer searchIndexer;
+
+    TodoSearchRepositoryInternalImpl(ReactiveElasticsearchTemplate reactiveElasticsearchTemplate, SearchIndexer searchIndexer) {
         this.reactiveElasticsearchTemplate = reactiveElasticsearchTemplate;
+        this.searchIndexer = searchIndexer;
     }
 
     @Override
@@ -31,4 +91,72 @@ class TodoSearchRepositoryInternalImpl implements TodoSearchRepositoryInternal {
         NativeSearchQuery nativeSearchQuery = new NativeSearchQuery(queryStringQuery(query));
         return reactiveElasticsearchTemplate.search(nativeSearchQuery, Todo.class).map(SearchHit::getContent);
     }
+
+    @Override
+    public Flux<SearchHit<Todo>> search(String query, Boolean completed, Long categoryId, int size, List<Object> searchAfter) {
+        NativeSearchQuery nativeSearchQuery = new NativeSearchQueryBuilder()
+            .withQuery(searchQuery(query, completed, categoryId))
+            .withPageable(PageRequest.of(0, size))
+            .withSort(SortBuilders.scoreSort())
+            // the id breaks the ties between the hits with the same score, so that search_after doesn't skip them
+            .withSort(SortBuilders.fieldSort("id").order(SortOrder.ASC))
+            .withTrackTotalHits(false)
+            .build();
+        nativeSearchQuery.setSearchAfter(searchAfter);
+        return reactiveElasticsearchTemplate.search(nativeSearchQuery, Todo.class);
+    }
+
+    @Override
+    public Mono<Long> count(String query, Boolean completed, Long categoryId) {
+        return reactiveElasticsearchTemplate.count(new NativeSearchQuery(searchQuery(query, completed, categoryId)), Todo.class);
+    }
+
+    @Override
+    public Flux<Todo> suggest(String prefix, int size) {
+        NativeSearchQuery nativeSearchQuery = new NativeSearchQueryBuilder()
+            .withQuery(matchQuery("task.prefix", prefix).operator(Operator.AND))
+            .withPageable(PageRequest.of(0, size))
+            .withSort(SortBuilders.scoreSort())
+            .withSort(SortBuilders.fieldSort("id").order(SortOrder.ASC))
+            .withSourceFilter(new FetchSourceFilter(new String[] { "id", "task" }, null))
+            .build();
+        return reactiveElasticsearchTemplate.search(nativeSearchQuery, Todo.class).map(SearchHit::getContent);
+    }
+
+    @Override
+    public Flux<Aggregation> aggregateByCompletedAndCategory(String query) {
+        NativeSearchQuery nativeSearchQuery = new NativeSearchQueryBuilder()
+            .withQuery(searchQuery(query, null, null))
+            .addAggregation(AggregationBuilders.terms("completed").field("completed"))
+            .addAggregation(AggregationBuilders.missing("completed_missing").field("completed"))
+            .addAggregation(AggregationBuilders.terms("categoryId").field("categoryId").size(MAX_CATEGORY_BUCKETS))
+            .addAggregation(AggregationBuilders.missing("categoryId_missing").field("categoryId"))
+            .build();
+        return reactiveElasticsearchTemplate.aggregate(nativeSearchQuery, Todo.class);
+    }
+
+    // the filter clauses aren't scored, and Elasticsearch caches them
+    static QueryBuilder searchQuery(String query, Boolean completed, Long categoryId) {
+        BoolQueryBuilder searchQuery = boolQuery();
+        if (query != null && !query.isBlank()) {
+            searchQuery.must(queryStringQuery(query).field("task").field("description"));
+        }
+        if (completed != null) {
+            searchQuery.filter(termQuery("completed", completed));
+        }
+        if (categoryId != null) {
+            searchQuery.filter(termQuery("categoryId", categoryId));
+        }
+        return searchQuery;
+    }
+
+    @Override
+    public Mono<Void> index(Collection<Todo> todos) {
+        return searchIndexer.index(Todo.class, todos);
+    }
+
+    @Override
+    public Mono<Void> deleteFromIndex(Collection<Long> ids) {
+        return searchIndexer.delete(Todo.class, ids);
+    }
 }
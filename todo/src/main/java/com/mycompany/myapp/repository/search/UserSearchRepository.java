@@ -3,11 +3,19 @@ package com.mycompany.myapp.repository.search;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
 
 import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.service.SearchIndexer;
+import java.util.Collection;
+import java.util.List;
+import org.elasticsearch.search.sort.SortBuilders;
+import org.elasticsearch.search.sort.SortOrder;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.elasticsearch.core.ReactiveElasticsearchTemplate;
 import org.springframework.data.elasticsearch.core.SearchHit;
 import org.springframework.data.elasticsearch.core.query.NativeSearchQuery;
+import org.springframework.data.elasticsearch.core.query.NativeSearchQueryBuilder;
 import org.springframework.data.elasticsearch.repository.ReactiveElasticsearchRepository;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * Spring Data Elasticsearch repository for the User entity.
@@ -16,14 +24,32 @@ public interface UserSearchRepository extends ReactiveElasticsearchRepository<Us
 
 interface UserSearchRepositoryInternal {
     Flux<User> search(String query);
+
+    /**
+     * Search a page of the user hits, sorted by score then by id.
+     * @param query the query.
+     * @param size the maximum number of hits.
+     * @param searchAfter the sort values of the last hit of the previous page, or null for the first page.
+     * @return the hits, with their sort values.
+     */
+    Flux<SearchHit<User>> search(String query, int size, List<Object> searchAfter);
+
+    Mono<Long> count(String query);
+
+    Mono<Void> index(Collection<User> users);
+
+    Mono<Void> deleteFromIndex(Collection<String> ids);
 }
 
 class UserSearchRepositoryInternalImpl implements UserSearchRepositoryInternal {
 
     private final ReactiveElasticsearchTemplate reactiveElasticsearchTemplate;
 
-    UserSearchRepositoryInternalImpl(ReactiveElasticsearchTemplate reactiveElasticsearchTemplate) {
+    private final SearchIndexer searchIndexer;
+
+    UserSearchRepositoryInternalImpl(ReactiveElasticsearchTemplate reactiveElasticsearchTemplate, SearchIndexer searchIndexer) {
         this.reactiveElasticsearchTemplate = reactiveElasticsearchTemplate;
+        this.searchIndexer = searchIndexer;
     }
 
     @Override
@@ -31,4 +57,33 @@ class UserSearchRepositoryInternalImpl implements UserSearchRepositoryInternal {
         NativeSearchQuery nativeSearchQuery = new NativeSearchQuery(queryStringQuery(query));
         return reactiveElasticsearchTemplate.search(nativeSearchQuery, User.class).map(SearchHit::getContent);
     }
+
+    @Override
+    public Flux<SearchHit<User>> search(String query, int size, List<Object> searchAfter) {
+        NativeSearchQuery nativeSearchQuery = new NativeSearchQueryBuilder()
+            .withQuery(queryStringQuery(query))
+            .withPageable(PageRequest.of(0, size))
+            .withSort(SortBuilders.scoreSort())
+            // the id breaks the ties between the hits with the same score, so that search_after doesn't skip them
+            .withSort(SortBuilders.fieldSort("id").order(SortOrder.ASC))
+            .withTrackTotalHits(false)
+            .build();
+        nativeSearchQuery.setSearchAfter(searchAfter);
+        return reactiveElasticsearchTemplate.search(nativeSearchQuery, User.class);
+    }
+
+    @Override
+    public Mono<Long> count(String query) {
+        return reactiveElasticsearchTemplate.count(new NativeSearchQuery(queryStringQuery(query)), User.class);
+    }
+
+    @Override
+    public Mono<Void> index(Collection<User> users) {
+        return searchIndexer.index(User.class, users);
+    }
+
+    @Override
+    public Mono<Void> deleteFromIndex(Collection<String> ids) {
+        return searchIndexer.delete(User.class, ids);
+    }
 }
@@ -1,6 +1,11 @@
 package com.mycompany.myapp.service;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.r2dbc.spi.Row;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
@@ -10,6 +15,11 @@ import org.springframework.util.ClassUtils;
 
 /**
  * This service provides helper function dealing with the low level {@link Row} and Spring's {@link R2dbcCustomConversions}, so type conversions can be applied.
+ * <p>
+ * The conversion strategy of every (value type, target type) pair is decided on first use and cached, and so is whether the driver
+ * can read the values of a type directly as the target type, so the exception based fallback of {@link #fromRow(Row, String, Class)}
+ * is only tried once per pair. The columns whose last values the driver could read as the target type are read once, directly as the
+ * target type. Every value converted by the fallback is counted.
  */
 @Service
 public class ColumnConverter {
@@ -17,9 +27,23 @@ public class ColumnConverter {
     private final ConversionService conversionService;
     private final R2dbcCustomConversions conversions;
 
-    public ColumnConverter(R2dbcCustomConversions conversions, R2dbcConverter r2dbcConverter) {
+    // target type -> value type -> conversion
+    private final Map<Class<?>, Map<Class<?>, Function<Object, Object>>> conversionPlans = new ConcurrentHashMap<>();
+    // target type -> value type -> whether the driver reads the values as the target type
+    private final Map<Class<?>, Map<Class<?>, Boolean>> driverReads = new ConcurrentHashMap<>();
+    // target type -> column name -> type of the last value of the column
+    private final Map<Class<?>, Map<String, Class<?>>> columnTypes = new ConcurrentHashMap<>();
+
+    private final Counter fallbacks;
+
+    public ColumnConverter(R2dbcCustomConversions conversions, R2dbcConverter r2dbcConverter, MeterRegistry meterRegistry) {
         this.conversionService = r2dbcConverter.getConversionService();
         this.conversions = conversions;
+        this.fallbacks =
+            Counter
+                .builder("sql.column.conversion.fallbacks")
+                .description("Number of column values the driver couldn't read as the target type, converted by the conversion service")
+                .register(meterRegistry);
     }
 
     /**
@@ -31,19 +55,13 @@ public class ColumnConverter {
      */
     @SuppressWarnings("unchecked")
     public <T> T convert(@Nullable Object value, @Nullable Class<T> target) {
-        if (value == null || target == null || ClassUtils.isAssignableValue(target, value)) {
+        if (value == null || target == null || target.isInstance(value)) {
             return (T) value;
         }
-
-        if (conversions.hasCustomReadTarget(value.getClass(), target)) {
-            return conversionService.convert(value, target);
-        }
-
-        if (Enum.class.isAssignableFrom(target)) {
-            return (T) Enum.valueOf((Class<Enum>) target, value.toString());
-        }
-
-        return conversionService.convert(value, target);
+        return (T) conversionPlans
+            .computeIfAbsent(target, key -> new ConcurrentHashMap<>())
+            .computeIfAbsent(value.getClass(), source -> createConversionPlan(source, target))
+            .apply(value);
     }
 
     /**
@@ -54,13 +72,52 @@ public class ColumnConverter {
      * @param <T> the parameter for the intended type.
      * @return the value which can be constructed from the input.
      */
+    @SuppressWarnings("unchecked")
     public <T> T fromRow(Row row, String columnName, Class<T> target) {
-        try {
-            // try, directly the driver
-            return row.get(columnName, target);
-        } catch (Exception e) {
-            Object obj = row.get(columnName);
-            return convert(obj, target);
+        Map<Class<?>, Boolean> targetReads = driverReads.computeIfAbsent(target, key -> new ConcurrentHashMap<>());
+        Map<String, Class<?>> targetColumnTypes = columnTypes.computeIfAbsent(target, key -> new ConcurrentHashMap<>());
+        Class<?> columnType = targetColumnTypes.get(columnName);
+        if (columnType != null && Boolean.TRUE.equals(targetReads.get(columnType))) {
+            try {
+                return row.get(columnName, target);
+            } catch (Exception e) {
+                // the column has another type in this query, read as below
+            }
+        }
+        Object value = row.get(columnName);
+        if (value == null) {
+            return null;
         }
+        targetColumnTypes.put(columnName, value.getClass());
+        if (target.isInstance(value)) {
+            targetReads.putIfAbsent(value.getClass(), Boolean.TRUE);
+            return (T) value;
+        }
+        Boolean driverRead = targetReads.get(value.getClass());
+        if (!Boolean.FALSE.equals(driverRead)) {
+            try {
+                // try, directly the driver
+                T read = row.get(columnName, target);
+                targetReads.putIfAbsent(value.getClass(), Boolean.TRUE);
+                return read;
+            } catch (Exception e) {
+                targetReads.put(value.getClass(), Boolean.FALSE);
+            }
+        }
+        fallbacks.increment();
+        return convert(value, target);
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private Function<Object, Object> createConversionPlan(Class<?> source, Class<?> target) {
+        if (ClassUtils.isAssignable(target, source)) {
+            return Function.identity();
+        }
+
+        if (Enum.class.isAssignableFrom(target) && !conversions.hasCustomReadTarget(source, target)) {
+            return value -> Enum.valueOf((Class<Enum>) target, value.toString());
+        }
+
+        return value -> conversionService.convert(value, target);
     }
 }
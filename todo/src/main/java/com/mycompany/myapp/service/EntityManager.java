@@ -1,31 +1,66 @@
 package com.mycompany.myapp.service;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import org.springframework.core.convert.ConversionService;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.r2dbc.core.StatementMapper;
+import org.springframework.data.r2dbc.dialect.R2dbcDialect;
 import org.springframework.data.r2dbc.mapping.OutboundRow;
+import org.springframework.data.r2dbc.query.BoundCondition;
 import org.springframework.data.r2dbc.query.UpdateMapper;
 import org.springframework.data.relational.core.mapping.RelationalPersistentEntity;
+import org.springframework.data.relational.core.mapping.RelationalPersistentProperty;
 import org.springframework.data.relational.core.query.Criteria;
-import org.springframework.data.relational.core.sql.Conditions;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.data.relational.core.sql.AssignValue;
+import org.springframework.data.relational.core.sql.Assignment;
+import org.springframework.data.relational.core.sql.Column;
+import org.springframework.data.relational.core.sql.Condition;
+import org.springframework.data.relational.core.sql.Expression;
+import org.springframework.data.relational.core.sql.Expressions;
+import org.springframework.data.relational.core.sql.Functions;
+import org.springframework.data.relational.core.sql.IdentifierProcessing;
 import org.springframework.data.relational.core.sql.OrderByField;
+import org.springframework.data.relational.core.sql.SQL;
 import org.springframework.data.relational.core.sql.Select;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoin;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoinCondition;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectOrdered;
+import org.springframework.data.relational.core.sql.SelectBuilder.SelectWhere;
+import org.springframework.data.relational.core.sql.SimpleFunction;
 import org.springframework.data.relational.core.sql.SqlIdentifier;
+import org.springframework.data.relational.core.sql.StatementBuilder;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.data.relational.core.sql.render.SqlRenderer;
 import org.springframework.r2dbc.core.Parameter;
+import org.springframework.r2dbc.core.PreparedOperation;
+import org.springframework.r2dbc.core.binding.BindMarker;
+import org.springframework.r2dbc.core.binding.BindMarkers;
+import org.springframework.r2dbc.core.binding.BindMarkersFactory;
+import org.springframework.r2dbc.core.binding.BindTarget;
+import org.springframework.r2dbc.core.binding.Bindings;
+import org.springframework.r2dbc.core.binding.MutableBindings;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import org.springframework.util.Assert;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -56,16 +91,246 @@ public class EntityManager {
         }
     }
 
+    /**
+     * The number of entities of a group, see {@link #countGroupedBy(Class, Criteria, List)}.
+     */
+    public static class GroupCount {
+
+        private final List<Object> values;
+        private final long count;
+
+        GroupCount(List<Object> values, long count) {
+            this.values = values;
+            this.count = count;
+        }
+
+        /**
+         * @return the values of the grouping properties, in their order, which can be null.
+         */
+        public List<Object> getValues() {
+            return values;
+        }
+
+        public long getCount() {
+            return count;
+        }
+    }
+
+    /**
+     * The checksum of a set of entities, from their ids and versions, see {@link #checksum(Class, Criteria)}.
+     * <p>
+     * The ids and the versions are hashed together per entity, and the hashes summed, so that the checksum doesn't depend on the order of
+     * the entities, and the changes of several entities don't cancel each other out, unlike with the sums of the ids and the versions.
+     * The hash is computed with integer arithmetic modulo a prime, the same way by the databases and by the scripts of Elasticsearch:
+     * the linear combination of the id and the version, to the fifth power, which is a permutation of the remainders.
+     */
+    public static class Checksum {
+
+        // 2^31 - 1, so that the products of two remainders fit in a long
+        public static final long MODULUS = 2147483647L;
+        public static final long ID_FACTOR = 48271L;
+        public static final long VERSION_FACTOR = 16807L;
+
+        private final long count;
+        private final long hash;
+        private final Long minId;
+        private final Long maxId;
+
+        public Checksum(long count, long hash, Long minId, Long maxId) {
+            this.count = count;
+            this.hash = hash;
+            this.minId = minId;
+            this.maxId = maxId;
+        }
+
+        /**
+         * @return the hash of an entity, between 0 and {@link #MODULUS}, for non negative ids and versions.
+         */
+        public static long hash(long id, long version) {
+            long x = ((id % MODULUS) * ID_FACTOR + (version % MODULUS) * VERSION_FACTOR + 1) % MODULUS;
+            long x2 = x * x % MODULUS;
+            long x4 = x2 * x2 % MODULUS;
+            return x4 * x % MODULUS;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return the sum of the hashes of the entities.
+         */
+        public long getHash() {
+            return hash;
+        }
+
+        /**
+         * @return the lowest id, or null if there's no entity.
+         */
+        public Long getMinId() {
+            return minId;
+        }
+
+        /**
+         * @return the highest id, or null if there's no entity.
+         */
+        public Long getMaxId() {
+            return maxId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Checksum)) {
+                return false;
+            }
+            Checksum that = (Checksum) o;
+            return count == that.count && hash == that.hash && Objects.equals(minId, that.minId) && Objects.equals(maxId, that.maxId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(count, hash, minId, maxId);
+        }
+
+        @Override
+        public String toString() {
+            return "Checksum{count=" + count + ", hash=" + hash + ", minId=" + minId + ", maxId=" + maxId + "}";
+        }
+    }
+
+    private static final int STATEMENT_CACHE_SIZE = 256;
+
     private final SqlRenderer sqlRenderer;
     private final UpdateMapper updateMapper;
     private final R2dbcEntityTemplate r2dbcEntityTemplate;
     private final StatementMapper statementMapper;
+    private final BindMarkersFactory bindMarkersFactory;
+    private final IdentifierProcessing identifierProcessing;
+    private final TransactionalOperator transactionalOperator;
 
-    public EntityManager(SqlRenderer sqlRenderer, UpdateMapper updateMapper, R2dbcEntityTemplate r2dbcEntityTemplate) {
+    private final Map<StatementKey, String> statementCache = Collections.synchronizedMap(
+        new LinkedHashMap<>(STATEMENT_CACHE_SIZE, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Entry<StatementKey, String> eldest) {
+                return size() > STATEMENT_CACHE_SIZE;
+            }
+        }
+    );
+    private final Counter statementCacheHits;
+    private final Counter statementCacheMisses;
+
+    public EntityManager(
+        SqlRenderer sqlRenderer,
+        UpdateMapper updateMapper,
+        R2dbcEntityTemplate r2dbcEntityTemplate,
+        R2dbcDialect dialect,
+        ReactiveTransactionManager transactionManager,
+        MeterRegistry meterRegistry
+    ) {
         this.sqlRenderer = sqlRenderer;
         this.updateMapper = updateMapper;
         this.r2dbcEntityTemplate = r2dbcEntityTemplate;
         this.statementMapper = r2dbcEntityTemplate.getDataAccessStrategy().getStatementMapper();
+        this.bindMarkersFactory = dialect.getBindMarkersFactory();
+        this.identifierProcessing = dialect.getIdentifierProcessing();
+        this.transactionalOperator = TransactionalOperator.create(transactionManager);
+        this.statementCacheHits = statementCacheCounter(meterRegistry, "hit");
+        this.statementCacheMisses = statementCacheCounter(meterRegistry, "miss");
+        meterRegistry.gauge("sql.statement.cache.size", statementCache, Map::size);
+    }
+
+    private static Counter statementCacheCounter(MeterRegistry meterRegistry, String result) {
+        return Counter
+            .builder("sql.statement.cache.requests")
+            .description("Number of SQL select lookups in the rendered statement cache")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Creates a prepared SQL select statement from the given criteria and pagination parameters.
+     * <p>
+     * The criteria values, and the limit and offset of the page, are sent as bind parameters. The rendered SQL only depends on the shape
+     * of the query (entity, select, criteria columns and operators, sort, and whether it's paged), so it's cached, and the select
+     * fragment is only built on a cache miss: every page of a listing shares the same statement.
+     * @param selectName identifies the select fragment (columns and joins) of the entity, when there are more than one.
+     * @param table the aliased table of the entity, used to qualify the criteria columns.
+     * @param entityType the entity type which holds the table name.
+     * @param pageable page parameter, or null, if everything needs to be returned
+     * @param criteria the where condition, or null, if everything needs to be returned
+     * @param selectRenderer renders the sorted select statement, without limit and offset, for the given mapped condition, which can be
+     * null, see {@link #createSelect(SelectFromAndJoin, Class, Sort, Condition)}.
+     * @return the sql select statement along with its bindings.
+     */
+    public PreparedOperation<String> createSelect(
+        String selectName,
+        Table table,
+        Class<?> entityType,
+        Pageable pageable,
+        Criteria criteria,
+        Function<Condition, String> selectRenderer
+    ) {
+        BindMarkers bindMarkers = bindMarkersFactory.create();
+        BoundCondition boundCondition = criteria != null && !criteria.isEmpty()
+            ? updateMapper.getMappedObject(bindMarkers, criteria, table, getPersistentEntity(entityType))
+            : null;
+        Condition condition = boundCondition != null ? boundCondition.getCondition() : null;
+        Bindings bindings = boundCondition != null ? boundCondition.getBindings() : Bindings.empty();
+        boolean paged = pageable != null && pageable.isPaged();
+        String limitOffset = "";
+        if (paged) {
+            // the markers follow the ones of the condition
+            MutableBindings pageBindings = new MutableBindings(bindMarkers);
+            BindMarker limit = pageBindings.nextMarker();
+            pageBindings.bind(limit, pageable.getPageSize());
+            BindMarker offset = pageBindings.nextMarker();
+            pageBindings.bind(offset, pageable.getOffset());
+            bindings = Bindings.merge(bindings, pageBindings);
+            limitOffset = " LIMIT " + limit.getPlaceholder() + " OFFSET " + offset.getPlaceholder();
+        }
+        StatementKey key = new StatementKey(
+            entityType,
+            selectName,
+            condition != null ? condition.toString() : null,
+            pageable != null ? pageable.getSort() : null,
+            paged
+        );
+        String sql = statementCache.get(key);
+        if (sql != null) {
+            statementCacheHits.increment();
+        } else {
+            statementCacheMisses.increment();
+            sql = selectRenderer.apply(condition) + limitOffset;
+            statementCache.put(key, sql);
+        }
+        return new PreparedSql(sql, bindings);
+    }
+
+    /**
+     * Creates a sorted SQL select statement from the given fragment, without limit and offset.
+     * @param selectFrom a representation of a select statement.
+     * @param entityType the entity type which holds the table name.
+     * @param sort the sort, or null, if unsorted.
+     * @param condition the where condition, or null, if everything needs to be returned
+     * @return sql select statement
+     */
+    public String createSelect(SelectFromAndJoin selectFrom, Class<?> entityType, Sort sort, Condition condition) {
+        return createSelectImpl(selectFrom, entityType, sort, condition);
+    }
+
+    /**
+     * Creates a sorted SQL select statement from the given fragment, without limit and offset.
+     * @param selectFrom a representation of a select statement.
+     * @param entityType the entity type which holds the table name.
+     * @param sort the sort, or null, if unsorted.
+     * @param condition the where condition, or null, if everything needs to be returned
+     * @return sql select statement
+     */
+    public String createSelect(SelectFromAndJoinCondition selectFrom, Class<?> entityType, Sort sort, Condition condition) {
+        return createSelectImpl(selectFrom, entityType, sort, condition);
     }
 
     /**
@@ -73,29 +338,19 @@ public class EntityManager {
      * @param selectFrom a representation of a select statement.
      * @param entityType the entity type which holds the table name.
      * @param pageable page parameter, or null, if everything needs to be returned
+     * @param condition the where condition, or null, if everything needs to be returned
      * @return sql select statement
      */
-    public String createSelect(SelectFromAndJoin selectFrom, Class<?> entityType, Pageable pageable, Criteria criteria) {
+    public String createSelect(SelectFromAndJoin selectFrom, Class<?> entityType, Pageable pageable, Condition condition) {
         if (pageable != null) {
-            if (criteria != null) {
-                return createSelectImpl(
-                    selectFrom.limitOffset(pageable.getPageSize(), pageable.getOffset()).where(Conditions.just(criteria.toString())),
-                    entityType,
-                    pageable.getSort()
-                );
-            } else {
-                return createSelectImpl(
-                    selectFrom.limitOffset(pageable.getPageSize(), pageable.getOffset()),
-                    entityType,
-                    pageable.getSort()
-                );
-            }
+            return createSelectImpl(
+                selectFrom.limitOffset(pageable.getPageSize(), pageable.getOffset()),
+                entityType,
+                pageable.getSort(),
+                condition
+            );
         } else {
-            if (criteria != null) {
-                return createSelectImpl(selectFrom.where(Conditions.just(criteria.toString())), entityType, null);
-            } else {
-                return createSelectImpl(selectFrom, entityType, null);
-            }
+            return createSelectImpl(selectFrom, entityType, null, condition);
         }
     }
 
@@ -104,32 +359,26 @@ public class EntityManager {
      * @param selectFrom a representation of a select statement.
      * @param entityType the entity type which holds the table name.
      * @param pageable page parameter, or null, if everything needs to be returned
+     * @param condition the where condition, or null, if everything needs to be returned
      * @return sql select statement
      */
-    public String createSelect(SelectFromAndJoinCondition selectFrom, Class<?> entityType, Pageable pageable, Criteria criteria) {
+    public String createSelect(SelectFromAndJoinCondition selectFrom, Class<?> entityType, Pageable pageable, Condition condition) {
         if (pageable != null) {
-            if (criteria != null) {
-                return createSelectImpl(
-                    selectFrom.limitOffset(pageable.getPageSize(), pageable.getOffset()).where(Conditions.just(criteria.toString())),
-                    entityType,
-                    pageable.getSort()
-                );
-            } else {
-                return createSelectImpl(
-                    selectFrom.limitOffset(pageable.getPageSize(), pageable.getOffset()),
-                    entityType,
-                    pageable.getSort()
-                );
-            }
+            return createSelectImpl(
+                selectFrom.limitOffset(pageable.getPageSize(), pageable.getOffset()),
+                entityType,
+                pageable.getSort(),
+                condition
+            );
         } else {
-            if (criteria != null) {
-                return createSelectImpl(selectFrom.where(Conditions.just(criteria.toString())), entityType, null);
-            } else {
-                return createSelectImpl(selectFrom, entityType, null);
-            }
+            return createSelectImpl(selectFrom, entityType, null, condition);
         }
     }
 
+    private String createSelectImpl(SelectWhere selectFrom, Class<?> entityType, Sort sortParameter, Condition condition) {
+        return createSelectImpl(condition != null ? selectFrom.where(condition) : selectFrom, entityType, sortParameter);
+    }
+
     private String createSelectImpl(SelectOrdered selectFrom, Class<?> entityType, Sort sortParameter) {
         if (sortParameter != null && sortParameter.isSorted()) {
             RelationalPersistentEntity<?> entity = getPersistentEntity(entityType);
@@ -146,6 +395,113 @@ public class EntityManager {
         return r2dbcEntityTemplate.getConverter().getMappingContext().getPersistentEntity(entityType);
     }
 
+    /**
+     * Count the entities of the given type matching the criteria, grouped by the values of the given properties, with a single
+     * {@code GROUP BY} statement.
+     * @param entityType the entity type which holds the table name.
+     * @param criteria the condition of the counted entities, on the entity properties, or null, to count every entity.
+     * @param properties the grouping properties.
+     * @return the number of entities of every group.
+     */
+    public Flux<GroupCount> countGroupedBy(Class<?> entityType, Criteria criteria, List<String> properties) {
+        RelationalPersistentEntity<?> entity = getPersistentEntity(entityType);
+        Table table = Table.create(entity.getTableName()).as(ENTITY_ALIAS);
+        List<RelationalPersistentProperty> groupingProperties = properties
+            .stream()
+            .map(entity::getRequiredPersistentProperty)
+            .collect(Collectors.toList());
+        PreparedOperation<String> select = createSelect(
+            "countGroupedBy" + properties,
+            table,
+            entityType,
+            null,
+            criteria,
+            condition -> {
+                List<Expression> columns = new ArrayList<>();
+                StringJoiner groupBy = new StringJoiner(", ", " GROUP BY ", "");
+                for (RelationalPersistentProperty property : groupingProperties) {
+                    columns.add(table.column(property.getColumnName()));
+                    groupBy.add(ENTITY_ALIAS + "." + property.getColumnName().toSql(identifierProcessing));
+                }
+                columns.add(Functions.count(Expressions.asterisk()));
+                SelectWhere selectFrom = Select.builder().select(columns).from(table);
+                return createSelect(condition != null ? selectFrom.where(condition).build() : selectFrom.build()) + groupBy;
+            }
+        );
+        return r2dbcEntityTemplate
+            .getDatabaseClient()
+            .sql(select)
+            .map(row -> {
+                List<Object> values = new ArrayList<>(groupingProperties.size());
+                for (int i = 0; i < groupingProperties.size(); i++) {
+                    values.add(row.get(i, groupingProperties.get(i).getActualType()));
+                }
+                return new GroupCount(values, row.get(groupingProperties.size(), Long.class));
+            })
+            .all();
+    }
+
+    /**
+     * Compute the checksum of the entities of the given type matching the criteria, from their numeric ids and their versions, with a
+     * single aggregate statement, see {@link Checksum}.
+     * @param entityType the versioned entity type which holds the table name.
+     * @param criteria the condition of the entities, on the entity properties, or null, for every entity.
+     * @return the checksum.
+     */
+    public Mono<Checksum> checksum(Class<?> entityType, Criteria criteria) {
+        RelationalPersistentEntity<?> entity = getPersistentEntity(entityType);
+        Table table = Table.create(entity.getTableName()).as(ENTITY_ALIAS);
+        Column idColumn = table.column(entity.getRequiredIdProperty().getColumnName());
+        String id = ENTITY_ALIAS + "." + entity.getRequiredIdProperty().getColumnName().toSql(identifierProcessing);
+        String version = ENTITY_ALIAS + "." + entity.getRequiredVersionProperty().getColumnName().toSql(identifierProcessing);
+        // see Checksum.hash(long, long)
+        String x = String.format(
+            "MOD(MOD(%s, %d) * %d + MOD(%s, %d) * %d + 1, %2$d)",
+            id,
+            Checksum.MODULUS,
+            Checksum.ID_FACTOR,
+            version,
+            Checksum.MODULUS,
+            Checksum.VERSION_FACTOR
+        );
+        String x2 = String.format("MOD(%1$s * %1$s, %2$d)", x, Checksum.MODULUS);
+        String hash = String.format("MOD(MOD(%1$s * %1$s, %2$d) * %3$s, %2$d)", x2, Checksum.MODULUS, x);
+        PreparedOperation<String> select = createSelect(
+            "checksum",
+            table,
+            entityType,
+            null,
+            criteria,
+            condition -> {
+                List<Expression> columns = List.of(
+                    Functions.count(Expressions.asterisk()),
+                    SimpleFunction.create("SUM", List.of(Expressions.just(hash))),
+                    SimpleFunction.create("MIN", List.of(idColumn)),
+                    SimpleFunction.create("MAX", List.of(idColumn))
+                );
+                SelectWhere selectFrom = Select.builder().select(columns).from(table);
+                return createSelect(condition != null ? selectFrom.where(condition).build() : selectFrom.build());
+            }
+        );
+        return r2dbcEntityTemplate
+            .getDatabaseClient()
+            .sql(select)
+            // the sums are decimals with some databases, and null without rows
+            .map(row ->
+                new Checksum(
+                    toLong(row.get(0)),
+                    toLong(row.get(1)),
+                    row.get(2) != null ? toLong(row.get(2)) : null,
+                    row.get(3) != null ? toLong(row.get(3)) : null
+                )
+            )
+            .one();
+    }
+
+    private static long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0;
+    }
+
     /**
      * Delete all the entity with the given type, and return the number of deletions.
      * @param entityType the entity type which holds the table name.
@@ -155,6 +511,65 @@ public class EntityManager {
         return r2dbcEntityTemplate.delete(entityType).all();
     }
 
+    /**
+     * Delete the entities of the given type matching the criteria with a single statement, and return the number of deletions.
+     * @param entityType the entity type which holds the table name.
+     * @param criteria the condition of the entities to delete, on the entity properties.
+     * @return the number of deleted entities.
+     */
+    public Mono<Integer> deleteAll(Class<?> entityType, Criteria criteria) {
+        return r2dbcEntityTemplate.delete(entityType).matching(Query.query(criteria)).all();
+    }
+
+    /**
+     * Delete the entities of the given type matching the criteria, and return the number of deletions.
+     * <p>
+     * The matching ids are selected and deleted in chunks, each with its own statements, so the rows are only locked
+     * one chunk at a time - when there's no surrounding transaction.
+     * @param entityType the entity type which holds the table name.
+     * @param criteria the condition of the entities to delete, on the entity properties.
+     * @param chunkSize the maximum number of entities to delete with one statement.
+     * @return the number of deleted entities.
+     */
+    public Mono<Integer> deleteAll(Class<?> entityType, Criteria criteria, int chunkSize) {
+        return deleteAll(entityType, criteria, chunkSize, ids -> Mono.empty());
+    }
+
+    /**
+     * Delete the entities of the given type matching the criteria, and return the number of deletions.
+     * <p>
+     * The matching ids are selected and deleted in chunks, each in its own transaction - when there's no surrounding one -
+     * along with the statements of {@code beforeDelete}.
+     * @param entityType the entity type which holds the table name.
+     * @param criteria the condition of the entities to delete, on the entity properties.
+     * @param chunkSize the maximum number of entities to delete with one statement.
+     * @param beforeDelete called with the ids of every chunk, before they are deleted.
+     * @return the number of deleted entities.
+     */
+    public Mono<Integer> deleteAll(Class<?> entityType, Criteria criteria, int chunkSize, Function<List<Object>, Mono<Void>> beforeDelete) {
+        RelationalPersistentEntity<?> persistentEntity = getPersistentEntity(entityType);
+        RelationalPersistentProperty idProperty = persistentEntity.getRequiredIdProperty();
+        StatementMapper entityStatementMapper = statementMapper.forType(entityType);
+        StatementMapper.SelectSpec selectIds = entityStatementMapper
+            .createSelect(persistentEntity.getTableName())
+            .withProjection(idProperty.getColumnName())
+            .withCriteria(criteria)
+            .limit(chunkSize);
+        Mono<Integer> deleteChunk = r2dbcEntityTemplate
+            .getDatabaseClient()
+            .sql(entityStatementMapper.getMappedObject(selectIds))
+            .map(row -> row.get(0))
+            .all()
+            .collectList()
+            .flatMap(ids ->
+                ids.isEmpty()
+                    ? Mono.just(0)
+                    : beforeDelete.apply(ids).then(deleteAll(entityType, Criteria.where(idProperty.getName()).in(ids)))
+            )
+            .as(transactionalOperator::transactional);
+        return deleteChunk.repeat().takeUntil(deleted -> deleted < chunkSize).reduce(0, Integer::sum);
+    }
+
     /**
      * Delete all the rows from the given table, and return the number of deletions.
      * @param tableName the name of the table to delete.
@@ -185,30 +600,264 @@ public class EntityManager {
     }
 
     /**
-     * Updates the table, which links the entity with the referred entities.
+     * Inserts the given entities into the database with a single multi-row insert statement - and sets the ids, if it's an autoincrement
+     * field.
+     * <p>
+     * The drivers which only return the first generated id of the statement (MySQL) get the following ids assigned by steps of the
+     * {@code auto_increment_increment} of the session, as the database allocates them for a single insert statement. Any other number
+     * of generated ids is an error.
+     * @param <S> the type of the persisted entities.
+     * @param entities the new entities, of the same type, to be inserted into the database.
+     * @return the persisted entities, in the given order.
+     */
+    public <S> Flux<S> insertAll(List<S> entities) {
+        if (entities.isEmpty()) {
+            return Flux.empty();
+        }
+        RelationalPersistentEntity<?> persistentEntity = getPersistentEntity(entities.get(0).getClass());
+        RelationalPersistentProperty idProperty = persistentEntity.getRequiredIdProperty();
+        RelationalPersistentProperty versionProperty = persistentEntity.getVersionProperty();
+        ConversionService conversionService = r2dbcEntityTemplate.getConverter().getConversionService();
+
+        MutableBindings bindings = new MutableBindings(bindMarkersFactory.create());
+        List<SqlIdentifier> columns = null;
+        StringJoiner rows = new StringJoiner(", ");
+        for (S entity : entities) {
+            if (versionProperty != null) {
+                // the initial version, like R2dbcEntityTemplate.insert
+                long initialVersion = versionProperty.getType().isPrimitive() ? 1L : 0L;
+                persistentEntity
+                    .getPropertyAccessor(entity)
+                    .setProperty(versionProperty, conversionService.convert(initialVersion, versionProperty.getType()));
+            }
+            OutboundRow outboundRow = getOutboundRow(entity);
+            outboundRow.remove(idProperty.getColumnName());
+            if (columns == null) {
+                columns = new ArrayList<>(outboundRow.keySet());
+            }
+            StringJoiner values = new StringJoiner(", ", "(", ")");
+            for (SqlIdentifier column : columns) {
+                Parameter parameter = outboundRow.get(column);
+                BindMarker marker = bindings.nextMarker();
+                if (parameter.hasValue()) {
+                    bindings.bind(marker, parameter.getValue());
+                } else {
+                    bindings.bindNull(marker, parameter.getType());
+                }
+                values.add(marker.getPlaceholder());
+            }
+            rows.add(values.toString());
+        }
+        String sql =
+            "INSERT INTO " +
+            persistentEntity.getTableName().toSql(identifierProcessing) +
+            columns.stream().map(column -> column.toSql(identifierProcessing)).collect(Collectors.joining(", ", " (", ")")) +
+            " VALUES " +
+            rows;
+
+        return r2dbcEntityTemplate
+            .getDatabaseClient()
+            .sql(new PreparedSql(sql, bindings))
+            .filter(statement -> statement.returnGeneratedValues(idProperty.getColumnName().toSql(identifierProcessing)))
+            .map(row -> row.get(0))
+            .all()
+            .collectList()
+            .flatMap(ids -> {
+                if (ids.size() == entities.size()) {
+                    return Mono.just(ids);
+                }
+                if (ids.size() != 1) {
+                    return Mono.error(new IllegalStateException("Got " + ids.size() + " generated ids for " + entities.size() + " rows"));
+                }
+                long firstId = ((Number) ids.get(0)).longValue();
+                return autoIncrementIncrement()
+                    .map(step -> {
+                        List<Object> steppedIds = new ArrayList<>(entities.size());
+                        for (int i = 0; i < entities.size(); i++) {
+                            steppedIds.add(firstId + i * step);
+                        }
+                        return steppedIds;
+                    });
+            })
+            .flatMapMany(ids -> {
+                for (int i = 0; i < entities.size(); i++) {
+                    persistentEntity
+                        .getPropertyAccessor(entities.get(i))
+                        .setProperty(idProperty, conversionService.convert(ids.get(i), idProperty.getType()));
+                }
+                return Flux.fromIterable(entities);
+            });
+    }
+
+    // the step between the ids generated by a MySQL statement
+    private Mono<Long> autoIncrementIncrement() {
+        return r2dbcEntityTemplate
+            .getDatabaseClient()
+            .sql("SELECT @@auto_increment_increment")
+            .map(row -> ((Number) row.get(0)).longValue())
+            .one();
+    }
+
+    // the columns of the entity, like the statements of R2dbcEntityTemplate
+    private OutboundRow getOutboundRow(Object entity) {
+        OutboundRow outboundRow = new OutboundRow();
+        r2dbcEntityTemplate.getConverter().write(entity, outboundRow);
+        return outboundRow;
+    }
+
+    /**
+     * Updates all the columns of the given entity, in a single statement.
+     * <p>
+     * The version of a versioned entity is incremented, and when the entity holds a version, the row is only updated if it has the
+     * same version: no row is updated on a concurrent modification.
+     * @param <S> the type of the entity.
+     * @param entity the entity to be updated, with its id.
+     * @return the number of updated rows, 0 if there is no row with the id of the entity.
+     */
+    public <S> Mono<Integer> update(S entity) {
+        return update(entity, false);
+    }
+
+    /**
+     * Updates the columns of the non null fields of the given entity, in a single statement. The version is handled like
+     * {@link #update(Object)} does.
+     * @param <S> the type of the entity.
+     * @param entity the entity holding the changed fields, and its id.
+     * @return the number of updated rows, 0 if there is no row with the id of the entity.
+     */
+    public <S> Mono<Integer> updateNonNullFields(S entity) {
+        return update(entity, true);
+    }
+
+    private <S> Mono<Integer> update(S entity, boolean skipNullValues) {
+        RelationalPersistentEntity<?> persistentEntity = getPersistentEntity(entity.getClass());
+        RelationalPersistentProperty idProperty = persistentEntity.getRequiredIdProperty();
+        RelationalPersistentProperty versionProperty = persistentEntity.getVersionProperty();
+        OutboundRow outboundRow = getOutboundRow(entity);
+        Parameter id = outboundRow.remove(idProperty.getColumnName());
+        Assert.isTrue(id != null && id.hasValue(), "id is null");
+        Parameter version = versionProperty != null ? outboundRow.remove(versionProperty.getColumnName()) : null;
+
+        Table table = Table.create(persistentEntity.getTableName());
+        MutableBindings bindings = new MutableBindings(bindMarkersFactory.create());
+        List<Assignment> assignments = new ArrayList<>();
+        outboundRow.forEach((column, value) -> {
+            if (!skipNullValues || value.hasValue()) {
+                assignments.add(AssignValue.create(table.column(column), bind(bindings, value)));
+            }
+        });
+        Condition condition = table.column(idProperty.getColumnName()).isEqualTo(bind(bindings, id));
+        if (versionProperty != null) {
+            // the version is checked, when it's known, and always incremented
+            Column versionColumn = table.column(versionProperty.getColumnName());
+            assignments.add(
+                AssignValue.create(versionColumn, Expressions.just(versionProperty.getColumnName().toSql(identifierProcessing) + " + 1"))
+            );
+            if (version.hasValue()) {
+                condition = condition.and(versionColumn.isEqualTo(bind(bindings, version)));
+            }
+        } else if (assignments.isEmpty()) {
+            // nothing to change, the statement still tells whether the row exists
+            Column idColumn = table.column(idProperty.getColumnName());
+            assignments.add(AssignValue.create(idColumn, idColumn));
+        }
+        String sql = sqlRenderer.render(StatementBuilder.update(table).set(assignments).where(condition).build());
+
+        return r2dbcEntityTemplate
+            .getDatabaseClient()
+            .sql(new PreparedSql(sql, bindings))
+            .fetch()
+            .rowsUpdated()
+            .doOnNext(updated -> {
+                if (updated > 0 && version != null && version.hasValue()) {
+                    Object newVersion = ((Number) version.getValue()).longValue() + 1;
+                    persistentEntity.getPropertyAccessor(entity).setProperty(versionProperty, newVersion);
+                }
+            });
+    }
+
+    private static Expression bind(MutableBindings bindings, Parameter parameter) {
+        BindMarker marker = bindings.nextMarker();
+        if (parameter.hasValue()) {
+            bindings.bind(marker, parameter.getValue());
+        } else {
+            bindings.bindNull(marker, parameter.getType());
+        }
+        return SQL.bindMarker(marker.getPlaceholder());
+    }
+
+    /**
+     * Updates the table, which links the entity with the referred entities, see {@link #updateLinkTable(LinkTable, Object, Collection)}.
      * @param table describes the link table, it contains a table name, the column name for the id, and for the referred entity id.
      * @param entityId the id of the entity, for which the links are created.
      * @param referencedIds the id of the referred entities.
-     * @return the number of inserted rows.
+     * @return the number of inserted and deleted rows.
      */
     public Mono<Integer> updateLinkTable(LinkTable table, Long entityId, Stream<Long> referencedIds) {
-        return deleteFromLinkTable(table, entityId)
-            .then(
-                Flux
-                    .fromStream(referencedIds)
-                    .flatMap((Long referenceId) -> {
-                        StatementMapper.InsertSpec insert = r2dbcEntityTemplate
-                            .getDataAccessStrategy()
-                            .getStatementMapper()
-                            .createInsert(table.tableName)
-                            .withColumn(table.idColumn, Parameter.from(entityId))
-                            .withColumn(table.referenceColumn, Parameter.from(referenceId));
-
-                        return r2dbcEntityTemplate.getDatabaseClient().sql(statementMapper.getMappedObject(insert)).fetch().rowsUpdated();
-                    })
-                    .collectList()
-                    .map((List<Integer> updates) -> updates.stream().reduce(Integer::sum).orElse(0))
-            );
+        return updateLinkTable(table, entityId, referencedIds.collect(Collectors.toList()));
+    }
+
+    /**
+     * Updates the table, which links the entity with the referred entities, with the difference between the given and the stored
+     * links: the stored links are selected, then the removed ones are deleted with a single statement, and the added ones are inserted
+     * with a single multi-row statement.
+     * @param table describes the link table, it contains a table name, the column name for the id, and for the referred entity id.
+     * @param entityId the id of the entity, for which the links are created.
+     * @param referencedIds the id of the referred entities, of the Java type of their column.
+     * @return the number of inserted and deleted rows.
+     */
+    public Mono<Integer> updateLinkTable(LinkTable table, Object entityId, Collection<?> referencedIds) {
+        Assert.notNull(entityId, "entityId is null");
+        Set<Object> links = new LinkedHashSet<>(referencedIds);
+        String select = "SELECT " + table.referenceColumn + " FROM " + table.tableName + " WHERE " + table.idColumn + " = :entityId";
+        return r2dbcEntityTemplate
+            .getDatabaseClient()
+            .sql(select)
+            .bind("entityId", entityId)
+            .map(row -> row.get(0))
+            .all()
+            .collect(Collectors.toSet())
+            .flatMap(storedLinks -> {
+                List<Object> removedLinks = storedLinks.stream().filter(link -> !links.contains(link)).collect(Collectors.toList());
+                List<Object[]> addedLinks = links
+                    .stream()
+                    .filter(link -> !storedLinks.contains(link))
+                    .map(link -> new Object[] { entityId, link })
+                    .collect(Collectors.toList());
+                // the statements share the connection of the transaction, so they run one after the other
+                return deleteLinks(table, entityId, removedLinks)
+                    .flatMap(deleted -> insertLinks(table, addedLinks).map(inserted -> deleted + inserted));
+            });
+    }
+
+    private Mono<Integer> deleteLinks(LinkTable table, Object entityId, List<Object> referencedIds) {
+        if (referencedIds.isEmpty()) {
+            return Mono.just(0);
+        }
+        String delete =
+            "DELETE FROM " +
+            table.tableName +
+            " WHERE " +
+            table.idColumn +
+            " = :entityId AND " +
+            table.referenceColumn +
+            " IN (:referencedIds)";
+        return r2dbcEntityTemplate
+            .getDatabaseClient()
+            .sql(delete)
+            .bind("entityId", entityId)
+            .bind("referencedIds", referencedIds)
+            .fetch()
+            .rowsUpdated();
+    }
+
+    // the rows are expanded by the database client, as a list of values per row
+    private Mono<Integer> insertLinks(LinkTable table, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return Mono.just(0);
+        }
+        String insert = "INSERT INTO " + table.tableName + " (" + table.idColumn + ", " + table.referenceColumn + ") VALUES :rows";
+        return r2dbcEntityTemplate.getDatabaseClient().sql(insert).bind("rows", rows).fetch().rowsUpdated();
     }
 
     public Mono<Void> deleteFromLinkTable(LinkTable table, Long entityId) {
@@ -233,4 +882,70 @@ public class EntityManager {
 
         return fields;
     }
+
+    private static class PreparedSql implements PreparedOperation<String> {
+
+        private final String sql;
+        private final Bindings bindings;
+
+        PreparedSql(String sql, Bindings bindings) {
+            this.sql = sql;
+            this.bindings = bindings;
+        }
+
+        @Override
+        public String getSource() {
+            return sql;
+        }
+
+        @Override
+        public void bindTo(BindTarget target) {
+            bindings.apply(target);
+        }
+
+        @Override
+        public String toQuery() {
+            return sql;
+        }
+    }
+
+    private static final class StatementKey {
+
+        private final Class<?> entityType;
+        private final String selectName;
+        private final String condition;
+        private final Sort sort;
+        private final boolean paged;
+
+        StatementKey(Class<?> entityType, String selectName, String condition, Sort sort, boolean paged) {
+            this.entityType = entityType;
+            this.selectName = selectName;
+            this.condition = condition;
+            this.sort = sort;
+            this.paged = paged;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof StatementKey)) {
+                return false;
+            }
+            StatementKey other = (StatementKey) o;
+            return (
+                entityType.equals(other.entityType) &&
+                Objects.equals(selectName, other.selectName) &&
+                Objects.equals(condition, other.condition) &&
+                Objects.equals(sort, other.sort) &&
+                paged == other.paged
+            );
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(entityType, selectName, condition, sort, paged);
+        }
+    }
 }
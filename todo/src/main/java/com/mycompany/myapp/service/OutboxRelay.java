@@ -0,0 +1,322 @@
+package com.mycompany.myapp.service;
+
+import static org.springframework.data.relational.core.query.Criteria.where;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Category;
+import com.mycompany.myapp.domain.OutboxEvent;
+import com.mycompany.myapp.domain.Todo;
+import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.repository.CategoryRepository;
+import com.mycompany.myapp.repository.OutboxEventRepository;
+import com.mycompany.myapp.repository.TodoRepository;
+import com.mycompany.myapp.repository.UserRepository;
+import com.mycompany.myapp.repository.search.CategorySearchRepository;
+import com.mycompany.myapp.repository.search.TodoSearchRepository;
+import com.mycompany.myapp.repository.search.UserSearchRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Relay of the search index outbox: indexes the entities recorded by {@link OutboxService} in the background.
+ * <p>
+ * The outbox is drained in batches, in the order the entries were recorded. The entities of a batch are read from the database,
+ * and handed to the {@link SearchIndexer} through the search repositories, the ones which don't exist anymore being deleted. As the
+ * current state of every entity is indexed, the last change of an entity always wins, whatever the order of the entries of its id.
+ * The indexed entities are then published to the {@link CacheInvalidationBus}, with their {@code @Version}, and the entries removed.
+ * <p>
+ * Every batch is claimed by the relay of one instance, until its claim expires, and the entries of an entity are only claimed while
+ * no other entry of the entity is: an entity is indexed by one instance at a time, and only once. A failed batch is released, and
+ * claimed again after a delay, growing with its attempts, and in smaller batches, so that a failing entry ends alone in its batch.
+ * The entries which fail {@code max-attempts} times are parked: they are kept in the outbox, but not claimed anymore.
+ */
+@Service
+public class OutboxRelay {
+
+    private final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private static final Duration FIRST_RETRY_BACKOFF = Duration.ofMillis(100);
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final ApplicationProperties.Outbox properties;
+
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    private final Map<String, IndexTarget<?, ?>> targets = new HashMap<>();
+
+    private Disposable relay;
+
+    public OutboxRelay(
+        OutboxEventRepository outboxEventRepository,
+        TodoRepository todoRepository,
+        TodoSearchRepository todoSearchRepository,
+        CategoryRepository categoryRepository,
+        CategorySearchRepository categorySearchRepository,
+        UserRepository userRepository,
+        UserSearchRepository userSearchRepository,
+        CacheInvalidationBus cacheInvalidationBus,
+        ApplicationProperties applicationProperties
+    ) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.properties = applicationProperties.getOutbox();
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        addTarget(
+            Todo.class,
+            Long::valueOf,
+            ids -> todoRepository.findAllBy(null, where("id").in(ids)),
+            Todo::getId,
+            Todo::getVersion,
+            todoSearchRepository::index,
+            todoSearchRepository::deleteFromIndex
+        );
+        addTarget(
+            Category.class,
+            Long::valueOf,
+            ids -> categoryRepository.findAllBy(null, where("id").in(ids)),
+            Category::getId,
+            Category::getVersion,
+            categorySearchRepository::index,
+            categorySearchRepository::deleteFromIndex
+        );
+        addTarget(
+            User.class,
+            Function.identity(),
+            userRepository::findAllById,
+            User::getId,
+            user -> null,
+            userSearchRepository::index,
+            userSearchRepository::deleteFromIndex
+        );
+    }
+
+    private <T, ID> void addTarget(
+        Class<T> entityType,
+        Function<String, ID> idParser,
+        Function<Collection<ID>, Flux<T>> loader,
+        Function<T, ID> idGetter,
+        Function<T, Long> versionGetter,
+        Function<List<T>, Mono<Void>> indexer,
+        Function<List<ID>, Mono<Void>> deleter
+    ) {
+        targets.put(entityType.getSimpleName(), new IndexTarget<>(entityType, idParser, loader, idGetter, versionGetter, indexer, deleter));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isRelayEnabled()) {
+            log.info("Search index outbox relay is disabled");
+            return;
+        }
+        relay =
+            Flux
+                .interval(properties.getPollInterval())
+                .onBackpressureDrop()
+                .concatMap(
+                    tick ->
+                        drainAll()
+                            .onErrorResume(e -> {
+                                log.warn("Search index outbox relay failed, it will be retried: {}", e.getMessage());
+                                return Mono.empty();
+                            }),
+                    1
+                )
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (relay != null) {
+            relay.dispose();
+        }
+    }
+
+    /**
+     * Drain the outbox, until there's nothing left to claim.
+     * @return the number of indexed entries.
+     */
+    public Mono<Integer> drainAll() {
+        return drain().repeat().takeUntil(drained -> drained == 0).reduce(0, Integer::sum);
+    }
+
+    /**
+     * Claim the oldest batch of entries of the outbox, index their entities, and remove these entries. The entries are released when
+     * the indexing fails, and parked after too many attempts.
+     * @return the number of indexed entries.
+     */
+    public Mono<Integer> drain() {
+        String claimToken = UUID.randomUUID().toString();
+        return claim(claimToken)
+            .flatMap(events -> {
+                if (events.isEmpty()) {
+                    return Mono.just(0);
+                }
+                List<Long> eventIds = events.stream().map(OutboxEvent::getId).collect(Collectors.toList());
+                return index(events)
+                    .retryWhen(Retry.backoff(properties.getMaxRetries(), FIRST_RETRY_BACKOFF))
+                    .then(outboxEventRepository.deleteAllByIdIn(eventIds))
+                    .thenReturn(events.size())
+                    .onErrorResume(e -> release(events, claimToken).then(Mono.error(e)));
+            });
+    }
+
+    // claim the oldest claimable entries, in a smaller batch when they failed before
+    private Mono<List<OutboxEvent>> claim(String claimToken) {
+        Instant now = Instant.now();
+        return outboxEventRepository
+            .findClaimable(now, properties.getMaxAttempts(), properties.getBatchSize())
+            .collectList()
+            .flatMap(candidates -> {
+                if (candidates.isEmpty()) {
+                    return Mono.just(List.<OutboxEvent>of());
+                }
+                int batchSize = Math.max(1, properties.getBatchSize() >> Math.min(candidates.get(0).getAttempts(), Integer.SIZE - 1));
+                List<Long> ids = candidates
+                    .subList(0, Math.min(batchSize, candidates.size()))
+                    .stream()
+                    .map(OutboxEvent::getId)
+                    .collect(Collectors.toList());
+                return outboxEventRepository
+                    .claim(ids, claimToken, now.plus(properties.getClaimTimeout()), now)
+                    .then(outboxEventRepository.findAllByClaimToken(claimToken).collectList())
+                    .flatMap(events -> yieldToOtherClaims(events, claimToken, now));
+            });
+    }
+
+    // the entries of an entity claimed concurrently by other instances are left to the claim of its oldest entry
+    private Mono<List<OutboxEvent>> yieldToOtherClaims(List<OutboxEvent> events, String claimToken, Instant now) {
+        if (events.isEmpty()) {
+            return Mono.just(events);
+        }
+        return outboxEventRepository
+            .findOtherClaims(claimToken, now)
+            .collect(HashMap<String, Long>::new, (oldest, other) -> oldest.merge(aggregateKey(other), other.getId(), Math::min))
+            .flatMap(oldestOtherClaims -> {
+                List<Long> yieldedIds = new ArrayList<>();
+                List<OutboxEvent> claimed = new ArrayList<>();
+                for (OutboxEvent event : events) {
+                    Long otherId = oldestOtherClaims.get(aggregateKey(event));
+                    if (otherId != null && otherId < event.getId()) {
+                        yieldedIds.add(event.getId());
+                    } else {
+                        claimed.add(event);
+                    }
+                }
+                return yieldedIds.isEmpty()
+                    ? Mono.just(claimed)
+                    : outboxEventRepository.unclaim(yieldedIds, claimToken).thenReturn(claimed);
+            });
+    }
+
+    private String aggregateKey(OutboxEvent event) {
+        return event.getAggregateType() + ":" + event.getAggregateId();
+    }
+
+    // the entries are claimed again after a delay doubling with their attempts, unless they are parked
+    private Mono<Void> release(List<OutboxEvent> events, String claimToken) {
+        int attempts = events.stream().mapToInt(OutboxEvent::getAttempts).max().orElse(1);
+        List<OutboxEvent> parked = events
+            .stream()
+            .filter(event -> event.getAttempts() >= properties.getMaxAttempts())
+            .collect(Collectors.toList());
+        if (!parked.isEmpty()) {
+            log.error("Parking the outbox entries which failed {} times: {}", properties.getMaxAttempts(), parked);
+        }
+        Duration delay = properties.getPollInterval().multipliedBy(1L << Math.min(attempts - 1, 20));
+        if (delay.compareTo(properties.getClaimTimeout()) > 0) {
+            delay = properties.getClaimTimeout();
+        }
+        List<Long> eventIds = events.stream().map(OutboxEvent::getId).collect(Collectors.toList());
+        return outboxEventRepository.release(eventIds, claimToken, Instant.now().plus(delay)).then();
+    }
+
+    private Mono<Void> index(List<OutboxEvent> events) {
+        Map<String, Set<String>> idsByType = new LinkedHashMap<>();
+        for (OutboxEvent event : events) {
+            idsByType.computeIfAbsent(event.getAggregateType(), type -> new LinkedHashSet<>()).add(event.getAggregateId());
+        }
+        return Flux
+            .fromIterable(idsByType.entrySet())
+            .concatMap(entry -> {
+                IndexTarget<?, ?> target = targets.get(entry.getKey());
+                if (target == null) {
+                    log.error("Skipping the outbox entries of the unknown type {}", entry.getKey());
+                    return Mono.empty();
+                }
+                return target.index(entry.getValue()).flatMap(versions -> cacheInvalidationBus.publish(target.entityType, versions));
+            })
+            .then();
+    }
+
+    /**
+     * How to read the entities of a type from the database, and to write them to their search index.
+     */
+    private static final class IndexTarget<T, ID> {
+
+        private final Class<T> entityType;
+        private final Function<String, ID> idParser;
+        private final Function<Collection<ID>, Flux<T>> loader;
+        private final Function<T, ID> idGetter;
+        private final Function<T, Long> versionGetter;
+        private final Function<List<T>, Mono<Void>> indexer;
+        private final Function<List<ID>, Mono<Void>> deleter;
+
+        IndexTarget(
+            Class<T> entityType,
+            Function<String, ID> idParser,
+            Function<Collection<ID>, Flux<T>> loader,
+            Function<T, ID> idGetter,
+            Function<T, Long> versionGetter,
+            Function<List<T>, Mono<Void>> indexer,
+            Function<List<ID>, Mono<Void>> deleter
+        ) {
+            this.entityType = entityType;
+            this.idParser = idParser;
+            this.loader = loader;
+            this.idGetter = idGetter;
+            this.versionGetter = versionGetter;
+            this.indexer = indexer;
+            this.deleter = deleter;
+        }
+
+        // the versions of the indexed entities by their ids, null for the deleted ones
+        Mono<Map<ID, Long>> index(Collection<String> aggregateIds) {
+            List<ID> ids = aggregateIds.stream().map(idParser).collect(Collectors.toList());
+            return loader
+                .apply(ids)
+                .collectList()
+                .flatMap(entities -> {
+                    Map<ID, Long> versions = new LinkedHashMap<>();
+                    ids.forEach(id -> versions.put(id, null));
+                    entities.forEach(entity -> versions.put(idGetter.apply(entity), versionGetter.apply(entity)));
+                    Set<ID> existingIds = entities.stream().map(idGetter).collect(Collectors.toSet());
+                    List<ID> deletedIds = new ArrayList<>(ids);
+                    deletedIds.removeAll(existingIds);
+                    Mono<Void> save = entities.isEmpty() ? Mono.empty() : indexer.apply(entities);
+                    Mono<Void> delete = deletedIds.isEmpty() ? Mono.empty() : deleter.apply(deletedIds);
+                    return Mono.when(save, delete).thenReturn(versions);
+                });
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.OutboxEvent;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service recording the changed entities in the search index outbox, see {@link OutboxRelay}.
+ * <p>
+ * The entries must be recorded in the transaction which changes the entities, so they are committed - or rolled back - together.
+ */
+@Service
+public class OutboxService {
+
+    private final EntityManager entityManager;
+
+    public OutboxService(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Record that an entity was created, updated or deleted.
+     * @param entityType the type of the entity.
+     * @param id the id of the entity.
+     * @return a {@link Mono} completing once the entry is inserted.
+     */
+    public Mono<Void> record(Class<?> entityType, Object id) {
+        return recordAll(entityType, List.of(id));
+    }
+
+    /**
+     * Record that entities were created, updated or deleted, with one statement.
+     * @param entityType the type of the entities.
+     * @param ids the ids of the entities.
+     * @return a {@link Mono} completing once the entries are inserted.
+     */
+    public Mono<Void> recordAll(Class<?> entityType, Collection<?> ids) {
+        if (ids.isEmpty()) {
+            return Mono.empty();
+        }
+        Instant now = Instant.now();
+        List<OutboxEvent> events = ids
+            .stream()
+            .map(id ->
+                new OutboxEvent().aggregateType(entityType.getSimpleName()).aggregateId(String.valueOf(id)).createdDate(now).attempts(0)
+            )
+            .collect(Collectors.toList());
+        return entityManager.insertAll(events).then();
+    }
+}
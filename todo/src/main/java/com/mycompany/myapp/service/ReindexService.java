@@ -0,0 +1,432 @@
+package com.mycompany.myapp.service;
+
+import static org.elasticsearch.index.query.QueryBuilders.idsQuery;
+import static org.springframework.data.relational.core.query.Criteria.where;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Category;
+import com.mycompany.myapp.domain.ReindexCheckpoint;
+import com.mycompany.myapp.domain.Todo;
+import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.repository.CategoryRepository;
+import com.mycompany.myapp.repository.ReindexCheckpointRepository;
+import com.mycompany.myapp.repository.TodoRepository;
+import com.mycompany.myapp.repository.UserRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.elasticsearch.BulkFailureException;
+import org.springframework.data.elasticsearch.core.ReactiveElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.ReactiveIndexOperations;
+import org.springframework.data.elasticsearch.core.index.AliasAction;
+import org.springframework.data.elasticsearch.core.index.AliasActionParameters;
+import org.springframework.data.elasticsearch.core.index.AliasActions;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.NativeSearchQuery;
+import org.springframework.data.elasticsearch.core.query.UpdateQuery;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Rebuilds the search index of an entity from the database, without downtime.
+ * <p>
+ * The searches and the writes use the index name of the {@code @Document}, which becomes an alias. A reindex creates a new index,
+ * named after the alias and the start time, copies the rows to it by chunks in id order, with a bounded number of bulk requests in
+ * flight, and then atomically points the alias to it and removes the previous index. Meanwhile, the {@link SearchIndexer} writes the
+ * changes to both indices, so the new index misses none of them, and the copy doesn't overwrite them: the versioned documents are
+ * copied with their external version, the older ones being rejected, and the others are only created if they're missing. A chunk
+ * read before a deletion may write the deleted document back, so the ids deleted during the copy are deleted again before the swap.
+ * <p>
+ * The last copied id is checkpointed after every chunk: a reindex which failed, or was interrupted by a restart, resumes from its
+ * checkpoint when it's started again.
+ */
+@Service
+public class ReindexService {
+
+    // the update of an existing document, which leaves it as is
+    private static final String NOOP_SCRIPT = "ctx.op = 'none'";
+
+    private static final String VERSION_CONFLICT = "version_conflict_engine_exception";
+
+    private final Logger log = LoggerFactory.getLogger(ReindexService.class);
+
+    private final ReactiveElasticsearchOperations operations;
+
+    private final SearchIndexer searchIndexer;
+
+    private final ReindexCheckpointRepository reindexCheckpointRepository;
+
+    private final EntityManager entityManager;
+
+    private final ApplicationProperties.Reindex properties;
+
+    private final Map<String, ReindexTarget<?>> targets = new LinkedHashMap<>();
+
+    private final Map<String, Progress> progresses = new ConcurrentHashMap<>();
+
+    public ReindexService(
+        ReactiveElasticsearchOperations operations,
+        SearchIndexer searchIndexer,
+        ReindexCheckpointRepository reindexCheckpointRepository,
+        EntityManager entityManager,
+        TodoRepository todoRepository,
+        CategoryRepository categoryRepository,
+        UserRepository userRepository,
+        ApplicationProperties applicationProperties
+    ) {
+        this.operations = operations;
+        this.searchIndexer = searchIndexer;
+        this.reindexCheckpointRepository = reindexCheckpointRepository;
+        this.entityManager = entityManager;
+        this.properties = applicationProperties.getReindex();
+        addTarget(
+            Todo.class,
+            Todo::getId,
+            (cursor, size) -> todoRepository.findAllAfter(cursor != null ? Long.valueOf(cursor) : null, size)
+        );
+        addTarget(
+            Category.class,
+            Category::getId,
+            (cursor, size) ->
+                categoryRepository.findAllBy(firstPage(size), cursor != null ? where("id").greaterThan(Long.valueOf(cursor)) : null)
+        );
+        addTarget(
+            User.class,
+            User::getId,
+            (cursor, size) ->
+                cursor != null
+                    ? userRepository.findAllByIdGreaterThan(cursor, firstPage(size))
+                    : userRepository.findAllByIdNotNull(firstPage(size))
+        );
+    }
+
+    private static Pageable firstPage(int size) {
+        return PageRequest.of(0, size, Sort.by("id"));
+    }
+
+    private <T> void addTarget(Class<T> entityType, Function<T, Object> idGetter, BiFunction<String, Integer, Flux<T>> loader) {
+        String alias = operations.getIndexCoordinatesFor(entityType).getIndexName();
+        boolean versioned = operations
+            .getElasticsearchConverter()
+            .getMappingContext()
+            .getRequiredPersistentEntity(entityType)
+            .hasVersionProperty();
+        targets.put(alias, new ReindexTarget<>(entityType, versioned, idGetter, loader));
+    }
+
+    /**
+     * @return the names of the reindexable entities, which are the names of their index aliases.
+     */
+    public Set<String> getEntityNames() {
+        return Collections.unmodifiableSet(targets.keySet());
+    }
+
+    /**
+     * @return the progress of the last reindex of every entity, since the application started.
+     */
+    public Map<String, Progress> getProgress() {
+        return Collections.unmodifiableMap(progresses);
+    }
+
+    public Optional<Progress> getProgress(String entityName) {
+        return Optional.ofNullable(progresses.get(entityName));
+    }
+
+    /**
+     * Start the reindex of the given entity in the background, unless it's running.
+     * @param entityName the name of the entity, see {@link #getEntityNames()}.
+     * @return the progress of the running reindex.
+     * @throws IllegalArgumentException if the entity isn't reindexable.
+     */
+    public Progress start(String entityName) {
+        getTarget(entityName);
+        // the errors are held by the progress
+        reindex(entityName).subscribe(null, e -> {});
+        return progresses.get(entityName);
+    }
+
+    /**
+     * Reindex the given entity, resuming the previous reindex if it didn't complete.
+     * @param entityName the name of the entity, see {@link #getEntityNames()}.
+     * @return the progress of the reindex, once completed, or an {@link IllegalStateException} if it's already running.
+     */
+    public Mono<Progress> reindex(String entityName) {
+        return Mono.defer(() -> {
+            ReindexTarget<?> target = getTarget(entityName);
+            Progress progress = new Progress(entityName);
+            Progress current = progresses.compute(
+                entityName,
+                (name, previous) -> previous != null && previous.isRunning() ? previous : progress
+            );
+            if (current != progress) {
+                return Mono.error(new IllegalStateException("The reindex of " + entityName + " is already running"));
+            }
+            return reindex(target, progress).thenReturn(progress);
+        });
+    }
+
+    private ReindexTarget<?> getTarget(String entityName) {
+        ReindexTarget<?> target = targets.get(entityName);
+        if (target == null) {
+            throw new IllegalArgumentException("Unknown indexed entity: " + entityName);
+        }
+        return target;
+    }
+
+    private <T> Mono<Void> reindex(ReindexTarget<T> target, Progress progress) {
+        String alias = progress.getEntityName();
+        return reindexCheckpointRepository
+            .findById(alias)
+            .filterWhen(checkpoint -> operations.indexOps(IndexCoordinates.of(checkpoint.getIndexName())).exists())
+            .switchIfEmpty(Mono.defer(() -> createIndex(target, alias)))
+            .flatMap(checkpoint -> {
+                log.info("Reindexing {} into {}, after the id {}", alias, checkpoint.getIndexName(), checkpoint.getLastId());
+                progress.start(checkpoint);
+                IndexCoordinates index = IndexCoordinates.of(checkpoint.getIndexName());
+                // the changes are written to the new index from now on, see write(...)
+                searchIndexer.addShadowIndex(target.entityType, index);
+                return copy(target, checkpoint, index, progress)
+                    .then(Mono.defer(() -> deleteAgain(target.entityType, index)))
+                    .then(swapAlias(alias, checkpoint.getIndexName()))
+                    .then(reindexCheckpointRepository.deleteById(alias))
+                    .doOnSuccess(v -> {
+                        // on failure, the new index is kept up to date until the reindex is resumed
+                        searchIndexer.removeShadowIndex(target.entityType);
+                        progress.complete();
+                        log.info("Reindexed {} documents of {} into {}", progress.getIndexed(), alias, checkpoint.getIndexName());
+                    });
+            })
+            .doOnError(e -> {
+                log.error("Failed to reindex {}, it will resume from its checkpoint", alias, e);
+                progress.fail(e);
+            });
+    }
+
+    private Mono<ReindexCheckpoint> createIndex(ReindexTarget<?> target, String alias) {
+        String indexName = alias + "-" + System.currentTimeMillis();
+        ReactiveIndexOperations indexOps = operations.indexOps(IndexCoordinates.of(indexName));
+        return reindexCheckpointRepository
+            .deleteById(alias)
+            .then(Mono.zip(indexOps.createSettings(target.entityType), indexOps.createMapping(target.entityType)))
+            .flatMap(settingsAndMapping -> indexOps.create(settingsAndMapping.getT1(), settingsAndMapping.getT2()))
+            .then(entityManager.insert(new ReindexCheckpoint().entityName(alias).indexName(indexName).lastId(null).indexed(0L)));
+    }
+
+    private <T> Mono<Void> copy(ReindexTarget<T> target, ReindexCheckpoint checkpoint, IndexCoordinates index, Progress progress) {
+        int chunkSize = properties.getChunkSize();
+        return target
+            .loadChunk(checkpoint.getLastId(), chunkSize)
+            .expand(chunk -> chunk.size() < chunkSize ? Mono.empty() : target.loadChunk(target.getLastId(chunk), chunkSize))
+            .filter(chunk -> !chunk.isEmpty())
+            // the chunks are read one after the other, and written concurrently, but checkpointed in order
+            .flatMapSequential(chunk -> write(target, chunk, index).then(Mono.just(chunk)), properties.getMaxInFlight())
+            .concatMap(chunk -> {
+                checkpoint.lastId(target.getLastId(chunk)).indexed(checkpoint.getIndexed() + chunk.size());
+                progress.copied(chunk.size(), checkpoint.getLastId());
+                return entityManager.update(checkpoint);
+            })
+            .then();
+    }
+
+    // the indexer may have written a newer document since the chunk was read, which must be kept
+    private <T> Mono<Void> write(ReindexTarget<T> target, List<T> chunk, IndexCoordinates index) {
+        if (target.versioned) {
+            // the older versions are rejected by Elasticsearch, with a conflict per document
+            return operations.saveAll(Mono.just(chunk), index).then().onErrorResume(ReindexService::isVersionConflicts, e -> Mono.empty());
+        }
+        List<UpdateQuery> creates = chunk
+            .stream()
+            .map(entity ->
+                UpdateQuery
+                    .builder(target.getId(entity))
+                    .withScript(NOOP_SCRIPT)
+                    .withLang("painless")
+                    .withUpsert(operations.getElasticsearchConverter().mapObject(entity))
+                    .build()
+            )
+            .collect(Collectors.toList());
+        return operations.bulkUpdate(creates, index);
+    }
+
+    // the later deletions are written to the new index by the indexer, and no chunk is written anymore
+    private Mono<Void> deleteAgain(Class<?> entityType, IndexCoordinates index) {
+        return Flux
+            .fromIterable(searchIndexer.getShadowDeletedIds(entityType))
+            .buffer(properties.getChunkSize())
+            .concatMap(ids -> operations.delete(new NativeSearchQuery(idsQuery().addIds(ids.toArray(new String[0]))), entityType, index))
+            .then();
+    }
+
+    private static boolean isVersionConflicts(Throwable e) {
+        return (
+            e instanceof BulkFailureException &&
+            ((BulkFailureException) e).getFailedDocuments().values().stream().allMatch(message -> message.contains(VERSION_CONFLICT))
+        );
+    }
+
+    private Mono<Void> swapAlias(String alias, String indexName) {
+        ReactiveIndexOperations aliasOps = operations.indexOps(IndexCoordinates.of(alias));
+        return operations
+            .indexOps(IndexCoordinates.of(indexName))
+            .refresh()
+            .then(aliasOps.exists())
+            // before the first reindex, the alias is the name of the previous index
+            .flatMap(exists -> exists ? aliasOps.getAliasesForIndex(alias).map(Map::keySet) : Mono.just(Set.<String>of()))
+            .flatMap(previousIndices -> {
+                AliasActions actions = new AliasActions(
+                    new AliasAction.Add(AliasActionParameters.builder().withIndices(indexName).withAliases(alias).build())
+                );
+                previousIndices
+                    .stream()
+                    .filter(previousIndex -> !previousIndex.equals(indexName))
+                    .map(previousIndex -> new AliasAction.RemoveIndex(AliasActionParameters.builder().withIndices(previousIndex).build()))
+                    .forEach(actions::add);
+                return aliasOps.alias(actions);
+            })
+            .then();
+    }
+
+    /**
+     * How to read the rows of an entity by chunks, in id order.
+     */
+    private static final class ReindexTarget<T> {
+
+        private final Class<T> entityType;
+        private final boolean versioned;
+        private final Function<T, Object> idGetter;
+        private final BiFunction<String, Integer, Flux<T>> loader;
+
+        ReindexTarget(Class<T> entityType, boolean versioned, Function<T, Object> idGetter, BiFunction<String, Integer, Flux<T>> loader) {
+            this.entityType = entityType;
+            this.versioned = versioned;
+            this.idGetter = idGetter;
+            this.loader = loader;
+        }
+
+        Mono<List<T>> loadChunk(String cursor, int size) {
+            return loader.apply(cursor, size).collectList();
+        }
+
+        String getId(T entity) {
+            return idGetter.apply(entity).toString();
+        }
+
+        String getLastId(List<T> chunk) {
+            return getId(chunk.get(chunk.size() - 1));
+        }
+    }
+
+    /**
+     * The progress of a reindex.
+     */
+    public static final class Progress {
+
+        public enum Status {
+            RUNNING,
+            COMPLETED,
+            FAILED
+        }
+
+        private final String entityName;
+        private volatile Status status = Status.RUNNING;
+        private volatile String indexName;
+        private volatile String lastId;
+        private volatile long indexed;
+        private volatile long copied;
+        private final Instant startedAt = Instant.now();
+        private volatile Instant finishedAt;
+        private volatile String error;
+
+        Progress(String entityName) {
+            this.entityName = entityName;
+        }
+
+        void start(ReindexCheckpoint checkpoint) {
+            indexName = checkpoint.getIndexName();
+            lastId = checkpoint.getLastId();
+            indexed = checkpoint.getIndexed();
+        }
+
+        void copied(int count, String lastId) {
+            this.lastId = lastId;
+            indexed += count;
+            copied += count;
+        }
+
+        void complete() {
+            finishedAt = Instant.now();
+            status = Status.COMPLETED;
+        }
+
+        void fail(Throwable e) {
+            finishedAt = Instant.now();
+            error = e.getMessage();
+            status = Status.FAILED;
+        }
+
+        boolean isRunning() {
+            return status == Status.RUNNING;
+        }
+
+        public String getEntityName() {
+            return entityName;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public String getIndexName() {
+            return indexName;
+        }
+
+        /**
+         * @return the last indexed id, from which the reindex resumes.
+         */
+        public String getLastId() {
+            return lastId;
+        }
+
+        /**
+         * @return the number of indexed documents, including the ones indexed before the reindex was resumed.
+         */
+        public long getIndexed() {
+            return indexed;
+        }
+
+        public Instant getStartedAt() {
+            return startedAt;
+        }
+
+        public Instant getFinishedAt() {
+            return finishedAt;
+        }
+
+        /**
+         * @return the number of documents indexed per second since the reindex started.
+         */
+        public double getThroughput() {
+            Duration elapsed = Duration.between(startedAt, finishedAt != null ? finishedAt : Instant.now());
+            return elapsed.isZero() ? 0 : copied * 1000.0 / elapsed.toMillis();
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+}
@@ -0,0 +1,463 @@
+package com.mycompany.myapp.service;
+
+import static org.elasticsearch.index.query.QueryBuilders.matchAllQuery;
+import static org.elasticsearch.index.query.QueryBuilders.rangeQuery;
+import static org.springframework.data.relational.core.query.Criteria.where;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Category;
+import com.mycompany.myapp.domain.Todo;
+import com.mycompany.myapp.repository.CategoryRepository;
+import com.mycompany.myapp.repository.TodoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.elasticsearch.script.Script;
+import org.elasticsearch.search.aggregations.Aggregation;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.metrics.NumericMetricsAggregation;
+import org.elasticsearch.search.aggregations.metrics.ScriptedMetric;
+import org.elasticsearch.search.aggregations.metrics.ScriptedMetricAggregationBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.elasticsearch.core.ReactiveElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.query.FetchSourceFilter;
+import org.springframework.data.elasticsearch.core.query.NativeSearchQuery;
+import org.springframework.data.elasticsearch.core.query.NativeSearchQueryBuilder;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Compares the search indices with the database, and repairs the documents which drifted from their rows.
+ * <p>
+ * The rows and the documents are compared by ranges of ids, with the checksum of their ids and versions, computed by an aggregate
+ * statement and by the aggregations of Elasticsearch, see {@link EntityManager.Checksum}. The ranges whose checksums differ are split
+ * in {@code fanout} ranges, which are compared in turn, like the nodes of a Merkle tree, down to the ranges of at most
+ * {@code leafSize} ids. The documents of these ranges are compared with their rows one by one: the missing and stale documents are
+ * indexed again, and the documents without row are deleted, through the {@link SearchIndexer}. The ranges are compared one after the
+ * other, at most {@code maxRangesPerSecond}, so that the check doesn't compete with the production traffic.
+ * <p>
+ * The index is read before the database, so a document is only deleted if its row was deleted before. A row written meanwhile may be
+ * indexed again, which the versions of the documents make harmless. The indices need the {@code id.numeric} field of their mapping, so
+ * they must be rebuilt by the {@link ReindexService} once, after it was added.
+ */
+@Service
+public class SearchConsistencyChecker {
+
+    private final Logger log = LoggerFactory.getLogger(SearchConsistencyChecker.class);
+
+    private static final String NUMERIC_ID_FIELD = "id.numeric";
+
+    private static final String VERSION_FIELD = "version";
+
+    private static final String HASH_MAP_SCRIPT =
+        "long id = doc[params.idField].value;" +
+        "long version = doc[params.versionField].size() > 0 ? doc[params.versionField].value : 0L;" +
+        "long x = (id % params.modulus * params.idFactor + version % params.modulus * params.versionFactor + 1) % params.modulus;" +
+        "long x2 = x * x % params.modulus;" +
+        "state.hash += x2 * x2 % params.modulus * x % params.modulus";
+
+    private static final String DRIFT_DESCRIPTION = "Number of documents which drifted from their rows, and were repaired";
+
+    private final ReactiveElasticsearchOperations operations;
+
+    private final SearchIndexer searchIndexer;
+
+    private final EntityManager entityManager;
+
+    private final ApplicationProperties.Consistency properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, CheckTarget<?>> targets = new LinkedHashMap<>();
+
+    // the time, in nanoseconds, from which the next range can be compared
+    private final AtomicLong nextPermit = new AtomicLong(System.nanoTime());
+
+    public SearchConsistencyChecker(
+        ReactiveElasticsearchOperations operations,
+        SearchIndexer searchIndexer,
+        EntityManager entityManager,
+        TodoRepository todoRepository,
+        CategoryRepository categoryRepository,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.operations = operations;
+        this.searchIndexer = searchIndexer;
+        this.entityManager = entityManager;
+        this.properties = applicationProperties.getConsistency();
+        this.meterRegistry = meterRegistry;
+        // the todos searched with the full-text indices of the database have no search index to check
+        if (applicationProperties.getSearch().getTodoBackend() == ApplicationProperties.Search.Backend.ELASTICSEARCH) {
+            addTarget(Todo.class, Todo::getId, Todo::getVersion, criteria -> todoRepository.findAllBy(null, criteria));
+        }
+        addTarget(Category.class, Category::getId, Category::getVersion, criteria -> categoryRepository.findAllBy(null, criteria));
+    }
+
+    private <T> void addTarget(
+        Class<T> entityType,
+        Function<T, Long> idGetter,
+        Function<T, Long> versionGetter,
+        Function<Criteria, Flux<T>> loader
+    ) {
+        String entityName = operations.getIndexCoordinatesFor(entityType).getIndexName();
+        targets.put(entityName, new CheckTarget<>(entityName, entityType, idGetter, versionGetter, loader));
+    }
+
+    /**
+     * @return the names of the checked entities, which are the names of their index aliases.
+     */
+    public Set<String> getEntityNames() {
+        return Collections.unmodifiableSet(targets.keySet());
+    }
+
+    // the scheduler thread waits for the check, so the next one starts check-interval after its end
+    @Scheduled(
+        initialDelayString = "${application.consistency.check-interval:PT1H}",
+        fixedDelayString = "${application.consistency.check-interval:PT1H}"
+    )
+    public void scheduledCheck() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            checkAll().blockLast();
+        } catch (RuntimeException e) {
+            log.warn("Search index consistency check failed, it will be retried: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Check the index of every entity, one after the other.
+     * @return the report of every check.
+     */
+    public Flux<Report> checkAll() {
+        return Flux.fromIterable(targets.keySet()).concatMap(this::check);
+    }
+
+    /**
+     * Check the index of the given entity, and repair the documents which drifted from their rows.
+     * @param entityName the name of the entity, see {@link #getEntityNames()}.
+     * @return the report of the check, once the repairs are written.
+     * @throws IllegalArgumentException if the entity isn't checked.
+     */
+    public Mono<Report> check(String entityName) {
+        CheckTarget<?> target = targets.get(entityName);
+        if (target == null) {
+            throw new IllegalArgumentException("Unknown checked entity: " + entityName);
+        }
+        return Mono.defer(() -> {
+            Report report = new Report(entityName);
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return compare(target, null, report)
+                .doFinally(signal ->
+                    sample.stop(
+                        Timer
+                            .builder("search.consistency.check")
+                            .description("Duration of the consistency checks of the search indices")
+                            .tag("entity", entityName)
+                            .register(meterRegistry)
+                    )
+                )
+                .then(Mono.fromCallable(() -> report))
+                .doOnNext(checked -> {
+                    if (checked.getDrift() > 0) {
+                        log.warn(
+                            "Repaired the {} index: {} missing, {} stale and {} orphan documents, in {} ranges",
+                            entityName,
+                            checked.getMissing(),
+                            checked.getStale(),
+                            checked.getOrphans(),
+                            checked.getRanges()
+                        );
+                    } else {
+                        log.debug("The {} index is consistent with the database", entityName);
+                    }
+                });
+        });
+    }
+
+    /**
+     * Compare the documents of the range with their rows, and repair them if they differ.
+     * @param range the range of ids, or null for every id.
+     */
+    private <T> Mono<Void> compare(CheckTarget<T> target, Range range, Report report) {
+        return throttle(Mono.zip(indexChecksum(target, range), entityManager.checksum(target.entityType, criteria(range))))
+            .flatMap(checksums -> {
+                report.ranges++;
+                counter("search.consistency.ranges", "Number of id ranges compared with the database", target, null).increment();
+                EntityManager.Checksum indexChecksum = checksums.getT1();
+                EntityManager.Checksum databaseChecksum = checksums.getT2();
+                if (indexChecksum.equals(databaseChecksum)) {
+                    return Mono.empty();
+                }
+                Range differing = range != null ? range : Range.covering(indexChecksum, databaseChecksum);
+                if (differing.size() <= properties.getLeafSize()) {
+                    return repair(target, differing, report);
+                }
+                return Flux.fromIterable(differing.split(properties.getFanout())).concatMap(child -> compare(target, child, report)).then();
+            });
+    }
+
+    private <T> Mono<Void> repair(CheckTarget<T> target, Range range, Report report) {
+        return throttle(
+            indexedVersions(target, range)
+                .flatMap(indexedVersions ->
+                    target.loader.apply(criteria(range)).collectList().map(rows -> Map.entry(indexedVersions, rows))
+                )
+        )
+            .flatMap(versionsAndRows -> {
+                // the documents left without row are orphans
+                Map<Long, Long> unmatched = new HashMap<>(versionsAndRows.getKey());
+                List<T> outdated = new ArrayList<>();
+                long missing = 0;
+                long stale = 0;
+                for (T row : versionsAndRows.getValue()) {
+                    Long id = target.idGetter.apply(row);
+                    boolean indexed = unmatched.containsKey(id);
+                    Long indexedVersion = unmatched.remove(id);
+                    if (!indexed) {
+                        missing++;
+                        outdated.add(row);
+                    } else if (!Objects.equals(indexedVersion, target.versionGetter.apply(row))) {
+                        stale++;
+                        outdated.add(row);
+                    }
+                }
+                report.missing += missing;
+                report.stale += stale;
+                report.orphans += unmatched.size();
+                counter("search.consistency.drift", DRIFT_DESCRIPTION, target, "missing").increment(missing);
+                counter("search.consistency.drift", DRIFT_DESCRIPTION, target, "stale").increment(stale);
+                counter("search.consistency.drift", DRIFT_DESCRIPTION, target, "orphan").increment(unmatched.size());
+                Mono<Void> index = outdated.isEmpty() ? Mono.empty() : searchIndexer.index(target.entityType, outdated);
+                Mono<Void> delete = unmatched.isEmpty() ? Mono.empty() : searchIndexer.delete(target.entityType, unmatched.keySet());
+                return Mono.when(index, delete);
+            });
+    }
+
+    private Counter counter(String name, String description, CheckTarget<?> target, String type) {
+        Counter.Builder builder = Counter.builder(name).description(description).tag("entity", target.entityName);
+        return (type != null ? builder.tag("type", type) : builder).register(meterRegistry);
+    }
+
+    // the min and the max of Elasticsearch are doubles, exact up to 2^53, and the hashes are summed as longs by a script
+    private Mono<EntityManager.Checksum> indexChecksum(CheckTarget<?> target, Range range) {
+        NativeSearchQuery query = new NativeSearchQueryBuilder()
+            .withQuery(range != null ? rangeQuery(NUMERIC_ID_FIELD).gte(range.from).lt(range.to) : matchAllQuery())
+            .addAggregation(AggregationBuilders.count("count").field(NUMERIC_ID_FIELD))
+            .addAggregation(hashAggregation())
+            .addAggregation(AggregationBuilders.min("minId").field(NUMERIC_ID_FIELD))
+            .addAggregation(AggregationBuilders.max("maxId").field(NUMERIC_ID_FIELD))
+            .build();
+        return operations
+            .aggregate(query, target.entityType)
+            .collectMap(
+                Aggregation::getName,
+                aggregation ->
+                    aggregation instanceof ScriptedMetric
+                        ? (Number) ((ScriptedMetric) aggregation).aggregation()
+                        : (Number) ((NumericMetricsAggregation.SingleValue) aggregation).value()
+            )
+            .map(values -> {
+                long count = values.get("count").longValue();
+                return new EntityManager.Checksum(
+                    count,
+                    values.get("hash").longValue(),
+                    count > 0 ? Math.round(values.get("minId").doubleValue()) : null,
+                    count > 0 ? Math.round(values.get("maxId").doubleValue()) : null
+                );
+            });
+    }
+
+    // the sum of the hashes of the documents, see EntityManager.Checksum.hash(long, long)
+    private static ScriptedMetricAggregationBuilder hashAggregation() {
+        return AggregationBuilders
+            .scriptedMetric("hash")
+            .params(
+                Map.of(
+                    "idField",
+                    NUMERIC_ID_FIELD,
+                    "versionField",
+                    VERSION_FIELD,
+                    "modulus",
+                    EntityManager.Checksum.MODULUS,
+                    "idFactor",
+                    EntityManager.Checksum.ID_FACTOR,
+                    "versionFactor",
+                    EntityManager.Checksum.VERSION_FACTOR
+                )
+            )
+            .initScript(new Script("state.hash = 0L"))
+            .mapScript(new Script(HASH_MAP_SCRIPT))
+            .combineScript(new Script("return state.hash"))
+            .reduceScript(new Script("long hash = 0L; for (s in states) { if (s != null) { hash += s } } return hash"));
+    }
+
+    // the ids and versions of the documents of the range, which has at most leaf-size ids
+    private <T> Mono<Map<Long, Long>> indexedVersions(CheckTarget<T> target, Range range) {
+        NativeSearchQuery query = new NativeSearchQueryBuilder()
+            .withQuery(rangeQuery(NUMERIC_ID_FIELD).gte(range.from).lt(range.to))
+            .withPageable(PageRequest.of(0, (int) range.size()))
+            .withSourceFilter(new FetchSourceFilter(new String[] { "id", VERSION_FIELD }, null))
+            .withTrackTotalHits(false)
+            .build();
+        return operations
+            .search(query, target.entityType)
+            .map(SearchHit::getContent)
+            .collect(
+                HashMap::new,
+                (versions, document) -> versions.put(target.idGetter.apply(document), target.versionGetter.apply(document))
+            );
+    }
+
+    private static Criteria criteria(Range range) {
+        return range != null ? where("id").greaterThanOrEquals(range.from).and("id").lessThan(range.to) : null;
+    }
+
+    // the ranges are compared one after the other, and they wait for their turn
+    private <R> Mono<R> throttle(Mono<R> comparison) {
+        return Mono.defer(() -> {
+            long interval = (long) (Duration.ofSeconds(1).toNanos() / properties.getMaxRangesPerSecond());
+            long now = System.nanoTime();
+            long permit = nextPermit.getAndAccumulate(now, (next, time) -> Math.max(next, time) + interval);
+            long delay = permit - now;
+            return delay > 0 ? Mono.delay(Duration.ofNanos(delay)).then(comparison) : comparison;
+        });
+    }
+
+    /**
+     * How to read the rows of an entity, and their ids and versions.
+     */
+    private static final class CheckTarget<T> {
+
+        private final String entityName;
+        private final Class<T> entityType;
+        private final Function<T, Long> idGetter;
+        private final Function<T, Long> versionGetter;
+        private final Function<Criteria, Flux<T>> loader;
+
+        CheckTarget(
+            String entityName,
+            Class<T> entityType,
+            Function<T, Long> idGetter,
+            Function<T, Long> versionGetter,
+            Function<Criteria, Flux<T>> loader
+        ) {
+            this.entityName = entityName;
+            this.entityType = entityType;
+            this.idGetter = idGetter;
+            this.versionGetter = versionGetter;
+            this.loader = loader;
+        }
+    }
+
+    /**
+     * A range of ids, from {@code from} included to {@code to} excluded.
+     */
+    private static final class Range {
+
+        private final long from;
+        private final long to;
+
+        Range(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        // the ids of both checksums
+        static Range covering(EntityManager.Checksum first, EntityManager.Checksum second) {
+            long from = Math.min(
+                first.getMinId() != null ? first.getMinId() : Long.MAX_VALUE,
+                second.getMinId() != null ? second.getMinId() : Long.MAX_VALUE
+            );
+            long to = Math.max(
+                first.getMaxId() != null ? first.getMaxId() : Long.MIN_VALUE,
+                second.getMaxId() != null ? second.getMaxId() : Long.MIN_VALUE
+            );
+            return new Range(from, to + 1);
+        }
+
+        long size() {
+            return to - from;
+        }
+
+        List<Range> split(int count) {
+            long width = (size() + count - 1) / count;
+            List<Range> ranges = new ArrayList<>(count);
+            for (long start = from; start < to; start += width) {
+                ranges.add(new Range(start, Math.min(to, start + width)));
+            }
+            return ranges;
+        }
+    }
+
+    /**
+     * The result of the check of an index.
+     */
+    public static final class Report {
+
+        private final String entityName;
+        private long ranges;
+        private long missing;
+        private long stale;
+        private long orphans;
+
+        Report(String entityName) {
+            this.entityName = entityName;
+        }
+
+        public String getEntityName() {
+            return entityName;
+        }
+
+        /**
+         * @return the number of compared ranges of ids.
+         */
+        public long getRanges() {
+            return ranges;
+        }
+
+        /**
+         * @return the number of rows without document, which were indexed.
+         */
+        public long getMissing() {
+            return missing;
+        }
+
+        /**
+         * @return the number of documents with another version than their row, which were indexed again.
+         */
+        public long getStale() {
+            return stale;
+        }
+
+        /**
+         * @return the number of documents without row, which were deleted.
+         */
+        public long getOrphans() {
+            return orphans;
+        }
+
+        public long getDrift() {
+            return missing + stale + orphans;
+        }
+    }
+}
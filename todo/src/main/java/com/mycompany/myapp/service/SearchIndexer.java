@@ -0,0 +1,408 @@
+package com.mycompany.myapp.service;
+
+import static org.elasticsearch.index.query.QueryBuilders.idsQuery;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.elasticsearch.core.ReactiveElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.mapping.ElasticsearchPersistentEntity;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.NativeSearchQuery;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Writes the documents of the search indices with Elasticsearch bulk requests.
+ * <p>
+ * The index and delete operations are queued, and the pending operations on the same document are coalesced, only the last one being
+ * written. The queue is flushed when it holds {@code bulkSize} operations, and every {@code flushInterval} otherwise, one flush at a
+ * time. The queue is bounded: when it's full, the producers wait for a flush to make room for their operations.
+ * <p>
+ * The returned {@link Mono}s complete once the operations are written, or fail with the error of their bulk request, so the callers
+ * decide whether to retry.
+ */
+@Service
+public class SearchIndexer {
+
+    private final Logger log = LoggerFactory.getLogger(SearchIndexer.class);
+
+    private final ReactiveElasticsearchOperations operations;
+
+    private final int queueCapacity;
+
+    private final int bulkSize;
+
+    private final Map<DocumentKey, PendingOperation> pending = new LinkedHashMap<>();
+
+    private final Queue<Waiter> waiters = new ArrayDeque<>();
+
+    private final Map<Class<?>, IndexCoordinates> shadowIndices = new ConcurrentHashMap<>();
+
+    private final Map<Class<?>, Set<String>> shadowDeletedIds = new ConcurrentHashMap<>();
+
+    private final Map<Class<?>, List<Runnable>> writeListeners = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean flushing = new AtomicBoolean();
+
+    private final Disposable flushTimer;
+
+    private final Timer flushLatency;
+
+    private final Counter coalesced;
+
+    private final Counter failures;
+
+    private final MeterRegistry meterRegistry;
+
+    public SearchIndexer(
+        ReactiveElasticsearchOperations operations,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        ApplicationProperties.Indexer properties = applicationProperties.getIndexer();
+        this.operations = operations;
+        this.queueCapacity = properties.getQueueCapacity();
+        this.bulkSize = properties.getBulkSize();
+        this.meterRegistry = meterRegistry;
+        this.flushLatency = Timer
+            .builder("search.indexer.flush")
+            .description("Duration of the bulk requests of the search indexer")
+            .register(meterRegistry);
+        this.coalesced = Counter
+            .builder("search.indexer.coalesced")
+            .description("Number of search index operations replaced by a later one on the same document")
+            .register(meterRegistry);
+        this.failures = Counter
+            .builder("search.indexer.failures")
+            .description("Number of search index operations which failed to be written")
+            .register(meterRegistry);
+        meterRegistry.gauge("search.indexer.queue.depth", this, SearchIndexer::getQueueDepth);
+        this.flushTimer = Flux.interval(properties.getFlushInterval()).subscribe(tick -> flush());
+    }
+
+    @PreDestroy
+    public void stop() {
+        flushTimer.dispose();
+    }
+
+    /**
+     * Index the given documents.
+     * @param type the document type.
+     * @param documents the documents to index.
+     * @return a {@link Mono} which completes once the documents are indexed.
+     */
+    public <T> Mono<Void> index(Class<T> type, Collection<? extends T> documents) {
+        ElasticsearchPersistentEntity<?> entity = operations
+            .getElasticsearchConverter()
+            .getMappingContext()
+            .getRequiredPersistentEntity(type);
+        return submit(
+            Flux
+                .fromIterable(documents)
+                .map(document -> {
+                    Object id = entity.getIdentifierAccessor(document).getRequiredIdentifier();
+                    return new Operation(new DocumentKey(type, id), document);
+                })
+        );
+    }
+
+    /**
+     * Delete the documents of the given ids.
+     * @param type the document type.
+     * @param ids the ids of the documents to delete.
+     * @return a {@link Mono} which completes once the documents are deleted.
+     */
+    public Mono<Void> delete(Class<?> type, Collection<?> ids) {
+        return submit(Flux.fromIterable(ids).map(id -> new Operation(new DocumentKey(type, id), null)));
+    }
+
+    /**
+     * Write the documents of the given type to the given index as well, until {@link #removeShadowIndex(Class)}: keeps an index which
+     * is being rebuilt up to date. The ids deleted from it are recorded, see {@link #getShadowDeletedIds(Class)}.
+     * @param type the document type.
+     * @param index the other index of the documents.
+     */
+    public void addShadowIndex(Class<?> type, IndexCoordinates index) {
+        // a resumed rebuild keeps the ids deleted since it started
+        if (!index.equals(shadowIndices.put(type, index))) {
+            shadowDeletedIds.put(type, ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    public void removeShadowIndex(Class<?> type) {
+        shadowIndices.remove(type);
+        shadowDeletedIds.remove(type);
+    }
+
+    /**
+     * @param type the document type.
+     * @return the ids of the documents deleted from the shadow index of the given type since it was added, or an empty set.
+     */
+    public Set<String> getShadowDeletedIds(Class<?> type) {
+        return Set.copyOf(shadowDeletedIds.getOrDefault(type, Set.of()));
+    }
+
+    /**
+     * Run the given listener after each bulk request which writes documents of the given type, whether it succeeds or not, before
+     * the callers are notified.
+     * @param type the document type.
+     * @param listener the listener, which mustn't block.
+     */
+    public void addWriteListener(Class<?> type, Runnable listener) {
+        writeListeners.computeIfAbsent(type, key -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    /**
+     * Run the write listeners of the given type, when its documents are written without the search index, see
+     * {@link #addWriteListener(Class, Runnable)}.
+     * @param type the document type.
+     */
+    public void notifyWriteListeners(Class<?> type) {
+        writeListeners.getOrDefault(type, List.of()).forEach(Runnable::run);
+    }
+
+    /**
+     * @return the number of queued operations, which are not being written yet.
+     */
+    public int getQueueDepth() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    private Mono<Void> submit(Flux<Operation> operations) {
+        // the operations are queued one by one, so a full queue holds back the rest of them
+        return operations.concatMap(this::enqueue).collectList().flatMap(written -> Mono.when(written));
+    }
+
+    private Mono<Mono<Void>> enqueue(Operation operation) {
+        return Mono.create(sink -> {
+            Mono<Void> written;
+            synchronized (pending) {
+                written = waiters.isEmpty() ? offer(operation) : null;
+                if (written == null) {
+                    waiters.add(new Waiter(operation, sink));
+                }
+            }
+            if (written != null) {
+                sink.success(written);
+                if (getQueueDepth() >= bulkSize) {
+                    flush();
+                }
+            }
+        });
+    }
+
+    /**
+     * Queue the operation, when it can be coalesced or there's room for it, with the lock on the queue held.
+     * @return a {@link Mono} which completes once the operation is written, or null, if the queue is full.
+     */
+    private Mono<Void> offer(Operation operation) {
+        PendingOperation pendingOperation = pending.get(operation.key);
+        if (pendingOperation != null) {
+            pendingOperation.operation = operation;
+            coalesced.increment();
+        } else if (pending.size() < queueCapacity) {
+            pendingOperation = new PendingOperation(operation);
+            pending.put(operation.key, pendingOperation);
+        } else {
+            return null;
+        }
+        return pendingOperation.written.asMono();
+    }
+
+    private void admitWaiters() {
+        List<Runnable> admitted = new ArrayList<>();
+        synchronized (pending) {
+            while (!waiters.isEmpty()) {
+                Waiter waiter = waiters.peek();
+                Mono<Void> written = offer(waiter.operation);
+                if (written == null) {
+                    break;
+                }
+                waiters.remove();
+                admitted.add(() -> waiter.sink.success(written));
+            }
+        }
+        admitted.forEach(Runnable::run);
+    }
+
+    /**
+     * Write the oldest {@code bulkSize} queued operations, unless a flush is in progress.
+     */
+    void flush() {
+        if (!flushing.compareAndSet(false, true)) {
+            return;
+        }
+        List<PendingOperation> batch = new ArrayList<>();
+        synchronized (pending) {
+            Iterator<PendingOperation> iterator = pending.values().iterator();
+            while (iterator.hasNext() && batch.size() < bulkSize) {
+                batch.add(iterator.next());
+                iterator.remove();
+            }
+        }
+        if (batch.isEmpty()) {
+            flushing.set(false);
+            return;
+        }
+        admitWaiters();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        write(batch)
+            .doFinally(signal -> sample.stop(flushLatency))
+            .subscribe(
+                null,
+                e -> {
+                    log.warn("Failed to write {} search index operations: {}", batch.size(), e.getMessage());
+                    failures.increment(batch.size());
+                    notifyWriteListeners(batch);
+                    batch.forEach(pendingOperation -> pendingOperation.written.tryEmitError(e));
+                    flushed();
+                },
+                () -> {
+                    notifyWriteListeners(batch);
+                    batch.forEach(pendingOperation -> pendingOperation.written.tryEmitEmpty());
+                    flushed();
+                }
+            );
+    }
+
+    private void notifyWriteListeners(List<PendingOperation> batch) {
+        Set<Class<?>> types = batch.stream().map(pendingOperation -> pendingOperation.operation.key.type).collect(Collectors.toSet());
+        types.forEach(this::notifyWriteListeners);
+    }
+
+    private void flushed() {
+        flushing.set(false);
+        if (getQueueDepth() >= bulkSize) {
+            flush();
+        }
+    }
+
+    private Mono<Void> write(List<PendingOperation> batch) {
+        Map<Class<?>, List<Object>> documentsByType = new LinkedHashMap<>();
+        Map<Class<?>, List<String>> deletedIdsByType = new LinkedHashMap<>();
+        for (PendingOperation pendingOperation : batch) {
+            Operation operation = pendingOperation.operation;
+            if (operation.document != null) {
+                documentsByType.computeIfAbsent(operation.key.type, type -> new ArrayList<>()).add(operation.document);
+            } else {
+                deletedIdsByType.computeIfAbsent(operation.key.type, type -> new ArrayList<>()).add(operation.key.id.toString());
+            }
+        }
+        Flux<Void> saves = Flux.fromIterable(documentsByType.entrySet()).concatMap(entry -> saveAll(entry.getKey(), entry.getValue()));
+        Flux<Void> deletes = Flux.fromIterable(deletedIdsByType.entrySet()).concatMap(entry -> deleteAll(entry.getKey(), entry.getValue()));
+        return saves.concatWith(deletes).then();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Mono<Void> saveAll(Class<T> type, List<Object> documents) {
+        Mono<List<T>> typedDocuments = Mono.just((List<T>) documents);
+        Mono<Void> save = operations.saveAll(typedDocuments, type).then();
+        IndexCoordinates shadowIndex = shadowIndices.get(type);
+        return shadowIndex == null ? save : save.then(operations.saveAll(typedDocuments, shadowIndex).then());
+    }
+
+    private Mono<Void> deleteAll(Class<?> type, List<String> ids) {
+        NativeSearchQuery query = new NativeSearchQuery(idsQuery().addIds(ids.toArray(new String[0])));
+        Mono<Void> delete = operations.delete(query, type).then();
+        IndexCoordinates shadowIndex = shadowIndices.get(type);
+        if (shadowIndex == null) {
+            return delete;
+        }
+        shadowDeletedIds.getOrDefault(type, ConcurrentHashMap.newKeySet()).addAll(ids);
+        return delete.then(operations.delete(query, type, shadowIndex).then());
+    }
+
+    /**
+     * Identifies a document: its type and id.
+     */
+    private static final class DocumentKey {
+
+        private final Class<?> type;
+        private final Object id;
+
+        DocumentKey(Class<?> type, Object id) {
+            this.type = type;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof DocumentKey)) {
+                return false;
+            }
+            DocumentKey that = (DocumentKey) o;
+            return type.equals(that.type) && id.equals(that.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, id);
+        }
+    }
+
+    /**
+     * An index operation when it holds a document, a delete operation otherwise.
+     */
+    private static final class Operation {
+
+        private final DocumentKey key;
+        private final Object document;
+
+        Operation(DocumentKey key, Object document) {
+            this.key = key;
+            this.document = document;
+        }
+    }
+
+    /**
+     * The last queued operation on a document, and the sink notified when it's written.
+     */
+    private static final class PendingOperation {
+
+        private Operation operation;
+        private final Sinks.Empty<Void> written = Sinks.empty();
+
+        PendingOperation(Operation operation) {
+            this.operation = operation;
+        }
+    }
+
+    private static final class Waiter {
+
+        private final Operation operation;
+        private final MonoSink<Mono<Void>> sink;
+
+        Waiter(Operation operation, MonoSink<Mono<Void>> sink) {
+            this.operation = operation;
+            this.sink = sink;
+        }
+    }
+}
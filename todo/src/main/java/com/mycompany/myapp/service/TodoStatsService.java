@@ -0,0 +1,156 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Category;
+import com.mycompany.myapp.domain.Todo;
+import com.mycompany.myapp.repository.TodoRepository;
+import com.mycompany.myapp.repository.search.TodoSearchRepository;
+import com.mycompany.myapp.service.dto.TodoStatsDTO;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.elasticsearch.search.aggregations.Aggregation;
+import org.elasticsearch.search.aggregations.bucket.SingleBucketAggregation;
+import org.elasticsearch.search.aggregations.bucket.terms.Terms;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+/**
+ * Counts the todos by completion and by category.
+ * <p>
+ * The todos are counted by the database with a single {@code GROUP BY} statement, or by Elasticsearch with terms aggregations when
+ * they match a query. The counts are cached for a short time, and until the next committed write of todos or categories, on this
+ * instance or on the other ones, see {@link CacheInvalidationBus}.
+ */
+@Service
+public class TodoStatsService {
+
+    private static final int CACHE_SIZE = 100;
+
+    private static final String NULL_KEY = "null";
+
+    private final TodoRepository todoRepository;
+
+    private final TodoSearchRepository todoSearchRepository;
+
+    private final Duration timeToLive;
+
+    // the counts of every query, the empty query being the counts of the database
+    private final Map<String, Mono<TodoStatsDTO>> cache = Collections.synchronizedMap(
+        new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Mono<TodoStatsDTO>> eldest) {
+                return size() > CACHE_SIZE;
+            }
+        }
+    );
+
+    public TodoStatsService(
+        TodoRepository todoRepository,
+        TodoSearchRepository todoSearchRepository,
+        SearchIndexer searchIndexer,
+        CacheInvalidationBus cacheInvalidationBus,
+        ApplicationProperties applicationProperties
+    ) {
+        this.todoRepository = todoRepository;
+        this.todoSearchRepository = todoSearchRepository;
+        this.timeToLive = applicationProperties.getStats().getTimeToLive();
+        searchIndexer.addWriteListener(Todo.class, this::invalidate);
+        cacheInvalidationBus.subscribe(Todo.class, event -> invalidate());
+        cacheInvalidationBus.subscribe(Category.class, event -> invalidate());
+    }
+
+    /**
+     * Count the todos by completion and by category.
+     * @param query the query string of the counted todos, on the task and the description by default, or null to count every todo.
+     * @return the counts.
+     */
+    public Mono<TodoStatsDTO> getStats(String query) {
+        String key = query == null || query.isBlank() ? "" : query;
+        // the concurrent requests share the same counts
+        return cache.computeIfAbsent(
+            key,
+            k ->
+                (k.isEmpty() ? countInDatabase() : countInIndex(k)).cache(
+                        stats -> timeToLive,
+                        error -> Duration.ZERO,
+                        () -> Duration.ZERO
+                    )
+        );
+    }
+
+    /**
+     * Clear the cached counts, when todos are written.
+     */
+    public void invalidate() {
+        cache.clear();
+    }
+
+    /**
+     * Clear the cached counts once the current transaction commits, or now without transaction: the counts read before the commit
+     * don't see the writes of the transaction.
+     */
+    public Mono<Void> invalidateAfterCommit() {
+        return TransactionSynchronizationManager
+            .forCurrentTransaction()
+            .flatMap(synchronizationManager -> {
+                if (!synchronizationManager.isSynchronizationActive()) {
+                    return Mono.<Void>fromRunnable(this::invalidate);
+                }
+                synchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public Mono<Void> afterCommit() {
+                            return Mono.fromRunnable(TodoStatsService.this::invalidate);
+                        }
+                    }
+                );
+                return Mono.<Void>empty();
+            })
+            .onErrorResume(NoTransactionException.class, e -> Mono.fromRunnable(this::invalidate));
+    }
+
+    private Mono<TodoStatsDTO> countInDatabase() {
+        return todoRepository
+            .countGroupedByCompletedAndCategory(null)
+            .collect(
+                TodoStatsDTO::new,
+                (stats, group) -> {
+                    stats.setTotal(stats.getTotal() + group.getCount());
+                    stats.getCompleted().merge(key(group.getValues().get(0)), group.getCount(), Long::sum);
+                    stats.getCategoryId().merge(key(group.getValues().get(1)), group.getCount(), Long::sum);
+                }
+            );
+    }
+
+    private Mono<TodoStatsDTO> countInIndex(String query) {
+        return todoSearchRepository
+            .aggregateByCompletedAndCategory(query)
+            .collectMap(Aggregation::getName)
+            .map(aggregations -> {
+                TodoStatsDTO stats = new TodoStatsDTO();
+                addCounts(stats.getCompleted(), aggregations.get("completed"), aggregations.get("completed_missing"));
+                addCounts(stats.getCategoryId(), aggregations.get("categoryId"), aggregations.get("categoryId_missing"));
+                stats.setTotal(stats.getCompleted().values().stream().mapToLong(Long::longValue).sum());
+                return stats;
+            });
+    }
+
+    private static void addCounts(Map<String, Long> counts, Aggregation terms, Aggregation missing) {
+        for (Terms.Bucket bucket : ((Terms) terms).getBuckets()) {
+            counts.put(bucket.getKeyAsString(), bucket.getDocCount());
+        }
+        long missingCount = ((SingleBucketAggregation) missing).getDocCount();
+        if (missingCount > 0) {
+            counts.put(NULL_KEY, missingCount);
+        }
+    }
+
+    private static String key(Object value) {
+        return value != null ? value.toString() : NULL_KEY;
+    }
+}
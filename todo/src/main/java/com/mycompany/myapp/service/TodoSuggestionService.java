@@ -0,0 +1,132 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Todo;
+import com.mycompany.myapp.repository.search.TodoSearchRepository;
+import com.mycompany.myapp.service.dto.TodoSuggestionDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Suggests todos while their task is typed, from the prefixes of the words of the tasks.
+ * <p>
+ * The suggestions of the recent prefixes are kept in an LRU cache, so the repeated keystrokes don't reach Elasticsearch. The cache is
+ * cleared by every write of todos to the search index, by this instance or by the other ones through the {@link CacheInvalidationBus},
+ * and nothing is cached until the write is visible to the searches, after the refresh interval of the index.
+ */
+@Service
+public class TodoSuggestionService {
+
+    private final TodoSearchRepository todoSearchRepository;
+
+    private final int maxResults;
+
+    private final long refreshIntervalNanos;
+
+    private final Map<String, List<TodoSuggestionDTO>> cache;
+
+    // guarded by the cache: the lookups which started before the last write aren't cached
+    private long generation;
+
+    private long cacheableFrom;
+
+    private final Counter cacheHits;
+
+    private final Counter cacheMisses;
+
+    public TodoSuggestionService(
+        TodoSearchRepository todoSearchRepository,
+        SearchIndexer searchIndexer,
+        CacheInvalidationBus cacheInvalidationBus,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        ApplicationProperties.Suggest properties = applicationProperties.getSuggest();
+        this.todoSearchRepository = todoSearchRepository;
+        this.maxResults = properties.getMaxResults();
+        this.refreshIntervalNanos = properties.getRefreshInterval().toNanos();
+        int cacheSize = properties.getCacheSize();
+        this.cache =
+            Collections.synchronizedMap(
+                new LinkedHashMap<>(cacheSize, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, List<TodoSuggestionDTO>> eldest) {
+                        return size() > cacheSize;
+                    }
+                }
+            );
+        this.cacheableFrom = System.nanoTime();
+        this.cacheHits = cacheCounter(meterRegistry, "hit");
+        this.cacheMisses = cacheCounter(meterRegistry, "miss");
+        meterRegistry.gauge("search.suggest.cache.size", cache, Map::size);
+        searchIndexer.addWriteListener(Todo.class, this::invalidate);
+        cacheInvalidationBus.subscribe(Todo.class, event -> invalidate());
+    }
+
+    private static Counter cacheCounter(MeterRegistry meterRegistry, String result) {
+        return Counter
+            .builder("search.suggest.cache.requests")
+            .description("Number of todo suggestion lookups in the prefix cache")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Suggest the todos with a task which has words starting with the words of the given prefix, the best matches first.
+     * @param prefix the prefix typed by the user.
+     * @return the suggested todos, empty if the prefix is blank.
+     */
+    public Mono<List<TodoSuggestionDTO>> suggest(String prefix) {
+        String key = normalize(prefix);
+        if (key.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        long lookupGeneration;
+        boolean cacheable;
+        synchronized (cache) {
+            List<TodoSuggestionDTO> suggestions = cache.get(key);
+            if (suggestions != null) {
+                cacheHits.increment();
+                return Mono.just(suggestions);
+            }
+            lookupGeneration = generation;
+            cacheable = System.nanoTime() - cacheableFrom >= 0;
+        }
+        cacheMisses.increment();
+        return todoSearchRepository
+            .suggest(key, maxResults)
+            .map(TodoSuggestionDTO::new)
+            .collectList()
+            .map(Collections::unmodifiableList)
+            .doOnNext(suggestions -> {
+                synchronized (cache) {
+                    if (cacheable && lookupGeneration == generation) {
+                        cache.put(key, suggestions);
+                    }
+                }
+            });
+    }
+
+    /**
+     * Clear the cached suggestions, and don't cache the next ones until the last write is visible to the searches.
+     */
+    public void invalidate() {
+        synchronized (cache) {
+            generation++;
+            cacheableFrom = System.nanoTime() + refreshIntervalNanos;
+            cache.clear();
+        }
+    }
+
+    // the prefixes which are analyzed the same are cached once
+    private static String normalize(String prefix) {
+        return prefix == null ? "" : prefix.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
@@ -5,7 +5,6 @@ import com.mycompany.myapp.domain.Authority;
 import com.mycompany.myapp.domain.User;
 import com.mycompany.myapp.repository.AuthorityRepository;
 import com.mycompany.myapp.repository.UserRepository;
-import com.mycompany.myapp.repository.search.UserSearchRepository;
 import com.mycompany.myapp.security.SecurityUtils;
 import com.mycompany.myapp.service.dto.AdminUserDTO;
 import com.mycompany.myapp.service.dto.UserDTO;
@@ -35,14 +34,14 @@ public class UserService {
 
     private final UserRepository userRepository;
 
-    private final UserSearchRepository userSearchRepository;
-
     private final AuthorityRepository authorityRepository;
 
-    public UserService(UserRepository userRepository, UserSearchRepository userSearchRepository, AuthorityRepository authorityRepository) {
+    private final OutboxService outboxService;
+
+    public UserService(UserRepository userRepository, AuthorityRepository authorityRepository, OutboxService outboxService) {
         this.userRepository = userRepository;
-        this.userSearchRepository = userSearchRepository;
         this.authorityRepository = authorityRepository;
+        this.outboxService = outboxService;
     }
 
     /**
@@ -59,7 +58,7 @@ public class UserService {
     public Mono<Void> updateUser(String firstName, String lastName, String email, String langKey, String imageUrl) {
         return SecurityUtils
             .getCurrentUserLogin()
-            .flatMap(userRepository::findOneByLogin)
+            .flatMap(userRepository::findOneWithAuthoritiesByLogin)
             .flatMap(user -> {
                 user.setFirstName(firstName);
                 user.setLastName(lastName);
@@ -70,7 +69,7 @@ public class UserService {
                 user.setImageUrl(imageUrl);
                 return saveUser(user);
             })
-            .flatMap(user -> userSearchRepository.save(user).thenReturn(user))
+            .flatMap(user -> outboxService.record(User.class, user.getId()).thenReturn(user))
             .doOnNext(user -> log.debug("Changed Information for User: {}", user))
             .then();
     }
@@ -98,11 +97,9 @@ public class UserService {
                 } else {
                     persistedUser = userRepository.save(user);
                 }
+                Set<String> authorities = user.getAuthorities().stream().map(Authority::getName).collect(Collectors.toSet());
                 return persistedUser.flatMap(savedUser ->
-                    Flux
-                        .fromIterable(user.getAuthorities())
-                        .flatMap(authority -> userRepository.saveUserAuthority(savedUser.getId(), authority.getName()))
-                        .then(Mono.just(savedUser))
+                    userRepository.updateUserAuthorities(savedUser.getId(), authorities).thenReturn(savedUser)
                 );
             });
     }
@@ -0,0 +1,119 @@
+package com.mycompany.myapp.service.criteria;
+
+import static org.springframework.data.relational.core.query.Criteria.where;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.data.relational.core.query.Criteria;
+
+/**
+ * Criteria class for the {@link com.mycompany.myapp.domain.Todo} entity, bound from the query parameters of the todo listing:
+ * {@code ?completed=true&categoryId=2&task=buy&idFrom=10&idTo=20}.
+ * <p>
+ * The criteria are compiled to a {@link Criteria} on the entity properties, so they are sent to the database as bind parameters.
+ */
+public class TodoCriteria implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Boolean completed;
+
+    private Long categoryId;
+
+    private String task;
+
+    private Long idFrom;
+
+    private Long idTo;
+
+    public Boolean getCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(Boolean completed) {
+        this.completed = completed;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(Long categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    /**
+     * @return the prefix of the task of the todos.
+     */
+    public String getTask() {
+        return task;
+    }
+
+    public void setTask(String task) {
+        this.task = task;
+    }
+
+    /**
+     * @return the lowest id of the todos, inclusive.
+     */
+    public Long getIdFrom() {
+        return idFrom;
+    }
+
+    public void setIdFrom(Long idFrom) {
+        this.idFrom = idFrom;
+    }
+
+    /**
+     * @return the highest id of the todos, inclusive.
+     */
+    public Long getIdTo() {
+        return idTo;
+    }
+
+    public void setIdTo(Long idTo) {
+        this.idTo = idTo;
+    }
+
+    /**
+     * Compile the criteria which are set.
+     * @return the condition on the todo properties, {@link Criteria#empty()} if no criteria is set.
+     */
+    public Criteria toCriteria() {
+        List<Criteria> criteria = new ArrayList<>();
+        if (completed != null) {
+            criteria.add(where("completed").is(completed));
+        }
+        if (categoryId != null) {
+            criteria.add(where("categoryId").is(categoryId));
+        }
+        if (task != null && !task.isEmpty()) {
+            criteria.add(where("task").like(escapeLike(task) + "%"));
+        }
+        if (idFrom != null) {
+            criteria.add(where("id").greaterThanOrEquals(idFrom));
+        }
+        if (idTo != null) {
+            criteria.add(where("id").lessThanOrEquals(idTo));
+        }
+        return Criteria.from(criteria);
+    }
+
+    // the prefix is matched literally, with the default escape character of MySQL and H2
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "TodoCriteria{" +
+            (completed != null ? "completed=" + completed + ", " : "") +
+            (categoryId != null ? "categoryId=" + categoryId + ", " : "") +
+            (task != null ? "task=" + task + ", " : "") +
+            (idFrom != null ? "idFrom=" + idFrom + ", " : "") +
+            (idTo != null ? "idTo=" + idTo + ", " : "") +
+            "}";
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Criteria of the filterable entity listings.
+ */
+package com.mycompany.myapp.service.criteria;
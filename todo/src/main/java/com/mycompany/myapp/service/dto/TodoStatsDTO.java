@@ -0,0 +1,52 @@
+package com.mycompany.myapp.service.dto;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A DTO representing the number of todos by completion and by category.
+ * <p>
+ * The counts are keyed by the value of the completion or of the category id, {@code "null"} being the key of the todos without one.
+ */
+public class TodoStatsDTO {
+
+    private long total;
+
+    private Map<String, Long> completed = new LinkedHashMap<>();
+
+    private Map<String, Long> categoryId = new LinkedHashMap<>();
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public Map<String, Long> getCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(Map<String, Long> completed) {
+        this.completed = completed;
+    }
+
+    public Map<String, Long> getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(Map<String, Long> categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "TodoStatsDTO{" +
+            "total=" + total +
+            ", completed=" + completed +
+            ", categoryId=" + categoryId +
+            "}";
+    }
+}
@@ -0,0 +1,47 @@
+package com.mycompany.myapp.service.dto;
+
+import com.mycompany.myapp.domain.Todo;
+
+/**
+ * A DTO representing a suggested todo, with only its id and task.
+ */
+public class TodoSuggestionDTO {
+
+    private Long id;
+
+    private String task;
+
+    public TodoSuggestionDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public TodoSuggestionDTO(Todo todo) {
+        this.id = todo.getId();
+        this.task = todo.getTask();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTask() {
+        return task;
+    }
+
+    public void setTask(String task) {
+        this.task = task;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "TodoSuggestionDTO{" +
+            "id='" + id + '\'' +
+            ", task='" + task + '\'' +
+            "}";
+    }
+}
@@ -3,6 +3,8 @@ package com.mycompany.myapp.web.rest;
 import com.mycompany.myapp.domain.Category;
 import com.mycompany.myapp.repository.CategoryRepository;
 import com.mycompany.myapp.repository.search.CategorySearchRepository;
+import com.mycompany.myapp.service.OutboxService;
+import com.mycompany.myapp.service.TodoStatsService;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -12,6 +14,8 @@ import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -21,7 +25,6 @@ import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import tech.jhipster.web.util.HeaderUtil;
-import tech.jhipster.web.util.reactive.ResponseUtil;
 
 /**
  * REST controller for managing {@link com.mycompany.myapp.domain.Category}.
@@ -42,9 +45,20 @@ public class CategoryResource {
 
     private final CategorySearchRepository categorySearchRepository;
 
-    public CategoryResource(CategoryRepository categoryRepository, CategorySearchRepository categorySearchRepository) {
+    private final OutboxService outboxService;
+
+    private final TodoStatsService todoStatsService;
+
+    public CategoryResource(
+        CategoryRepository categoryRepository,
+        CategorySearchRepository categorySearchRepository,
+        OutboxService outboxService,
+        TodoStatsService todoStatsService
+    ) {
         this.categoryRepository = categoryRepository;
         this.categorySearchRepository = categorySearchRepository;
+        this.outboxService = outboxService;
+        this.todoStatsService = todoStatsService;
     }
 
     /**
@@ -62,12 +76,13 @@ public class CategoryResource {
         }
         return categoryRepository
             .save(category)
-            .flatMap(categorySearchRepository::save)
+            .flatMap(result -> outboxService.record(Category.class, result.getId()).thenReturn(result))
             .map(result -> {
                 try {
                     return ResponseEntity
                         .created(new URI("/api/categories/" + result.getId()))
                         .headers(HeaderUtil.createEntityCreationAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
+                        .eTag(ETagUtil.eTag(result.getVersion()))
                         .body(result);
                 } catch (URISyntaxException e) {
                     throw new RuntimeException(e);
@@ -79,15 +94,21 @@ public class CategoryResource {
      * {@code PUT  /categories/:id} : Updates an existing category.
      *
      * @param id the id of the category to save.
+     * @param ifMatch the entity tag of the expected version, which takes precedence over the version of the body, or {@code *} for any
+     * version.
      * @param category the category to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated category,
      * or with status {@code 400 (Bad Request)} if the category is not valid,
+     * or with status {@code 404 (Not Found)} if the category is not found,
+     * or with status {@code 409 (Conflict)} if the category version doesn't match,
+     * or with status {@code 428 (Precondition Required)} if neither the body nor the {@code If-Match} header holds the version,
      * or with status {@code 500 (Internal Server Error)} if the category couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/categories/{id}")
     public Mono<ResponseEntity<Category>> updateCategory(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @RequestBody Category category
     ) throws URISyntaxException {
         log.debug("REST request to update Category : {}, {}", id, category);
@@ -98,23 +119,20 @@ public class CategoryResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
+        category.setVersion(ETagUtil.requiredUpdateVersion(ifMatch, category.getVersion(), ENTITY_NAME));
         return categoryRepository
-            .existsById(id)
-            .flatMap(exists -> {
-                if (!exists) {
-                    return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+            .update(category)
+            .filter(updated -> updated > 0)
+            .switchIfEmpty(updateFailure(id))
+            .flatMap(updated -> outboxService.record(Category.class, id).thenReturn(category))
+            .map(result -> {
+                ResponseEntity.BodyBuilder response = ResponseEntity
+                    .ok()
+                    .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, result.getId().toString()));
+                if (result.getVersion() != null) {
+                    response.eTag(ETagUtil.eTag(result.getVersion()));
                 }
-
-                return categoryRepository
-                    .save(category)
-                    .flatMap(categorySearchRepository::save)
-                    .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                    .map(result ->
-                        ResponseEntity
-                            .ok()
-                            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
-                            .body(result)
-                    );
+                return response.body(result);
             });
     }
 
@@ -122,16 +140,21 @@ public class CategoryResource {
      * {@code PATCH  /categories/:id} : Partial updates given fields of an existing category, field will ignore if it is null
      *
      * @param id the id of the category to save.
+     * @param ifMatch the entity tag of the expected version, which takes precedence over the version of the body, or {@code *} for any
+     * version.
      * @param category the category to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated category,
      * or with status {@code 400 (Bad Request)} if the category is not valid,
      * or with status {@code 404 (Not Found)} if the category is not found,
+     * or with status {@code 409 (Conflict)} if the category version doesn't match,
+     * or with status {@code 428 (Precondition Required)} if neither the body nor the {@code If-Match} header holds the version,
      * or with status {@code 500 (Internal Server Error)} if the category couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/categories/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public Mono<ResponseEntity<Category>> partialUpdateCategory(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @RequestBody Category category
     ) throws URISyntaxException {
         log.debug("REST request to partial update Category partially : {}, {}", id, category);
@@ -142,44 +165,27 @@ public class CategoryResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
+        // only the given fields are written, in a single statement
+        Category changes = new Category()
+            .id(id)
+            .name(category.getName())
+            .description(category.getDescription())
+            .active(category.getActive())
+            .version(ETagUtil.requiredUpdateVersion(ifMatch, category.getVersion(), ENTITY_NAME));
         return categoryRepository
-            .existsById(id)
-            .flatMap(exists -> {
-                if (!exists) {
-                    return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                }
-
-                Mono<Category> result = categoryRepository
-                    .findById(category.getId())
-                    .map(existingCategory -> {
-                        if (category.getName() != null) {
-                            existingCategory.setName(category.getName());
-                        }
-                        if (category.getDescription() != null) {
-                            existingCategory.setDescription(category.getDescription());
-                        }
-                        if (category.getActive() != null) {
-                            existingCategory.setActive(category.getActive());
-                        }
-
-                        return existingCategory;
-                    })
-                    .flatMap(categoryRepository::save)
-                    .flatMap(savedCategory -> {
-                        categorySearchRepository.save(savedCategory);
-
-                        return Mono.just(savedCategory);
-                    });
-
-                return result
-                    .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                    .map(res ->
-                        ResponseEntity
-                            .ok()
-                            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, res.getId().toString()))
-                            .body(res)
-                    );
-            });
+            .updateNonNullFields(changes)
+            .filter(updated -> updated > 0)
+            .switchIfEmpty(updateFailure(id))
+            .flatMap(updated -> outboxService.record(Category.class, id))
+            .then(categoryRepository.findById(id))
+            .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
+            .map(res ->
+                ResponseEntity
+                    .ok()
+                    .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, res.getId().toString()))
+                    .eTag(ETagUtil.eTag(res.getVersion()))
+                    .body(res)
+            );
     }
 
     /**
@@ -213,7 +219,9 @@ public class CategoryResource {
     public Mono<ResponseEntity<Category>> getCategory(@PathVariable Long id) {
         log.debug("REST request to get Category : {}", id);
         Mono<Category> category = categoryRepository.findById(id);
-        return ResponseUtil.wrapOrNotFound(category);
+        return category
+            .map(result -> ResponseEntity.ok().eTag(ETagUtil.eTag(result.getVersion())).body(result))
+            .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)));
     }
 
     /**
@@ -228,7 +236,9 @@ public class CategoryResource {
         log.debug("REST request to delete Category : {}", id);
         return categoryRepository
             .deleteById(id)
-            .then(categorySearchRepository.deleteById(id))
+            .then(outboxService.record(Category.class, id))
+            // the todos are counted by category
+            .then(todoStatsService.invalidateAfterCommit())
             .map(result ->
                 ResponseEntity
                     .noContent()
@@ -238,15 +248,56 @@ public class CategoryResource {
     }
 
     /**
-     * {@code SEARCH  /_search/categories?query=:query} : search for the category corresponding
-     * to the query.
+     * {@code SEARCH  /_search/categories?query=:query&size=:size&after=:cursor} : search for a page of the categories corresponding
+     * to the query, sorted by score.
+     * <p>
+     * See {@link SearchAfterUtil} for the {@code X-Total-Count} and {@code X-Next-Cursor} headers.
      *
      * @param query the query of the category search.
-     * @return the result of the search.
+     * @param size the number of categories to return.
+     * @param after the opaque cursor returned by the previous page, or null for the first page.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the page of categories in body,
+     * or with status {@code 400 (Bad Request)} if the cursor or the size is invalid.
      */
     @GetMapping("/_search/categories")
-    public Mono<List<Category>> searchCategories(@RequestParam String query) {
-        log.debug("REST request to search Categories for query {}", query);
-        return categorySearchRepository.search(query).collectList();
+    public Mono<ResponseEntity<List<Category>>> searchCategories(
+        @RequestParam String query,
+        @RequestParam(value = "size", defaultValue = "" + SearchAfterUtil.DEFAULT_PAGE_SIZE) int size,
+        @RequestParam(value = "after", required = false) String after
+    ) {
+        log.debug("REST request to search a page of Categories for query {} after cursor {}", query, after);
+        return SearchAfterUtil.page(
+            (pageSize, searchAfter) -> categorySearchRepository.search(query, pageSize, searchAfter),
+            categorySearchRepository.count(query),
+            after,
+            size,
+            category -> category,
+            ENTITY_NAME
+        );
+    }
+
+    /**
+     * {@code SEARCH  /_search/categories?query=:query} : search for all the categories corresponding to the query, as a stream.
+     *
+     * @param query the query of the category search.
+     * @return the {@link Flux} of categories, sorted by score.
+     */
+    @GetMapping(value = "/_search/categories", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Category> searchCategoriesAsStream(@RequestParam String query) {
+        log.debug("REST request to stream the Categories for query {}", query);
+        return SearchAfterUtil.stream((size, searchAfter) -> categorySearchRepository.search(query, size, searchAfter));
+    }
+
+    // no row is updated when the category doesn't exist, or when its version doesn't match
+    private Mono<Integer> updateFailure(Long id) {
+        return categoryRepository
+            .existsById(id)
+            .flatMap(exists ->
+                Mono.error(
+                    exists
+                        ? new OptimisticLockingFailureException("The category was modified concurrently")
+                        : new ResponseStatusException(HttpStatus.NOT_FOUND)
+                )
+            );
     }
 }
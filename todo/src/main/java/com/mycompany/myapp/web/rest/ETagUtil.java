@@ -0,0 +1,67 @@
+package com.mycompany.myapp.web.rest;
+
+import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Utility class for the entity tags of the versioned entities, the tag being the quoted version.
+ */
+public final class ETagUtil {
+
+    private ETagUtil() {}
+
+    /**
+     * The entity tag of the given version.
+     * @param version the version of the entity.
+     * @return the strong entity tag.
+     */
+    public static String eTag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Parse the version required by an {@code If-Match} header.
+     * @param ifMatch the value of the {@code If-Match} header, or null.
+     * @param entityName the name of the entity, for the error.
+     * @return the required version, or null if any version matches.
+     * @throws BadRequestAlertException if the header isn't the entity tag of a version.
+     */
+    public static Long requiredVersion(String ifMatch, String entityName) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        try {
+            return Long.valueOf(tag.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new BadRequestAlertException("Invalid If-Match header", entityName, "etaginvalid");
+        }
+    }
+
+    /**
+     * The version required by an update: the one of the {@code If-Match} header, else the one of the body, so that an update never
+     * overwrites a concurrent modification unknowingly. Only {@code If-Match: *} updates any version.
+     * @param ifMatch the value of the {@code If-Match} header, or null.
+     * @param version the version of the body, or null.
+     * @param entityName the name of the entity, for the error.
+     * @return the required version, or null if any version matches.
+     * @throws BadRequestAlertException if the header isn't the entity tag of a version.
+     * @throws ResponseStatusException with status {@code 428 (Precondition Required)} if there's neither a header nor a version.
+     */
+    public static Long requiredUpdateVersion(String ifMatch, Long version, String entityName) {
+        if (ifMatch != null) {
+            return requiredVersion(ifMatch, entityName);
+        }
+        if (version == null) {
+            throw new ResponseStatusException(
+                HttpStatus.PRECONDITION_REQUIRED,
+                "The version of the " + entityName + " is required, in the body or the If-Match header"
+            );
+        }
+        return version;
+    }
+}
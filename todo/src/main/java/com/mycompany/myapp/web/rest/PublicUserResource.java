@@ -11,6 +11,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.web.bind.annotation.*;
@@ -62,13 +63,39 @@ public class PublicUserResource {
     }
 
     /**
-     * {@code SEARCH /_search/users/:query} : search for the User corresponding to the query.
+     * {@code SEARCH /_search/users/:query?size=:size&after=:cursor} : search for a page of the Users corresponding to the query.
+     * <p>
+     * See {@link SearchAfterUtil} for the {@code X-Total-Count} and {@code X-Next-Cursor} headers.
      *
      * @param query the query to search.
+     * @param size the number of users to return.
+     * @param after the opaque cursor returned by the previous page, or null for the first page.
      * @return the result of the search.
      */
     @GetMapping("/_search/users/{query}")
-    public Mono<List<UserDTO>> search(@PathVariable String query) {
-        return userSearchRepository.search(query).map(UserDTO::new).collectList();
+    public Mono<ResponseEntity<List<UserDTO>>> search(
+        @PathVariable String query,
+        @RequestParam(value = "size", defaultValue = "" + SearchAfterUtil.DEFAULT_PAGE_SIZE) int size,
+        @RequestParam(value = "after", required = false) String after
+    ) {
+        return SearchAfterUtil.page(
+            (pageSize, searchAfter) -> userSearchRepository.search(query, pageSize, searchAfter),
+            userSearchRepository.count(query),
+            after,
+            size,
+            UserDTO::new,
+            "userManagement"
+        );
+    }
+
+    /**
+     * {@code SEARCH /_search/users/:query} : search for all the Users corresponding to the query, as a stream.
+     *
+     * @param query the query to search.
+     * @return the {@link Flux} of users.
+     */
+    @GetMapping(value = "/_search/users/{query}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<UserDTO> searchAsStream(@PathVariable String query) {
+        return SearchAfterUtil.stream((size, searchAfter) -> userSearchRepository.search(query, size, searchAfter)).map(UserDTO::new);
     }
 }
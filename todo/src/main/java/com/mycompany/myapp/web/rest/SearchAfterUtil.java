@@ -0,0 +1,137 @@
+package com.mycompany.myapp.web.rest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Utility class for the paginated searches, read with the {@code search_after} of Elasticsearch.
+ * <p>
+ * The hits are sorted by score, then by id, and the cursor of a page is the opaque encoding of the sort values of its last hit.
+ */
+public final class SearchAfterUtil {
+
+    public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+
+    public static final int MAX_PAGE_SIZE = 2000;
+
+    /**
+     * The number of hits read by each request of a streamed search.
+     */
+    public static final int STREAM_CHUNK_SIZE = 500;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final TypeReference<List<Object>> SORT_VALUES = new TypeReference<>() {};
+
+    private SearchAfterUtil() {}
+
+    /**
+     * A search of the hits following the given sort values.
+     * @param <T> the type of the searched entity.
+     */
+    @FunctionalInterface
+    public interface Search<T> {
+        /**
+         * @param size the maximum number of hits.
+         * @param searchAfter the sort values of the previous hit, or null for the first hit.
+         * @return the hits, sorted by score then by id.
+         */
+        Flux<SearchHit<T>> search(int size, List<Object> searchAfter);
+    }
+
+    /**
+     * Read a page of hits, with the total number of hits in the {@code X-Total-Count} header, and the cursor of the next page
+     * in the {@code X-Next-Cursor} header, missing on the last page.
+     * @param search the search.
+     * @param count the total number of hits.
+     * @param after the cursor returned by the previous page, or null for the first page.
+     * @param size the number of hits of the page.
+     * @param mapper the mapper of the entities of the page.
+     * @param entityName the name of the entity, for the errors.
+     * @return the response with the page.
+     * @throws BadRequestAlertException if the size or the cursor is invalid.
+     */
+    public static <T, R> Mono<ResponseEntity<List<R>>> page(
+        Search<T> search,
+        Mono<Long> count,
+        String after,
+        int size,
+        Function<T, R> mapper,
+        String entityName
+    ) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestAlertException("Invalid page size", entityName, "pagesizeinvalid");
+        }
+        List<Object> searchAfter = after != null ? decodeCursor(after, entityName) : null;
+        // read one more hit, to know whether there is a next page
+        return Mono
+            .zip(count, search.search(size + 1, searchAfter).collectList())
+            .map(result -> {
+                List<SearchHit<T>> hits = result.getT2();
+                HttpHeaders headers = new HttpHeaders();
+                headers.add(TOTAL_COUNT_HEADER, Long.toString(result.getT1()));
+                if (hits.size() > size) {
+                    hits = hits.subList(0, size);
+                    headers.add(NEXT_CURSOR_HEADER, encodeCursor(hits.get(size - 1).getSortValues()));
+                }
+                return ResponseEntity
+                    .ok()
+                    .headers(headers)
+                    .body(hits.stream().map(SearchHit::getContent).map(mapper).collect(Collectors.toList()));
+            });
+    }
+
+    /**
+     * Stream all the hits, reading them by chunks so that only one chunk is held at a time.
+     * @param search the search.
+     * @return the entities of the hits.
+     */
+    public static <T> Flux<T> stream(Search<T> search) {
+        return search
+            .search(STREAM_CHUNK_SIZE, null)
+            .collectList()
+            .expand(hits ->
+                hits.size() < STREAM_CHUNK_SIZE
+                    ? Mono.empty()
+                    : search.search(STREAM_CHUNK_SIZE, hits.get(hits.size() - 1).getSortValues()).collectList()
+            )
+            .concatMapIterable(Function.identity())
+            .map(SearchHit::getContent);
+    }
+
+    static String encodeCursor(List<Object> sortValues) {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(MAPPER.writeValueAsBytes(sortValues));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static List<Object> decodeCursor(String cursor, String entityName) {
+        try {
+            List<Object> sortValues = MAPPER.readValue(Base64.getUrlDecoder().decode(cursor), SORT_VALUES);
+            if (sortValues == null || sortValues.size() != 2) {
+                throw new BadRequestAlertException("Invalid cursor", entityName, "cursorinvalid");
+            }
+            return sortValues;
+        } catch (IllegalArgumentException | IOException e) {
+            throw new BadRequestAlertException("Invalid cursor", entityName, "cursorinvalid");
+        }
+    }
+}
@@ -1,27 +1,49 @@
 package com.mycompany.myapp.web.rest;
 
+import static org.springframework.data.relational.core.query.Criteria.where;
+
 import com.mycompany.myapp.domain.Todo;
 import com.mycompany.myapp.repository.TodoRepository;
+import com.mycompany.myapp.repository.TodoSqlHelper;
 import com.mycompany.myapp.repository.search.TodoSearchRepository;
+import com.mycompany.myapp.service.OutboxService;
+import com.mycompany.myapp.service.TodoStatsService;
+import com.mycompany.myapp.service.TodoSuggestionService;
+import com.mycompany.myapp.service.criteria.TodoCriteria;
+import com.mycompany.myapp.service.dto.TodoStatsDTO;
+import com.mycompany.myapp.service.dto.TodoSuggestionDTO;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import com.mycompany.myapp.web.rest.vm.BatchItemResultVM;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import tech.jhipster.web.util.HeaderUtil;
-import tech.jhipster.web.util.reactive.ResponseUtil;
 
 /**
  * REST controller for managing {@link com.mycompany.myapp.domain.Todo}.
@@ -35,6 +57,14 @@ public class TodoResource {
 
     private static final String ENTITY_NAME = "todoTodo";
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final int MAX_PAGE_SIZE = 2000;
+
+    private static final int BATCH_CHUNK_SIZE = 500;
+
+    private static final int DELETE_CHUNK_SIZE = 500;
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -42,9 +72,24 @@ public class TodoResource {
 
     private final TodoSearchRepository todoSearchRepository;
 
-    public TodoResource(TodoRepository todoRepository, TodoSearchRepository todoSearchRepository) {
+    private final OutboxService outboxService;
+
+    private final TodoSuggestionService todoSuggestionService;
+
+    private final TodoStatsService todoStatsService;
+
+    public TodoResource(
+        TodoRepository todoRepository,
+        TodoSearchRepository todoSearchRepository,
+        OutboxService outboxService,
+        TodoSuggestionService todoSuggestionService,
+        TodoStatsService todoStatsService
+    ) {
         this.todoRepository = todoRepository;
         this.todoSearchRepository = todoSearchRepository;
+        this.outboxService = outboxService;
+        this.todoSuggestionService = todoSuggestionService;
+        this.todoStatsService = todoStatsService;
     }
 
     /**
@@ -62,12 +107,13 @@ public class TodoResource {
         }
         return todoRepository
             .save(todo)
-            .flatMap(todoSearchRepository::save)
+            .flatMap(result -> recordWrite(result.getId()).thenReturn(result))
             .map(result -> {
                 try {
                     return ResponseEntity
                         .created(new URI("/api/todos/" + result.getId()))
                         .headers(HeaderUtil.createEntityCreationAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
+                        .eTag(ETagUtil.eTag(result.getVersion()))
                         .body(result);
                 } catch (URISyntaxException e) {
                     throw new RuntimeException(e);
@@ -75,19 +121,88 @@ public class TodoResource {
             });
     }
 
+    /**
+     * {@code POST  /todos/batch} : Create new todos, from a JSON array or a stream of JSON documents (NDJSON).
+     * <p>
+     * The todos are inserted in chunks, with one multi-row insert per chunk.
+     * A todo which can't be created is reported in its result, and doesn't fail the rest of the batch.
+     *
+     * @param todos the todos to create.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of every todo, in the order of the request.
+     */
+    @PostMapping(value = "/todos/batch", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    public Mono<ResponseEntity<List<BatchItemResultVM>>> createTodos(@RequestBody Flux<Todo> todos) {
+        log.debug("REST request to save a batch of Todos");
+        return todos
+            .buffer(BATCH_CHUNK_SIZE)
+            .index()
+            .concatMap(chunk -> createTodoChunk(chunk.getT1() * BATCH_CHUNK_SIZE, chunk.getT2()))
+            .collectList()
+            .map(results -> ResponseEntity.ok().body(results));
+    }
+
+    private Flux<BatchItemResultVM> createTodoChunk(long offset, List<Todo> chunk) {
+        BatchItemResultVM[] results = new BatchItemResultVM[chunk.size()];
+        List<Integer> positions = new ArrayList<>(chunk.size());
+        List<Todo> newTodos = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            if (chunk.get(i).getId() != null) {
+                results[i] = BatchItemResultVM.failed(offset + i, "idexists");
+            } else {
+                positions.add(i);
+                newTodos.add(chunk.get(i));
+            }
+        }
+        return todoRepository
+            .insertAll(newTodos)
+            .collectList()
+            .onErrorResume(e -> {
+                // insert the todos of the chunk one by one, to find the ones which can't be inserted
+                log.debug("Batch insert of Todos failed, retrying them one by one: {}", e.getMessage());
+                return Flux
+                    .fromIterable(positions)
+                    .concatMap(i ->
+                        todoRepository
+                            .insertAll(List.of(chunk.get(i)))
+                            .onErrorResume(error -> {
+                                results[i] = BatchItemResultVM.failed(offset + i, "savefailed");
+                                return Flux.empty();
+                            })
+                    )
+                    .collectList();
+            })
+            .flatMap(saved -> recordWrites(saved.stream().map(Todo::getId).collect(Collectors.toList())).thenReturn(saved))
+            .flatMapMany(saved -> {
+                for (int i : positions) {
+                    if (results[i] == null) {
+                        results[i] = BatchItemResultVM.created(offset + i, chunk.get(i).getId());
+                    }
+                }
+                return Flux.fromArray(results);
+            });
+    }
+
     /**
      * {@code PUT  /todos/:id} : Updates an existing todo.
      *
      * @param id the id of the todo to save.
+     * @param ifMatch the entity tag of the expected version, which takes precedence over the version of the body, or {@code *} for any
+     * version.
      * @param todo the todo to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated todo,
      * or with status {@code 400 (Bad Request)} if the todo is not valid,
+     * or with status {@code 404 (Not Found)} if the todo is not found,
+     * or with status {@code 409 (Conflict)} if the todo version doesn't match,
+     * or with status {@code 428 (Precondition Required)} if neither the body nor the {@code If-Match} header holds the version,
      * or with status {@code 500 (Internal Server Error)} if the todo couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/todos/{id}")
-    public Mono<ResponseEntity<Todo>> updateTodo(@PathVariable(value = "id", required = false) final Long id, @RequestBody Todo todo)
-        throws URISyntaxException {
+    public Mono<ResponseEntity<Todo>> updateTodo(
+        @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+        @RequestBody Todo todo
+    ) throws URISyntaxException {
         log.debug("REST request to update Todo : {}, {}", id, todo);
         if (todo.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
@@ -96,23 +211,20 @@ public class TodoResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
+        todo.setVersion(ETagUtil.requiredUpdateVersion(ifMatch, todo.getVersion(), ENTITY_NAME));
         return todoRepository
-            .existsById(id)
-            .flatMap(exists -> {
-                if (!exists) {
-                    return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+            .update(todo)
+            .filter(updated -> updated > 0)
+            .switchIfEmpty(updateFailure(id))
+            .flatMap(updated -> recordWrite(id).thenReturn(todo))
+            .map(result -> {
+                ResponseEntity.BodyBuilder response = ResponseEntity
+                    .ok()
+                    .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, result.getId().toString()));
+                if (result.getVersion() != null) {
+                    response.eTag(ETagUtil.eTag(result.getVersion()));
                 }
-
-                return todoRepository
-                    .save(todo)
-                    .flatMap(todoSearchRepository::save)
-                    .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                    .map(result ->
-                        ResponseEntity
-                            .ok()
-                            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
-                            .body(result)
-                    );
+                return response.body(result);
             });
     }
 
@@ -120,16 +232,21 @@ public class TodoResource {
      * {@code PATCH  /todos/:id} : Partial updates given fields of an existing todo, field will ignore if it is null
      *
      * @param id the id of the todo to save.
+     * @param ifMatch the entity tag of the expected version, which takes precedence over the version of the body, or {@code *} for any
+     * version.
      * @param todo the todo to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated todo,
      * or with status {@code 400 (Bad Request)} if the todo is not valid,
      * or with status {@code 404 (Not Found)} if the todo is not found,
+     * or with status {@code 409 (Conflict)} if the todo version doesn't match,
+     * or with status {@code 428 (Precondition Required)} if neither the body nor the {@code If-Match} header holds the version,
      * or with status {@code 500 (Internal Server Error)} if the todo couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/todos/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public Mono<ResponseEntity<Todo>> partialUpdateTodo(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @RequestBody Todo todo
     ) throws URISyntaxException {
         log.debug("REST request to partial update Todo partially : {}, {}", id, todo);
@@ -140,78 +257,142 @@ public class TodoResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
+        // only the given fields are written, in a single statement
+        Todo changes = new Todo()
+            .id(id)
+            .task(todo.getTask())
+            .description(todo.getDescription())
+            .completed(todo.getCompleted())
+            .version(ETagUtil.requiredUpdateVersion(ifMatch, todo.getVersion(), ENTITY_NAME));
         return todoRepository
-            .existsById(id)
-            .flatMap(exists -> {
-                if (!exists) {
-                    return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                }
-
-                Mono<Todo> result = todoRepository
-                    .findById(todo.getId())
-                    .map(existingTodo -> {
-                        if (todo.getTask() != null) {
-                            existingTodo.setTask(todo.getTask());
-                        }
-                        if (todo.getDescription() != null) {
-                            existingTodo.setDescription(todo.getDescription());
-                        }
-                        if (todo.getCompleted() != null) {
-                            existingTodo.setCompleted(todo.getCompleted());
-                        }
-
-                        return existingTodo;
-                    })
-                    .flatMap(todoRepository::save)
-                    .flatMap(savedTodo -> {
-                        todoSearchRepository.save(savedTodo);
-
-                        return Mono.just(savedTodo);
-                    });
-
-                return result
-                    .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                    .map(res ->
-                        ResponseEntity
-                            .ok()
-                            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, res.getId().toString()))
-                            .body(res)
-                    );
-            });
+            .updateNonNullFields(changes)
+            .filter(updated -> updated > 0)
+            .switchIfEmpty(updateFailure(id))
+            .flatMap(updated -> recordWrite(id))
+            .then(todoRepository.findById(id))
+            .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
+            .map(res ->
+                ResponseEntity
+                    .ok()
+                    .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, res.getId().toString()))
+                    .eTag(ETagUtil.eTag(res.getVersion()))
+                    .body(res)
+            );
     }
 
     /**
-     * {@code GET  /todos} : get all the todos.
+     * {@code GET  /todos} : get all the todos matching the criteria.
+     * <p>
+     * Only the fields listed in {@code fields} are read and returned, along with the id, and the category is only
+     * joined when {@code include=category} is given - by default, every field and the category are returned.
      *
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of todos in body.
+     * @param criteria the criteria which the todos should match.
+     * @param fields the fields of the todos to return.
+     * @param include the relationships of the todos to return.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of todos in body,
+     * or with status {@code 400 (Bad Request)} if a field or a relationship is unknown.
      */
     @GetMapping("/todos")
-    public Mono<List<Todo>> getAllTodos() {
-        log.debug("REST request to get all Todos");
-        return todoRepository.findAll().collectList();
+    public Mono<List<Object>> getAllTodos(
+        TodoCriteria criteria,
+        @RequestParam(value = "fields", required = false) List<String> fields,
+        @RequestParam(value = "include", required = false) List<String> include
+    ) {
+        log.debug("REST request to get Todos by criteria: {}", criteria);
+        Fieldset fieldset = Fieldset.of(fields, include);
+        return todoRepository
+            .findAllBy(null, criteria.toCriteria(), fieldset.fields, fieldset.withCategory)
+            .map(fieldset::render)
+            .collectList();
+    }
+
+    /**
+     * {@code GET  /todos?size=:size&after=:cursor} : get a page of the todos matching the criteria, ordered by id.
+     * <p>
+     * The page is read with a keyset condition on the id, so the cost of a request is the same for every page.
+     * The {@code X-Next-Cursor} header holds the cursor of the next page, it's missing on the last page.
+     *
+     * @param after the opaque cursor returned by the previous page, or null for the first page.
+     * @param size the number of todos to return.
+     * @param criteria the criteria which the todos should match, see {@link #getAllTodos(TodoCriteria, List, List)}.
+     * @param fields the fields of the todos to return.
+     * @param include the relationships of the todos to return.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the page of todos in body,
+     * or with status {@code 400 (Bad Request)} if the cursor, the size, a field or a relationship is invalid.
+     */
+    @GetMapping(value = "/todos", params = "size")
+    public Mono<ResponseEntity<List<Object>>> getAllTodosAfter(
+        @RequestParam(value = "after", required = false) String after,
+        @RequestParam("size") int size,
+        TodoCriteria criteria,
+        @RequestParam(value = "fields", required = false) List<String> fields,
+        @RequestParam(value = "include", required = false) List<String> include
+    ) {
+        log.debug("REST request to get a page of Todos by criteria {} after cursor {}", criteria, after);
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestAlertException("Invalid page size", ENTITY_NAME, "pagesizeinvalid");
+        }
+        Long cursor = after != null ? decodeCursor(after) : null;
+        Fieldset fieldset = Fieldset.of(fields, include);
+        // read one more row, to know whether there is a next page
+        return todoRepository
+            .findAllAfter(cursor, size + 1, criteria.toCriteria(), fieldset.fields, fieldset.withCategory)
+            .collectList()
+            .map(todos -> {
+                HttpHeaders headers = new HttpHeaders();
+                if (todos.size() > size) {
+                    todos = todos.subList(0, size);
+                    headers.add(NEXT_CURSOR_HEADER, encodeCursor(todos.get(size - 1).getId()));
+                }
+                return ResponseEntity.ok().headers(headers).body(todos.stream().map(fieldset::render).collect(Collectors.toList()));
+            });
     }
 
     /**
-     * {@code GET  /todos} : get all the todos as a stream.
+     * {@code GET  /todos} : get all the todos matching the criteria as a stream.
+     * @param criteria the criteria which the todos should match, see {@link #getAllTodos(TodoCriteria, List, List)}.
+     * @param fields the fields of the todos to return.
+     * @param include the relationships of the todos to return.
      * @return the {@link Flux} of todos.
      */
     @GetMapping(value = "/todos", produces = MediaType.APPLICATION_NDJSON_VALUE)
-    public Flux<Todo> getAllTodosAsStream() {
-        log.debug("REST request to get all Todos as a stream");
-        return todoRepository.findAll();
+    public Flux<Object> getAllTodosAsStream(
+        TodoCriteria criteria,
+        @RequestParam(value = "fields", required = false) List<String> fields,
+        @RequestParam(value = "include", required = false) List<String> include
+    ) {
+        log.debug("REST request to get Todos by criteria {} as a stream", criteria);
+        Fieldset fieldset = Fieldset.of(fields, include);
+        return todoRepository.findAllBy(null, criteria.toCriteria(), fieldset.fields, fieldset.withCategory).map(fieldset::render);
     }
 
     /**
      * {@code GET  /todos/:id} : get the "id" todo.
      *
      * @param id the id of the todo to retrieve.
+     * @param fields the fields of the todo to return, see {@link #getAllTodos(TodoCriteria, List, List)}.
+     * @param include the relationships of the todo to return.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the todo, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/todos/{id}")
-    public Mono<ResponseEntity<Todo>> getTodo(@PathVariable Long id) {
+    public Mono<ResponseEntity<Object>> getTodo(
+        @PathVariable Long id,
+        @RequestParam(value = "fields", required = false) List<String> fields,
+        @RequestParam(value = "include", required = false) List<String> include
+    ) {
         log.debug("REST request to get Todo : {}", id);
-        Mono<Todo> todo = todoRepository.findById(id);
-        return ResponseUtil.wrapOrNotFound(todo);
+        Fieldset fieldset = Fieldset.of(fields, include);
+        Mono<Todo> todo = todoRepository.findById(id, fieldset.fields, fieldset.withCategory);
+        return todo
+            .map(result -> {
+                ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                // the version is only known when it's selected
+                if (result.getVersion() != null) {
+                    response.eTag(ETagUtil.eTag(result.getVersion()));
+                }
+                return response.body(fieldset.render(result));
+            })
+            .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)));
     }
 
     /**
@@ -226,7 +407,7 @@ public class TodoResource {
         log.debug("REST request to delete Todo : {}", id);
         return todoRepository
             .deleteById(id)
-            .then(todoSearchRepository.deleteById(id))
+            .then(recordWrite(id))
             .map(result ->
                 ResponseEntity
                     .noContent()
@@ -236,15 +417,240 @@ public class TodoResource {
     }
 
     /**
-     * {@code SEARCH  /_search/todos?query=:query} : search for the todo corresponding
-     * to the query.
+     * {@code DELETE  /todos?ids=:ids} : delete the todos with the given ids,
+     * or {@code DELETE  /todos?completed=:completed&categoryId=:categoryId} : delete the todos matching the given criteria.
+     * <p>
+     * The todos with the given ids are deleted in one transaction. The ones matching criteria are deleted in chunks of
+     * {@value #DELETE_CHUNK_SIZE}, each committed on its own, so a large delete doesn't lock the rows for long.
+     * The ids of the deleted todos are recorded in the search index outbox, in the transaction which deletes them.
      *
-     * @param query the query of the todo search.
-     * @return the result of the search.
+     * @param ids the ids of the todos to delete.
+     * @param completed the completed state of the todos to delete.
+     * @param categoryId the category id of the todos to delete.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the number of deleted todos,
+     * or with status {@code 400 (Bad Request)} if neither ids nor criteria are given.
+     */
+    @DeleteMapping("/todos")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Mono<ResponseEntity<Integer>> deleteTodos(
+        @RequestParam(value = "ids", required = false) List<Long> ids,
+        @RequestParam(value = "completed", required = false) Boolean completed,
+        @RequestParam(value = "categoryId", required = false) Long categoryId
+    ) {
+        log.debug("REST request to delete Todos : ids {}, completed {}, categoryId {}", ids, completed, categoryId);
+        List<Criteria> criteria = new ArrayList<>();
+        if (ids != null) {
+            criteria.add(where("id").in(ids));
+        }
+        if (completed != null) {
+            criteria.add(where("completed").is(completed));
+        }
+        if (categoryId != null) {
+            criteria.add(where("categoryId").is(categoryId));
+        }
+        if (criteria.isEmpty() || (ids != null && ids.isEmpty())) {
+            throw new BadRequestAlertException("Invalid delete criteria", ENTITY_NAME, "criteriainvalid");
+        }
+
+        int chunkSize = criteria.size() == 1 && ids != null ? ids.size() : DELETE_CHUNK_SIZE;
+        return todoRepository
+            .deleteAllBy(Criteria.from(criteria), chunkSize, this::recordWrites)
+            .map(count -> ResponseEntity.ok().body(count));
+    }
+
+    /**
+     * {@code SEARCH  /_search/todos?query=:query&completed=:completed&categoryId=:categoryId&size=:size&after=:cursor} : search
+     * for a page of the todos corresponding to the query, sorted by score.
+     * <p>
+     * The query string is matched on the task and the description by default, and only them are scored. The completion and the
+     * category are filters, which Elasticsearch caches and doesn't score.
+     * <p>
+     * The page is read with the {@code search_after} of Elasticsearch, see {@link SearchAfterUtil}. The {@code X-Total-Count} header
+     * holds the number of todos matching the query, and the {@code X-Next-Cursor} header the cursor of the next page.
+     *
+     * @param query the query of the todo search, or null to match every todo.
+     * @param completed the completion of the todos, or null.
+     * @param categoryId the id of the category of the todos, or null.
+     * @param size the number of todos to return.
+     * @param after the opaque cursor returned by the previous page, or null for the first page.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the page of todos in body,
+     * or with status {@code 400 (Bad Request)} if the cursor or the size is invalid.
      */
     @GetMapping("/_search/todos")
-    public Mono<List<Todo>> searchTodos(@RequestParam String query) {
-        log.debug("REST request to search Todos for query {}", query);
-        return todoSearchRepository.search(query).collectList();
+    public Mono<ResponseEntity<List<Todo>>> searchTodos(
+        @RequestParam(value = "query", required = false) String query,
+        @RequestParam(value = "completed", required = false) Boolean completed,
+        @RequestParam(value = "categoryId", required = false) Long categoryId,
+        @RequestParam(value = "size", defaultValue = "" + SearchAfterUtil.DEFAULT_PAGE_SIZE) int size,
+        @RequestParam(value = "after", required = false) String after
+    ) {
+        log.debug(
+            "REST request to search a page of Todos for query {}, completed {} and category {} after cursor {}",
+            query,
+            completed,
+            categoryId,
+            after
+        );
+        return SearchAfterUtil.page(
+            (pageSize, searchAfter) -> todoSearchRepository.search(query, completed, categoryId, pageSize, searchAfter),
+            todoSearchRepository.count(query, completed, categoryId),
+            after,
+            size,
+            todo -> todo,
+            ENTITY_NAME
+        );
+    }
+
+    /**
+     * {@code SEARCH  /_search/todos?query=:query&completed=:completed&categoryId=:categoryId} : search for all the todos
+     * corresponding to the query, as a stream.
+     *
+     * @param query the query of the todo search, or null to match every todo.
+     * @param completed the completion of the todos, or null.
+     * @param categoryId the id of the category of the todos, or null.
+     * @return the {@link Flux} of todos, sorted by score.
+     */
+    @GetMapping(value = "/_search/todos", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Todo> searchTodosAsStream(
+        @RequestParam(value = "query", required = false) String query,
+        @RequestParam(value = "completed", required = false) Boolean completed,
+        @RequestParam(value = "categoryId", required = false) Long categoryId
+    ) {
+        log.debug("REST request to stream the Todos for query {}, completed {} and category {}", query, completed, categoryId);
+        return SearchAfterUtil.stream((size, searchAfter) -> todoSearchRepository.search(query, completed, categoryId, size, searchAfter));
+    }
+
+    /**
+     * {@code GET  /_suggest/todos?prefix=:prefix} : suggest the todos while their task is typed.
+     * <p>
+     * The todos have a task with words starting with the words of the prefix. The suggestions of the recent prefixes are cached,
+     * see {@link TodoSuggestionService}.
+     *
+     * @param prefix the prefix typed by the user.
+     * @return the best suggested todos, with only their id and task.
+     */
+    @GetMapping("/_suggest/todos")
+    public Mono<List<TodoSuggestionDTO>> suggestTodos(@RequestParam String prefix) {
+        log.debug("REST request to suggest Todos for prefix {}", prefix);
+        return todoSuggestionService.suggest(prefix);
+    }
+
+    /**
+     * {@code GET  /todos/stats?query=:query} : count the todos by completion and by category.
+     * <p>
+     * Every todo is counted by the database, with a single {@code GROUP BY} statement. The todos matching a query are counted by
+     * Elasticsearch, with terms aggregations. The counts are cached for a short time, see {@link TodoStatsService}.
+     *
+     * @param query the query of the counted todos, or null to count every todo.
+     * @return the number of todos, by completion and by category id, the todos without category being counted under {@code "null"}.
+     */
+    @GetMapping("/todos/stats")
+    public Mono<TodoStatsDTO> getTodoStats(@RequestParam(value = "query", required = false) String query) {
+        log.debug("REST request to get the stats of Todos for query {}", query);
+        return todoStatsService.getStats(query);
+    }
+
+    // the written todos are indexed from the outbox, and the cached counts are stale once the transaction commits
+    private Mono<Void> recordWrite(Long id) {
+        return outboxService.record(Todo.class, id).then(todoStatsService.invalidateAfterCommit());
+    }
+
+    private Mono<Void> recordWrites(Collection<?> ids) {
+        return outboxService.recordAll(Todo.class, ids).then(todoStatsService.invalidateAfterCommit());
+    }
+
+    private static String encodeCursor(Long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Long decodeCursor(String cursor) {
+        try {
+            return Long.valueOf(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid");
+        }
+    }
+
+    // no row is updated when the todo doesn't exist, or when its version doesn't match
+    private Mono<Integer> updateFailure(Long id) {
+        return todoRepository
+            .existsById(id)
+            .flatMap(exists ->
+                Mono.error(
+                    exists
+                        ? new OptimisticLockingFailureException("The todo was modified concurrently")
+                        : new ResponseStatusException(HttpStatus.NOT_FOUND)
+                )
+            );
+    }
+
+    /**
+     * The fields and relationships of the todos requested with the {@code fields} and {@code include} parameters.
+     */
+    private static final class Fieldset {
+
+        private static final Fieldset ALL = new Fieldset(null, true, false);
+
+        // null when all the fields are requested
+        private final Set<String> fields;
+        private final boolean withCategory;
+        private final boolean sparse;
+
+        private Fieldset(Set<String> fields, boolean withCategory, boolean sparse) {
+            this.fields = fields;
+            this.withCategory = withCategory;
+            this.sparse = sparse;
+        }
+
+        static Fieldset of(List<String> fields, List<String> include) {
+            if (fields == null && include == null) {
+                return ALL;
+            }
+            Set<String> selectedFields = null;
+            if (fields != null) {
+                selectedFields = new HashSet<>();
+                for (String field : fields) {
+                    if (!field.isBlank()) {
+                        if (!TodoSqlHelper.getFields().contains(field.trim())) {
+                            throw new BadRequestAlertException("Unknown field " + field, ENTITY_NAME, "fieldsinvalid");
+                        }
+                        selectedFields.add(field.trim());
+                    }
+                }
+            }
+            boolean withCategory = false;
+            for (String relationship : include != null ? include : List.<String>of()) {
+                if (relationship.trim().equals("category")) {
+                    withCategory = true;
+                } else if (!relationship.isBlank()) {
+                    throw new BadRequestAlertException("Unknown relationship " + relationship, ENTITY_NAME, "includeinvalid");
+                }
+            }
+            return new Fieldset(selectedFields, withCategory, true);
+        }
+
+        // the unselected fields are left out, instead of being returned as null
+        Object render(Todo todo) {
+            if (!sparse) {
+                return todo;
+            }
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("id", todo.getId());
+            putIfSelected(body, "task", todo.getTask());
+            putIfSelected(body, "description", todo.getDescription());
+            putIfSelected(body, "completed", todo.getCompleted());
+            putIfSelected(body, "version", todo.getVersion());
+            putIfSelected(body, "categoryId", todo.getCategoryId());
+            if (withCategory) {
+                body.put("category", todo.getCategory());
+            }
+            return body;
+        }
+
+        private void putIfSelected(Map<String, Object> body, String field, Object value) {
+            if (fields == null || fields.contains(field)) {
+                body.put(field, value);
+            }
+        }
     }
 }
@@ -0,0 +1,55 @@
+package com.mycompany.myapp.web.rest.vm;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.io.Serializable;
+
+/**
+ * View Model for the outcome of one item of a batch request: the id of the persisted entity, or the reason it was rejected.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResultVM implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long index;
+
+    private final Long id;
+
+    private final String error;
+
+    private BatchItemResultVM(long index, Long id, String error) {
+        this.index = index;
+        this.id = id;
+        this.error = error;
+    }
+
+    public static BatchItemResultVM created(long index, Long id) {
+        return new BatchItemResultVM(index, id, null);
+    }
+
+    public static BatchItemResultVM failed(long index, String error) {
+        return new BatchItemResultVM(index, null, error);
+    }
+
+    public long getIndex() {
+        return index;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BatchItemResultVM{" +
+            "index=" + index +
+            ", id=" + id +
+            ", error='" + error + "'" +
+            "}";
+    }
+}
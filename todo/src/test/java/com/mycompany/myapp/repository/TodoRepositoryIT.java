@@ -0,0 +1,121 @@
+package com.mycompany.myapp.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.repository.rowmapper.CategoryRowMapper;
+import com.mycompany.myapp.repository.rowmapper.TodoRowMapper;
+import com.mycompany.myapp.service.EntityManager;
+import com.mycompany.myapp.service.criteria.TodoCriteria;
+import io.r2dbc.spi.ColumnMetadata;
+import java.util.StringJoiner;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.core.PreparedOperation;
+import org.springframework.r2dbc.core.binding.BindTarget;
+
+/**
+ * Integration tests for the query plans of {@link TodoRepository}, run against H2, or MySQL with the testcontainers profile.
+ */
+@IntegrationTest
+class TodoRepositoryIT {
+
+    @Autowired
+    private R2dbcEntityTemplate r2dbcEntityTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private CategoryRowMapper categoryMapper;
+
+    @Autowired
+    private TodoRowMapper todoMapper;
+
+    private TodoRepositoryInternalImpl todoRepository;
+
+    @BeforeEach
+    public void initTest() {
+        todoRepository = new TodoRepositoryInternalImpl(r2dbcEntityTemplate, entityManager, categoryMapper, todoMapper);
+    }
+
+    @Test
+    void listingByCompletedUsesIndex() {
+        TodoCriteria criteria = new TodoCriteria();
+        criteria.setCompleted(true);
+
+        assertThat(explain(criteria)).containsIgnoringCase("idx_todo__completed_id");
+    }
+
+    @Test
+    void listingByCategoryUsesIndex() {
+        TodoCriteria criteria = new TodoCriteria();
+        criteria.setCategoryId(1L);
+
+        assertThat(explain(criteria)).containsIgnoringCase("ux_todo__category_id");
+    }
+
+    @Test
+    void pagesOfListingShareStatement() {
+        TodoCriteria criteria = new TodoCriteria();
+        criteria.setCompleted(true);
+
+        String firstPage = todoRepository.createSelect(PageRequest.of(0, 20, Sort.by("id")), criteria.toCriteria(), null, true).toQuery();
+        String otherPage = todoRepository.createSelect(PageRequest.of(3, 50, Sort.by("id")), criteria.toCriteria(), null, true).toQuery();
+
+        assertThat(otherPage).isEqualTo(firstPage).doesNotContain("20").doesNotContain("50");
+    }
+
+    // the query plan of a page of the todo listing, as text: every column of every row, as H2 has a single plan column, and MySQL a
+    // table with the index in its key column
+    private String explain(TodoCriteria criteria) {
+        PreparedOperation<String> select = todoRepository.createSelect(
+            PageRequest.of(0, 20, Sort.by("id")),
+            criteria.toCriteria(),
+            null,
+            false
+        );
+        return r2dbcEntityTemplate
+            .getDatabaseClient()
+            .sql(new Explain(select))
+            .map((row, metadata) -> {
+                StringJoiner columns = new StringJoiner(" ");
+                for (ColumnMetadata column : metadata.getColumnMetadatas()) {
+                    columns.add(String.valueOf(row.get(column.getName())));
+                }
+                return columns.toString();
+            })
+            .all()
+            .collect(Collectors.joining("\n"))
+            .block();
+    }
+
+    private static final class Explain implements PreparedOperation<String> {
+
+        private final PreparedOperation<String> select;
+
+        Explain(PreparedOperation<String> select) {
+            this.select = select;
+        }
+
+        @Override
+        public String getSource() {
+            return select.getSource();
+        }
+
+        @Override
+        public void bindTo(BindTarget target) {
+            select.bindTo(target);
+        }
+
+        @Override
+        public String toQuery() {
+            return "EXPLAIN " + select.toQuery();
+        }
+    }
+}
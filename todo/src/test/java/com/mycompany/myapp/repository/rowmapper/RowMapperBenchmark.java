@@ -0,0 +1,204 @@
+package com.mycompany.myapp.repository.rowmapper;
+
+import com.mycompany.myapp.config.DatabaseConfiguration.BitSetReadConverter;
+import com.mycompany.myapp.domain.Todo;
+import com.mycompany.myapp.service.ColumnConverter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.ColumnMetadata;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.r2dbc.convert.MappingR2dbcConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.dialect.MySqlDialect;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+
+/**
+ * Compares the name based and the index based row mapping of the joined todo / category select, in rows per second.
+ * The boolean columns hold {@link BitSet} values, as MySQL returns them, so they need a conversion.
+ * <p>
+ * Run it from the IDE, or after {@code ./mvnw test-compile} with the test classpath and this class as main class.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowMapperBenchmark {
+
+    private static final int ROWS = 1000;
+
+    private TodoRowMapper todoMapper;
+    private CategoryRowMapper categoryMapper;
+    private FakeRowMetadata metadata;
+    private List<Row> rows;
+
+    @Setup
+    public void setUp() {
+        R2dbcCustomConversions conversions = R2dbcCustomConversions.of(MySqlDialect.INSTANCE, BitSetReadConverter.INSTANCE);
+        ColumnConverter converter = new ColumnConverter(
+            conversions,
+            new MappingR2dbcConverter(new R2dbcMappingContext(), conversions),
+            new SimpleMeterRegistry()
+        );
+        todoMapper = new TodoRowMapper(converter);
+        categoryMapper = new CategoryRowMapper(converter);
+        metadata =
+            new FakeRowMetadata(
+                "e_id",
+                "e_task",
+                "e_description",
+                "e_completed",
+                "e_category_id",
+                "e_version",
+                "category_id",
+                "category_name",
+                "category_description",
+                "category_active",
+                "category_version"
+            );
+        rows = new ArrayList<>(ROWS);
+        for (long i = 0; i < ROWS; i++) {
+            long categoryId = i % 10;
+            rows.add(
+                new FakeRow(
+                    metadata,
+                    i,
+                    "task " + i,
+                    "description " + i,
+                    bit(i % 2 == 0),
+                    categoryId,
+                    0L,
+                    categoryId,
+                    "category " + categoryId,
+                    "description " + categoryId,
+                    bit(true),
+                    0L
+                )
+            );
+        }
+    }
+
+    // like a MySQL BIT(1) column
+    private static BitSet bit(boolean value) {
+        BitSet bitSet = new BitSet(1);
+        bitSet.set(0, value);
+        return bitSet;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void byName(Blackhole blackhole) {
+        for (Row row : rows) {
+            Todo entity = todoMapper.apply(row, "e");
+            entity.setCategory(categoryMapper.apply(row, "category"));
+            blackhole.consume(entity);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void byIndex(Blackhole blackhole) {
+        for (Row row : rows) {
+            Todo entity = todoMapper.apply(row, metadata, "e");
+            entity.setCategory(categoryMapper.apply(row, metadata, "category"));
+            blackhole.consume(entity);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RowMapperBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    /**
+     * A {@link Row} which behaves like the drivers: columns are looked up by name case insensitively,
+     * and a value which isn't of the requested type can't be read with {@link Row#get(String, Class)}.
+     */
+    private static final class FakeRow implements Row {
+
+        private final FakeRowMetadata metadata;
+        private final Object[] values;
+
+        FakeRow(FakeRowMetadata metadata, Object... values) {
+            this.metadata = metadata;
+            this.values = values;
+        }
+
+        @Override
+        public <T> T get(int index, Class<T> type) {
+            Object value = values[index];
+            if (value != null && !type.isInstance(value)) {
+                throw new IllegalArgumentException("Cannot decode value of type " + value.getClass().getName() + " to " + type.getName());
+            }
+            return type.cast(value);
+        }
+
+        @Override
+        public <T> T get(String name, Class<T> type) {
+            return get(metadata.indexOf(name), type);
+        }
+    }
+
+    private static final class FakeRowMetadata implements RowMetadata {
+
+        private final List<ColumnMetadata> columns;
+
+        FakeRowMetadata(String... names) {
+            columns = new ArrayList<>(names.length);
+            for (String name : names) {
+                columns.add(() -> name);
+            }
+        }
+
+        int indexOf(String name) {
+            for (int i = 0; i < columns.size(); i++) {
+                if (columns.get(i).getName().equalsIgnoreCase(name)) {
+                    return i;
+                }
+            }
+            throw new NoSuchElementException("Column name '" + name + "' does not exist in column names " + getColumnNames());
+        }
+
+        @Override
+        public ColumnMetadata getColumnMetadata(int index) {
+            return columns.get(index);
+        }
+
+        @Override
+        public ColumnMetadata getColumnMetadata(String name) {
+            return columns.get(indexOf(name));
+        }
+
+        @Override
+        public Iterable<? extends ColumnMetadata> getColumnMetadatas() {
+            return columns;
+        }
+
+        @Override
+        public Collection<String> getColumnNames() {
+            return Arrays.asList(columns.stream().map(ColumnMetadata::getName).toArray(String[]::new));
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.mycompany.myapp.repository.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Category;
+import com.mycompany.myapp.domain.Todo;
+import com.mycompany.myapp.service.SearchIndexer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.elasticsearch.search.aggregations.Aggregation;
+import org.elasticsearch.search.aggregations.bucket.SingleBucketAggregation;
+import org.elasticsearch.search.aggregations.bucket.terms.Terms;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.elasticsearch.client.reactive.ReactiveElasticsearchClient;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.convert.MappingElasticsearchConverter;
+import org.springframework.data.elasticsearch.core.index.AliasAction;
+import org.springframework.data.elasticsearch.core.index.AliasActionParameters;
+import org.springframework.data.elasticsearch.core.index.AliasActions;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.mapping.SimpleElasticsearchMappingContext;
+import org.springframework.data.elasticsearch.core.query.UpdateQuery;
+import reactor.core.publisher.Mono;
+
+/**
+ * Unit tests for {@link EmbeddedReactiveElasticsearchTemplate}, through the search repositories.
+ */
+class EmbeddedReactiveElasticsearchTemplateTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private EmbeddedReactiveElasticsearchTemplate template;
+
+    private SearchIndexer searchIndexer;
+
+    private TodoSearchRepositoryInternalImpl todoSearchRepository;
+
+    private CategorySearchRepositoryInternalImpl categorySearchRepository;
+
+    @BeforeEach
+    public void init() {
+        MappingElasticsearchConverter converter = new MappingElasticsearchConverter(new SimpleElasticsearchMappingContext());
+        converter.afterPropertiesSet();
+        ReactiveElasticsearchClient client = mock(ReactiveElasticsearchClient.class, invocation -> Mono.empty());
+        template = new EmbeddedReactiveElasticsearchTemplate(client, converter);
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getIndexer().setFlushInterval(Duration.ofMillis(10));
+        searchIndexer = new SearchIndexer(template, applicationProperties, new SimpleMeterRegistry());
+        todoSearchRepository = new TodoSearchRepositoryInternalImpl(template, searchIndexer);
+        categorySearchRepository = new CategorySearchRepositoryInternalImpl(template, searchIndexer);
+        todoSearchRepository
+            .index(
+                List.of(
+                    todo(1L, "Buy milk", false, 7L),
+                    todo(2L, "Buy bread", true, null),
+                    todo(3L, "Walk the dog", true, 7L),
+                    todo(4L, "Buy a milk jug", false, null)
+                )
+            )
+            .block(TIMEOUT);
+    }
+
+    @AfterEach
+    public void stop() {
+        searchIndexer.stop();
+    }
+
+    private static Todo todo(Long id, String task, boolean completed, Long categoryId) {
+        Todo todo = new Todo().id(id).task(task).description("Todo " + id).completed(completed).version(1L);
+        todo.setCategoryId(categoryId);
+        return todo;
+    }
+
+    private List<Long> searchIds(String query, Boolean completed, Long categoryId, int size, List<Object> searchAfter) {
+        return todoSearchRepository
+            .search(query, completed, categoryId, size, searchAfter)
+            .map(hit -> hit.getContent().getId())
+            .collectList()
+            .block(TIMEOUT);
+    }
+
+    @Test
+    void searchesTheQueryString() {
+        assertThat(searchIds("milk", null, null, 10, null)).containsExactlyInAnyOrder(1L, 4L);
+        assertThat(searchIds("task:dog OR description:\"todo 2\"", null, null, 10, null)).containsExactlyInAnyOrder(2L, 3L);
+        assertThat(todoSearchRepository.count("buy", null, null).block(TIMEOUT)).isEqualTo(3);
+    }
+
+    @Test
+    void searchesEveryFieldWithoutFields() {
+        categorySearchRepository.index(List.of(new Category().id(5L).name("Groceries").description("Food"))).block(TIMEOUT);
+
+        assertThat(categorySearchRepository.search("food").map(Category::getId).collectList().block(TIMEOUT)).containsExactly(5L);
+    }
+
+    @Test
+    void filtersTheTodos() {
+        assertThat(searchIds(null, true, null, 10, null)).containsExactly(2L, 3L);
+        assertThat(searchIds(null, true, 7L, 10, null)).containsExactly(3L);
+        assertThat(searchIds("buy", false, null, 10, null)).containsExactlyInAnyOrder(1L, 4L);
+    }
+
+    @Test
+    void pagesTheHitsAfterTheirSortValues() {
+        List<SearchHit<Todo>> firstPage = todoSearchRepository.search(null, null, null, 3, null).collectList().block(TIMEOUT);
+        assertThat(firstPage).extracting(hit -> hit.getContent().getId()).containsExactly(1L, 2L, 3L);
+        // the score, then the id as a keyword
+        assertThat(firstPage.get(2).getSortValues()).hasSize(2).element(1).isEqualTo("3");
+
+        assertThat(searchIds(null, null, null, 3, firstPage.get(2).getSortValues())).containsExactly(4L);
+    }
+
+    @Test
+    void suggestsTheTodosFromThePrefixesOfTheirWords() {
+        assertThat(todoSearchRepository.suggest("bu mi", 10).map(Todo::getTask).collectList().block(TIMEOUT))
+            .containsExactlyInAnyOrder("Buy milk", "Buy a milk jug");
+    }
+
+    @Test
+    void aggregatesByCompletionAndCategory() {
+        Map<String, Aggregation> aggregations = todoSearchRepository
+            .aggregateByCompletedAndCategory("buy")
+            .collectMap(Aggregation::getName)
+            .block(TIMEOUT);
+
+        assertThat(((Terms) aggregations.get("completed")).getBuckets())
+            .extracting(Terms.Bucket::getKeyAsString, Terms.Bucket::getDocCount)
+            .containsExactly(tuple("false", 2L), tuple("true", 1L));
+        assertThat(((SingleBucketAggregation) aggregations.get("completed_missing")).getDocCount()).isZero();
+        assertThat(((Terms) aggregations.get("categoryId")).getBuckets())
+            .extracting(Terms.Bucket::getKeyAsString, Terms.Bucket::getDocCount)
+            .containsExactly(tuple("7", 1L));
+        assertThat(((SingleBucketAggregation) aggregations.get("categoryId_missing")).getDocCount()).isEqualTo(2);
+    }
+
+    @Test
+    void deletesFromTheIndex() {
+        todoSearchRepository.deleteFromIndex(List.of(1L, 2L)).block(TIMEOUT);
+
+        assertThat(searchIds(null, null, null, 10, null)).containsExactly(3L, 4L);
+    }
+
+    @Test
+    void doesNotOverwriteAGreaterVersion() {
+        todoSearchRepository.index(List.of(todo(1L, "Buy oat milk", false, 7L).version(3L))).block(TIMEOUT);
+        todoSearchRepository.index(List.of(todo(1L, "Buy cow milk", false, 7L).version(2L))).block(TIMEOUT);
+
+        assertThat(todoSearchRepository.suggest("buy", 10).filter(todo -> todo.getId() == 1L).map(Todo::getTask).blockFirst(TIMEOUT))
+            .isEqualTo("Buy oat milk");
+    }
+
+    @Test
+    void upsertsOnlyTheMissingDocuments() {
+        List<UpdateQuery> upserts = List.of(todo(1L, "Buy oat milk", false, 7L), todo(5L, "Water the plants", false, null))
+            .stream()
+            .map(todo ->
+                UpdateQuery
+                    .builder(todo.getId().toString())
+                    .withScript("ctx.op = 'none'")
+                    .withLang("painless")
+                    .withUpsert(template.getElasticsearchConverter().mapObject(todo))
+                    .build()
+            )
+            .collect(Collectors.toList());
+
+        template.bulkUpdate(upserts, IndexCoordinates.of("todo")).block(TIMEOUT);
+
+        assertThat(searchIds("milk", null, null, 10, null)).containsExactlyInAnyOrder(1L, 4L);
+        assertThat(searchIds("plants", null, null, 10, null)).containsExactly(5L);
+        assertThat(todoSearchRepository.suggest("buy", 10).filter(todo -> todo.getId() == 1L).map(Todo::getTask).blockFirst(TIMEOUT))
+            .isEqualTo("Buy milk");
+    }
+
+    @Test
+    void writesAndSearchesThroughTheAliases() {
+        IndexCoordinates newIndex = IndexCoordinates.of("todo-1");
+        template.indexOps(newIndex).create().block(TIMEOUT);
+        template.saveAll(Mono.just(List.of(todo(5L, "Water the plants", false, null))), newIndex).blockLast(TIMEOUT);
+        AliasActions actions = new AliasActions(
+            new AliasAction.Add(AliasActionParameters.builder().withIndices("todo-1").withAliases("todo").build()),
+            new AliasAction.RemoveIndex(AliasActionParameters.builder().withIndices("todo").build())
+        );
+        template.indexOps(IndexCoordinates.of("todo")).alias(actions).block(TIMEOUT);
+
+        assertThat(searchIds(null, null, null, 10, null)).containsExactly(5L);
+        assertThat(template.indexOps(IndexCoordinates.of("todo")).getAliasesForIndex("todo").block(TIMEOUT)).containsOnlyKeys("todo-1");
+    }
+}
@@ -0,0 +1,406 @@
+package com.mycompany.myapp.repository.search;
+
+import static org.mockito.Mockito.mock;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.elasticsearch.index.query.IdsQueryBuilder;
+import org.springframework.data.elasticsearch.BulkFailureException;
+import org.springframework.data.elasticsearch.client.reactive.ReactiveElasticsearchClient;
+import org.springframework.data.elasticsearch.core.IndexInformation;
+import org.springframework.data.elasticsearch.core.ReactiveElasticsearchTemplate;
+import org.springframework.data.elasticsearch.core.ReactiveIndexOperations;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.data.elasticsearch.core.index.AliasAction;
+import org.springframework.data.elasticsearch.core.index.AliasActions;
+import org.springframework.data.elasticsearch.core.index.AliasData;
+import org.springframework.data.elasticsearch.core.index.DeleteTemplateRequest;
+import org.springframework.data.elasticsearch.core.index.ExistsTemplateRequest;
+import org.springframework.data.elasticsearch.core.index.GetTemplateRequest;
+import org.springframework.data.elasticsearch.core.index.PutTemplateRequest;
+import org.springframework.data.elasticsearch.core.index.Settings;
+import org.springframework.data.elasticsearch.core.index.TemplateData;
+import org.springframework.data.elasticsearch.core.mapping.ElasticsearchPersistentEntity;
+import org.springframework.data.elasticsearch.core.mapping.ElasticsearchPersistentProperty;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.BulkOptions;
+import org.springframework.data.elasticsearch.core.query.ByQueryResponse;
+import org.springframework.data.elasticsearch.core.query.NativeSearchQuery;
+import org.springframework.data.elasticsearch.core.query.Query;
+import org.springframework.data.elasticsearch.core.query.UpdateQuery;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * An in-memory {@link ReactiveElasticsearchTemplate}, to test the application without starting Elasticsearch.
+ * <p>
+ * Only the bulk writes are supported: {@link #saveAll(Mono, Class)}, which enforces the external versions,
+ * {@link #delete(Query, Class)} with an ids query, their variants with {@link IndexCoordinates}, and
+ * {@link #bulkUpdate(List, BulkOptions, IndexCoordinates)}. The {@link #indexOps(IndexCoordinates) index operations} support the
+ * creation and deletion of the indices, and their aliases.
+ */
+public class InMemoryReactiveElasticsearchTemplate extends ReactiveElasticsearchTemplate {
+
+    private final Map<String, Map<String, Object>> indices = new ConcurrentHashMap<>();
+
+    private final Map<String, String> aliases = new ConcurrentHashMap<>();
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private volatile Mono<Void> pause = Mono.empty();
+
+    private volatile RuntimeException failure;
+
+    public InMemoryReactiveElasticsearchTemplate() {
+        // the template requests the cluster version
+        super(mock(ReactiveElasticsearchClient.class, invocation -> Mono.empty()));
+    }
+
+    /**
+     * @return the documents of the index of the given type, by id.
+     */
+    public Map<String, Object> getDocuments(Class<?> type) {
+        return getDocuments(getIndexCoordinatesFor(type).getIndexName());
+    }
+
+    /**
+     * @return the documents of the given index or alias, by id.
+     */
+    public Map<String, Object> getDocuments(String indexName) {
+        return index(indexName);
+    }
+
+    /**
+     * @return the names of the existing indices, without their aliases.
+     */
+    public Set<String> getIndexNames() {
+        return Collections.unmodifiableSet(indices.keySet());
+    }
+
+    /**
+     * @return the index of the given alias, or null.
+     */
+    public String getAliasedIndex(String alias) {
+        return aliases.get(alias);
+    }
+
+    /**
+     * @return the number of received write requests.
+     */
+    public int getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * Delay the write requests until the given {@link Mono} completes.
+     */
+    public void pauseUntil(Mono<Void> pause) {
+        this.pause = pause;
+    }
+
+    /**
+     * Fail the write requests with the given exception, or succeed if it's null.
+     */
+    public void failWith(RuntimeException failure) {
+        this.failure = failure;
+    }
+
+    @Override
+    public <T> Flux<T> saveAll(Mono<? extends Collection<? extends T>> entities, Class<T> clazz) {
+        return saveAll(entities, getIndexCoordinatesFor(clazz));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Flux<T> saveAll(Mono<? extends Collection<? extends T>> entities, IndexCoordinates index) {
+        return request()
+            .then(entities)
+            .flatMapMany(documents -> {
+                // like Elasticsearch, the documents in conflict with the indexed versions fail, and the others are written
+                Map<String, String> failedDocuments = new HashMap<>();
+                for (T document : documents) {
+                    String id = getId(document);
+                    index(index.getIndexName())
+                        .compute(
+                            id,
+                            (key, current) -> {
+                                if (isVersionConflict(current, document)) {
+                                    failedDocuments.put(
+                                        id,
+                                        "ElasticsearchException[Elasticsearch exception [type=version_conflict_engine_exception, reason=[" +
+                                        id +
+                                        "]: version conflict]]"
+                                    );
+                                    return current;
+                                }
+                                return document;
+                            }
+                        );
+                }
+                if (!failedDocuments.isEmpty()) {
+                    return Flux.error(
+                        new BulkFailureException(
+                            "Bulk operation has failures. Use ElasticsearchException.getFailedDocuments() for detailed messages [" +
+                            failedDocuments +
+                            ']',
+                            failedDocuments
+                        )
+                    );
+                }
+                return Flux.fromIterable((Collection<T>) documents);
+            });
+    }
+
+    /**
+     * Only the upserts of the missing documents are supported: the existing documents are left as they are, and the upserts are
+     * read as entities.
+     */
+    @Override
+    public Mono<Void> bulkUpdate(List<UpdateQuery> queries, BulkOptions bulkOptions, IndexCoordinates index) {
+        return request()
+            .then(
+                Mono.fromRunnable(() -> {
+                    for (UpdateQuery query : queries) {
+                        Object document = getElasticsearchConverter().read(Object.class, query.getUpsert());
+                        index(index.getIndexName()).putIfAbsent(query.getId(), document);
+                    }
+                })
+            );
+    }
+
+    @Override
+    public Mono<ByQueryResponse> delete(Query query, Class<?> entityType) {
+        return delete(query, entityType, getIndexCoordinatesFor(entityType));
+    }
+
+    @Override
+    public Mono<ByQueryResponse> delete(Query query, Class<?> entityType, IndexCoordinates index) {
+        IdsQueryBuilder idsQuery = (IdsQueryBuilder) ((NativeSearchQuery) query).getQuery();
+        return request()
+            .then(
+                Mono.fromSupplier(() -> {
+                    long deleted = idsQuery.ids().stream().filter(id -> index(index.getIndexName()).remove(id) != null).count();
+                    return ByQueryResponse.builder().withDeleted(deleted).build();
+                })
+            );
+    }
+
+    @Override
+    public ReactiveIndexOperations indexOps(Class<?> clazz) {
+        return indexOps(getIndexCoordinatesFor(clazz));
+    }
+
+    @Override
+    public ReactiveIndexOperations indexOps(IndexCoordinates index) {
+        return new InMemoryIndexOperations(index);
+    }
+
+    private Mono<Void> request() {
+        return Mono.defer(() -> {
+            requests.incrementAndGet();
+            RuntimeException e = failure;
+            return pause.then(e != null ? Mono.error(e) : Mono.empty());
+        });
+    }
+
+    // like Elasticsearch, writing to a missing index creates it
+    private Map<String, Object> index(String indexName) {
+        return indices.computeIfAbsent(aliases.getOrDefault(indexName, indexName), name -> new ConcurrentHashMap<>());
+    }
+
+    private boolean isVersionConflict(Object current, Object document) {
+        ElasticsearchPersistentEntity<?> persistentEntity = getPersistentEntityFor(document.getClass());
+        if (current == null || current.getClass() != document.getClass() || !persistentEntity.hasVersionProperty()) {
+            return false;
+        }
+        ElasticsearchPersistentProperty versionProperty = persistentEntity.getRequiredVersionProperty();
+        Number currentVersion = (Number) persistentEntity.getPropertyAccessor(current).getProperty(versionProperty);
+        Number version = (Number) persistentEntity.getPropertyAccessor(document).getProperty(versionProperty);
+        return (
+            currentVersion != null &&
+            version != null &&
+            persistentEntity.getVersionType().isVersionConflictForWrites(currentVersion.longValue(), version.longValue(), false)
+        );
+    }
+
+    private String getId(Object document) {
+        return getElasticsearchConverter()
+            .getMappingContext()
+            .getRequiredPersistentEntity(document.getClass())
+            .getIdentifierAccessor(document)
+            .getRequiredIdentifier()
+            .toString();
+    }
+
+    private class InMemoryIndexOperations implements ReactiveIndexOperations {
+
+        private final IndexCoordinates index;
+
+        InMemoryIndexOperations(IndexCoordinates index) {
+            this.index = index;
+        }
+
+        @Override
+        public Mono<Boolean> create() {
+            return create(Collections.emptyMap());
+        }
+
+        @Override
+        public Mono<Boolean> create(Map<String, Object> settings) {
+            return Mono.fromSupplier(() -> indices.putIfAbsent(index.getIndexName(), new ConcurrentHashMap<>()) == null);
+        }
+
+        @Override
+        public Mono<Boolean> create(Map<String, Object> settings, Document mapping) {
+            return create(settings);
+        }
+
+        @Override
+        public Mono<Boolean> createWithMapping() {
+            return create();
+        }
+
+        @Override
+        public Mono<Boolean> delete() {
+            return Mono.fromSupplier(() -> {
+                // like Elasticsearch, the aliases of the index are deleted with it
+                synchronized (aliases) {
+                    aliases.values().removeIf(index.getIndexName()::equals);
+                }
+                return indices.remove(index.getIndexName()) != null;
+            });
+        }
+
+        @Override
+        public Mono<Boolean> exists() {
+            return Mono.fromSupplier(() -> indices.containsKey(index.getIndexName()) || aliases.containsKey(index.getIndexName()));
+        }
+
+        @Override
+        public Mono<Void> refresh() {
+            return Mono.empty();
+        }
+
+        @Override
+        public Mono<Document> createMapping() {
+            return Mono.just(Document.create());
+        }
+
+        @Override
+        public Mono<Document> createMapping(Class<?> clazz) {
+            return Mono.just(Document.create());
+        }
+
+        @Override
+        public Mono<Boolean> putMapping(Mono<Document> mapping) {
+            return Mono.just(true);
+        }
+
+        @Override
+        public Mono<Document> getMapping() {
+            return Mono.just(Document.create());
+        }
+
+        @Override
+        public Mono<Settings> createSettings() {
+            return Mono.just(new Settings());
+        }
+
+        @Override
+        public Mono<Settings> createSettings(Class<?> clazz) {
+            return Mono.just(new Settings());
+        }
+
+        @Override
+        public Mono<Settings> getSettings(boolean includeDefaults) {
+            return Mono.just(new Settings());
+        }
+
+        @Override
+        public Mono<Boolean> alias(AliasActions aliasActions) {
+            return Mono.fromSupplier(() -> {
+                // applied atomically, like Elasticsearch does
+                synchronized (aliases) {
+                    for (AliasAction action : aliasActions.getActions()) {
+                        String[] actionIndices = action.getParameters().getIndices();
+                        if (action instanceof AliasAction.Add) {
+                            Arrays.stream(action.getParameters().getAliases()).forEach(alias -> aliases.put(alias, actionIndices[0]));
+                        } else if (action instanceof AliasAction.Remove) {
+                            Arrays.stream(action.getParameters().getAliases()).forEach(aliases::remove);
+                        } else if (action instanceof AliasAction.RemoveIndex) {
+                            Set<String> removedIndices = Set.of(actionIndices);
+                            removedIndices.forEach(indices::remove);
+                            aliases.values().removeIf(removedIndices::contains);
+                        }
+                    }
+                }
+                return true;
+            });
+        }
+
+        @Override
+        public Mono<Map<String, Set<AliasData>>> getAliases(String... aliasNames) {
+            return getAliasesForIndex(aliasNames);
+        }
+
+        @Override
+        public Mono<Map<String, Set<AliasData>>> getAliasesForIndex(String... indexNames) {
+            return Mono.fromSupplier(() -> {
+                Map<String, Set<AliasData>> aliasesByIndex = new HashMap<>();
+                for (String indexName : indexNames) {
+                    String resolvedName = aliases.getOrDefault(indexName, indexName);
+                    if (indices.containsKey(resolvedName)) {
+                        aliasesByIndex.put(
+                            resolvedName,
+                            aliases
+                                .entrySet()
+                                .stream()
+                                .filter(alias -> alias.getValue().equals(resolvedName))
+                                .map(alias -> AliasData.of(alias.getKey(), null, null, null, null, null))
+                                .collect(Collectors.toSet())
+                        );
+                    }
+                }
+                return aliasesByIndex;
+            });
+        }
+
+        @Override
+        public Mono<Boolean> putTemplate(PutTemplateRequest putTemplateRequest) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Mono<TemplateData> getTemplate(GetTemplateRequest getTemplateRequest) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Mono<Boolean> existsTemplate(ExistsTemplateRequest existsTemplateRequest) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Mono<Boolean> deleteTemplate(DeleteTemplateRequest deleteTemplateRequest) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Flux<IndexInformation> getInformation(IndexCoordinates index) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public IndexCoordinates getIndexCoordinates() {
+            return index;
+        }
+    }
+}
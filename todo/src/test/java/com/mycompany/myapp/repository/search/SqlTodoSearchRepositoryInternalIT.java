@@ -0,0 +1,143 @@
+package com.mycompany.myapp.repository.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.Category;
+import com.mycompany.myapp.domain.Todo;
+import com.mycompany.myapp.repository.CategoryRepository;
+import com.mycompany.myapp.repository.TodoRepository;
+import com.mycompany.myapp.repository.rowmapper.TodoRowMapper;
+import com.mycompany.myapp.service.EntityManager;
+import com.mycompany.myapp.service.SearchIndexer;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.elasticsearch.search.aggregations.Aggregation;
+import org.elasticsearch.search.aggregations.bucket.SingleBucketAggregation;
+import org.elasticsearch.search.aggregations.bucket.terms.Terms;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.dialect.R2dbcDialect;
+
+/**
+ * Integration tests for {@link SqlTodoSearchRepositoryInternal}, against the full-text index of H2, or of MySQL with the
+ * testcontainers profile.
+ */
+@IntegrationTest
+class SqlTodoSearchRepositoryInternalIT {
+
+    @Autowired
+    private R2dbcEntityTemplate r2dbcEntityTemplate;
+
+    @Autowired
+    private R2dbcDialect dialect;
+
+    @Autowired
+    private TodoRowMapper todoMapper;
+
+    @Autowired
+    private SearchIndexer searchIndexer;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    private SqlTodoSearchRepositoryInternal todoSearch;
+
+    private Category category;
+
+    private Todo milk;
+
+    private Todo bread;
+
+    private Todo shop;
+
+    @BeforeEach
+    public void initTest() {
+        cleanup();
+        todoSearch = new SqlTodoSearchRepositoryInternal(r2dbcEntityTemplate.getDatabaseClient(), dialect, todoMapper, searchIndexer);
+        category = categoryRepository.save(new Category().name("groceries")).block();
+        milk = todoRepository.save(new Todo().task("Buy milk").description("fresh milk").completed(false)).block();
+        Todo groceries = new Todo().task("Buy bread").description("and milk").completed(true);
+        groceries.setCategoryId(category.getId());
+        bread = todoRepository.save(groceries).block();
+        shop = todoRepository.save(new Todo().task("Open the shop").description("milk delivery").completed(false)).block();
+        todoRepository.save(new Todo().task("Walk the dog").description("in the park").completed(false)).block();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        em.deleteAll(Todo.class).block();
+        em.deleteAll(Category.class).block();
+    }
+
+    @Test
+    void searchMatchesTheTaskAndTheDescription() {
+        List<Long> ids = todoSearch.search("milk").map(Todo::getId).collectList().block();
+
+        assertThat(ids).containsExactlyInAnyOrder(milk.getId(), bread.getId(), shop.getId());
+    }
+
+    @Test
+    void searchFiltersByCompletionAndCategory() {
+        List<Long> ids = todoSearch.search("milk", false, null, 10, null).map(hit -> hit.getContent().getId()).collectList().block();
+
+        assertThat(ids).containsExactlyInAnyOrder(milk.getId(), shop.getId());
+        assertThat(todoSearch.count("milk", false, null).block()).isEqualTo(2);
+        assertThat(todoSearch.count("milk", null, category.getId()).block()).isEqualTo(1);
+        assertThat(todoSearch.count(null, null, null).block()).isEqualTo(4);
+    }
+
+    @Test
+    void searchReadsThePagesAfterTheSortValuesOfTheLastHit() {
+        List<SearchHit<Todo>> firstPage = todoSearch.search("milk", null, null, 2, null).collectList().block();
+        List<Object> searchAfter = firstPage.get(1).getSortValues();
+        List<SearchHit<Todo>> secondPage = todoSearch.search("milk", null, null, 2, searchAfter).collectList().block();
+
+        assertThat(searchAfter).hasSize(2);
+        assertThat(firstPage).hasSize(2);
+        assertThat(secondPage).hasSize(1);
+        assertThat(
+            List.of(firstPage.get(0).getContent().getId(), firstPage.get(1).getContent().getId(), secondPage.get(0).getContent().getId())
+        )
+            .containsExactlyInAnyOrder(milk.getId(), bread.getId(), shop.getId());
+    }
+
+    @Test
+    void suggestMatchesThePrefixesOfTheWordsOfTheTask() {
+        List<Todo> suggestions = todoSearch.suggest("bu mi", 10).collectList().block();
+
+        assertThat(suggestions).extracting(Todo::getId).containsExactly(milk.getId());
+        assertThat(suggestions.get(0).getTask()).isEqualTo("Buy milk");
+        assertThat(suggestions.get(0).getDescription()).isNull();
+        assertThat(todoSearch.suggest("sho", 10).map(Todo::getId).collectList().block()).containsExactly(shop.getId());
+        assertThat(todoSearch.suggest(" * ", 10).collectList().block()).isEmpty();
+    }
+
+    @Test
+    void aggregateCountsTheMatchesByCompletionAndCategory() {
+        Map<String, Aggregation> aggregations = todoSearch
+            .aggregateByCompletedAndCategory("milk")
+            .collectMap(Aggregation::getName)
+            .block();
+
+        assertThat(counts(aggregations.get("completed"))).isEqualTo(Map.of("false", 2L, "true", 1L));
+        assertThat(((SingleBucketAggregation) aggregations.get("completed_missing")).getDocCount()).isZero();
+        assertThat(counts(aggregations.get("categoryId"))).isEqualTo(Map.of(category.getId().toString(), 1L));
+        assertThat(((SingleBucketAggregation) aggregations.get("categoryId_missing")).getDocCount()).isEqualTo(2);
+    }
+
+    private static Map<String, Long> counts(Aggregation terms) {
+        return ((Terms) terms).getBuckets().stream().collect(Collectors.toMap(Terms.Bucket::getKeyAsString, Terms.Bucket::getDocCount));
+    }
+}
@@ -0,0 +1,59 @@
+package com.mycompany.myapp.repository.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.myapp.domain.Todo;
+import org.elasticsearch.index.query.BoolQueryBuilder;
+import org.elasticsearch.index.query.QueryStringQueryBuilder;
+import org.elasticsearch.index.query.TermQueryBuilder;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.elasticsearch.core.convert.MappingElasticsearchConverter;
+import org.springframework.data.elasticsearch.core.index.MappingBuilder;
+import org.springframework.data.elasticsearch.core.mapping.SimpleElasticsearchMappingContext;
+
+/**
+ * Unit tests for the mapping and the queries of {@link TodoSearchRepository}.
+ */
+class TodoSearchRepositoryTest {
+
+    @Test
+    void mapsTheFieldsExplicitly() throws Exception {
+        MappingBuilder mappingBuilder = new MappingBuilder(new MappingElasticsearchConverter(new SimpleElasticsearchMappingContext()));
+
+        JsonNode properties = new ObjectMapper().readTree(mappingBuilder.buildPropertyMapping(Todo.class)).get("properties");
+
+        assertThat(properties.get("id").get("type").asText()).isEqualTo("keyword");
+        assertThat(properties.get("id").get("fields").get("numeric").get("type").asText()).isEqualTo("long");
+        assertThat(properties.get("task").get("type").asText()).isEqualTo("text");
+        assertThat(properties.get("task").get("fields").get("keyword").get("type").asText()).isEqualTo("keyword");
+        assertThat(properties.get("task").get("fields").get("prefix").get("analyzer").asText()).isEqualTo("autocomplete");
+        assertThat(properties.get("task").get("fields").get("prefix").get("search_analyzer").asText()).isEqualTo("autocomplete_search");
+        assertThat(properties.get("description").get("type").asText()).isEqualTo("text");
+        assertThat(properties.get("completed").get("type").asText()).isEqualTo("boolean");
+        assertThat(properties.get("categoryId").get("type").asText()).isEqualTo("long");
+    }
+
+    @Test
+    void filtersWithoutScoring() {
+        BoolQueryBuilder query = (BoolQueryBuilder) TodoSearchRepositoryInternalImpl.searchQuery("milk", true, 2L);
+
+        assertThat(query.must()).hasSize(1);
+        QueryStringQueryBuilder queryString = (QueryStringQueryBuilder) query.must().get(0);
+        assertThat(queryString.queryString()).isEqualTo("milk");
+        assertThat(queryString.fields()).containsOnlyKeys("task", "description");
+        assertThat(query.filter())
+            .extracting(filter -> ((TermQueryBuilder) filter).fieldName(), filter -> ((TermQueryBuilder) filter).value())
+            .containsExactly(tuple("completed", true), tuple("categoryId", 2L));
+    }
+
+    @Test
+    void matchesEveryTodoWithoutQuery() {
+        BoolQueryBuilder query = (BoolQueryBuilder) TodoSearchRepositoryInternalImpl.searchQuery(null, null, null);
+
+        assertThat(query.must()).isEmpty();
+        assertThat(query.filter()).isEmpty();
+    }
+}
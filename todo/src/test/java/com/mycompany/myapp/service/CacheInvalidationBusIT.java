@@ -0,0 +1,169 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.config.CacheInvalidationProperties;
+import com.mycompany.myapp.domain.Category;
+import com.mycompany.myapp.domain.Todo;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * Integration tests for {@link CacheInvalidationBus}, between two instances polling the {@link DatabaseCacheInvalidationTransport}.
+ */
+@IntegrationTest
+class CacheInvalidationBusIT {
+
+    @Autowired
+    private DatabaseClient db;
+
+    private MeterRegistry meterRegistry;
+
+    private CacheInvalidationBus publisher;
+
+    private CacheInvalidationBus receiver;
+
+    @BeforeEach
+    public void init() {
+        db.sql("DELETE FROM cache_invalidation").then().block();
+        meterRegistry = new SimpleMeterRegistry();
+        publisher = createBus(new SimpleMeterRegistry(), true);
+        receiver = createBus(meterRegistry, true);
+    }
+
+    @AfterEach
+    public void stop() {
+        publisher.stop();
+        receiver.stop();
+    }
+
+    @Test
+    void testPublishedEventsAreDeliveredOnceToEveryInstance() throws InterruptedException {
+        List<String> published = new CopyOnWriteArrayList<>();
+        List<String> received = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(2);
+        publisher.subscribe(Todo.class, event -> published.add(event.getEntityId()));
+        receiver.subscribe(
+            Todo.class,
+            event -> {
+                received.add(event.getEntityId());
+                latch.countDown();
+            }
+        );
+        receiver.subscribe(Category.class, event -> received.add("category"));
+        publisher.start();
+        receiver.start();
+        // the events sent before the first poll of the receiver may be skipped
+        await(receiver::isConnected);
+
+        publisher.publish(Todo.class, List.of(1L, 2L)).block();
+
+        // the publishing instance is invalidated right away
+        assertThat(published).containsExactly("1", "2");
+        assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        // the events read again by the next polls aren't delivered again
+        Thread.sleep(500);
+        assertThat(received).containsExactlyInAnyOrder("1", "2");
+        assertThat(published).hasSize(2);
+        assertThat(receiver.isConnected()).isTrue();
+        assertThat(meterRegistry.get("cache.invalidation.lag").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("cache.invalidation.events").tag("result", "received").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void testOlderVersionsOfAnEntityAreSkipped() throws InterruptedException {
+        List<Long> received = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(2);
+        receiver.subscribe(
+            Todo.class,
+            event -> {
+                received.add(event.getVersion());
+                latch.countDown();
+            }
+        );
+        publisher.start();
+        receiver.start();
+        // the events sent before the first poll of the receiver may be skipped
+        await(receiver::isConnected);
+
+        publisher.publish(Todo.class, Map.of(1L, 2L)).block();
+        publisher.publish(Todo.class, Map.of(1L, 1L)).block();
+        publisher.publish(Todo.class, Map.of(1L, 3L)).block();
+
+        assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(received).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void testEventsCommittedAfterALaterOneAreRead() throws InterruptedException {
+        List<String> received = new CopyOnWriteArrayList<>();
+        receiver.subscribe(Todo.class, event -> received.add(event.getEntityId()));
+        receiver.start();
+        await(receiver::isConnected);
+        publisher.publish(Todo.class, 1L).block();
+        await(() -> received.contains("1"));
+        long lastId = db.sql("SELECT MAX(id) FROM cache_invalidation").map(row -> row.get(0, Long.class)).one().block();
+
+        // the event of a transaction committed after the one of the next id
+        insertEvent(lastId + 2, "3");
+        await(() -> received.contains("3"));
+        insertEvent(lastId + 1, "2");
+        await(() -> received.contains("2"));
+
+        assertThat(received).containsExactly("1", "3", "2");
+    }
+
+    @Test
+    void testDisabledBusDeliversTheEventsToItsInstanceOnly() {
+        CacheInvalidationBus disabled = createBus(new SimpleMeterRegistry(), false);
+        List<String> published = new CopyOnWriteArrayList<>();
+        disabled.subscribe(Category.class, event -> published.add(event.getEntityId()));
+        disabled.start();
+
+        disabled.publish(Category.class, 3L).block();
+
+        assertThat(published).containsExactly("3");
+        assertThat(disabled.isConnected()).isFalse();
+        assertThat(db.sql("SELECT COUNT(*) FROM cache_invalidation").map(row -> row.get(0, Long.class)).one().block()).isZero();
+    }
+
+    private void insertEvent(long id, String entityId) {
+        db
+            .sql(
+                "INSERT INTO cache_invalidation (id, entity_type, entity_id, version, instance_id, published_at)" +
+                " VALUES (:id, 'Todo', :entityId, 1, 'other', 0)"
+            )
+            .bind("id", id)
+            .bind("entityId", entityId)
+            .then()
+            .block();
+    }
+
+    private void await(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 100 && !condition.getAsBoolean(); i++) {
+            Thread.sleep(100);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+
+    private CacheInvalidationBus createBus(MeterRegistry meterRegistry, boolean enabled) {
+        CacheInvalidationProperties properties = new CacheInvalidationProperties();
+        properties.setEnabled(enabled);
+        properties.setPollInterval(Duration.ofMillis(100));
+        DatabaseCacheInvalidationTransport transport = new DatabaseCacheInvalidationTransport(db, properties);
+        return new CacheInvalidationBus(transport, properties, meterRegistry);
+    }
+}
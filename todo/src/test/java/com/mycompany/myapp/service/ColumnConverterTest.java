@@ -0,0 +1,84 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.Row;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.r2dbc.convert.MappingR2dbcConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.dialect.H2Dialect;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+
+/**
+ * Unit tests for {@link ColumnConverter}.
+ */
+class ColumnConverterTest {
+
+    private MeterRegistry meterRegistry;
+
+    private ColumnConverter converter;
+
+    @BeforeEach
+    public void init() {
+        meterRegistry = new SimpleMeterRegistry();
+        R2dbcCustomConversions conversions = R2dbcCustomConversions.of(H2Dialect.INSTANCE);
+        converter = new ColumnConverter(conversions, new MappingR2dbcConverter(new R2dbcMappingContext(), conversions), meterRegistry);
+    }
+
+    @Test
+    void testFromRowTriesTheDriverOncePerValueAndTargetType() {
+        Row row = mock(Row.class);
+        when(row.get("a")).thenReturn(1);
+        when(row.get("b")).thenReturn(2);
+        when(row.get("a", Long.class)).thenThrow(new IllegalArgumentException());
+        when(row.get("b", Long.class)).thenThrow(new IllegalArgumentException());
+
+        assertThat(converter.fromRow(row, "a", Long.class)).isEqualTo(1L);
+        assertThat(converter.fromRow(row, "b", Long.class)).isEqualTo(2L);
+        assertThat(converter.fromRow(row, "a", Long.class)).isEqualTo(1L);
+
+        verify(row, times(1)).get("a", Long.class);
+        verify(row, times(0)).get("b", Long.class);
+        assertThat(meterRegistry.get("sql.column.conversion.fallbacks").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    void testFromRowReadsTheValuesOfTheTargetTypeDirectly() {
+        Row row = mock(Row.class);
+        when(row.get("a")).thenReturn(1L);
+        when(row.get("b")).thenReturn(2);
+        when(row.get("b", Long.class)).thenReturn(2L);
+
+        assertThat(converter.fromRow(row, "a", Long.class)).isEqualTo(1L);
+        assertThat(converter.fromRow(row, "b", Long.class)).isEqualTo(2L);
+
+        verify(row, times(0)).get("a", Long.class);
+        assertThat(meterRegistry.get("sql.column.conversion.fallbacks").counter().count()).isZero();
+    }
+
+    @Test
+    void testFromRowReadsTheColumnsKnownToTheDriverOnce() {
+        Row row = mock(Row.class);
+        when(row.get("a")).thenReturn(1L);
+        when(row.get("a", Long.class)).thenReturn(1L);
+        when(row.get("b")).thenReturn(2);
+        when(row.get("b", Long.class)).thenReturn(2L);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(converter.fromRow(row, "a", Long.class)).isEqualTo(1L);
+            assertThat(converter.fromRow(row, "b", Long.class)).isEqualTo(2L);
+        }
+
+        verify(row, times(1)).get("a");
+        verify(row, times(2)).get("a", Long.class);
+        verify(row, times(1)).get("b");
+        verify(row, times(3)).get("b", Long.class);
+    }
+}
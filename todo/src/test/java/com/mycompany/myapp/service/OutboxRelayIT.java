@@ -0,0 +1,138 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.OutboxEvent;
+import com.mycompany.myapp.domain.Todo;
+import com.mycompany.myapp.repository.OutboxEventRepository;
+import com.mycompany.myapp.repository.TodoRepository;
+import com.mycompany.myapp.repository.search.TodoSearchRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import reactor.core.publisher.Mono;
+
+/**
+ * Integration tests for {@link OutboxRelay}.
+ */
+@IntegrationTest
+class OutboxRelayIT {
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    /**
+     * This repository is mocked in the com.mycompany.myapp.repository.search test package.
+     *
+     * @see com.mycompany.myapp.repository.search.TodoSearchRepositoryMockConfiguration
+     */
+    @Autowired
+    private TodoSearchRepository mockTodoSearchRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @BeforeEach
+    public void init() {
+        em.deleteAll(Todo.class).block();
+        outboxEventRepository.deleteAll().block();
+        reset(mockTodoSearchRepository);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        em.deleteAll(Todo.class).block();
+        outboxEventRepository.deleteAll().block();
+    }
+
+    @Test
+    void drainIndexesExistingAndDeletesRemovedEntities() {
+        when(mockTodoSearchRepository.index(anyCollection())).thenReturn(Mono.empty());
+        when(mockTodoSearchRepository.deleteFromIndex(anyCollection())).thenReturn(Mono.empty());
+        Todo todo = todoRepository.save(new Todo().task("task").completed(false)).block();
+        long deletedId = Long.MAX_VALUE;
+        // the todo is recorded twice, it's indexed once
+        outboxService.recordAll(Todo.class, List.of(todo.getId(), deletedId, todo.getId())).block();
+
+        assertThat(outboxRelay.drainAll().block()).isEqualTo(3);
+
+        verify(mockTodoSearchRepository, times(1)).index(List.of(todo));
+        verify(mockTodoSearchRepository, times(1)).deleteFromIndex(List.of(deletedId));
+        assertThat(outboxEventRepository.count().block()).isZero();
+    }
+
+    @Test
+    void drainKeepsEntriesWhenIndexingFails() {
+        when(mockTodoSearchRepository.index(anyCollection())).thenReturn(Mono.error(new IllegalStateException("unavailable")));
+        Todo todo = todoRepository.save(new Todo().task("task").completed(false)).block();
+        outboxService.record(Todo.class, todo.getId()).block();
+
+        assertThat(outboxRelay.drain().onErrorResume(e -> Mono.just(-1)).block()).isEqualTo(-1);
+
+        OutboxEvent event = outboxEventRepository.findAll().blockFirst();
+        assertThat(event.getAttempts()).isEqualTo(1);
+        assertThat(event.getClaimToken()).isNull();
+        // the entry is claimed again after a delay
+        assertThat(event.getClaimedUntil()).isAfter(Instant.now());
+        assertThat(outboxRelay.drain().block()).isZero();
+    }
+
+    @Test
+    void drainSkipsEntitiesClaimedByAnotherInstance() {
+        when(mockTodoSearchRepository.index(anyCollection())).thenReturn(Mono.empty());
+        Todo todo = todoRepository.save(new Todo().task("task").completed(false)).block();
+        outboxService.record(Todo.class, todo.getId()).block();
+        OutboxEvent claimed = outboxEventRepository.findAll().blockFirst();
+        Instant now = Instant.now();
+        outboxEventRepository.claim(List.of(claimed.getId()), "other", now.plus(Duration.ofMinutes(1)), now).block();
+        // the entity is changed again, while the other instance indexes it
+        outboxService.record(Todo.class, todo.getId()).block();
+
+        assertThat(outboxRelay.drainAll().block()).isZero();
+
+        verify(mockTodoSearchRepository, never()).index(anyCollection());
+        assertThat(outboxEventRepository.count().block()).isEqualTo(2);
+    }
+
+    @Test
+    void drainParksEntriesAfterMaxAttempts() {
+        when(mockTodoSearchRepository.index(anyCollection())).thenReturn(Mono.error(new IllegalStateException("rejected")));
+        Todo todo = todoRepository.save(new Todo().task("task").completed(false)).block();
+        outboxService.record(Todo.class, todo.getId()).block();
+        OutboxEvent event = outboxEventRepository.findAll().blockFirst();
+        outboxEventRepository.save(event.attempts(applicationProperties.getOutbox().getMaxAttempts() - 1)).block();
+
+        assertThat(outboxRelay.drain().onErrorResume(e -> Mono.just(-1)).block()).isEqualTo(-1);
+        OutboxEvent parked = outboxEventRepository.findAll().blockFirst();
+        assertThat(parked.getAttempts()).isEqualTo(applicationProperties.getOutbox().getMaxAttempts());
+        outboxEventRepository.save(parked.claimedUntil(null)).block();
+
+        // the parked entry is kept, but not claimed anymore
+        assertThat(outboxRelay.drainAll().block()).isZero();
+        assertThat(outboxEventRepository.count().block()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,281 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.csrf;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.config.Constants;
+import com.mycompany.myapp.domain.Category;
+import com.mycompany.myapp.domain.ReindexCheckpoint;
+import com.mycompany.myapp.domain.Todo;
+import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.repository.ReindexCheckpointRepository;
+import com.mycompany.myapp.repository.TodoRepository;
+import com.mycompany.myapp.repository.UserRepository;
+import com.mycompany.myapp.repository.search.InMemoryReactiveElasticsearchTemplate;
+import com.mycompany.myapp.security.AuthoritiesConstants;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Integration tests for {@link ReindexService}, against an in-memory Elasticsearch.
+ */
+@AutoConfigureWebTestClient
+@WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+@IntegrationTest
+@Import(ReindexServiceIT.InMemoryElasticsearchConfiguration.class)
+class ReindexServiceIT {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @TestConfiguration
+    static class InMemoryElasticsearchConfiguration {
+
+        @Bean
+        public InMemoryReactiveElasticsearchTemplate reactiveElasticsearchTemplate() {
+            return new InMemoryReactiveElasticsearchTemplate();
+        }
+    }
+
+    @Autowired
+    private ReindexService reindexService;
+
+    @Autowired
+    private InMemoryReactiveElasticsearchTemplate template;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SearchIndexer searchIndexer;
+
+    @Autowired
+    private ReindexCheckpointRepository reindexCheckpointRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    private List<Todo> todos;
+
+    @BeforeEach
+    public void init() {
+        cleanup();
+        webTestClient = webTestClient.mutateWith(csrf());
+        todos =
+            IntStream
+                .range(0, 5)
+                .mapToObj(i -> todoRepository.save(new Todo().task("task" + i).completed(false)).block())
+                .collect(Collectors.toList());
+    }
+
+    @AfterEach
+    public void cleanup() {
+        em.deleteAll(Todo.class).block();
+        em.deleteAll(Category.class).block();
+        em.deleteAll(User.class).block();
+        reindexCheckpointRepository.deleteAll().block();
+        template.getIndexNames().forEach(index -> template.indexOps(IndexCoordinates.of(index)).delete().block());
+    }
+
+    private List<String> todoIds(int from, int to) {
+        return todos.subList(from, to).stream().map(todo -> todo.getId().toString()).collect(Collectors.toList());
+    }
+
+    /**
+     * Start the reindex of the given entity, and wait until the copy of its first chunk is sent, and paused.
+     * @return the {@link Sinks.Empty} which resumes the copy.
+     */
+    private Sinks.Empty<Void> startPausedReindex(String entityName) {
+        Sinks.Empty<Void> pause = Sinks.empty();
+        template.pauseUntil(pause.asMono());
+        int requests = template.getRequests();
+        reindexService.start(entityName);
+        Flux.interval(Duration.ofMillis(10)).takeUntil(tick -> template.getRequests() > requests).blockLast(TIMEOUT);
+        template.pauseUntil(Mono.empty());
+        return pause;
+    }
+
+    private ReindexService.Progress.Status awaitReindex(String entityName) {
+        return Flux
+            .interval(Duration.ofMillis(10))
+            .map(tick -> reindexService.getProgress(entityName).orElseThrow().getStatus())
+            .takeUntil(s -> s != ReindexService.Progress.Status.RUNNING)
+            .blockLast(TIMEOUT);
+    }
+
+    @Test
+    void reindexReplacesTheIndexWithAnAlias() {
+        // the index created before the first reindex, with a document which isn't in the database anymore
+        template.indexOps(IndexCoordinates.of("todo")).create().block();
+        template.saveAll(List.of(new Todo().id(Long.MAX_VALUE).task("deleted")), Todo.class).blockLast();
+
+        ReindexService.Progress progress = reindexService.reindex("todo").block(TIMEOUT);
+
+        assertThat(progress.getStatus()).isEqualTo(ReindexService.Progress.Status.COMPLETED);
+        assertThat(progress.getIndexed()).isEqualTo(5);
+        assertThat(progress.getLastId()).isEqualTo(todos.get(4).getId().toString());
+        String indexName = template.getAliasedIndex("todo");
+        assertThat(indexName).isEqualTo(progress.getIndexName()).startsWith("todo-");
+        assertThat(template.getIndexNames()).containsExactly(indexName);
+        assertThat(template.getDocuments("todo")).containsOnlyKeys(todoIds(0, 5));
+        assertThat(reindexCheckpointRepository.count().block()).isZero();
+    }
+
+    @Test
+    void reindexSwapsTheAliasToANewIndex() {
+        reindexService.reindex("todo").block(TIMEOUT);
+        String previousIndexName = template.getAliasedIndex("todo");
+        Todo removedTodo = todos.remove(4);
+        todoRepository.delete(removedTodo).block();
+
+        ReindexService.Progress progress = reindexService.reindex("todo").block(TIMEOUT);
+
+        assertThat(template.getAliasedIndex("todo")).isEqualTo(progress.getIndexName()).isNotEqualTo(previousIndexName);
+        assertThat(template.getIndexNames()).containsExactly(progress.getIndexName());
+        assertThat(template.getDocuments("todo")).containsOnlyKeys(todoIds(0, 4));
+    }
+
+    @Test
+    void reindexResumesFromTheCheckpoint() {
+        template.indexOps(IndexCoordinates.of("todo-1")).create().block();
+        em
+            .insert(new ReindexCheckpoint().entityName("todo").indexName("todo-1").lastId(todos.get(2).getId().toString()).indexed(3L))
+            .block();
+
+        ReindexService.Progress progress = reindexService.reindex("todo").block(TIMEOUT);
+
+        assertThat(progress.getIndexName()).isEqualTo("todo-1");
+        assertThat(progress.getIndexed()).isEqualTo(5);
+        assertThat(template.getAliasedIndex("todo")).isEqualTo("todo-1");
+        // the rows before the checkpoint were copied before the reindex was interrupted
+        assertThat(template.getDocuments("todo")).containsOnlyKeys(todoIds(3, 5));
+        assertThat(reindexCheckpointRepository.count().block()).isZero();
+    }
+
+    @Test
+    void reindexKeepsTheCheckpointOnFailure() {
+        template.failWith(new IllegalStateException("unavailable"));
+
+        Mono<ReindexService.Progress> reindex = reindexService.reindex("todo");
+
+        assertThat(reindex.onErrorResume(e -> Mono.empty()).block(TIMEOUT)).isNull();
+        template.failWith(null);
+        ReindexService.Progress progress = reindexService.getProgress("todo").orElseThrow();
+        assertThat(progress.getStatus()).isEqualTo(ReindexService.Progress.Status.FAILED);
+        assertThat(progress.getError()).isEqualTo("unavailable");
+        ReindexCheckpoint checkpoint = reindexCheckpointRepository.findById("todo").block();
+        assertThat(checkpoint.getIndexName()).isEqualTo(progress.getIndexName());
+        assertThat(checkpoint.getLastId()).isNull();
+        assertThat(template.getAliasedIndex("todo")).isNull();
+    }
+
+    @Test
+    void reindexKeepsTheNewerVersionsWrittenDuringTheCopy() {
+        Sinks.Empty<Void> pause = startPausedReindex("todo");
+        // the first chunk was read before the change, which is written to the new index as well
+        Todo changedTodo = todoRepository.save(todos.get(0).task("changed")).block();
+        searchIndexer.index(Todo.class, List.of(changedTodo)).block(TIMEOUT);
+
+        pause.tryEmitEmpty();
+
+        assertThat(awaitReindex("todo")).isEqualTo(ReindexService.Progress.Status.COMPLETED);
+        assertThat(template.getDocuments("todo")).containsOnlyKeys(todoIds(0, 5));
+        Todo document = (Todo) template.getDocuments("todo").get(changedTodo.getId().toString());
+        assertThat(document.getTask()).isEqualTo("changed");
+        assertThat(document.getVersion()).isEqualTo(changedTodo.getVersion());
+    }
+
+    @Test
+    void reindexDeletesTheDocumentsDeletedDuringTheCopy() {
+        Sinks.Empty<Void> pause = startPausedReindex("todo");
+        // the first chunk was read before the deletion, and is written to the new index after it
+        Todo deletedTodo = todos.get(0);
+        todoRepository.delete(deletedTodo).block();
+        searchIndexer.delete(Todo.class, List.of(deletedTodo.getId())).block(TIMEOUT);
+
+        pause.tryEmitEmpty();
+
+        assertThat(awaitReindex("todo")).isEqualTo(ReindexService.Progress.Status.COMPLETED);
+        assertThat(template.getDocuments("todo")).containsOnlyKeys(todoIds(1, 5));
+    }
+
+    @Test
+    void reindexKeepsTheUnversionedDocumentsWrittenDuringTheCopy() {
+        List<User> users = IntStream
+            .range(0, 2)
+            .mapToObj(i -> {
+                User user = new User();
+                user.setId("user-" + i);
+                user.setLogin("login" + i);
+                user.setLastName("lastName" + i);
+                user.setCreatedBy(Constants.SYSTEM);
+                return userRepository.create(user).block();
+            })
+            .collect(Collectors.toList());
+        Sinks.Empty<Void> pause = startPausedReindex("user");
+        User changedUser = users.get(0);
+        changedUser.setLastName("changed");
+        userRepository.save(changedUser).block();
+        searchIndexer.index(User.class, List.of(changedUser)).block(TIMEOUT);
+
+        pause.tryEmitEmpty();
+
+        assertThat(awaitReindex("user")).isEqualTo(ReindexService.Progress.Status.COMPLETED);
+        assertThat(template.getDocuments("user")).containsOnlyKeys(users.stream().map(User::getId).collect(Collectors.toList()));
+        assertThat(((User) template.getDocuments("user").get(changedUser.getId())).getLastName()).isEqualTo("changed");
+    }
+
+    @Test
+    void reindexWithTheManagementEndpoint() {
+        webTestClient
+            .post()
+            .uri("/management/reindex/category")
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.entityName")
+            .isEqualTo("category");
+
+        webTestClient
+            .get()
+            .uri("/management/reindex/category")
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.entityName")
+            .isEqualTo("category")
+            .jsonPath("$.throughput")
+            .isNumber();
+        assertThat(awaitReindex("category")).isEqualTo(ReindexService.Progress.Status.COMPLETED);
+        assertThat(template.getAliasedIndex("category")).startsWith("category-");
+    }
+
+    @Test
+    void reindexUnknownEntityWithTheManagementEndpoint() {
+        webTestClient.post().uri("/management/reindex/unknown").exchange().expectStatus().isBadRequest();
+    }
+}
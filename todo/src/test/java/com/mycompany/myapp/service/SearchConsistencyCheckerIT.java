@@ -0,0 +1,156 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.Category;
+import com.mycompany.myapp.domain.Todo;
+import com.mycompany.myapp.repository.TodoRepository;
+import com.mycompany.myapp.repository.search.EmbeddedReactiveElasticsearchTemplate;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.elasticsearch.client.reactive.ReactiveElasticsearchClient;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.convert.ElasticsearchConverter;
+import org.springframework.data.elasticsearch.core.query.NativeSearchQuery;
+
+/**
+ * Integration tests for {@link SearchConsistencyChecker}, against the embedded search indices.
+ */
+@IntegrationTest
+@Import(SearchConsistencyCheckerIT.EmbeddedSearchConfiguration.class)
+class SearchConsistencyCheckerIT {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @TestConfiguration
+    static class EmbeddedSearchConfiguration {
+
+        @Bean
+        public EmbeddedReactiveElasticsearchTemplate reactiveElasticsearchTemplate(
+            ReactiveElasticsearchClient client,
+            ElasticsearchConverter converter
+        ) {
+            return new EmbeddedReactiveElasticsearchTemplate(client, converter);
+        }
+    }
+
+    @Autowired
+    private SearchConsistencyChecker searchConsistencyChecker;
+
+    @Autowired
+    private EmbeddedReactiveElasticsearchTemplate template;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private List<Todo> todos;
+
+    @BeforeEach
+    public void init() {
+        cleanup();
+        todos =
+            IntStream
+                .range(0, 20)
+                .mapToObj(i -> todoRepository.save(new Todo().task("task" + i).completed(false)).block())
+                .collect(Collectors.toList());
+        template.saveAll(todos, Todo.class).blockLast(TIMEOUT);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        em.deleteAll(Todo.class).block();
+        em.deleteAll(Category.class).block();
+        template.indexOps(Todo.class).delete().block();
+        template.indexOps(Category.class).delete().block();
+    }
+
+    private List<Todo> indexedTodos() {
+        return template
+            .search(new NativeSearchQuery(null).setPageable(PageRequest.of(0, 100)), Todo.class)
+            .map(SearchHit::getContent)
+            .collectList()
+            .block(TIMEOUT);
+    }
+
+    @Test
+    void checkFindsNoDriftInAConsistentIndex() {
+        SearchConsistencyChecker.Report report = searchConsistencyChecker.check("todo").block(TIMEOUT);
+
+        assertThat(report.getDrift()).isZero();
+        // only the checksums of every id were compared
+        assertThat(report.getRanges()).isEqualTo(1);
+    }
+
+    @Test
+    void checkRepairsTheDriftedDocuments() {
+        Todo missingTodo = todos.get(3);
+        Todo staleTodo = todoRepository.save(todos.get(12).task("changed")).block();
+        Todo orphanTodo = new Todo().id(todos.get(19).getId() + 5).task("deleted").version(0L);
+        template.delete(missingTodo).block(TIMEOUT);
+        template.save(orphanTodo).block(TIMEOUT);
+        double missingBefore = meterRegistry.counter("search.consistency.drift", "entity", "todo", "type", "missing").count();
+
+        SearchConsistencyChecker.Report report = searchConsistencyChecker.check("todo").block(TIMEOUT);
+
+        assertThat(report.getMissing()).isEqualTo(1);
+        assertThat(report.getStale()).isEqualTo(1);
+        assertThat(report.getOrphans()).isEqualTo(1);
+        // the ranges without drift were skipped
+        assertThat(report.getRanges()).isGreaterThan(1).isLessThan(20);
+        assertThat(meterRegistry.counter("search.consistency.drift", "entity", "todo", "type", "missing").count())
+            .isEqualTo(missingBefore + 1);
+        List<Todo> indexedTodos = indexedTodos();
+        assertThat(indexedTodos)
+            .extracting(Todo::getId)
+            .containsExactlyInAnyOrderElementsOf(todos.stream().map(Todo::getId).collect(Collectors.toList()));
+        assertThat(indexedTodos)
+            .filteredOn(todo -> todo.getId().equals(staleTodo.getId()))
+            .extracting(Todo::getTask)
+            .containsExactly("changed");
+        assertThat(searchConsistencyChecker.check("todo").block(TIMEOUT).getDrift()).isZero();
+    }
+
+    @Test
+    void checkFindsTheDriftsWhichKeepTheSumsOfTheVersions() {
+        // one document is a version ahead of its row, and another one a version behind
+        Todo aheadTodo = todos.get(5);
+        template.save(new Todo().id(aheadTodo.getId()).task(aheadTodo.getTask()).completed(false).version(1L)).block(TIMEOUT);
+        Todo behindTodo = todoRepository.save(todos.get(6).task("changed")).block();
+
+        SearchConsistencyChecker.Report report = searchConsistencyChecker.check("todo").block(TIMEOUT);
+
+        assertThat(report.getStale()).isEqualTo(2);
+        assertThat(indexedTodos())
+            .filteredOn(todo -> todo.getId().equals(behindTodo.getId()))
+            .extracting(Todo::getTask)
+            .containsExactly("changed");
+    }
+
+    @Test
+    void checkAllChecksEveryIndex() {
+        em.insert(new Category().name("Groceries")).block();
+
+        List<SearchConsistencyChecker.Report> reports = searchConsistencyChecker.checkAll().collectList().block(TIMEOUT);
+
+        assertThat(reports).extracting(SearchConsistencyChecker.Report::getEntityName).containsExactly("todo", "category");
+        assertThat(reports.get(1).getMissing()).isEqualTo(1);
+    }
+}
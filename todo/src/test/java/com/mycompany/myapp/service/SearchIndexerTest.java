@@ -0,0 +1,139 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Todo;
+import com.mycompany.myapp.repository.search.InMemoryReactiveElasticsearchTemplate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Unit tests for {@link SearchIndexer}.
+ */
+class SearchIndexerTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private InMemoryReactiveElasticsearchTemplate template;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private SearchIndexer searchIndexer;
+
+    @BeforeEach
+    public void init() {
+        template = new InMemoryReactiveElasticsearchTemplate();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    public void stop() {
+        searchIndexer.stop();
+    }
+
+    private void createSearchIndexer(int queueCapacity, int bulkSize, Duration flushInterval) {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getIndexer().setQueueCapacity(queueCapacity);
+        applicationProperties.getIndexer().setBulkSize(bulkSize);
+        applicationProperties.getIndexer().setFlushInterval(flushInterval);
+        searchIndexer = new SearchIndexer(template, applicationProperties, meterRegistry);
+    }
+
+    private static Todo todo(long id, String task) {
+        return new Todo().id(id).task(task).completed(false);
+    }
+
+    @Test
+    void flushesWhenBulkSizeIsReached() {
+        createSearchIndexer(100, 2, Duration.ofHours(1));
+
+        searchIndexer.index(Todo.class, List.of(todo(1L, "a"), todo(2L, "b"))).block(TIMEOUT);
+
+        assertThat(template.getRequests()).isEqualTo(1);
+        assertThat(template.getDocuments(Todo.class)).containsOnlyKeys("1", "2");
+        assertThat(meterRegistry.get("search.indexer.flush").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void flushesEveryFlushInterval() {
+        createSearchIndexer(100, 100, Duration.ofMillis(20));
+
+        searchIndexer.index(Todo.class, List.of(todo(1L, "a"))).block(TIMEOUT);
+
+        assertThat(template.getDocuments(Todo.class)).containsOnlyKeys("1");
+    }
+
+    @Test
+    void coalescesOperationsOnTheSameDocument() throws Exception {
+        createSearchIndexer(100, 100, Duration.ofHours(1));
+
+        CompletableFuture<Void> first = searchIndexer.index(Todo.class, List.of(todo(1L, "a"), todo(2L, "b"))).toFuture();
+        CompletableFuture<Void> second = searchIndexer.index(Todo.class, List.of(todo(1L, "c"))).toFuture();
+        CompletableFuture<Void> third = searchIndexer.delete(Todo.class, List.of(2L)).toFuture();
+        assertThat(searchIndexer.getQueueDepth()).isEqualTo(2);
+        searchIndexer.flush();
+        CompletableFuture.allOf(first, second, third).get(5, TimeUnit.SECONDS);
+
+        // one bulk index request, and one delete request
+        assertThat(template.getRequests()).isEqualTo(2);
+        assertThat(template.getDocuments(Todo.class)).containsOnlyKeys("1");
+        assertThat(((Todo) template.getDocuments(Todo.class).get("1")).getTask()).isEqualTo("c");
+        assertThat(meterRegistry.get("search.indexer.coalesced").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void holdsBackProducersWhenTheQueueIsFull() throws Exception {
+        createSearchIndexer(2, 100, Duration.ofHours(1));
+
+        CompletableFuture<Void> written = searchIndexer
+            .index(Todo.class, List.of(todo(1L, "a"), todo(2L, "b"), todo(3L, "c")))
+            .toFuture();
+        assertThat(searchIndexer.getQueueDepth()).isEqualTo(2);
+        assertThat(meterRegistry.get("search.indexer.queue.depth").gauge().value()).isEqualTo(2);
+
+        searchIndexer.flush();
+        assertThat(searchIndexer.getQueueDepth()).isEqualTo(1);
+        assertThat(written).isNotDone();
+
+        searchIndexer.flush();
+        written.get(5, TimeUnit.SECONDS);
+        assertThat(template.getDocuments(Todo.class)).containsOnlyKeys("1", "2", "3");
+    }
+
+    @Test
+    void writesOneBulkRequestAtATime() throws Exception {
+        createSearchIndexer(100, 1, Duration.ofHours(1));
+        Sinks.Empty<Void> pause = Sinks.empty();
+        template.pauseUntil(pause.asMono());
+
+        CompletableFuture<Void> first = searchIndexer.index(Todo.class, List.of(todo(1L, "a"))).toFuture();
+        CompletableFuture<Void> second = searchIndexer.index(Todo.class, List.of(todo(2L, "b"))).toFuture();
+        assertThat(template.getRequests()).isEqualTo(1);
+        assertThat(searchIndexer.getQueueDepth()).isEqualTo(1);
+
+        pause.tryEmitEmpty();
+        CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+        assertThat(template.getRequests()).isEqualTo(2);
+    }
+
+    @Test
+    void failsTheOperationsOfAFailedBulkRequest() {
+        createSearchIndexer(100, 2, Duration.ofHours(1));
+        template.failWith(new IllegalStateException("unavailable"));
+
+        assertThatThrownBy(() -> searchIndexer.index(Todo.class, List.of(todo(1L, "a"), todo(2L, "b"))).block(TIMEOUT))
+            .hasMessage("unavailable");
+
+        assertThat(meterRegistry.get("search.indexer.failures").counter().count()).isEqualTo(2);
+        assertThat(template.getDocuments(Todo.class)).isEmpty();
+    }
+}
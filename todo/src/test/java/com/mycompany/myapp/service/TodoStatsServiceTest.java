@@ -0,0 +1,184 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Category;
+import com.mycompany.myapp.domain.Todo;
+import com.mycompany.myapp.repository.TodoRepository;
+import com.mycompany.myapp.repository.search.InMemoryReactiveElasticsearchTemplate;
+import com.mycompany.myapp.repository.search.TodoSearchRepository;
+import com.mycompany.myapp.service.dto.TodoStatsDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.elasticsearch.search.aggregations.Aggregation;
+import org.elasticsearch.search.aggregations.bucket.missing.Missing;
+import org.elasticsearch.search.aggregations.bucket.terms.Terms;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.AbstractReactiveTransactionManager;
+import org.springframework.transaction.reactive.GenericReactiveTransaction;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Unit tests for {@link TodoStatsService}.
+ */
+class TodoStatsServiceTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private TodoSearchRepository todoSearchRepository;
+
+    private SearchIndexer searchIndexer;
+
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    private TodoStatsService todoStatsService;
+
+    @BeforeEach
+    public void init() {
+        todoSearchRepository = mock(TodoSearchRepository.class);
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getIndexer().setBulkSize(1);
+        applicationProperties.getStats().setTimeToLive(Duration.ofHours(1));
+        applicationProperties.getCacheInvalidation().setEnabled(false);
+        searchIndexer = new SearchIndexer(new InMemoryReactiveElasticsearchTemplate(), applicationProperties, new SimpleMeterRegistry());
+        cacheInvalidationBus =
+            new CacheInvalidationBus(
+                mock(CacheInvalidationTransport.class),
+                applicationProperties.getCacheInvalidation(),
+                new SimpleMeterRegistry()
+            );
+        todoStatsService =
+            new TodoStatsService(
+                mock(TodoRepository.class),
+                todoSearchRepository,
+                searchIndexer,
+                cacheInvalidationBus,
+                applicationProperties
+            );
+        when(todoSearchRepository.aggregateByCompletedAndCategory("milk"))
+            .thenAnswer(invocation ->
+                Flux.just(
+                    terms("completed", "true", 2L, "false", 1L),
+                    missing("completed_missing", 0L),
+                    terms("categoryId", "7", 1L),
+                    missing("categoryId_missing", 2L)
+                )
+            );
+    }
+
+    @AfterEach
+    public void stop() {
+        searchIndexer.stop();
+    }
+
+    @Test
+    void countsTheTodosMatchingAQuery() {
+        TodoStatsDTO stats = todoStatsService.getStats("milk").block(TIMEOUT);
+
+        assertThat(stats.getTotal()).isEqualTo(3);
+        assertThat(stats.getCompleted()).containsExactly(entry("true", 2L), entry("false", 1L));
+        assertThat(stats.getCategoryId()).containsExactly(entry("7", 1L), entry("null", 2L));
+    }
+
+    @Test
+    void cachesTheCountsUntilTodosAreIndexed() {
+        todoStatsService.getStats("milk").block(TIMEOUT);
+        todoStatsService.getStats("milk").block(TIMEOUT);
+        verify(todoSearchRepository, times(1)).aggregateByCompletedAndCategory("milk");
+
+        searchIndexer.index(Todo.class, List.of(new Todo().id(1L).task("Buy milk"))).block(TIMEOUT);
+        todoStatsService.getStats("milk").block(TIMEOUT);
+
+        verify(todoSearchRepository, times(2)).aggregateByCompletedAndCategory("milk");
+    }
+
+    @Test
+    void clearsTheCountsOnceTheTransactionCommits() {
+        todoStatsService.getStats("milk").block(TIMEOUT);
+
+        TransactionalOperator
+            .create(new NoOpTransactionManager())
+            .transactional(todoStatsService.invalidateAfterCommit().then(todoStatsService.getStats("milk")))
+            .block(TIMEOUT);
+        verify(todoSearchRepository, times(1)).aggregateByCompletedAndCategory("milk");
+        todoStatsService.getStats("milk").block(TIMEOUT);
+
+        verify(todoSearchRepository, times(2)).aggregateByCompletedAndCategory("milk");
+    }
+
+    @Test
+    void clearsTheCountsOnTheCacheInvalidationsOfCategories() {
+        todoStatsService.getStats("milk").block(TIMEOUT);
+
+        cacheInvalidationBus.publish(Category.class, 7L).block(TIMEOUT);
+        todoStatsService.getStats("milk").block(TIMEOUT);
+
+        verify(todoSearchRepository, times(2)).aggregateByCompletedAndCategory("milk");
+    }
+
+    /**
+     * A transaction manager without resources, which runs the synchronizations of the transactions.
+     */
+    private static class NoOpTransactionManager extends AbstractReactiveTransactionManager {
+
+        @Override
+        protected Object doGetTransaction(TransactionSynchronizationManager synchronizationManager) {
+            return new Object();
+        }
+
+        @Override
+        protected Mono<Void> doBegin(
+            TransactionSynchronizationManager synchronizationManager,
+            Object transaction,
+            TransactionDefinition definition
+        ) {
+            return Mono.empty();
+        }
+
+        @Override
+        protected Mono<Void> doCommit(TransactionSynchronizationManager synchronizationManager, GenericReactiveTransaction status) {
+            return Mono.empty();
+        }
+
+        @Override
+        protected Mono<Void> doRollback(TransactionSynchronizationManager synchronizationManager, GenericReactiveTransaction status) {
+            return Mono.empty();
+        }
+    }
+
+    private static Aggregation terms(String name, Object... keysAndCounts) {
+        Terms terms = mock(Terms.class);
+        List<Terms.Bucket> buckets = new ArrayList<>();
+        for (int i = 0; i < keysAndCounts.length; i += 2) {
+            Terms.Bucket bucket = mock(Terms.Bucket.class);
+            when(bucket.getKeyAsString()).thenReturn((String) keysAndCounts[i]);
+            when(bucket.getDocCount()).thenReturn((Long) keysAndCounts[i + 1]);
+            buckets.add(bucket);
+        }
+        when(terms.getName()).thenReturn(name);
+        doReturn(buckets).when(terms).getBuckets();
+        return terms;
+    }
+
+    private static Aggregation missing(String name, long count) {
+        Missing missing = mock(Missing.class);
+        when(missing.getName()).thenReturn(name);
+        when(missing.getDocCount()).thenReturn(count);
+        return missing;
+    }
+}
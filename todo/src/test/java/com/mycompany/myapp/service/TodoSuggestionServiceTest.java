@@ -0,0 +1,130 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Todo;
+import com.mycompany.myapp.repository.search.InMemoryReactiveElasticsearchTemplate;
+import com.mycompany.myapp.repository.search.TodoSearchRepository;
+import com.mycompany.myapp.service.dto.TodoSuggestionDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Unit tests for {@link TodoSuggestionService}.
+ */
+class TodoSuggestionServiceTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private TodoSearchRepository todoSearchRepository;
+
+    private SearchIndexer searchIndexer;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private TodoSuggestionService todoSuggestionService;
+
+    @BeforeEach
+    public void init() {
+        todoSearchRepository = mock(TodoSearchRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        when(todoSearchRepository.suggest("buy mi", 10)).thenAnswer(invocation -> Flux.just(new Todo().id(1L).task("Buy milk")));
+    }
+
+    @AfterEach
+    public void stop() {
+        searchIndexer.stop();
+    }
+
+    private void createTodoSuggestionService(Duration refreshInterval) {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getIndexer().setBulkSize(1);
+        applicationProperties.getSuggest().setRefreshInterval(refreshInterval);
+        searchIndexer = new SearchIndexer(new InMemoryReactiveElasticsearchTemplate(), applicationProperties, meterRegistry);
+        applicationProperties.getCacheInvalidation().setEnabled(false);
+        CacheInvalidationBus cacheInvalidationBus = new CacheInvalidationBus(
+            mock(CacheInvalidationTransport.class),
+            applicationProperties.getCacheInvalidation(),
+            meterRegistry
+        );
+        todoSuggestionService =
+            new TodoSuggestionService(todoSearchRepository, searchIndexer, cacheInvalidationBus, applicationProperties, meterRegistry);
+    }
+
+    private List<TodoSuggestionDTO> suggest(String prefix) {
+        return todoSuggestionService.suggest(prefix).block(TIMEOUT);
+    }
+
+    @Test
+    void cachesTheSuggestionsOfAPrefix() {
+        createTodoSuggestionService(Duration.ZERO);
+
+        List<TodoSuggestionDTO> suggestions = suggest("buy mi");
+        // the same prefix, as analyzed by Elasticsearch
+        assertThat(suggest("  Buy   MI ")).isSameAs(suggestions);
+
+        assertThat(suggestions).extracting(TodoSuggestionDTO::getId, TodoSuggestionDTO::getTask).containsExactly(tuple(1L, "Buy milk"));
+        verify(todoSearchRepository, times(1)).suggest("buy mi", 10);
+        assertThat(meterRegistry.get("search.suggest.cache.requests").tag("result", "hit").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("search.suggest.cache.requests").tag("result", "miss").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void doesNotSearchABlankPrefix() {
+        createTodoSuggestionService(Duration.ZERO);
+
+        assertThat(suggest(" ")).isEmpty();
+    }
+
+    @Test
+    void clearsTheCacheWhenTodosAreIndexed() {
+        createTodoSuggestionService(Duration.ZERO);
+        suggest("buy mi");
+
+        searchIndexer.index(Todo.class, List.of(new Todo().id(2L).task("Buy mints"))).block(TIMEOUT);
+        suggest("buy mi");
+
+        verify(todoSearchRepository, times(2)).suggest("buy mi", 10);
+    }
+
+    @Test
+    void doesNotCacheUntilTheWritesAreVisible() {
+        createTodoSuggestionService(Duration.ofHours(1));
+        todoSuggestionService.invalidate();
+
+        suggest("buy mi");
+        suggest("buy mi");
+
+        verify(todoSearchRepository, times(2)).suggest("buy mi", 10);
+    }
+
+    @Test
+    void doesNotCacheALookupConcurrentWithAWrite() throws Exception {
+        createTodoSuggestionService(Duration.ZERO);
+        Sinks.Many<Todo> results = Sinks.many().unicast().onBackpressureBuffer();
+        when(todoSearchRepository.suggest("wat", 10)).thenReturn(results.asFlux());
+
+        CompletableFuture<List<TodoSuggestionDTO>> lookup = todoSuggestionService.suggest("wat").toFuture();
+        todoSuggestionService.invalidate();
+        results.tryEmitNext(new Todo().id(3L).task("Water the plants"));
+        results.tryEmitComplete();
+        lookup.get(5, TimeUnit.SECONDS);
+        when(todoSearchRepository.suggest("wat", 10)).thenReturn(Flux.empty());
+
+        assertThat(suggest("wat")).isEmpty();
+    }
+}
@@ -9,7 +9,9 @@ import static org.mockito.Mockito.when;
 
 import com.mycompany.myapp.IntegrationTest;
 import com.mycompany.myapp.config.Constants;
+import com.mycompany.myapp.domain.Authority;
 import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.repository.AuthorityRepository;
 import com.mycompany.myapp.repository.UserRepository;
 import com.mycompany.myapp.repository.search.UserSearchRepository;
 import com.mycompany.myapp.security.AuthoritiesConstants;
@@ -20,6 +22,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -53,6 +56,12 @@ class UserServiceIT {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private AuthorityRepository authorityRepository;
+
+    @Autowired
+    private EntityManager em;
+
     @Autowired
     private UserService userService;
 
@@ -156,6 +165,31 @@ class UserServiceIT {
         assertThat(userDTO.getLangKey()).isEqualTo("en");
     }
 
+    @Test
+    void testSaveUserWritesTheChangedAuthoritiesOnly() {
+        user.setId("user-authorities");
+        user.setAuthorities(Set.of(authority(AuthoritiesConstants.ADMIN), authority(AuthoritiesConstants.USER)));
+        userService.saveUser(user, true).block();
+
+        user.setAuthorities(Set.of(authority(AuthoritiesConstants.USER)));
+        userService.saveUser(user).block();
+        assertThat(userRepository.findOneWithAuthoritiesByLogin(DEFAULT_LOGIN).block().getAuthorities())
+            .extracting(Authority::getName)
+            .containsExactly(AuthoritiesConstants.USER);
+
+        user.setAuthorities(Set.of(authority(AuthoritiesConstants.USER), authority(AuthoritiesConstants.ADMIN)));
+        userService.saveUser(user).block();
+        assertThat(userRepository.findOneWithAuthoritiesByLogin(DEFAULT_LOGIN).block().getAuthorities())
+            .extracting(Authority::getName)
+            .containsExactlyInAnyOrder(AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN);
+    }
+
+    private Authority authority(String name) {
+        Authority authority = new Authority();
+        authority.setName(name);
+        return authorityRepository.findById(name).switchIfEmpty(em.insert(authority)).block();
+    }
+
     private OAuth2AuthenticationToken createMockOAuth2AuthenticationToken(Map<String, Object> userDetails) {
         Collection<GrantedAuthority> authorities = Collections.singletonList(new SimpleGrantedAuthority(AuthoritiesConstants.ANONYMOUS));
         UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = new UsernamePasswordAuthenticationToken(
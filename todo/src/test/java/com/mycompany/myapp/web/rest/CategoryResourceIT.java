@@ -7,7 +7,9 @@ import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.csrf;
 
 import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.OutboxEvent;
 import com.mycompany.myapp.domain.Category;
+import com.mycompany.myapp.repository.OutboxEventRepository;
 import com.mycompany.myapp.repository.CategoryRepository;
 import com.mycompany.myapp.repository.search.CategorySearchRepository;
 import com.mycompany.myapp.service.EntityManager;
@@ -23,6 +25,9 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.reactive.server.WebTestClient;
@@ -65,6 +70,9 @@ class CategoryResourceIT {
     @Autowired
     private CategorySearchRepository mockCategorySearchRepository;
 
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -116,14 +124,13 @@ class CategoryResourceIT {
     @BeforeEach
     public void initTest() {
         deleteEntities(em);
+        outboxEventRepository.deleteAll().block();
         category = createEntity(em);
     }
 
     @Test
     void createCategory() throws Exception {
         int databaseSizeBeforeCreate = categoryRepository.findAll().collectList().block().size();
-        // Configure the mock search repository
-        when(mockCategorySearchRepository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
         // Create the Category
         webTestClient
             .post()
@@ -142,8 +149,8 @@ class CategoryResourceIT {
         assertThat(testCategory.getDescription()).isEqualTo(DEFAULT_DESCRIPTION);
         assertThat(testCategory.getActive()).isEqualTo(DEFAULT_ACTIVE);
 
-        // Validate the Category in Elasticsearch
-        verify(mockCategorySearchRepository, times(1)).save(testCategory);
+        // Validate the Category in the search index outbox
+        assertThat(findOutboxIds()).containsExactly(testCategory.getId().toString());
     }
 
     @Test
@@ -167,8 +174,8 @@ class CategoryResourceIT {
         List<Category> categoryList = categoryRepository.findAll().collectList().block();
         assertThat(categoryList).hasSize(databaseSizeBeforeCreate);
 
-        // Validate the Category in Elasticsearch
-        verify(mockCategorySearchRepository, times(0)).save(category);
+        // Validate the Category in the search index outbox
+        assertThat(findOutboxIds()).isEmpty();
     }
 
     @Test
@@ -265,8 +272,6 @@ class CategoryResourceIT {
 
     @Test
     void putNewCategory() throws Exception {
-        // Configure the mock search repository
-        when(mockCategorySearchRepository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
         // Initialize the database
         categoryRepository.save(category).block();
 
@@ -293,16 +298,72 @@ class CategoryResourceIT {
         assertThat(testCategory.getDescription()).isEqualTo(UPDATED_DESCRIPTION);
         assertThat(testCategory.getActive()).isEqualTo(UPDATED_ACTIVE);
 
-        // Validate the Category in Elasticsearch
-        verify(mockCategorySearchRepository).save(testCategory);
+        // Validate the Category in the search index outbox
+        assertThat(findOutboxIds()).containsExactly(testCategory.getId().toString());
+    }
+
+    @Test
+    void putWithStaleVersionCategory() throws Exception {
+        // Initialize the database
+        categoryRepository.save(category).block();
+
+        // Update the category with an outdated version
+        Category updatedCategory = categoryRepository.findById(category.getId()).block();
+        updatedCategory.name(UPDATED_NAME);
+
+        webTestClient
+            .put()
+            .uri(ENTITY_API_URL_ID, updatedCategory.getId())
+            .header(HttpHeaders.IF_MATCH, "\"" + (updatedCategory.getVersion() - 1) + "\"")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(updatedCategory))
+            .exchange()
+            .expectStatus()
+            .isEqualTo(HttpStatus.CONFLICT);
+
+        // Validate the Category in the database is unchanged
+        Category testCategory = categoryRepository.findById(category.getId()).block();
+        assertThat(testCategory.getName()).isEqualTo(DEFAULT_NAME);
+        assertThat(testCategory.getVersion()).isEqualTo(updatedCategory.getVersion());
+
+        // Validate the Category in the search index outbox
+        assertThat(findOutboxIds()).isEmpty();
+    }
+
+    @Test
+    void putWithoutVersionCategory() throws Exception {
+        // Initialize the database
+        categoryRepository.save(category).block();
+
+        // Update the category without its version, which could overwrite a concurrent modification
+        Category updatedCategory = categoryRepository.findById(category.getId()).block();
+        updatedCategory.name(UPDATED_NAME).version(null);
+
+        webTestClient
+            .put()
+            .uri(ENTITY_API_URL_ID, updatedCategory.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(updatedCategory))
+            .exchange()
+            .expectStatus()
+            .isEqualTo(HttpStatus.PRECONDITION_REQUIRED);
+
+        // Validate the Category in the database is unchanged
+        Category testCategory = categoryRepository.findById(category.getId()).block();
+        assertThat(testCategory.getName()).isEqualTo(DEFAULT_NAME);
+        assertThat(testCategory.getVersion()).isEqualTo(category.getVersion());
+
+        // Validate the Category in the search index outbox
+        assertThat(findOutboxIds()).isEmpty();
     }
 
     @Test
     void putNonExistingCategory() throws Exception {
         int databaseSizeBeforeUpdate = categoryRepository.findAll().collectList().block().size();
         category.setId(count.incrementAndGet());
+        category.setVersion(0L);
 
-        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        // No row is updated, as the entity doesn't exist
         webTestClient
             .put()
             .uri(ENTITY_API_URL_ID, category.getId())
@@ -310,14 +371,14 @@ class CategoryResourceIT {
             .bodyValue(TestUtil.convertObjectToJsonBytes(category))
             .exchange()
             .expectStatus()
-            .isBadRequest();
+            .isNotFound();
 
         // Validate the Category in the database
         List<Category> categoryList = categoryRepository.findAll().collectList().block();
         assertThat(categoryList).hasSize(databaseSizeBeforeUpdate);
 
-        // Validate the Category in Elasticsearch
-        verify(mockCategorySearchRepository, times(0)).save(category);
+        // Validate the Category in the search index outbox
+        assertThat(findOutboxIds()).isEmpty();
     }
 
     @Test
@@ -339,8 +400,8 @@ class CategoryResourceIT {
         List<Category> categoryList = categoryRepository.findAll().collectList().block();
         assertThat(categoryList).hasSize(databaseSizeBeforeUpdate);
 
-        // Validate the Category in Elasticsearch
-        verify(mockCategorySearchRepository, times(0)).save(category);
+        // Validate the Category in the search index outbox
+        assertThat(findOutboxIds()).isEmpty();
     }
 
     @Test
@@ -362,8 +423,8 @@ class CategoryResourceIT {
         List<Category> categoryList = categoryRepository.findAll().collectList().block();
         assertThat(categoryList).hasSize(databaseSizeBeforeUpdate);
 
-        // Validate the Category in Elasticsearch
-        verify(mockCategorySearchRepository, times(0)).save(category);
+        // Validate the Category in the search index outbox
+        assertThat(findOutboxIds()).isEmpty();
     }
 
     @Test
@@ -376,6 +437,7 @@ class CategoryResourceIT {
         // Update the category using partial update
         Category partialUpdatedCategory = new Category();
         partialUpdatedCategory.setId(category.getId());
+        partialUpdatedCategory.setVersion(category.getVersion());
 
         partialUpdatedCategory.name(UPDATED_NAME);
 
@@ -407,6 +469,7 @@ class CategoryResourceIT {
         // Update the category using partial update
         Category partialUpdatedCategory = new Category();
         partialUpdatedCategory.setId(category.getId());
+        partialUpdatedCategory.setVersion(category.getVersion());
 
         partialUpdatedCategory.name(UPDATED_NAME).description(UPDATED_DESCRIPTION).active(UPDATED_ACTIVE);
 
@@ -432,8 +495,9 @@ class CategoryResourceIT {
     void patchNonExistingCategory() throws Exception {
         int databaseSizeBeforeUpdate = categoryRepository.findAll().collectList().block().size();
         category.setId(count.incrementAndGet());
+        category.setVersion(0L);
 
-        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        // No row is updated, as the entity doesn't exist
         webTestClient
             .patch()
             .uri(ENTITY_API_URL_ID, category.getId())
@@ -441,14 +505,14 @@ class CategoryResourceIT {
             .bodyValue(TestUtil.convertObjectToJsonBytes(category))
             .exchange()
             .expectStatus()
-            .isBadRequest();
+            .isNotFound();
 
         // Validate the Category in the database
         List<Category> categoryList = categoryRepository.findAll().collectList().block();
         assertThat(categoryList).hasSize(databaseSizeBeforeUpdate);
 
-        // Validate the Category in Elasticsearch
-        verify(mockCategorySearchRepository, times(0)).save(category);
+        // Validate the Category in the search index outbox
+        assertThat(findOutboxIds()).isEmpty();
     }
 
     @Test
@@ -470,8 +534,8 @@ class CategoryResourceIT {
         List<Category> categoryList = categoryRepository.findAll().collectList().block();
         assertThat(categoryList).hasSize(databaseSizeBeforeUpdate);
 
-        // Validate the Category in Elasticsearch
-        verify(mockCategorySearchRepository, times(0)).save(category);
+        // Validate the Category in the search index outbox
+        assertThat(findOutboxIds()).isEmpty();
     }
 
     @Test
@@ -493,14 +557,12 @@ class CategoryResourceIT {
         List<Category> categoryList = categoryRepository.findAll().collectList().block();
         assertThat(categoryList).hasSize(databaseSizeBeforeUpdate);
 
-        // Validate the Category in Elasticsearch
-        verify(mockCategorySearchRepository, times(0)).save(category);
+        // Validate the Category in the search index outbox
+        assertThat(findOutboxIds()).isEmpty();
     }
 
     @Test
     void deleteCategory() {
-        // Configure the mock search repository
-        when(mockCategorySearchRepository.deleteById(anyLong())).thenReturn(Mono.empty());
         // Initialize the database
         categoryRepository.save(category).block();
 
@@ -519,17 +581,16 @@ class CategoryResourceIT {
         List<Category> categoryList = categoryRepository.findAll().collectList().block();
         assertThat(categoryList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the Category in Elasticsearch
-        verify(mockCategorySearchRepository, times(1)).deleteById(category.getId());
+        // Validate the Category in the search index outbox
+        assertThat(findOutboxIds()).containsExactly(category.getId().toString());
     }
 
     @Test
     void searchCategory() {
-        // Configure the mock search repository
-        when(mockCategorySearchRepository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
         // Initialize the database
         categoryRepository.save(category).block();
-        when(mockCategorySearchRepository.search("id:" + category.getId())).thenReturn(Flux.just(category));
+        when(mockCategorySearchRepository.search("id:" + category.getId(), 21, null)).thenReturn(Flux.just(searchHit(category)));
+        when(mockCategorySearchRepository.count("id:" + category.getId())).thenReturn(Mono.just(1L));
 
         // Search the category
         webTestClient
@@ -540,6 +601,10 @@ class CategoryResourceIT {
             .isOk()
             .expectHeader()
             .contentType(MediaType.APPLICATION_JSON)
+            .expectHeader()
+            .valueEquals("X-Total-Count", "1")
+            .expectHeader()
+            .doesNotExist("X-Next-Cursor")
             .expectBody()
             .jsonPath("$.[*].id")
             .value(hasItem(category.getId().intValue()))
@@ -550,4 +615,19 @@ class CategoryResourceIT {
             .jsonPath("$.[*].active")
             .value(hasItem(DEFAULT_ACTIVE.booleanValue()));
     }
+
+    private static SearchHit<Category> searchHit(Category category) {
+        Object[] sortValues = { 1.0f, category.getId().toString() };
+        return new SearchHit<>("category", category.getId().toString(), null, 1.0f, sortValues, null, null, null, null, null, category);
+    }
+
+    // the ids of the category entries of the search index outbox
+    private List<String> findOutboxIds() {
+        return outboxEventRepository
+            .findAll()
+            .filter(event -> event.getAggregateType().equals(Category.class.getSimpleName()))
+            .map(OutboxEvent::getAggregateId)
+            .collectList()
+            .block();
+    }
 }
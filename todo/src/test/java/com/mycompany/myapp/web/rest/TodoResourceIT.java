@@ -1,13 +1,17 @@
 package com.mycompany.myapp.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.csrf;
 
 import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.Category;
+import com.mycompany.myapp.domain.OutboxEvent;
 import com.mycompany.myapp.domain.Todo;
+import com.mycompany.myapp.repository.OutboxEventRepository;
 import com.mycompany.myapp.repository.TodoRepository;
 import com.mycompany.myapp.repository.search.TodoSearchRepository;
 import com.mycompany.myapp.service.EntityManager;
@@ -15,6 +19,8 @@ import java.time.Duration;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -23,6 +29,9 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.reactive.server.WebTestClient;
@@ -65,6 +74,9 @@ class TodoResourceIT {
     @Autowired
     private TodoSearchRepository mockTodoSearchRepository;
 
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -116,14 +128,13 @@ class TodoResourceIT {
     @BeforeEach
     public void initTest() {
         deleteEntities(em);
+        outboxEventRepository.deleteAll().block();
         todo = createEntity(em);
     }
 
     @Test
     void createTodo() throws Exception {
         int databaseSizeBeforeCreate = todoRepository.findAll().collectList().block().size();
-        // Configure the mock search repository
-        when(mockTodoSearchRepository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
         // Create the Todo
         webTestClient
             .post()
@@ -142,8 +153,8 @@ class TodoResourceIT {
         assertThat(testTodo.getDescription()).isEqualTo(DEFAULT_DESCRIPTION);
         assertThat(testTodo.getCompleted()).isEqualTo(DEFAULT_COMPLETED);
 
-        // Validate the Todo in Elasticsearch
-        verify(mockTodoSearchRepository, times(1)).save(testTodo);
+        // Validate the Todo in the search index outbox
+        assertThat(findOutboxIds()).containsExactly(testTodo.getId().toString());
     }
 
     @Test
@@ -167,8 +178,81 @@ class TodoResourceIT {
         List<Todo> todoList = todoRepository.findAll().collectList().block();
         assertThat(todoList).hasSize(databaseSizeBeforeCreate);
 
-        // Validate the Todo in Elasticsearch
-        verify(mockTodoSearchRepository, times(0)).save(todo);
+        // Validate the Todo in the search index outbox
+        assertThat(findOutboxIds()).isEmpty();
+    }
+
+    @Test
+    void createTodosBatch() throws Exception {
+        int databaseSizeBeforeCreate = todoRepository.findAll().collectList().block().size();
+        Todo todoWithId = createEntity(em);
+        todoWithId.setId(1L);
+
+        // Create the Todos, the one with an existing ID must be rejected
+        webTestClient
+            .post()
+            .uri(ENTITY_API_URL + "/batch")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(List.of(todo, todoWithId, createUpdatedEntity(em))))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.length()")
+            .isEqualTo(3)
+            .jsonPath("$.[1].index")
+            .isEqualTo(1)
+            .jsonPath("$.[0].id")
+            .isNumber()
+            .jsonPath("$.[1].id")
+            .doesNotExist()
+            .jsonPath("$.[1].error")
+            .isEqualTo("idexists")
+            .jsonPath("$.[2].id")
+            .isNumber();
+
+        // Validate the Todos in the database
+        List<Todo> todoList = todoRepository.findAll().collectList().block();
+        assertThat(todoList).hasSize(databaseSizeBeforeCreate + 2);
+        assertThat(todoList).extracting(Todo::getTask).contains(DEFAULT_TASK, UPDATED_TASK);
+
+        // Validate the Todos in the search index outbox
+        assertThat(findOutboxIds()).hasSize(2);
+    }
+
+    @Test
+    void createTodosBatchAsStream() throws Exception {
+        int databaseSizeBeforeCreate = todoRepository.findAll().collectList().block().size();
+        Todo todoWithUnknownCategory = createEntity(em);
+        todoWithUnknownCategory.setCategoryId(Long.MAX_VALUE);
+
+        // Create the Todos, the one referring an unknown category can't be saved
+        String body =
+            new String(TestUtil.convertObjectToJsonBytes(todo)) +
+            "\n" +
+            new String(TestUtil.convertObjectToJsonBytes(todoWithUnknownCategory)) +
+            "\n" +
+            new String(TestUtil.convertObjectToJsonBytes(createUpdatedEntity(em))) +
+            "\n";
+        webTestClient
+            .post()
+            .uri(ENTITY_API_URL + "/batch")
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .bodyValue(body)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[0].id")
+            .isNumber()
+            .jsonPath("$.[1].error")
+            .isEqualTo("savefailed")
+            .jsonPath("$.[2].id")
+            .isNumber();
+
+        // Validate the Todos in the database
+        List<Todo> todoList = todoRepository.findAll().collectList().block();
+        assertThat(todoList).hasSize(databaseSizeBeforeCreate + 2);
     }
 
     @Test
@@ -225,6 +309,138 @@ class TodoResourceIT {
             .value(hasItem(DEFAULT_COMPLETED.booleanValue()));
     }
 
+    @Test
+    void getAllTodosByCriteria() {
+        // Initialize the database
+        Todo matching = todoRepository.save(createEntity(em).task("buy_milk").completed(false)).block();
+        Todo otherTask = todoRepository.save(createEntity(em).task("buyXmilk").completed(false)).block();
+        Todo completed = todoRepository.save(createEntity(em).task("buy_milk").completed(true)).block();
+
+        // Get the todos which aren't completed, with a task starting with "buy_", in the id range
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?completed=false&task=buy_&idFrom=" + matching.getId() + "&idTo=" + completed.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.length()")
+            .isEqualTo(1)
+            .jsonPath("$.[0].id")
+            .isEqualTo(matching.getId().intValue());
+
+        // The id range is applied
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?completed=false&idFrom=" + otherTask.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.length()")
+            .isEqualTo(1)
+            .jsonPath("$.[0].id")
+            .isEqualTo(otherTask.getId().intValue());
+    }
+
+    @Test
+    void getAllTodosWithFields() {
+        // Initialize the database
+        todoRepository.save(todo).block();
+
+        // Get only the task and the completed state of the todos
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?fields=task,completed")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(hasItem(todo.getId().intValue()))
+            .jsonPath("$.[*].task")
+            .value(hasItem(DEFAULT_TASK))
+            .jsonPath("$.[*].completed")
+            .value(hasItem(DEFAULT_COMPLETED.booleanValue()))
+            .jsonPath("$.[0].description")
+            .doesNotExist()
+            .jsonPath("$.[0].category")
+            .doesNotExist();
+    }
+
+    @Test
+    void getAllTodosWithUnknownField() {
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?fields=task,unknown")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
+    @Test
+    void getAllTodosByCursor() {
+        // Initialize the database
+        Todo first = todoRepository.save(createEntity(em)).block();
+        Todo second = todoRepository.save(createEntity(em)).block();
+        Todo third = todoRepository.save(createEntity(em)).block();
+
+        // Get the first page
+        List<Todo> firstPage = webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?size=2")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .exists("X-Next-Cursor")
+            .expectBodyList(Todo.class)
+            .returnResult()
+            .getResponseBody();
+        assertThat(firstPage).containsExactly(first, second);
+
+        String cursor = webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?size=2")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .returnResult(Todo.class)
+            .getResponseHeaders()
+            .getFirst("X-Next-Cursor");
+
+        // Get the last page
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?size=2&after=" + cursor)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .doesNotExist("X-Next-Cursor")
+            .expectBody()
+            .jsonPath("$.length()")
+            .value(is(1))
+            .jsonPath("$.[0].id")
+            .value(is(third.getId().intValue()));
+    }
+
+    @Test
+    void getAllTodosWithInvalidCursor() {
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?size=2&after=not-a-cursor")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
     @Test
     void getTodo() {
         // Initialize the database
@@ -251,6 +467,34 @@ class TodoResourceIT {
             .value(is(DEFAULT_COMPLETED.booleanValue()));
     }
 
+    @Test
+    void getTodoWithFieldsAndCategory() {
+        // Initialize the database
+        todoRepository.save(todo).block();
+
+        // Get the task of the todo, along with its category
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL_ID + "?fields=task&include=category", todo.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .doesNotExist(HttpHeaders.ETAG)
+            .expectBody()
+            .jsonPath("$.id")
+            .value(is(todo.getId().intValue()))
+            .jsonPath("$.task")
+            .value(is(DEFAULT_TASK))
+            .jsonPath("$.category")
+            .exists()
+            .jsonPath("$.description")
+            .doesNotExist()
+            .jsonPath("$.completed")
+            .doesNotExist();
+    }
+
     @Test
     void getNonExistingTodo() {
         // Get the todo
@@ -265,8 +509,6 @@ class TodoResourceIT {
 
     @Test
     void putNewTodo() throws Exception {
-        // Configure the mock search repository
-        when(mockTodoSearchRepository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
         // Initialize the database
         todoRepository.save(todo).block();
 
@@ -293,16 +535,158 @@ class TodoResourceIT {
         assertThat(testTodo.getDescription()).isEqualTo(UPDATED_DESCRIPTION);
         assertThat(testTodo.getCompleted()).isEqualTo(UPDATED_COMPLETED);
 
-        // Validate the Todo in Elasticsearch
-        verify(mockTodoSearchRepository).save(testTodo);
+        // Validate the Todo in the search index outbox
+        assertThat(findOutboxIds()).containsExactly(testTodo.getId().toString());
+    }
+
+    @Test
+    void putWithStaleVersionTodo() throws Exception {
+        // Initialize the database
+        todoRepository.save(todo).block();
+
+        // Update the todo with an outdated version
+        Todo updatedTodo = todoRepository.findById(todo.getId()).block();
+        updatedTodo.task(UPDATED_TASK);
+
+        webTestClient
+            .put()
+            .uri(ENTITY_API_URL_ID, updatedTodo.getId())
+            .header(HttpHeaders.IF_MATCH, "\"" + (updatedTodo.getVersion() - 1) + "\"")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(updatedTodo))
+            .exchange()
+            .expectStatus()
+            .isEqualTo(HttpStatus.CONFLICT);
+
+        // Validate the Todo in the database is unchanged
+        Todo testTodo = todoRepository.findById(todo.getId()).block();
+        assertThat(testTodo.getTask()).isEqualTo(DEFAULT_TASK);
+        assertThat(testTodo.getVersion()).isEqualTo(updatedTodo.getVersion());
+
+        // Validate the Todo in the search index outbox
+        assertThat(findOutboxIds()).isEmpty();
+    }
+
+    @Test
+    void putWithoutVersionTodo() throws Exception {
+        // Initialize the database
+        todoRepository.save(todo).block();
+
+        // Update the todo without its version, which could overwrite a concurrent modification
+        Todo updatedTodo = todoRepository.findById(todo.getId()).block();
+        updatedTodo.task(UPDATED_TASK).version(null);
+
+        webTestClient
+            .put()
+            .uri(ENTITY_API_URL_ID, updatedTodo.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(updatedTodo))
+            .exchange()
+            .expectStatus()
+            .isEqualTo(HttpStatus.PRECONDITION_REQUIRED);
+
+        // Validate the Todo in the database is unchanged
+        Todo testTodo = todoRepository.findById(todo.getId()).block();
+        assertThat(testTodo.getTask()).isEqualTo(DEFAULT_TASK);
+        assertThat(testTodo.getVersion()).isEqualTo(todo.getVersion());
+
+        // Validate the Todo in the search index outbox
+        assertThat(findOutboxIds()).isEmpty();
+    }
+
+    @Test
+    void putWithAnyETagTodo() throws Exception {
+        // Initialize the database
+        todoRepository.save(todo).block();
+
+        // Update the todo whatever its version, as explicitly requested
+        Todo updatedTodo = todoRepository.findById(todo.getId()).block();
+        updatedTodo.task(UPDATED_TASK).version(null);
+
+        webTestClient
+            .put()
+            .uri(ENTITY_API_URL_ID, updatedTodo.getId())
+            .header(HttpHeaders.IF_MATCH, "*")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(updatedTodo))
+            .exchange()
+            .expectStatus()
+            .isOk();
+
+        // Validate the Todo in the database
+        Todo testTodo = todoRepository.findById(todo.getId()).block();
+        assertThat(testTodo.getTask()).isEqualTo(UPDATED_TASK);
+        assertThat(testTodo.getVersion()).isEqualTo(todo.getVersion() + 1);
+    }
+
+    @Test
+    void patchWithoutVersionTodo() throws Exception {
+        // Initialize the database
+        todoRepository.save(todo).block();
+
+        // Update the todo using partial update, without its version
+        Todo partialUpdatedTodo = new Todo().id(todo.getId()).task(UPDATED_TASK);
+
+        webTestClient
+            .patch()
+            .uri(ENTITY_API_URL_ID, partialUpdatedTodo.getId())
+            .contentType(MediaType.valueOf("application/merge-patch+json"))
+            .bodyValue(TestUtil.convertObjectToJsonBytes(partialUpdatedTodo))
+            .exchange()
+            .expectStatus()
+            .isEqualTo(HttpStatus.PRECONDITION_REQUIRED);
+
+        // Validate the Todo in the database is unchanged
+        Todo testTodo = todoRepository.findById(todo.getId()).block();
+        assertThat(testTodo.getTask()).isEqualTo(DEFAULT_TASK);
+        assertThat(testTodo.getVersion()).isEqualTo(todo.getVersion());
+    }
+
+    @Test
+    void putWithETagTodo() throws Exception {
+        // Initialize the database
+        todoRepository.save(todo).block();
+
+        // Read the todo with its entity tag
+        String eTag = webTestClient
+            .get()
+            .uri(ENTITY_API_URL_ID, todo.getId())
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .valueEquals(HttpHeaders.ETAG, "\"" + todo.getVersion() + "\"")
+            .returnResult(Todo.class)
+            .getResponseHeaders()
+            .getETag();
+
+        // Update the todo, the new version is returned as entity tag
+        Todo updatedTodo = createUpdatedEntity(em).id(todo.getId());
+        webTestClient
+            .put()
+            .uri(ENTITY_API_URL_ID, todo.getId())
+            .header(HttpHeaders.IF_MATCH, eTag)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(updatedTodo))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .valueEquals(HttpHeaders.ETAG, "\"" + (todo.getVersion() + 1) + "\"");
+
+        // Validate the Todo in the database
+        Todo testTodo = todoRepository.findById(todo.getId()).block();
+        assertThat(testTodo.getTask()).isEqualTo(UPDATED_TASK);
+        assertThat(testTodo.getVersion()).isEqualTo(todo.getVersion() + 1);
     }
 
     @Test
     void putNonExistingTodo() throws Exception {
         int databaseSizeBeforeUpdate = todoRepository.findAll().collectList().block().size();
         todo.setId(count.incrementAndGet());
+        todo.setVersion(0L);
 
-        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        // No row is updated, as the entity doesn't exist
         webTestClient
             .put()
             .uri(ENTITY_API_URL_ID, todo.getId())
@@ -310,14 +694,14 @@ class TodoResourceIT {
             .bodyValue(TestUtil.convertObjectToJsonBytes(todo))
             .exchange()
             .expectStatus()
-            .isBadRequest();
+            .isNotFound();
 
         // Validate the Todo in the database
         List<Todo> todoList = todoRepository.findAll().collectList().block();
         assertThat(todoList).hasSize(databaseSizeBeforeUpdate);
 
-        // Validate the Todo in Elasticsearch
-        verify(mockTodoSearchRepository, times(0)).save(todo);
+        // Validate the Todo in the search index outbox
+        assertThat(findOutboxIds()).isEmpty();
     }
 
     @Test
@@ -339,8 +723,8 @@ class TodoResourceIT {
         List<Todo> todoList = todoRepository.findAll().collectList().block();
         assertThat(todoList).hasSize(databaseSizeBeforeUpdate);
 
-        // Validate the Todo in Elasticsearch
-        verify(mockTodoSearchRepository, times(0)).save(todo);
+        // Validate the Todo in the search index outbox
+        assertThat(findOutboxIds()).isEmpty();
     }
 
     @Test
@@ -362,8 +746,8 @@ class TodoResourceIT {
         List<Todo> todoList = todoRepository.findAll().collectList().block();
         assertThat(todoList).hasSize(databaseSizeBeforeUpdate);
 
-        // Validate the Todo in Elasticsearch
-        verify(mockTodoSearchRepository, times(0)).save(todo);
+        // Validate the Todo in the search index outbox
+        assertThat(findOutboxIds()).isEmpty();
     }
 
     @Test
@@ -376,6 +760,7 @@ class TodoResourceIT {
         // Update the todo using partial update
         Todo partialUpdatedTodo = new Todo();
         partialUpdatedTodo.setId(todo.getId());
+        partialUpdatedTodo.setVersion(todo.getVersion());
 
         partialUpdatedTodo.task(UPDATED_TASK).description(UPDATED_DESCRIPTION);
 
@@ -407,6 +792,7 @@ class TodoResourceIT {
         // Update the todo using partial update
         Todo partialUpdatedTodo = new Todo();
         partialUpdatedTodo.setId(todo.getId());
+        partialUpdatedTodo.setVersion(todo.getVersion());
 
         partialUpdatedTodo.task(UPDATED_TASK).description(UPDATED_DESCRIPTION).completed(UPDATED_COMPLETED);
 
@@ -432,8 +818,9 @@ class TodoResourceIT {
     void patchNonExistingTodo() throws Exception {
         int databaseSizeBeforeUpdate = todoRepository.findAll().collectList().block().size();
         todo.setId(count.incrementAndGet());
+        todo.setVersion(0L);
 
-        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        // No row is updated, as the entity doesn't exist
         webTestClient
             .patch()
             .uri(ENTITY_API_URL_ID, todo.getId())
@@ -441,14 +828,14 @@ class TodoResourceIT {
             .bodyValue(TestUtil.convertObjectToJsonBytes(todo))
             .exchange()
             .expectStatus()
-            .isBadRequest();
+            .isNotFound();
 
         // Validate the Todo in the database
         List<Todo> todoList = todoRepository.findAll().collectList().block();
         assertThat(todoList).hasSize(databaseSizeBeforeUpdate);
 
-        // Validate the Todo in Elasticsearch
-        verify(mockTodoSearchRepository, times(0)).save(todo);
+        // Validate the Todo in the search index outbox
+        assertThat(findOutboxIds()).isEmpty();
     }
 
     @Test
@@ -470,8 +857,8 @@ class TodoResourceIT {
         List<Todo> todoList = todoRepository.findAll().collectList().block();
         assertThat(todoList).hasSize(databaseSizeBeforeUpdate);
 
-        // Validate the Todo in Elasticsearch
-        verify(mockTodoSearchRepository, times(0)).save(todo);
+        // Validate the Todo in the search index outbox
+        assertThat(findOutboxIds()).isEmpty();
     }
 
     @Test
@@ -493,14 +880,12 @@ class TodoResourceIT {
         List<Todo> todoList = todoRepository.findAll().collectList().block();
         assertThat(todoList).hasSize(databaseSizeBeforeUpdate);
 
-        // Validate the Todo in Elasticsearch
-        verify(mockTodoSearchRepository, times(0)).save(todo);
+        // Validate the Todo in the search index outbox
+        assertThat(findOutboxIds()).isEmpty();
     }
 
     @Test
     void deleteTodo() {
-        // Configure the mock search repository
-        when(mockTodoSearchRepository.deleteById(anyLong())).thenReturn(Mono.empty());
         // Initialize the database
         todoRepository.save(todo).block();
 
@@ -519,17 +904,86 @@ class TodoResourceIT {
         List<Todo> todoList = todoRepository.findAll().collectList().block();
         assertThat(todoList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the Todo in Elasticsearch
-        verify(mockTodoSearchRepository, times(1)).deleteById(todo.getId());
+        // Validate the Todo in the search index outbox
+        assertThat(findOutboxIds()).containsExactly(todo.getId().toString());
+    }
+
+    @Test
+    void deleteTodosByIds() {
+        // Initialize the database
+        Todo otherTodo = todoRepository.save(createEntity(em)).block();
+        Todo remainingTodo = todoRepository.save(createEntity(em)).block();
+        todoRepository.save(todo).block();
+
+        int databaseSizeBeforeDelete = todoRepository.findAll().collectList().block().size();
+
+        // Delete the todos
+        webTestClient
+            .delete()
+            .uri(ENTITY_API_URL + "?ids={first},{second}", todo.getId(), otherTodo.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody(Integer.class)
+            .isEqualTo(2);
+
+        // Validate the database contains two less items
+        List<Todo> todoList = todoRepository.findAll().collectList().block();
+        assertThat(todoList).hasSize(databaseSizeBeforeDelete - 2);
+        assertThat(todoList).extracting(Todo::getId).contains(remainingTodo.getId());
+
+        // Validate the Todos in the search index outbox
+        assertThat(findOutboxIds()).containsExactlyInAnyOrder(todo.getId().toString(), otherTodo.getId().toString());
+    }
+
+    @Test
+    void deleteTodosByCriteria() {
+        // Initialize the database
+        Todo completedTodo = todoRepository.save(createUpdatedEntity(em)).block();
+        Todo otherCompletedTodo = todoRepository.save(createUpdatedEntity(em)).block();
+        todoRepository.save(todo).block();
+
+        // Delete the completed todos
+        webTestClient
+            .delete()
+            .uri(ENTITY_API_URL + "?completed=true")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody(Integer.class)
+            .isEqualTo(2);
+
+        // Validate the database only contains the todo which isn't completed
+        List<Todo> todoList = todoRepository.findAll().collectList().block();
+        assertThat(todoList).extracting(Todo::getCompleted).containsOnly(DEFAULT_COMPLETED);
+
+        // Validate the Todos in the search index outbox
+        assertThat(findOutboxIds()).containsExactlyInAnyOrder(completedTodo.getId().toString(), otherCompletedTodo.getId().toString());
+    }
+
+    @Test
+    void deleteTodosWithoutCriteria() {
+        // Initialize the database
+        todoRepository.save(todo).block();
+
+        int databaseSizeBeforeDelete = todoRepository.findAll().collectList().block().size();
+
+        // Deleting all the todos isn't allowed
+        webTestClient.delete().uri(ENTITY_API_URL).accept(MediaType.APPLICATION_JSON).exchange().expectStatus().isBadRequest();
+
+        // Validate the database still contains the todo
+        List<Todo> todoList = todoRepository.findAll().collectList().block();
+        assertThat(todoList).hasSize(databaseSizeBeforeDelete);
     }
 
     @Test
     void searchTodo() {
-        // Configure the mock search repository
-        when(mockTodoSearchRepository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
         // Initialize the database
         todoRepository.save(todo).block();
-        when(mockTodoSearchRepository.search("id:" + todo.getId())).thenReturn(Flux.just(todo));
+        when(mockTodoSearchRepository.search("id:" + todo.getId(), null, null, 21, null)).thenReturn(Flux.just(searchHit(todo, 1.0f)));
+        when(mockTodoSearchRepository.count("id:" + todo.getId(), null, null)).thenReturn(Mono.just(1L));
 
         // Search the todo
         webTestClient
@@ -540,6 +994,10 @@ class TodoResourceIT {
             .isOk()
             .expectHeader()
             .contentType(MediaType.APPLICATION_JSON)
+            .expectHeader()
+            .valueEquals("X-Total-Count", "1")
+            .expectHeader()
+            .doesNotExist("X-Next-Cursor")
             .expectBody()
             .jsonPath("$.[*].id")
             .value(hasItem(todo.getId().intValue()))
@@ -550,4 +1008,185 @@ class TodoResourceIT {
             .jsonPath("$.[*].completed")
             .value(hasItem(DEFAULT_COMPLETED.booleanValue()));
     }
+
+    @Test
+    void searchTodoByPage() {
+        Todo first = new Todo().id(1L).task("first");
+        Todo second = new Todo().id(2L).task("second");
+        Todo third = new Todo().id(3L).task("third");
+        when(mockTodoSearchRepository.count("task", null, null)).thenReturn(Mono.just(3L));
+        when(mockTodoSearchRepository.search("task", null, null, 3, null))
+            .thenReturn(Flux.just(searchHit(first, 2.0f), searchHit(second, 1.0f), searchHit(third, 1.0f)));
+        when(mockTodoSearchRepository.search("task", null, null, 3, List.of(1.0, "2"))).thenReturn(Flux.just(searchHit(third, 1.0f)));
+
+        // the first page holds the cursor of the second page
+        String cursor = webTestClient
+            .get()
+            .uri(ENTITY_SEARCH_API_URL + "?query=task&size=2")
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .valueEquals("X-Total-Count", "3")
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(contains(1, 2))
+            .returnResult()
+            .getResponseHeaders()
+            .getFirst("X-Next-Cursor");
+        assertThat(cursor).isNotNull();
+
+        // the second page is the last page
+        webTestClient
+            .get()
+            .uri(ENTITY_SEARCH_API_URL + "?query=task&size=2&after=" + cursor)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .doesNotExist("X-Next-Cursor")
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(contains(3));
+    }
+
+    @Test
+    void searchTodoWithFilters() {
+        Todo completedTodo = new Todo().id(1L).task("task").completed(true);
+        completedTodo.setCategoryId(2L);
+        when(mockTodoSearchRepository.search(null, true, 2L, 21, null)).thenReturn(Flux.just(searchHit(completedTodo, 0.0f)));
+        when(mockTodoSearchRepository.count(null, true, 2L)).thenReturn(Mono.just(1L));
+
+        webTestClient
+            .get()
+            .uri(ENTITY_SEARCH_API_URL + "?completed=true&categoryId=2")
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .valueEquals("X-Total-Count", "1")
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(contains(1));
+    }
+
+    @Test
+    void searchTodoWithInvalidCursor() {
+        webTestClient.get().uri(ENTITY_SEARCH_API_URL + "?query=task&after=invalid").exchange().expectStatus().isBadRequest();
+        webTestClient.get().uri(ENTITY_SEARCH_API_URL + "?query=task&size=0").exchange().expectStatus().isBadRequest();
+    }
+
+    @Test
+    void searchTodoAsStream() {
+        // a full chunk, then a partial chunk read after the last hit of the full chunk
+        List<SearchHit<Todo>> chunk = LongStream
+            .rangeClosed(1, 500)
+            .mapToObj(id -> searchHit(new Todo().id(id).task("task"), 1.0f))
+            .collect(Collectors.toList());
+        when(mockTodoSearchRepository.search("task", null, null, 500, null)).thenReturn(Flux.fromIterable(chunk));
+        when(mockTodoSearchRepository.search("task", null, null, 500, List.of(1.0f, "500")))
+            .thenReturn(Flux.just(searchHit(new Todo().id(501L).task("task"), 0.5f)));
+
+        List<Todo> todos = webTestClient
+            .get()
+            .uri(ENTITY_SEARCH_API_URL + "?query=task")
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .returnResult(Todo.class)
+            .getResponseBody()
+            .collectList()
+            .block(Duration.ofSeconds(5));
+
+        assertThat(todos).hasSize(501);
+        assertThat(todos.get(500).getId()).isEqualTo(501L);
+    }
+
+    @Test
+    void suggestTodos() {
+        when(mockTodoSearchRepository.suggest("sugg", 10)).thenReturn(Flux.just(new Todo().id(1L).task("Suggested")));
+
+        webTestClient
+            .get()
+            .uri("/api/_suggest/todos?prefix=Sugg")
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[0].id")
+            .isEqualTo(1)
+            .jsonPath("$.[0].task")
+            .isEqualTo("Suggested")
+            .jsonPath("$.[0].completed")
+            .doesNotExist();
+    }
+
+    @Test
+    void getTodoStats() throws Exception {
+        // Initialize the database
+        Category category = em.insert(CategoryResourceIT.createEntity(em)).block();
+        Todo completedTodo = createUpdatedEntity(em);
+        completedTodo.setCategoryId(category.getId());
+        todoRepository.saveAll(List.of(todo, completedTodo, createUpdatedEntity(em))).blockLast();
+
+        // Count the todos in the database
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/stats")
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.total")
+            .isEqualTo(3)
+            .jsonPath("$.completed.true")
+            .isEqualTo(2)
+            .jsonPath("$.completed.false")
+            .isEqualTo(1)
+            .jsonPath("$.categoryId." + category.getId())
+            .isEqualTo(1)
+            .jsonPath("$.categoryId.null")
+            .isEqualTo(2);
+
+        // Create a todo, which clears the cached counts
+        webTestClient
+            .post()
+            .uri(ENTITY_API_URL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(createEntity(em)))
+            .exchange()
+            .expectStatus()
+            .isCreated();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/stats")
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.total")
+            .isEqualTo(4)
+            .jsonPath("$.completed.false")
+            .isEqualTo(2);
+
+        deleteEntities(em);
+        CategoryResourceIT.deleteEntities(em);
+    }
+
+    private static SearchHit<Todo> searchHit(Todo todo, float score) {
+        Object[] sortValues = new Object[] { score, todo.getId().toString() };
+        return new SearchHit<>("todo", todo.getId().toString(), null, score, sortValues, null, null, null, null, null, todo);
+    }
+
+    // the ids of the todo entries of the search index outbox
+    private List<String> findOutboxIds() {
+        return outboxEventRepository
+            .findAll()
+            .filter(event -> event.getAggregateType().equals(Todo.class.getSimpleName()))
+            .map(OutboxEvent::getAggregateId)
+            .collectList()
+            .block();
+    }
 }
@@ -157,6 +157,49 @@ class UserResourceIT {
         assertThat(foundUser.getLangKey()).isEqualTo(DEFAULT_LANGKEY);
     }
 
+    @Test
+    void getAllUsersSortedAndPagedByTheDatabase() {
+        // Initialize the database
+        for (String name : List.of(AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN)) {
+            Authority authority = new Authority();
+            authority.setName(name);
+            authorityRepository.findById(name).switchIfEmpty(em.insert(authority)).block();
+        }
+        for (String login : List.of("carol", "alice", "dave", "bob")) {
+            User pagedUser = createEntity(em);
+            pagedUser.setLogin(login);
+            userRepository.create(pagedUser).block();
+            userRepository.saveUserAuthority(pagedUser.getId(), AuthoritiesConstants.USER).block();
+            if (login.equals("dave")) {
+                userRepository.saveUserAuthority(pagedUser.getId(), AuthoritiesConstants.ADMIN).block();
+            }
+        }
+
+        // Get the second page of the users sorted by login
+        List<AdminUserDTO> foundUsers = webTestClient
+            .get()
+            .uri("/api/admin/users?sort=login,ASC&page=1&size=2")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .valueEquals("X-Total-Count", "4")
+            .returnResult(AdminUserDTO.class)
+            .getResponseBody()
+            .collectList()
+            .block();
+
+        assertThat(foundUsers).extracting(AdminUserDTO::getLogin).containsExactly("carol", "dave");
+        assertThat(foundUsers.get(0).getAuthorities()).containsExactly(AuthoritiesConstants.USER);
+        assertThat(foundUsers.get(1).getAuthorities()).containsExactlyInAnyOrder(AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN);
+    }
+
+    @Test
+    void getAllUsersSortedByAnUnknownProperty() {
+        webTestClient.get().uri("/api/admin/users?sort=password,ASC").exchange().expectStatus().isBadRequest();
+    }
+
     @Test
     void getUser() {
         // Initialize the database